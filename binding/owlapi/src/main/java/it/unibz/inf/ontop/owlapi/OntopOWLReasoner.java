@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.owlapi;
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.owlapi.connection.OntopOWLConnection;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
@@ -11,5 +12,13 @@ public interface OntopOWLReasoner extends OWLReasoner, AutoCloseable {
 
     OntopOWLConnection getConnection() throws ReasonerInternalException;
 
+    /**
+     * First axiom violated during the last consistency check (null if consistent)
+     */
     Object getInconsistentAxiom();
+
+    /**
+     * All the axioms violated during the last consistency check
+     */
+    ImmutableList<Object> getInconsistentAxioms();
 }
@@ -0,0 +1,317 @@
+package it.unibz.inf.ontop.owlapi.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.ExtensionalDataNode;
+import it.unibz.inf.ontop.owlapi.validation.ProbeQueries;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
+import it.unibz.inf.ontop.spec.ontology.*;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.IRI;
+import org.semanticweb.owlapi.model.OWLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Checks the disjointness and functional property axioms against the data.
+ *
+ * Each axiom is checked by a probe (a graph pattern that has a solution if and only if the axiom is violated).
+ * The probes are grouped into batches: a batch is evaluated by a single SELECT query (see ProbeQueries).
+ * The probes are ordered by the relations of the saturated mapping they use, so that the probes using
+ * the same relations are in the same batch. The probes of an entity without definition are not evaluated.
+ * The batches are executed concurrently (asynchronous queries), each on its own connection.
+ *
+ * All the violated axioms are reported, in the order of the axioms.
+ */
+class ConsistencyChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistencyChecker.class);
+
+    private final OntopQueryEngine queryEngine;
+    private final InputQueryFactory inputQueryFactory;
+    private final Mapping saturatedMapping;
+    private final int batchSize;
+    private final int parallelism;
+
+    ConsistencyChecker(OntopQueryEngine queryEngine, InputQueryFactory inputQueryFactory, Mapping saturatedMapping,
+                       int batchSize, int parallelism) {
+        this.queryEngine = queryEngine;
+        this.inputQueryFactory = inputQueryFactory;
+        this.saturatedMapping = saturatedMapping;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the violated axioms (empty if consistent)
+     */
+    ImmutableList<Object> getViolatedAxioms(ClassifiedTBox tbox) throws OWLException {
+        ImmutableList<Probe> allProbes = createProbes(tbox);
+        ImmutableList<Probe> probes = allProbes.stream()
+                .filter(p -> p.relations.isPresent())
+                .sorted(Comparator.comparing(p -> p.relations.get()))
+                .collect(ImmutableCollectors.toList());
+
+        List<List<Probe>> batches = new ArrayList<>();
+        for (int i = 0; i < probes.size(); i += batchSize)
+            batches.add(probes.subList(i, Math.min(i + batchSize, probes.size())));
+
+        log.debug("Consistency check: {} axioms ({} without definition) in {} queries",
+                allProbes.size(), allProbes.size() - probes.size(), batches.size());
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<BatchCheck> checks = new ArrayList<>();
+        try {
+            for (List<Probe> batch : batches) {
+                permits.acquire();
+                BatchCheck check = checkAsync(batch);
+                check.result.whenComplete((r, e) -> permits.release());
+                checks.add(check);
+            }
+
+            List<Probe> violatedProbes = new ArrayList<>();
+            for (BatchCheck check : checks)
+                violatedProbes.addAll(check.result.join());
+            return violatedProbes.stream()
+                    .sorted(Comparator.comparingInt(p -> p.index))
+                    .map(p -> p.axiom)
+                    .collect(ImmutableCollectors.toList());
+        }
+        catch (InterruptedException e) {
+            cancel(checks);
+            Thread.currentThread().interrupt();
+            throw new OWLException(e);
+        }
+        catch (CompletionException e) {
+            cancel(checks);
+            throw new OWLException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the queries, and waits until their statements and connections are closed
+     * (the futures closing them are not cancelled).
+     */
+    private static void cancel(List<BatchCheck> checks) {
+        checks.forEach(c -> c.execution.cancel(true));
+        for (BatchCheck check : checks)
+            check.result.handle((r, e) -> null).join();
+    }
+
+    private BatchCheck checkAsync(List<Probe> batch) {
+        OntopConnection connection = null;
+        try {
+            SelectQuery query = inputQueryFactory.createSelectQuery(createQueryString(batch));
+            connection = queryEngine.getConnection();
+            OntopStatement statement = connection.createStatement();
+            OntopConnection c = connection;
+            CompletableFuture<TupleResultSet> execution = statement.executeAsync(query);
+            return new BatchCheck(execution, execution
+                    .thenApply(rs -> extractViolatedProbes(rs, batch))
+                    .whenComplete((r, e) -> close(statement, c)));
+        }
+        catch (Exception e) {
+            if (connection != null)
+                close(null, connection);
+            CompletableFuture<TupleResultSet> execution = new CompletableFuture<>();
+            execution.completeExceptionally(e);
+            return new BatchCheck(execution, execution.thenApply(rs -> ImmutableList.of()));
+        }
+    }
+
+    private static ImmutableList<Probe> extractViolatedProbes(TupleResultSet resultSet, List<Probe> batch) {
+        try {
+            Set<Integer> violated = new HashSet<>();
+            while (resultSet.hasNext()) {
+                OntopBindingSet bindingSet = resultSet.next();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (bindingSet.hasBinding(ProbeQueries.probeVariable(i)))
+                        violated.add(i);
+                }
+            }
+            return IntStream.range(0, batch.size())
+                    .filter(violated::contains)
+                    .mapToObj(batch::get)
+                    .collect(ImmutableCollectors.toList());
+        }
+        catch (Exception e) {
+            throw new CompletionException(e);
+        }
+        finally {
+            try {
+                resultSet.close();
+            }
+            catch (OntopConnectionException e) {
+                log.warn("Cannot close the result set of a consistency check", e);
+            }
+        }
+    }
+
+    private static void close(OntopStatement statement, OntopConnection connection) {
+        try {
+            if (statement != null)
+                statement.close();
+            connection.close();
+        }
+        catch (Exception e) {
+            log.warn("Cannot close the connection of a consistency check", e);
+        }
+    }
+
+    private static String createQueryString(List<Probe> batch) {
+        return ProbeQueries.createQuery(IntStream.range(0, batch.size())
+                .mapToObj(i -> batch.get(i).pattern.apply(i))
+                .collect(ImmutableCollectors.toList()));
+    }
+
+    private ImmutableList<Probe> createProbes(ClassifiedTBox tbox) {
+        // TODO: handle complex class expressions, role inverses and many pairs of disjoint entities
+        Stream<ProbeTemplate> disjointClasses = tbox.disjointClasses().stream()
+                .map(a -> {
+                    Iterator<ClassExpression> iterator = a.getComponents().iterator();
+                    ClassExpression c1 = iterator.next(), c2 = iterator.next();
+                    return new ProbeTemplate(a, i -> String.format("?x%d a <%s>; a <%s> .", i, c1, c2),
+                            getDefinitions(c1), getDefinitions(c2));
+                });
+
+        Stream<ProbeTemplate> disjointObjectProperties = tbox.disjointObjectProperties().stream()
+                .map(a -> {
+                    Iterator<ObjectPropertyExpression> iterator = a.getComponents().iterator();
+                    ObjectPropertyExpression p1 = iterator.next(), p2 = iterator.next();
+                    return new ProbeTemplate(a, i -> String.format("?x%1$d <%2$s> ?y%1$d; <%3$s> ?y%1$d .", i, p1, p2),
+                            getPropertyDefinitions(p1.getIRI()), getPropertyDefinitions(p2.getIRI()));
+                });
+
+        Stream<ProbeTemplate> disjointDataProperties = tbox.disjointDataProperties().stream()
+                .map(a -> {
+                    Iterator<DataPropertyExpression> iterator = a.getComponents().iterator();
+                    DataPropertyExpression p1 = iterator.next(), p2 = iterator.next();
+                    return new ProbeTemplate(a, i -> String.format("?x%1$d <%2$s> ?y%1$d; <%3$s> ?y%1$d .", i, p1, p2),
+                            getPropertyDefinitions(p1.getIRI()), getPropertyDefinitions(p2.getIRI()));
+                });
+
+        Stream<ProbeTemplate> functionalObjectProperties = tbox.functionalObjectProperties().stream()
+                .map(p -> new ProbeTemplate(p, functionalPropertyPattern(p.getIRI().getIRIString()),
+                        getPropertyDefinitions(p.getIRI())));
+
+        Stream<ProbeTemplate> functionalDataProperties = tbox.functionalDataProperties().stream()
+                .map(p -> new ProbeTemplate(p, functionalPropertyPattern(p.getIRI().getIRIString()),
+                        getPropertyDefinitions(p.getIRI())));
+
+        ImmutableList<ProbeTemplate> templates = Stream.of(disjointClasses, disjointObjectProperties,
+                disjointDataProperties, functionalObjectProperties, functionalDataProperties)
+                .flatMap(s -> s)
+                .collect(ImmutableCollectors.toList());
+
+        return IntStream.range(0, templates.size())
+                .mapToObj(i -> templates.get(i).createProbe(i))
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private static IntFunction<String> functionalPropertyPattern(String property) {
+        return i -> String.format("?x%1$d <%2$s> ?y%1$d; <%2$s> ?z%1$d . FILTER (?z%1$d != ?y%1$d)", i, property);
+    }
+
+    private ImmutableList<IQ> getDefinitions(ClassExpression ce) {
+        if (ce instanceof OClass)
+            return saturatedMapping.getRDFAtomPredicates().stream()
+                    .map(p -> saturatedMapping.getRDFClassDefinition(p, ((OClass) ce).getIRI()))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(ImmutableCollectors.toList());
+        if (ce instanceof ObjectSomeValuesFrom)
+            return getPropertyDefinitions(((ObjectSomeValuesFrom) ce).getProperty().getIRI());
+        if (ce instanceof DataSomeValuesFrom)
+            return getPropertyDefinitions(((DataSomeValuesFrom) ce).getProperty().getIRI());
+        throw new MinorOntopInternalBugException("Unexpected class expression " + ce);
+    }
+
+    private ImmutableList<IQ> getPropertyDefinitions(IRI propertyIRI) {
+        return saturatedMapping.getRDFAtomPredicates().stream()
+                .map(p -> saturatedMapping.getRDFPropertyDefinition(p, propertyIRI))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private static Stream<String> getRelationNames(IQTree tree) {
+        return (tree.getRootNode() instanceof ExtensionalDataNode)
+                ? Stream.of(((ExtensionalDataNode) tree.getRootNode()).getProjectionAtom().getPredicate().getName())
+                : tree.getChildren().stream().flatMap(ConsistencyChecker::getRelationNames);
+    }
+
+    private static final class ProbeTemplate {
+        private final Object axiom;
+        private final IntFunction<String> pattern;
+        // the definitions of each entity of the pattern
+        private final ImmutableList<ImmutableList<IQ>> definitions;
+
+        @SafeVarargs
+        ProbeTemplate(Object axiom, IntFunction<String> pattern, ImmutableList<IQ>... definitions) {
+            this.axiom = axiom;
+            this.pattern = pattern;
+            this.definitions = ImmutableList.copyOf(definitions);
+        }
+
+        Probe createProbe(int index) {
+            // no solution if an entity has no definition
+            Optional<String> relations = definitions.stream().allMatch(d -> !d.isEmpty())
+                    ? Optional.of(definitions.stream()
+                            .flatMap(Collection::stream)
+                            .flatMap(d -> getRelationNames(d.getTree()))
+                            .distinct()
+                            .sorted()
+                            .collect(Collectors.joining(" ")))
+                    : Optional.empty();
+            return new Probe(index, axiom, pattern, relations);
+        }
+    }
+
+    private static final class Probe {
+        // position of the axiom
+        private final int index;
+        private final Object axiom;
+        // the pattern of the i-th probe of a batch uses the variables suffixed with i
+        private final IntFunction<String> pattern;
+        // the names of the relations used by the definitions of the entities, empty if the pattern has no solution
+        private final Optional<String> relations;
+
+        Probe(int index, Object axiom, IntFunction<String> pattern, Optional<String> relations) {
+            this.index = index;
+            this.axiom = axiom;
+            this.pattern = pattern;
+            this.relations = relations;
+        }
+    }
+
+    private static final class BatchCheck {
+        // cancelling it cancels the query
+        private final CompletableFuture<TupleResultSet> execution;
+        // completes once the statement and the connection are closed
+        private final CompletableFuture<ImmutableList<Probe>> result;
+
+        BatchCheck(CompletableFuture<TupleResultSet> execution, CompletableFuture<ImmutableList<Probe>> result) {
+            this.execution = execution;
+            this.result = result;
+        }
+    }
+}
@@ -20,19 +20,20 @@ package it.unibz.inf.ontop.owlapi.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.answering.OntopQueryEngine;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
-import it.unibz.inf.ontop.answering.connection.OntopStatement;
-import it.unibz.inf.ontop.answering.reformulation.input.AskQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
-import it.unibz.inf.ontop.answering.resultset.BooleanResultSet;
 import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.exception.OBDASpecificationException;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.injection.OntopSystemFactory;
 import it.unibz.inf.ontop.injection.OntopSystemOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.owlapi.OntopOWLReasoner;
 import it.unibz.inf.ontop.owlapi.connection.OntopOWLConnection;
 import it.unibz.inf.ontop.owlapi.connection.impl.DefaultOntopOWLConnection;
+import it.unibz.inf.ontop.spec.OBDASpecification;
 import it.unibz.inf.ontop.spec.ontology.*;
 import it.unibz.inf.ontop.spec.ontology.owlapi.OWLAPITranslatorOWL2QL;
 import it.unibz.inf.ontop.utils.VersionInfo;
@@ -46,8 +47,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.Set;
 
 /**
@@ -68,6 +67,7 @@ public class QuestOWL extends OWLReasonerBase implements OntopOWLReasoner {
 	private boolean questready = false;
 	
 	private Object inconsistent = null;
+	private ImmutableList<Object> inconsistentAxioms = ImmutableList.of();
 
 	private Exception questException = null;
 
@@ -105,6 +105,7 @@ public class QuestOWL extends OWLReasonerBase implements OntopOWLReasoner {
 	private final OntopQueryEngine queryEngine;
 	private final InputQueryFactory inputQueryFactory;
 	private final OWLAPITranslatorOWL2QL owlapiTranslator;
+	private final ConsistencyChecker consistencyChecker;
 
 	/* Used to signal whether to apply the user constraints above */
 	//private boolean applyExcludeFromTMappings = false;
@@ -130,17 +131,26 @@ public class QuestOWL extends OWLReasonerBase implements OntopOWLReasoner {
 
         this.structuralReasoner = new StructuralReasoner(rootOntology, owlConfiguration, BufferingMode.BUFFERING);
 
+		OBDASpecification obdaSpecification;
 		try {
-			queryEngine = ontopConfiguration.loadQueryEngine();
+			obdaSpecification = ontopConfiguration.loadSpecification();
 			/*
 			 * Mapping parsing exceptions are re-thrown as configuration exceptions.
 			 */
 		} catch (OBDASpecificationException e) {
 			throw new IllegalConfigurationException(e, owlConfiguration);
 		}
+		// Same as loadQueryEngine(), the saturated mapping is also used by the consistency checker
+		queryEngine = ontopConfiguration.getInjector().getInstance(OntopSystemFactory.class)
+				.create(obdaSpecification, ontopConfiguration.getExecutorRegistry());
 
 		inputQueryFactory = ontopConfiguration.getInputQueryFactory();
 
+		OntopSystemSettings settings = ontopConfiguration.getSettings();
+		consistencyChecker = new ConsistencyChecker(queryEngine, inputQueryFactory,
+				obdaSpecification.getSaturatedMapping(),
+				settings.getConsistencyCheckBatchSize(), settings.getConsistencyCheckParallelism());
+
 		pm = owlConfiguration.getProgressMonitor();
 
 		version = extractVersion();
@@ -371,7 +381,9 @@ public class QuestOWL extends OWLReasonerBase implements OntopOWLReasoner {
 	@Override
     public boolean isConsistent() throws ReasonerInterruptedException, TimeOutException {
 		try {
-			return isDisjointAxiomsConsistent() && isFunctionalPropertyAxiomsConsistent();
+			inconsistentAxioms = consistencyChecker.getViolatedAxioms(translatedOntologyMerge);
+			inconsistent = inconsistentAxioms.isEmpty() ? null : inconsistentAxioms.get(0);
+			return inconsistentAxioms.isEmpty();
 		} catch (OWLException e) {
 			throw new ReasonerInterruptedException(e);
 		}
@@ -382,121 +394,10 @@ public class QuestOWL extends OWLReasonerBase implements OntopOWLReasoner {
 	public Object getInconsistentAxiom() {
 		return inconsistent;
 	}
-	
-	private boolean isDisjointAxiomsConsistent() throws ReasonerInterruptedException, TimeOutException, OWLException {
-
-		//deal with disjoint classes
-		{
-			final String strQueryClass = "ASK {?x a <%s>; a <%s> }";
-			
-			for (NaryAxiom<ClassExpression> dda : translatedOntologyMerge.disjointClasses()) {
-				// TODO: handle complex class expressions and many pairs of disjoint classes
-				Collection<ClassExpression> disj = dda.getComponents();
-				Iterator<ClassExpression> classIterator = disj.iterator();
-				ClassExpression s1 = classIterator.next();
-				ClassExpression s2 = classIterator.next();
-				String strQuery = String.format(strQueryClass, s1, s2);
-				
-				boolean isConsistent = executeConsistencyQuery(strQuery);
-				if (!isConsistent) {
-					inconsistent = dda;
-					return false;
-				}
-			}
-		}
-		
-		//deal with disjoint properties
-		{
-			final String strQueryProp = "ASK {?x <%s> ?y; <%s> ?y }";
-
-			for(NaryAxiom<ObjectPropertyExpression> dda
-						: translatedOntologyMerge.disjointObjectProperties()) {
-				// TODO: handle role inverses and multiple arguments			
-				Collection<ObjectPropertyExpression> props = dda.getComponents();
-				Iterator<ObjectPropertyExpression> iterator = props.iterator();
-				ObjectPropertyExpression p1 = iterator.next();
-				ObjectPropertyExpression p2 = iterator.next();
-				String strQuery = String.format(strQueryProp, p1, p2);
-				
-				boolean isConsistent = executeConsistencyQuery(strQuery);
-				if (!isConsistent) {
-					inconsistent = dda;
-					return false;
-				}
-			}
-		}
-		
-		{
-			final String strQueryProp = "ASK {?x <%s> ?y; <%s> ?y }";
-
-			for(NaryAxiom<DataPropertyExpression> dda
-						: translatedOntologyMerge.disjointDataProperties()) {
-				// TODO: handle role inverses and multiple arguments			
-				Collection<DataPropertyExpression> props = dda.getComponents();
-				Iterator<DataPropertyExpression> iterator = props.iterator();
-				DataPropertyExpression p1 = iterator.next();
-				DataPropertyExpression p2 = iterator.next();
-				String strQuery = String.format(strQueryProp, p1, p2);
-				
-				boolean isConsistent = executeConsistencyQuery(strQuery);
-				if (!isConsistent) {
-					inconsistent = dda;
-					return false;
-				}
-			}
-		}
-		
-		return true;
-	}
-	
-	private boolean isFunctionalPropertyAxiomsConsistent() throws ReasonerInterruptedException, TimeOutException, OWLException {
-		
-		//deal with functional properties
 
-		final String strQueryFunc = "ASK { ?x <%s> ?y; <%s> ?z. FILTER (?z != ?y) }";
-		
-		for (ObjectPropertyExpression pfa : translatedOntologyMerge.functionalObjectProperties()) {
-			// TODO: handle inverses
-			String propFunc = pfa.getIRI().getIRIString();
-			String strQuery = String.format(strQueryFunc, propFunc, propFunc);
-			
-			boolean isConsistent = executeConsistencyQuery(strQuery);
-			if (!isConsistent) {
-				inconsistent = pfa;
-				return false;
-			}
-		}
-		
-		for (DataPropertyExpression pfa : translatedOntologyMerge.functionalDataProperties()) {
-			String propFunc = pfa.getIRI().getIRIString();
-			String strQuery = String.format(strQueryFunc, propFunc, propFunc);
-			
-			boolean isConsistent = executeConsistencyQuery(strQuery);
-			if (!isConsistent) {
-				inconsistent = pfa;
-				return false;
-			}
-		}
-		
-		return true;
-	}
-	
-	private boolean executeConsistencyQuery(String strQuery) throws OWLException {
-		try (OntopConnection connection = queryEngine.getConnection();
-			 OntopStatement st = connection.createStatement()) {
-
-			AskQuery query = inputQueryFactory.createAskQuery(strQuery);
-			BooleanResultSet trs = st.execute(query);
-			if (trs != null) {
-				boolean b = trs.getValue();
-				trs.close();
-				if (b)
-					return false;
-			}
-			return true;
-		} catch (Exception e) {
-			throw new OWLException(e);
-		}
+	@Override
+	public ImmutableList<Object> getInconsistentAxioms() {
+		return inconsistentAxioms;
 	}
 
 	@Override
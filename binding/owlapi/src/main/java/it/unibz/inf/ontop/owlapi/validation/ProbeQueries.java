@@ -0,0 +1,31 @@
+package it.unibz.inf.ontop.owlapi.validation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * SELECT query checking several graph patterns (probes) at once: the UNION of one sub-query with LIMIT 1
+ * per probe, the i-th sub-query projecting the variable probeVariable(i).
+ *
+ * A probe has a solution if and only if its variable is bound in one of the results.
+ */
+public class ProbeQueries {
+
+    private ProbeQueries() {
+    }
+
+    /**
+     * @param patterns the graph pattern of the i-th probe uses the variable probeVariable(i),
+     *                 and its other variables are not used by the other probes
+     */
+    public static String createQuery(List<String> patterns) {
+        return IntStream.range(0, patterns.size())
+                .mapToObj(i -> "{ SELECT ?" + probeVariable(i) + " WHERE { " + patterns.get(i) + " } LIMIT 1 }")
+                .collect(Collectors.joining("\nUNION\n", "SELECT * WHERE {\n", "\n}"));
+    }
+
+    public static String probeVariable(int i) {
+        return "x" + i;
+    }
+}
@@ -20,239 +20,279 @@ package it.unibz.inf.ontop.owlapi.validation;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.owlapi.connection.OWLConnection;
 import it.unibz.inf.ontop.owlapi.connection.OWLStatement;
+import it.unibz.inf.ontop.owlapi.resultset.OWLBindingSet;
 import it.unibz.inf.ontop.owlapi.resultset.TupleOWLResultSet;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
 import it.unibz.inf.ontop.spec.ontology.*;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.apache.commons.rdf.api.IRI;
 import org.semanticweb.owlapi.model.OWLException;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Return empty concepts and roles, based on the mappings. Given an ontology,
  * which is connected to a database via mappings, generate a suitable set of
  * queries that test if there are empty concepts, concepts that are no populated
  * to anything.
+ *
+ * If the saturated mapping is given, the entities without definition are known to be empty
+ * without querying. The other entities are checked by batches of ontop.emptyEntitiesCheck.batchSize
+ * entities, one query per batch (see ProbeQueries). At most ontop.emptyEntitiesCheck.parallelism batches
+ * are evaluated concurrently, each by its own statement of the connection.
+ *
+ * The empty entities are computed once, and then cached.
  */
 public class QuestOWLEmptyEntitiesChecker {
 
+	private static final Logger log = LoggerFactory.getLogger(QuestOWLEmptyEntitiesChecker.class);
+
+	// Same as ontop.emptyEntitiesCheck.batchSize and ontop.emptyEntitiesCheck.parallelism by default
+	private static final int DEFAULT_BATCH_SIZE = 50;
+	private static final int DEFAULT_PARALLELISM = 0;
+
+	private static final String CONCEPT_PATTERN = "?x%1$d a <%2$s> .";
+	private static final String ROLE_PATTERN = "?x%1$d <%2$s> ?y%1$d .";
+
 	private final ClassifiedTBox onto;
 	private final OWLConnection conn;
+	private final Optional<Mapping> saturatedMapping;
+	private final int batchSize;
+	private final int parallelism;
 
-	private int nEmptyConcepts = 0;
-	private int nEmptyRoles = 0;
+	// Lazy
+	private ImmutableList<IRI> emptyConcepts;
+	private ImmutableList<IRI> emptyRoles;
 
 	/**
 	 * Generate SPARQL queries to check if there are instances for each concept and role in the ontology
 	 *
 	 * @param tbox the ontology, conn QuestOWL connection
-	 * @throws Exception
 	 */
 	public QuestOWLEmptyEntitiesChecker(ClassifiedTBox tbox, OWLConnection conn)	 {
-		this.onto = tbox;
-		this.conn = conn;
+		this(tbox, conn, Optional.empty(), DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
 	}
 
-	public Iterator<IRI> iEmptyConcepts() {
-		return new EmptyEntitiesIterator(onto.classes().iterator(), conn);
+	/**
+	 * @param settings settings of the OBDA system queried by the connection
+	 */
+	public QuestOWLEmptyEntitiesChecker(ClassifiedTBox tbox, OWLConnection conn, OntopSystemSettings settings)	 {
+		this(tbox, conn, Optional.empty(), settings.getEmptyEntitiesCheckBatchSize(),
+				settings.getEmptyEntitiesCheckParallelism());
 	}
 
-	public Iterator<IRI> iEmptyRoles() {
-		return new EmptyEntitiesIterator(onto.objectProperties().iterator(), onto.dataProperties().iterator(), conn);
+	/**
+	 * @param saturatedMapping the saturated mapping of the OBDA specification queried by the connection
+	 */
+	public QuestOWLEmptyEntitiesChecker(ClassifiedTBox tbox, OWLConnection conn, Mapping saturatedMapping,
+										OntopSystemSettings settings)	 {
+		this(tbox, conn, Optional.of(saturatedMapping), settings.getEmptyEntitiesCheckBatchSize(),
+				settings.getEmptyEntitiesCheckParallelism());
 	}
 
-	public int getEConceptsSize() {
-		return nEmptyConcepts;
+	private QuestOWLEmptyEntitiesChecker(ClassifiedTBox tbox, OWLConnection conn, Optional<Mapping> saturatedMapping,
+										 int batchSize, int parallelism) {
+		this.onto = tbox;
+		this.conn = conn;
+		this.saturatedMapping = saturatedMapping;
+		this.batchSize = Math.max(1, batchSize);
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
 	}
 
-	public int getERolesSize() {
-		return  nEmptyRoles ;
+	public Iterator<IRI> iEmptyConcepts() throws OWLException {
+		return getEmptyConcepts().iterator();
 	}
 
-
-	@Override
-	public String toString() {
-		String str = new String();
-
-		str += String.format("- %s Empty %s ", nEmptyConcepts, (nEmptyConcepts == 1) ? "concept" : "concepts");
-
-		str += String.format("- %s Empty %s\n", nEmptyRoles, (nEmptyRoles == 1) ? "role" : "roles");
-		return str;
+	public Iterator<IRI> iEmptyRoles() throws OWLException {
+		return getEmptyRoles().iterator();
 	}
 
+	public int getEConceptsSize() throws OWLException {
+		return getEmptyConcepts().size();
+	}
 
-	/***
-	 * An iterator that will dynamically construct ABox assertions for the given
-	 * predicate based on the results of executing the mappings for the
-	 * predicate in each data source.
-	 *
-	 */
-	private class EmptyEntitiesIterator implements Iterator<IRI> {
-
-
-		private static final String queryConcepts = "SELECT ?x WHERE {?x a <%s>.} LIMIT 1";
-		private static final String queryRoles = "SELECT * WHERE {?x <%s> ?y.} LIMIT 1";
-
-		private final OWLConnection questConn;
-
-		private boolean hasNext = false;
-		private IRI nextConcept;
-
-		private final Iterator<OClass> classIterator;
-		private final Iterator<ObjectPropertyExpression> objectRoleIterator;
-		private final Iterator<DataPropertyExpression> dataRoleIterator;
-
-		private Logger log = LoggerFactory.getLogger(EmptyEntitiesIterator.class);
-
-		/** iterator for classes  of the ontologies */
-		public EmptyEntitiesIterator(Iterator<OClass> classIterator, OWLConnection questConn) {
-
-			this.questConn = questConn;
-
-			this.classIterator = classIterator;
-
-			this.objectRoleIterator = new Iterator<ObjectPropertyExpression>() {
-				@Override
-				public boolean hasNext() {
-					return false;
-				}
-
-				@Override
-				public ObjectPropertyExpression next() {
-					return null;
-				}
-			};
-
-			this.dataRoleIterator = new Iterator<DataPropertyExpression>() {
-				@Override
-				public boolean hasNext() {
-					return false;
-				}
+	public int getERolesSize() throws OWLException {
+		return getEmptyRoles().size();
+	}
 
-				@Override
-				public DataPropertyExpression next() {
-					return null;
-				}
-			};
+	private synchronized ImmutableList<IRI> getEmptyConcepts() throws OWLException {
+		if (emptyConcepts == null) {
+			emptyConcepts = computeEmptyEntities(
+					StreamSupport.stream(onto.classes().spliterator(), false)
+							.filter(c -> !c.isTop() && !c.isBottom())
+							.map(OClass::getIRI)
+							.collect(ImmutableCollectors.toList()),
+					CONCEPT_PATTERN,
+					this::isClassDefined);
+			log.debug("Empty concepts: {}", emptyConcepts);
 		}
+		return emptyConcepts;
+	}
 
-		/** iterator for roles of the ontologies */
-		public EmptyEntitiesIterator(Iterator<ObjectPropertyExpression> objectRoleIterator, Iterator<DataPropertyExpression> dataRoleIterator, OWLConnection questConn) {
-
-			this.questConn = questConn;
-
-			this.classIterator = new Iterator<OClass>() {
-				@Override
-				public boolean hasNext() {
-					return false;
-				}
+	private synchronized ImmutableList<IRI> getEmptyRoles() throws OWLException {
+		if (emptyRoles == null) {
+			emptyRoles = computeEmptyEntities(
+					Stream.concat(
+							StreamSupport.stream(onto.objectProperties().spliterator(), false)
+									.filter(p -> !p.isTop() && !p.isBottom())
+									.map(ObjectPropertyExpression::getIRI),
+							StreamSupport.stream(onto.dataProperties().spliterator(), false)
+									.filter(p -> !p.isTop() && !p.isBottom())
+									.map(DataPropertyExpression::getIRI))
+							.collect(ImmutableCollectors.toList()),
+					ROLE_PATTERN,
+					this::isPropertyDefined);
+			log.debug("Empty roles: {}", emptyRoles);
+		}
+		return emptyRoles;
+	}
 
-				@Override
-				public OClass next() {
-					return null;
-				}
-			};
+	private boolean isClassDefined(IRI iri) {
+		return saturatedMapping
+				.map(m -> m.getRDFAtomPredicates().stream()
+						.anyMatch(p -> m.getRDFClassDefinition(p, iri).isPresent()))
+				.orElse(true);
+	}
 
-			this.objectRoleIterator = objectRoleIterator;
-			this.dataRoleIterator = dataRoleIterator;
-		}
+	private boolean isPropertyDefined(IRI iri) {
+		return saturatedMapping
+				.map(m -> m.getRDFAtomPredicates().stream()
+						.anyMatch(p -> m.getRDFPropertyDefinition(p, iri).isPresent()))
+				.orElse(true);
+	}
 
-		private String getPredicateQuery(IRI p) {
-			return String.format(queryRoles, p.getIRIString()); }
-
-		private String getClassQuery(IRI p) {
-			return String.format(queryConcepts, p.getIRIString()); }
-
-		private String getQuery(int arity, IRI iri)
-		{
-			switch(arity) {
-				case 1:
-					return getClassQuery(iri);
-				case 2:
-					return getPredicateQuery(iri);
-				default:
-					return "";
+	/**
+	 * Preserves the order of the entities
+	 *
+	 * @throws OWLException if a query fails (the other queries are then cancelled)
+	 * @throws ReasonerInterruptedException if interrupted (and the interrupted status is kept)
+	 */
+	private ImmutableList<IRI> computeEmptyEntities(ImmutableList<IRI> entities, String pattern,
+													 Predicate<IRI> isDefined) throws OWLException {
+		ImmutableList<IRI> definedEntities = entities.stream()
+				.filter(isDefined)
+				.collect(ImmutableCollectors.toList());
+
+		List<List<IRI>> batches = new ArrayList<>();
+		for (int i = 0; i < definedEntities.size(); i += batchSize)
+			batches.add(definedEntities.subList(i, Math.min(i + batchSize, definedEntities.size())));
+
+		Set<IRI> nonEmptyEntities = new HashSet<>();
+		if (!batches.isEmpty()) {
+			ExecutorService executor = Executors.newFixedThreadPool(
+					Math.min(batches.size(), parallelism),
+					new ThreadFactoryBuilder()
+							.setNameFormat("ontop-empty-entities-%d")
+							.setDaemon(true)
+							.build());
+			Set<OWLStatement> statements = ConcurrentHashMap.newKeySet();
+			try {
+				List<Future<Set<IRI>>> futures = batches.stream()
+						.map(b -> executor.submit(() -> getNonEmptyEntities(b, pattern, statements)))
+						.collect(Collectors.toList());
+				for (Future<Set<IRI>> future : futures)
+					nonEmptyEntities.addAll(future.get());
 			}
-		}
-
-		@Override
-		public boolean hasNext() {
-			while (classIterator.hasNext()){
-				OClass next = classIterator.next();
-				if (!next.isTop() && !next.isBottom()) {
-					if (nextEmptyEntity(next.getIRI(), 1)) {
-						nEmptyConcepts++;
-						return hasNext;
-					}
-				}
+			catch (InterruptedException e) {
+				cancel(statements);
+				Thread.currentThread().interrupt();
+				throw new ReasonerInterruptedException("Interrupted while checking the empty entities");
 			}
-			log.debug( "No more empty concepts" );
-
-			while (objectRoleIterator.hasNext()){
-				ObjectPropertyExpression next = objectRoleIterator.next();
-				if (!next.isTop() && !next.isBottom()) {
-					if (nextEmptyEntity(next.getIRI(), 2)) {
-						nEmptyRoles++;
-						return hasNext;
-					}
-				}
+			catch (ExecutionException e) {
+				cancel(statements);
+				if (e.getCause() instanceof OWLException)
+					throw (OWLException) e.getCause();
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new OWLRuntimeException(e.getCause());
 			}
-			log.debug( "No more empty object roles" );
-
-			while (dataRoleIterator.hasNext()){
-				DataPropertyExpression next = dataRoleIterator.next();
-				if (!next.isTop() && !next.isBottom()) {
-					if (nextEmptyEntity(next.getIRI(), 2)) {
-						nEmptyRoles++;
-						return hasNext;
-					}
-				}
+			finally {
+				executor.shutdownNow();
 			}
-			log.debug( "No more empty data roles" );
-			hasNext = false;
-
-			return hasNext;
 		}
 
-		private boolean nextEmptyEntity(IRI entity, int arity) {
-
-			String query =getQuery(arity, entity);
-
-			//execute next query
-			try (OWLStatement stm = questConn.createStatement()){
-				try (TupleOWLResultSet rs = stm.executeSelectQuery(query)) {
-					if (!rs.hasNext()) {
-						nextConcept = entity;
-						log.debug( "Empty " + entity );
+		return entities.stream()
+				.filter(e -> !nonEmptyEntities.contains(e))
+				.collect(ImmutableCollectors.toList());
+	}
 
-						hasNext = true;
-						return true;
+	/**
+	 * The statement is registered in the running statements while the query is evaluated
+	 */
+	private Set<IRI> getNonEmptyEntities(List<IRI> batch, String pattern, Set<OWLStatement> runningStatements)
+			throws OWLException {
+		String query = ProbeQueries.createQuery(IntStream.range(0, batch.size())
+				.mapToObj(i -> String.format(pattern, i, batch.get(i).getIRIString()))
+				.collect(ImmutableCollectors.toList()));
+
+		Set<IRI> nonEmptyEntities = new HashSet<>();
+		try (OWLStatement stm = conn.createStatement()) {
+			runningStatements.add(stm);
+			try (TupleOWLResultSet rs = stm.executeSelectQuery(query)) {
+				while (rs.hasNext()) {
+					OWLBindingSet bindingSet = rs.next();
+					for (int i = 0; i < batch.size(); i++) {
+						if (bindingSet.getBinding(ProbeQueries.probeVariable(i)) != null)
+							nonEmptyEntities.add(batch.get(i));
 					}
-
-					return false;
 				}
 			}
-			catch (OWLException e) {
-				e.printStackTrace();
+			finally {
+				runningStatements.remove(stm);
 			}
-			return false;
 		}
+		return nonEmptyEntities;
+	}
 
-		@Override
-		public IRI next() {
-			if (hasNext) {
-				return nextConcept;
+	private static void cancel(Set<OWLStatement> statements) {
+		for (OWLStatement statement : statements) {
+			try {
+				statement.cancel();
+			}
+			catch (OWLException e) {
+				log.warn("Cannot cancel an empty entity check", e);
 			}
-			return null;
 		}
+	}
 
-		@Override
-		public void remove() {
-			throw new UnsupportedOperationException();
+	/**
+	 * @throws OWLRuntimeException if the empty entities cannot be computed
+	 */
+	@Override
+	public String toString() {
+		try {
+			return toSummary();
+		}
+		catch (OWLException e) {
+			throw new OWLRuntimeException(e);
 		}
 	}
-}
 
+	private String toSummary() throws OWLException {
+		String str = new String();
+
+		str += String.format("- %s Empty %s ", getEConceptsSize(), (getEConceptsSize() == 1) ? "concept" : "concepts");
+
+		str += String.format("- %s Empty %s\n", getERolesSize(), (getERolesSize() == 1) ? "role" : "roles");
+		return str;
+	}
+}
@@ -22,6 +22,8 @@ package it.unibz.inf.ontop.owlapi;
 
 import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
 import it.unibz.inf.ontop.owlapi.connection.OWLConnection;
+import it.unibz.inf.ontop.owlapi.connection.OWLStatement;
+import it.unibz.inf.ontop.owlapi.exception.OntopOWLException;
 import it.unibz.inf.ontop.owlapi.validation.QuestOWLEmptyEntitiesChecker;
 import it.unibz.inf.ontop.spec.ontology.ClassifiedTBox;
 import org.apache.commons.rdf.api.IRI;
@@ -34,6 +36,9 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -43,6 +48,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Use the class EmptiesAboxCheck to test the return of empty concepts and
@@ -70,6 +76,7 @@ public class QuestOWLEmptyEntitiesCheckerTest {
 	private List<IRI> emptyRoles = new ArrayList<>();
 
 	private OntopOWLReasoner reasoner;
+	private OntopSQLOWLAPIConfiguration config;
 
 	@Before
 	public void setUp() throws Exception {
@@ -99,7 +106,7 @@ public class QuestOWLEmptyEntitiesCheckerTest {
 
 		// Creating a new instance of the reasoner
 		OntopOWLFactory factory = OntopOWLFactory.defaultFactory();
-        OntopSQLOWLAPIConfiguration config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+        config = OntopSQLOWLAPIConfiguration.defaultBuilder()
 				.nativeOntopMappingFile(obdafile)
 				.ontologyFile(owlfile)
 				.jdbcUrl(url)
@@ -141,7 +148,7 @@ public class QuestOWLEmptyEntitiesCheckerTest {
 	 * Test numbers of empty concepts
 	 */
 	@Test
-	public void testEmptyConcepts() {
+	public void testEmptyConcepts() throws Exception {
 
 		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn);
 		Iterator<IRI> iterator = empties.iEmptyConcepts();
@@ -158,8 +165,8 @@ public class QuestOWLEmptyEntitiesCheckerTest {
 	 * Test numbers of empty roles
 	 */
 	@Test
-	public void testEmptyRoles() {
-		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn);
+	public void testEmptyRoles() throws Exception {
+		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn, config.getSettings());
 		Iterator<IRI> iterator = empties.iEmptyRoles();
 		while (iterator.hasNext()){
 			emptyRoles.add(iterator.next());
@@ -169,4 +176,86 @@ public class QuestOWLEmptyEntitiesCheckerTest {
 		assertEquals(2, emptyRoles.size());
 		assertEquals(2, empties.getERolesSize());
 	}
+
+	/**
+	 * Same results when the entities without mapping definition are detected statically
+	 */
+	@Test
+	public void testEmptyEntitiesWithSaturatedMapping() throws Exception {
+		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn,
+				config.loadSpecification().getSaturatedMapping(), config.getSettings());
+
+		log.info(empties.toString());
+		assertEquals(1, empties.getEConceptsSize());
+		assertEquals(2, empties.getERolesSize());
+	}
+
+	/**
+	 * The entities without mapping definition are not queried
+	 */
+	@Test
+	public void testUndefinedEntitiesNotQueried() throws Exception {
+		List<String> queries = new ArrayList<>();
+		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, recordQueries(conn, queries),
+				config.getSettings());
+		assertEquals(1, empties.getEConceptsSize());
+		assertEquals(2, empties.getERolesSize());
+		int allProbes = countProbes(queries);
+
+		queries.clear();
+		QuestOWLEmptyEntitiesChecker staticEmpties = new QuestOWLEmptyEntitiesChecker(onto,
+				recordQueries(conn, queries), config.loadSpecification().getSaturatedMapping(), config.getSettings());
+		assertEquals(1, staticEmpties.getEConceptsSize());
+		assertEquals(2, staticEmpties.getERolesSize());
+
+		log.info("Probes: {} without the mapping, {} with the mapping", allProbes, countProbes(queries));
+		assertTrue(countProbes(queries) < allProbes);
+	}
+
+	/**
+	 * The failure of a query is reported, instead of the entities of its batch being considered as non-empty
+	 */
+	@Test(expected = OntopOWLException.class)
+	public void testQueryFailure() throws Exception {
+		OWLConnection failingConnection = (OWLConnection) Proxy.newProxyInstance(
+				QuestOWLEmptyEntitiesCheckerTest.class.getClassLoader(), new Class<?>[] { OWLConnection.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("createStatement"))
+						throw new OntopOWLException("Cannot create a statement");
+					return invoke(conn, method, args);
+				});
+		new QuestOWLEmptyEntitiesChecker(onto, failingConnection, config.getSettings()).getEConceptsSize();
+	}
+
+	private static int countProbes(List<String> queries) {
+		return queries.stream()
+				.mapToInt(q -> q.split("LIMIT 1", -1).length - 1)
+				.sum();
+	}
+
+	private static OWLConnection recordQueries(OWLConnection conn, List<String> queries) {
+		return (OWLConnection) Proxy.newProxyInstance(
+				QuestOWLEmptyEntitiesCheckerTest.class.getClassLoader(), new Class<?>[] { OWLConnection.class },
+				(proxy, method, args) -> {
+					if (!method.getName().equals("createStatement"))
+						return invoke(conn, method, args);
+					OWLStatement st = conn.createStatement();
+					return Proxy.newProxyInstance(
+							QuestOWLEmptyEntitiesCheckerTest.class.getClassLoader(), new Class<?>[] { OWLStatement.class },
+							(p, m, a) -> {
+								if (m.getName().equals("executeSelectQuery"))
+									queries.add((String) a[0]);
+								return invoke(st, m, a);
+							});
+				});
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
 }
@@ -0,0 +1,31 @@
+package it.unibz.inf.ontop.rdf4j.query.impl;
+
+import it.unibz.inf.ontop.answering.resultset.PagedTupleResultSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Page of a tuple query (see OntopTupleQuery.evaluatePage(...))
+ */
+public class OntopPagedTupleQueryResult extends OntopTupleQueryResult {
+
+	private final PagedTupleResultSet pagedResultSet;
+
+	public OntopPagedTupleQueryResult(PagedTupleResultSet res, List<String> signature) {
+		super(res, signature);
+		this.pagedResultSet = res;
+	}
+
+	/**
+	 * Available once all the results of the page have been read. Empty for the last page.
+	 */
+	public Optional<String> getContinuationToken() throws QueryEvaluationException {
+		try {
+			return pagedResultSet.getContinuationToken();
+		} catch (Exception e) {
+			throw new QueryEvaluationException(e);
+		}
+	}
+}
@@ -3,6 +3,7 @@ package it.unibz.inf.ontop.rdf4j.query.impl;
 import it.unibz.inf.ontop.answering.reformulation.input.RDF4JInputQueryFactory;
 import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
 import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.answering.resultset.PagedTupleResultSet;
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
 
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
@@ -15,7 +16,9 @@ import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Optional;
 
 
 public class OntopTupleQuery extends AbstractOntopQuery implements TupleQuery {
@@ -59,6 +62,24 @@ public class OntopTupleQuery extends AbstractOntopQuery implements TupleQuery {
 		}
 	}
 
+	/**
+	 * Keyset pagination (see OntopStatement.executePage(...)): page following the continuation token
+	 * (the first page if null).
+	 */
+	public OntopPagedTupleQueryResult evaluatePage(int pageSize, @Nullable String continuationToken)
+			throws QueryEvaluationException {
+		try {
+			OntopStatement stm = conn.createStatement();
+			if (this.queryTimeout > 0)
+				stm.setQueryTimeout(this.queryTimeout);
+			SelectQuery inputQuery = factory.createSelectQuery(getQueryString(), getParsedQuery());
+			PagedTupleResultSet res = stm.executePage(inputQuery, pageSize, Optional.ofNullable(continuationToken));
+			return new OntopPagedTupleQueryResult(res, res.getSignature());
+		} catch (Exception e) {
+			throw new QueryEvaluationException(e);
+		}
+	}
+
     @Override
 	public void evaluate(TupleQueryResultHandler handler) 
 			throws QueryEvaluationException, TupleQueryResultHandlerException {
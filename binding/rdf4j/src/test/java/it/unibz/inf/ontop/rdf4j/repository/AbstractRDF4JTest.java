@@ -16,6 +16,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -28,8 +29,14 @@ public class AbstractRDF4JTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRDF4JTest.class);
     private static Connection SQL_CONNECTION;
     private static RepositoryConnection REPO_CONNECTION;
+    private static OntopSQLOWLAPIConfiguration CONFIGURATION;
 
     protected static void initOBDA(String dbScriptRelativePath, String obdaRelativePath) throws SQLException, IOException {
+        initOBDA(dbScriptRelativePath, obdaRelativePath, new Properties());
+    }
+
+    protected static void initOBDA(String dbScriptRelativePath, String obdaRelativePath, Properties properties)
+            throws SQLException, IOException {
 
         String jdbcUrl = URL_PREFIX + UUID.randomUUID().toString();
 
@@ -55,8 +62,10 @@ public class AbstractRDF4JTest {
                 .jdbcUrl(jdbcUrl)
                 .jdbcUser(USER)
                 .jdbcPassword(PASSWORD)
+                .properties(properties)
                 .enableTestMode()
                 .build();
+        CONFIGURATION = config;
 
         OntopRepository repo = OntopRepository.defaultRepository(config);
         repo.initialize();
@@ -108,6 +117,21 @@ public class AbstractRDF4JTest {
         SQL_CONNECTION.close();
     }
 
+    protected static RepositoryConnection getRepositoryConnection() {
+        return REPO_CONNECTION;
+    }
+
+    protected static OntopSQLOWLAPIConfiguration getConfiguration() {
+        return CONFIGURATION;
+    }
+
+    protected static void executeSQLUpdate(String sql) throws SQLException {
+        try (Statement st = SQL_CONNECTION.createStatement()) {
+            st.executeUpdate(sql);
+        }
+        SQL_CONNECTION.commit();
+    }
+
     protected int runQueryAndCount(String queryString) {
         TupleQuery query = REPO_CONNECTION.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
 
@@ -0,0 +1,108 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import org.eclipse.rdf4j.query.BooleanQuery;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ASK queries stop at the first match, counts are planned as aggregation queries
+ */
+public class RDF4JAskCountTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/iri-template/city.sql";
+    private static final String OBDA_FILE = "/iri-template/city.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        initOBDA(CREATE_DB_FILE, OBDA_FILE);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testAskUnion() {
+        assertTrue(ask("PREFIX ex: <http://example.org/>\n" +
+                "ASK WHERE {\n" +
+                "  ?s a ?c .\n" +
+                "}"));
+    }
+
+    @Test
+    public void testAskDistinctUnion() {
+        assertTrue(ask("PREFIX ex: <http://example.org/>\n" +
+                "ASK WHERE {\n" +
+                "  { SELECT DISTINCT ?s { ?s a ex:City } }\n" +
+                "  UNION\n" +
+                "  { ?s ex:name ?n }\n" +
+                "}"));
+    }
+
+    @Test
+    public void testAskNoMatch() {
+        assertFalse(ask("PREFIX ex: <http://example.org/>\n" +
+                "ASK WHERE {\n" +
+                "  { ?s ex:name \"Carol\"^^<http://www.w3.org/2001/XMLSchema#string> }\n" +
+                "  UNION\n" +
+                "  { ?s ex:label \"Carol\"^^<http://www.w3.org/2001/XMLSchema#string> }\n" +
+                "}"));
+    }
+
+    @Test
+    public void testCountUnion() throws Exception {
+        assertEquals(5, count("PREFIX ex: <http://example.org/>\n" +
+                "SELECT * WHERE {\n" +
+                "  ?s a ?c .\n" +
+                "}\n" +
+                "ORDER BY ?s"));
+    }
+
+    @Test
+    public void testCountDistinct() throws Exception {
+        assertEquals(2, count("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?c WHERE {\n" +
+                "  ?p ex:livesIn ?c .\n" +
+                "}"));
+    }
+
+    @Test
+    public void testCountSlice() throws Exception {
+        assertEquals(1, count("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?s WHERE {\n" +
+                "  ?s a ex:City .\n" +
+                "}\n" +
+                "LIMIT 1"));
+    }
+
+    private boolean ask(String queryString) {
+        RepositoryConnection conn = getRepositoryConnection();
+        BooleanQuery query = conn.prepareBooleanQuery(QueryLanguage.SPARQL, queryString);
+        return query.evaluate();
+    }
+
+    private int count(String queryString) throws Exception {
+        OntopQueryEngine queryEngine = getConfiguration().loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            return statement.getTupleCount(connection.getInputQueryFactory().createSelectQuery(queryString));
+        } finally {
+            queryEngine.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Asynchronous execution of queries on an OntopStatement
+ */
+public class RDF4JAsyncQueryTest {
+
+    private static final String QUERY = "PREFIX ex: <http://example.org/>\n" +
+            "SELECT ?n WHERE {\n" +
+            "  ?v ex:name ?n .\n" +
+            "}\n" +
+            "ORDER BY ?n";
+
+    private static Connection SQL_CONNECTION;
+    private static OntopQueryEngine QUERY_ENGINE;
+
+    @BeforeClass
+    public static void before() throws Exception {
+        String jdbcUrl = "jdbc:h2:mem:" + UUID.randomUUID();
+        SQL_CONNECTION = DriverManager.getConnection(jdbcUrl, "sa", "");
+        try (Statement st = SQL_CONNECTION.createStatement()) {
+            st.executeUpdate(new String(Files.readAllBytes(Paths.get(
+                    RDF4JAsyncQueryTest.class.getResource("/parameterized/people.sql").toURI()))));
+        }
+        SQL_CONNECTION.commit();
+
+        OntopSQLOWLAPIConfiguration config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .nativeOntopMappingFile(RDF4JAsyncQueryTest.class.getResource("/parameterized/people.obda").getPath())
+                .jdbcUrl(jdbcUrl)
+                .jdbcUser("sa")
+                .jdbcPassword("")
+                .enableTestMode()
+                .build();
+        QUERY_ENGINE = config.loadQueryEngine();
+        QUERY_ENGINE.connect();
+    }
+
+    @AfterClass
+    public static void after() throws Exception {
+        QUERY_ENGINE.close();
+        SQL_CONNECTION.close();
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        try (OntopConnection connection = QUERY_ENGINE.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(QUERY);
+            CompletableFuture<TupleResultSet> future = statement.executeAsync(query);
+
+            ImmutableList.Builder<String> builder = ImmutableList.builder();
+            try (TupleResultSet resultSet = future.get(30, TimeUnit.SECONDS)) {
+                while (resultSet.hasNext())
+                    builder.add(resultSet.next().getConstant("n").getValue());
+            }
+            assertEquals(ImmutableList.of("Alice", "Bob", "O'Brien"), builder.build());
+        }
+    }
+
+    @Test
+    public void testPublisherBackPressure() throws Exception {
+        try (OntopConnection connection = QUERY_ENGINE.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(QUERY);
+
+            List<String> values = new ArrayList<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            statement.executeAndPublish(query).subscribe(new Subscriber<OntopBindingSet>() {
+                private Subscription subscription;
+
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(OntopBindingSet bindingSet) {
+                    try {
+                        values.add(bindingSet.getConstant("n").getValue());
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    // Only the first two rows are consumed
+                    if (values.size() < 2)
+                        subscription.request(1);
+                    else {
+                        subscription.cancel();
+                        latch.countDown();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    latch.countDown();
+                }
+            });
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertEquals(ImmutableList.of("Alice", "Bob"), values);
+        }
+    }
+
+    /**
+     * Rule 2.13: a subscriber failing in onNext is considered as cancelled, it does not receive onError
+     */
+    @Test
+    public void testPublisherFailingSubscriber() throws Exception {
+        try (OntopConnection connection = QUERY_ENGINE.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(QUERY);
+
+            AtomicInteger nextCount = new AtomicInteger(0);
+            AtomicInteger terminalSignalCount = new AtomicInteger(0);
+            CountDownLatch latch = new CountDownLatch(1);
+            statement.executeAndPublish(query).subscribe(new Subscriber<OntopBindingSet>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(OntopBindingSet bindingSet) {
+                    nextCount.incrementAndGet();
+                    latch.countDown();
+                    throw new IllegalStateException("Failing subscriber");
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    terminalSignalCount.incrementAndGet();
+                }
+
+                @Override
+                public void onComplete() {
+                    terminalSignalCount.incrementAndGet();
+                }
+            });
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            // Leaves time for unexpected signals
+            Thread.sleep(200);
+            assertEquals(1, nextCount.get());
+            assertEquals(0, terminalSignalCount.get());
+        }
+    }
+
+    /**
+     * A cancellation requested before the execution is not forgotten
+     */
+    @Test
+    public void testCancelBeforeExecution() throws Exception {
+        try (OntopConnection connection = QUERY_ENGINE.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(QUERY);
+            statement.cancel();
+            try {
+                statement.execute(query).close();
+                fail("The query should have been cancelled");
+            } catch (OntopQueryEvaluationException e) {
+                // expected
+            }
+            // Only the next query is cancelled
+            assertEquals(3, count(statement.execute(query)));
+        }
+    }
+
+    /**
+     * Cancelling the fetching of the results neither interrupts the calling thread nor cancels the next query
+     */
+    @Test
+    public void testCancelWhileFetching() throws Exception {
+        try (OntopConnection connection = QUERY_ENGINE.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(QUERY);
+            try (TupleResultSet resultSet = statement.execute(query)) {
+                assertTrue(resultSet.hasNext());
+                statement.cancel();
+            }
+            assertFalse(Thread.currentThread().isInterrupted());
+            assertEquals(3, count(statement.execute(query)));
+        }
+    }
+
+    private static int count(TupleResultSet resultSet) throws Exception {
+        int count = 0;
+        try (TupleResultSet rs = resultSet) {
+            while (rs.hasNext()) {
+                rs.next();
+                count++;
+            }
+        }
+        return count;
+    }
+}
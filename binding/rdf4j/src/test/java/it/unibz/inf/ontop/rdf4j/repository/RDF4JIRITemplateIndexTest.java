@@ -0,0 +1,109 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.iq.IQ;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Triple patterns with a variable property or class and a constant IRI as subject or object
+ */
+public class RDF4JIRITemplateIndexTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/iri-template/city.sql";
+    private static final String OBDA_FILE = "/iri-template/city.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        initOBDA(CREATE_DB_FILE, OBDA_FILE);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testConstantSubject() {
+        assertEquals(3, runQueryAndCount("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ex:person\\/1 ?p ?v .\n" +
+                "}"));
+    }
+
+    @Test
+    public void testConstantObject() {
+        runQueryAndCompare("PREFIX ex: <http://example.org/>\n" +
+                        "SELECT ?v WHERE {\n" +
+                        "  ?v ?p ex:city\\/2 .\n" +
+                        "}",
+                ImmutableList.of("http://example.org/person/2"));
+    }
+
+    @Test
+    public void testConstantSubjectVariableClass() {
+        runQueryAndCompare("PREFIX ex: <http://example.org/>\n" +
+                        "SELECT ?v WHERE {\n" +
+                        "  ex:city\\/1 a ?v .\n" +
+                        "}\n" +
+                        "ORDER BY ?v",
+                ImmutableList.of("http://example.org/Capital", "http://example.org/City"));
+    }
+
+    @Test
+    public void testUnknownSubject() {
+        runQueryAndCompare("PREFIX ex: <http://example.org/>\n" +
+                        "SELECT ?v WHERE {\n" +
+                        "  <http://example.org/other/1> ?p ?v .\n" +
+                        "}",
+                ImmutableList.of());
+    }
+
+    /**
+     * The definitions of the city table are pruned from the unfolded query
+     */
+    @Test
+    public void testPrunedDefinitions() throws Exception {
+        String constantSubjectQuery = getExecutableQuery("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ex:person\\/1 ?p ?v .\n" +
+                "}").toString();
+        // One union branch per person definition: rdf:type, name and livesIn
+        assertEquals(2, countOccurrences(constantSubjectQuery, "UNION ALL"));
+        assertFalse(constantSubjectQuery.contains("\"city\""));
+
+        String variableSubjectQuery = getExecutableQuery("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?s ?p ?v .\n" +
+                "}").toString();
+        assertTrue(variableSubjectQuery.contains("\"city\""));
+    }
+
+    private static int countOccurrences(String string, String substring) {
+        int count = 0;
+        for (int i = string.indexOf(substring); i >= 0; i = string.indexOf(substring, i + substring.length()))
+            count++;
+        return count;
+    }
+
+    private static IQ getExecutableQuery(String sparql) throws Exception {
+        try (OntopQueryEngine queryEngine = getConfiguration().loadQueryEngine()) {
+            queryEngine.connect();
+            try (OntopConnection connection = queryEngine.getConnection();
+                 OntopStatement statement = connection.createStatement()) {
+                return statement.getExecutableQuery(connection.getInputQueryFactory().createSelectQuery(sparql));
+            }
+        }
+    }
+}
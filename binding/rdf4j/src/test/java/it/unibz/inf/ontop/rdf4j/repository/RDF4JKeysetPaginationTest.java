@@ -0,0 +1,136 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.rdf4j.query.impl.OntopPagedTupleQueryResult;
+import it.unibz.inf.ontop.rdf4j.query.impl.OntopTupleQuery;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pages selected by a condition on the sort keys (no OFFSET)
+ */
+public class RDF4JKeysetPaginationTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/iri-template/city.sql";
+    private static final String OBDA_FILE = "/iri-template/city.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        initOBDA(CREATE_DB_FILE, OBDA_FILE);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testOrderByLiteral() {
+        assertEquals(ImmutableList.of("Alice", "Bob"), readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?v WHERE {\n" +
+                "  ?s ex:name ?v .\n" +
+                "}\n" +
+                "ORDER BY ?v", "v", 1));
+    }
+
+    @Test
+    public void testOrderByDescending() {
+        assertEquals(ImmutableList.of("Trento", "Bolzano"), readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?v WHERE {\n" +
+                "  ?c ex:label ?v .\n" +
+                "}\n" +
+                "ORDER BY DESC(?v)", "v", 1));
+    }
+
+    @Test
+    public void testEngineChosenIRIKey() {
+        assertEquals(ImmutableList.of("http://example.org/person/1", "http://example.org/person/2"),
+                readAllPages("PREFIX ex: <http://example.org/>\n" +
+                        "SELECT DISTINCT ?v WHERE {\n" +
+                        "  ?v a ex:Person .\n" +
+                        "}", "v", 1));
+    }
+
+    @Test
+    public void testTieBreaker() {
+        assertEquals(ImmutableList.of("Alice", "Bob"), readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?v ?t WHERE {\n" +
+                "  ?s ex:name ?v .\n" +
+                "  BIND (\"same\" AS ?t)\n" +
+                "}\n" +
+                "ORDER BY ?t", "v", 1));
+    }
+
+    /**
+     * The capital triple is produced once per city
+     */
+    @Test
+    public void testDuplicates() {
+        assertEquals(ImmutableList.of("http://example.org/city/1"), readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?c WHERE {\n" +
+                "  ?c a ex:Capital .\n" +
+                "}", "c", 1));
+    }
+
+    @Test(expected = QueryEvaluationException.class)
+    public void testNonDistinctNotSupported() {
+        readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?c WHERE {\n" +
+                "  ?c a ex:Capital .\n" +
+                "}", "c", 1);
+    }
+
+    /**
+     * Unbound values come last in descending order
+     */
+    @Test
+    public void testUnboundDescendingKey() {
+        assertEquals(ImmutableList.of("http://example.org/city/2", "http://example.org/city/1",
+                "http://example.org/person/1", "http://example.org/person/2"),
+                readAllPages("PREFIX ex: <http://example.org/>\n" +
+                        "SELECT DISTINCT ?s ?v WHERE {\n" +
+                        "  { ?s a ex:Person } UNION { ?s a ex:City }\n" +
+                        "  OPTIONAL { ?s ex:label ?v }\n" +
+                        "}\n" +
+                        "ORDER BY DESC(?v)", "s", 1));
+    }
+
+    @Test(expected = QueryEvaluationException.class)
+    public void testLimitNotSupported() {
+        readAllPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?v WHERE {\n" +
+                "  ?s ex:name ?v .\n" +
+                "}\n" +
+                "LIMIT 1", "v", 1);
+    }
+
+    private List<String> readAllPages(String queryString, String variable, int pageSize) {
+        OntopTupleQuery query = (OntopTupleQuery) getRepositoryConnection()
+                .prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+        List<String> values = new ArrayList<>();
+        Optional<String> token = Optional.empty();
+        do {
+            try (OntopPagedTupleQueryResult result = query.evaluatePage(pageSize, token.orElse(null))) {
+                int count = 0;
+                while (result.hasNext()) {
+                    values.add(result.next().getValue(variable).stringValue());
+                    count++;
+                }
+                assertEquals(true, count <= pageSize);
+                token = result.getContinuationToken();
+            }
+        } while (token.isPresent());
+        return values;
+    }
+}
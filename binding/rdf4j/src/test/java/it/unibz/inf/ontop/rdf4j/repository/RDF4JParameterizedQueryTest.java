@@ -0,0 +1,139 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.rdf4j.repository.impl.OntopRepositoryConnection;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Queries only differing by some IRIs and string literals share their executable query
+ */
+public class RDF4JParameterizedQueryTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/parameterized/people.sql";
+    private static final String OBDA_FILE = "/parameterized/people.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(OntopReformulationSettings.PARAMETERIZED_QUERY_CACHE, "true");
+        initOBDA(CREATE_DB_FILE, OBDA_FILE, properties);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testSameShape() {
+        runQueryAndCompare(createNameQuery("Alice"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createNameQuery("Bob"), ImmutableList.of("http://example.org/person/2"));
+        runQueryAndCompare(createNameQuery("O'Brien"), ImmutableList.of("http://example.org/person/3"));
+        runQueryAndCompare(createNameQuery("Nobody"), ImmutableList.of());
+        runQueryAndCompare(createNameQuery("Alice"), ImmutableList.of("http://example.org/person/1"));
+    }
+
+    @Test
+    public void testMappingConstant() {
+        runQueryAndCompare(createStatusQuery("inactive"), ImmutableList.of());
+        runQueryAndCompare(createStatusQuery("active"),
+                ImmutableList.of("http://example.org/person/1", "http://example.org/person/3"));
+        runQueryAndCompare(createStatusQuery("unknown"), ImmutableList.of());
+    }
+
+    @Test
+    public void testFilterIRI() throws Exception {
+        runQueryAndCompare(createPersonQuery("1"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createPersonQuery("2"), ImmutableList.of("http://example.org/person/2"));
+        runQueryAndCompare(createPersonQuery("4"), ImmutableList.of());
+        runQueryAndCompare(createPersonQuery("3"), ImmutableList.of("http://example.org/person/3"));
+
+        String executableQuery = ((OntopRepositoryConnection) getRepositoryConnection())
+                .reformulate(createPersonQuery("5"));
+        assertTrue(executableQuery.contains("PARAMETERS"));
+    }
+
+    @Test
+    public void testObjectIRI() {
+        runQueryAndCompare(createKnowsQuery("Bob"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createKnowsQuery("A%20B"), ImmutableList.of("http://example.org/person/2"));
+        runQueryAndCompare(createKnowsQuery("Alice"), ImmutableList.of("http://example.org/person/3"));
+        runQueryAndCompare(createKnowsQuery("Nobody"), ImmutableList.of());
+    }
+
+    /**
+     * Different shapes with almost the same native query must not share it
+     */
+    @Test
+    public void testSimilarShapes() {
+        runQueryAndCompare(createNameFilterQuery("=", "Bob"), ImmutableList.of("http://example.org/person/2"));
+        runQueryAndCompare(createNameFilterQuery("!=", "Bob"),
+                ImmutableList.of("http://example.org/person/1", "http://example.org/person/3"));
+        runQueryAndCompare(createNameFilterQuery("=", "Alice"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createNameFilterQuery("!=", "Alice"),
+                ImmutableList.of("http://example.org/person/2", "http://example.org/person/3"));
+        runQueryAndCompare(createNameQuery("Alice"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createKnowsFilterQuery("Bob"),
+                ImmutableList.of("http://example.org/person/2", "http://example.org/person/3"));
+        runQueryAndCompare(createKnowsQuery("Bob"), ImmutableList.of("http://example.org/person/1"));
+        runQueryAndCompare(createKnowsFilterQuery("Alice"),
+                ImmutableList.of("http://example.org/person/1", "http://example.org/person/2"));
+    }
+
+    private static String createNameQuery(String name) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?v ex:name \"" + name.replace("'", "\\'") + "\" .\n" +
+                "}";
+    }
+
+    private static String createNameFilterQuery(String operator, String name) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v ?n WHERE {\n" +
+                "  ?v ex:name ?n .\n" +
+                "  FILTER(?n " + operator + " \"" + name + "\")\n" +
+                "}\n" +
+                "ORDER BY ?v";
+    }
+
+    private static String createPersonQuery(String id) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?v ex:name ?n .\n" +
+                "  FILTER(?v = <http://example.org/person/" + id + ">)\n" +
+                "}";
+    }
+
+    private static String createKnowsQuery(String name) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?v ex:knows <http://example.org/byname/" + name + "> .\n" +
+                "}";
+    }
+
+    private static String createKnowsFilterQuery(String name) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v ?o WHERE {\n" +
+                "  ?v ex:knows ?o .\n" +
+                "  FILTER(?o != <http://example.org/byname/" + name + ">)\n" +
+                "}\n" +
+                "ORDER BY ?v";
+    }
+
+    private static String createStatusQuery(String status) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?v ex:status \"" + status + "\" .\n" +
+                "}\n" +
+                "ORDER BY ?v";
+    }
+}
@@ -0,0 +1,55 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Prepared statements re-used across queries, with fewer cache entries than distinct queries
+ */
+public class RDF4JPreparedStatementCacheTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/parameterized/people.sql";
+    private static final String OBDA_FILE = "/parameterized/people.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(OntopSystemSQLSettings.PREPARED_STATEMENT_CACHE_SIZE, "1");
+        properties.setProperty(OntopReformulationSettings.PARAMETERIZED_QUERY_CACHE, "true");
+        initOBDA(CREATE_DB_FILE, OBDA_FILE, properties);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testRepeatedQueries() {
+        for (int i = 0; i < 3; i++) {
+            runQueryAndCompare(createNameQuery("Alice"), ImmutableList.of("http://example.org/person/1"));
+            runQueryAndCompare(createNameQuery("Bob"), ImmutableList.of("http://example.org/person/2"));
+            runQueryAndCompare("PREFIX ex: <http://example.org/>\n" +
+                            "SELECT ?v WHERE {\n" +
+                            "  ?v ex:status \"active\" .\n" +
+                            "}\n" +
+                            "ORDER BY ?v",
+                    ImmutableList.of("http://example.org/person/1", "http://example.org/person/3"));
+        }
+    }
+
+    private static String createNameQuery(String name) {
+        return "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?v ex:name \"" + name + "\" .\n" +
+                "}";
+    }
+}
@@ -0,0 +1,68 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
+import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Results of the native queries replayed from the cache until invalidated
+ */
+public class RDF4JResultCacheTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/iri-template/city.sql";
+    private static final String OBDA_FILE = "/iri-template/city.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(OntopSystemSQLSettings.RESULT_CACHE_MAX_BYTES, "1000000");
+        initOBDA(CREATE_DB_FILE, OBDA_FILE, properties);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testInvalidateTable() throws SQLException {
+        String query = "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?s ex:name ?v .\n" +
+                "}";
+        assertEquals(2, runQueryAndCount(query));
+
+        executeSQLUpdate("INSERT INTO \"person\" VALUES (3, 'Carol', 1)");
+        assertEquals(2, runQueryAndCount(query));
+
+        SQLResultCache resultCache = getConfiguration().getInjector().getInstance(SQLResultCache.class);
+        resultCache.invalidate("city");
+        assertEquals(2, runQueryAndCount(query));
+
+        resultCache.invalidate("person");
+        assertEquals(3, runQueryAndCount(query));
+    }
+
+    @Test
+    public void testInvalidateAll() throws SQLException {
+        String query = "PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?c ex:label ?v .\n" +
+                "}";
+        assertEquals(2, runQueryAndCount(query));
+
+        executeSQLUpdate("INSERT INTO \"city\" VALUES (3, 'Merano')");
+        assertEquals(2, runQueryAndCount(query));
+
+        getConfiguration().getInjector().getInstance(SQLResultCache.class).invalidateAll();
+        assertEquals(3, runQueryAndCount(query));
+    }
+}
@@ -0,0 +1,98 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
+import org.eclipse.rdf4j.query.BooleanQuery;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Top-level unions executed as one native query per branch
+ */
+public class RDF4JUnionSplitTest extends AbstractRDF4JTest {
+
+    private static final String CREATE_DB_FILE = "/iri-template/city.sql";
+    private static final String OBDA_FILE = "/iri-template/city.obda";
+
+    @BeforeClass
+    public static void before() throws IOException, SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(OntopReformulationSettings.UNION_SPLIT_THRESHOLD, "2");
+        // Fewer than the branches of most queries below
+        properties.setProperty(OntopSystemSQLSettings.UNION_SPLIT_PARALLELISM, "2");
+        initOBDA(CREATE_DB_FILE, OBDA_FILE, properties);
+    }
+
+    @AfterClass
+    public static void after() throws SQLException {
+        release();
+    }
+
+    @Test
+    public void testAlternativeProperties() {
+        assertEquals(4, runQueryAndCount("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?s ex:name|ex:label ?v .\n" +
+                "}"));
+    }
+
+    @Test
+    public void testUnionOfJoins() {
+        assertEquals(4, runQueryAndCount("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v ?l WHERE {\n" +
+                "  { ?v ex:livesIn ?c . ?c ex:label ?l }\n" +
+                "  UNION\n" +
+                "  { ?v a ex:City ; ex:label ?l }\n" +
+                "}"));
+    }
+
+    @Test
+    public void testUnionOfClasses() {
+        assertEquals(4, runQueryAndCount("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  { ?v a ex:Person } UNION { ?v a ex:City }\n" +
+                "}"));
+    }
+
+    @Test
+    public void testBelowThreshold() {
+        assertEquals(2, runQueryAndCount("PREFIX ex: <http://example.org/>\n" +
+                "SELECT ?v WHERE {\n" +
+                "  ?s ex:name ?v .\n" +
+                "}"));
+    }
+
+    /**
+     * Only the last branch has a result
+     */
+    @Test
+    public void testAskLastBranch() {
+        assertTrue(ask("PREFIX ex: <http://example.org/>\n" +
+                "ASK {\n" +
+                "  { ?v ex:name \"Trento\" } UNION { ?v ex:label \"Trento\" }\n" +
+                "}"));
+    }
+
+    @Test
+    public void testAskNoBranch() {
+        assertFalse(ask("PREFIX ex: <http://example.org/>\n" +
+                "ASK {\n" +
+                "  { ?v ex:name \"Merano\" } UNION { ?v ex:label \"Merano\" }\n" +
+                "}"));
+    }
+
+    private boolean ask(String queryString) {
+        BooleanQuery query = getRepositoryConnection().prepareBooleanQuery(QueryLanguage.SPARQL, queryString);
+        return query.evaluate();
+    }
+}
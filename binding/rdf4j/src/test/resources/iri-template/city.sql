@@ -0,0 +1,13 @@
+CREATE TABLE "person" (
+    id integer NOT NULL,
+    name character varying(20),
+    city integer
+);
+CREATE TABLE "city" (
+    id integer NOT NULL,
+    label character varying(20)
+);
+INSERT INTO "person" VALUES (1, 'Alice', 1);
+INSERT INTO "person" VALUES (2, 'Bob', 2);
+INSERT INTO "city" VALUES (1, 'Bolzano');
+INSERT INTO "city" VALUES (2, 'Trento');
@@ -0,0 +1,16 @@
+CREATE TABLE "person" (
+    id integer NOT NULL,
+    name character varying(20),
+    active boolean
+);
+INSERT INTO "person" VALUES (1, 'Alice', true);
+INSERT INTO "person" VALUES (2, 'Bob', false);
+INSERT INTO "person" VALUES (3, 'O''Brien', true);
+
+CREATE TABLE "knows" (
+    person_id integer NOT NULL,
+    friend_name character varying(20) NOT NULL
+);
+INSERT INTO "knows" VALUES (1, 'Bob');
+INSERT INTO "knows" VALUES (2, 'A B');
+INSERT INTO "knows" VALUES (3, 'Alice');
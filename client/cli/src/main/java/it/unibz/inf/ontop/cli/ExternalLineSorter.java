@@ -0,0 +1,159 @@
+package it.unibz.inf.ontop.cli;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Sorts the lines of files that may not fit into memory: sorted runs of at most maxLinesInMemory lines
+ * are written into temporary files, and then merged.
+ *
+ * Empty and duplicate lines are removed. The sorted files can then be compared in one pass (see diff(...)).
+ */
+class ExternalLineSorter {
+
+    interface LineFileOpener {
+        BufferedReader open(Path file) throws IOException;
+    }
+
+    interface LineConsumer {
+        void accept(String line) throws IOException;
+    }
+
+    private final Path temporaryDirectory;
+    private final int maxLinesInMemory;
+    private final LineFileOpener opener;
+
+    ExternalLineSorter(Path temporaryDirectory, int maxLinesInMemory, LineFileOpener opener) {
+        if (maxLinesInMemory <= 0)
+            throw new IllegalArgumentException("maxLinesInMemory must be positive");
+        this.temporaryDirectory = temporaryDirectory;
+        this.maxLinesInMemory = maxLinesInMemory;
+        this.opener = opener;
+    }
+
+    /**
+     * Returns a new (uncompressed) temporary file, to be deleted by the caller
+     */
+    Path sort(Collection<Path> files) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            List<String> lines = new ArrayList<>();
+            for (Path file : files) {
+                try (BufferedReader reader = opener.open(file)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty())
+                            continue;
+                        lines.add(line);
+                        if (lines.size() >= maxLinesInMemory) {
+                            runs.add(writeRun(lines));
+                            lines.clear();
+                        }
+                    }
+                }
+            }
+            if (!lines.isEmpty() || runs.isEmpty())
+                runs.add(writeRun(lines));
+
+            if (runs.size() == 1)
+                return runs.remove(0);
+            return merge(runs);
+        } finally {
+            for (Path run : runs)
+                Files.deleteIfExists(run);
+        }
+    }
+
+    private Path writeRun(List<String> lines) throws IOException {
+        Collections.sort(lines);
+        Path run = Files.createTempFile(temporaryDirectory, "run-", ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            String previous = null;
+            for (String line : lines) {
+                if (!line.equals(previous)) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                previous = line;
+            }
+        }
+        return run;
+    }
+
+    private Path merge(List<Path> runs) throws IOException {
+        Path merged = Files.createTempFile(temporaryDirectory, "sorted-", ".tmp");
+        List<BufferedReader> readers = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(merged, StandardCharsets.UTF_8)) {
+            PriorityQueue<RunHead> heads = new PriorityQueue<>(Comparator.comparing(h -> h.line));
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                readers.add(reader);
+                String line = reader.readLine();
+                if (line != null)
+                    heads.add(new RunHead(line, reader));
+            }
+            String previous = null;
+            while (!heads.isEmpty()) {
+                RunHead head = heads.poll();
+                if (!head.line.equals(previous)) {
+                    writer.write(head.line);
+                    writer.write('\n');
+                    previous = head.line;
+                }
+                String next = head.reader.readLine();
+                if (next != null)
+                    heads.add(new RunHead(next, head.reader));
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(merged);
+            throw e;
+        } finally {
+            for (BufferedReader reader : readers)
+                reader.close();
+        }
+        return merged;
+    }
+
+    /**
+     * Compares two files sorted by sort(...): the lines only in the previous file are deletions,
+     * the ones only in the new file are additions.
+     */
+    static void diff(Path sortedPreviousFile, Path sortedNewFile, LineConsumer deletionConsumer,
+                     LineConsumer additionConsumer) throws IOException {
+        try (BufferedReader previousReader = Files.newBufferedReader(sortedPreviousFile, StandardCharsets.UTF_8);
+             BufferedReader newReader = Files.newBufferedReader(sortedNewFile, StandardCharsets.UTF_8)) {
+            String previousLine = previousReader.readLine();
+            String newLine = newReader.readLine();
+            while (previousLine != null || newLine != null) {
+                int comparison = (previousLine == null) ? 1
+                        : (newLine == null) ? -1
+                        : previousLine.compareTo(newLine);
+                if (comparison < 0) {
+                    deletionConsumer.accept(previousLine);
+                    previousLine = previousReader.readLine();
+                }
+                else if (comparison > 0) {
+                    additionConsumer.accept(newLine);
+                    newLine = newReader.readLine();
+                }
+                else {
+                    previousLine = previousReader.readLine();
+                    newLine = newReader.readLine();
+                }
+            }
+        }
+    }
+
+    private static class RunHead {
+        private final String line;
+        private final BufferedReader reader;
+
+        private RunHead(String line, BufferedReader reader) {
+            this.line = line;
+            this.reader = reader;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package it.unibz.inf.ontop.cli;
+
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.type.RDFDatatype;
+import it.unibz.inf.ontop.model.type.TermType;
+import it.unibz.inf.ontop.model.vocabulary.RDF;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import it.unibz.inf.ontop.spec.ontology.*;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes assertions directly into N-Triples lines, without building RDF4J statements.
+ *
+ * Produces the same triples as the RDF4J N-Triples writer (xsd:string literals are written as plain literals).
+ * The non-ASCII characters are escaped in the literals and kept as such in the IRIs, and the characters
+ * not allowed in an IRIREF are written as UCHARs (the RDF4J writer uses the escaping rules of the literals for IRIs).
+ *
+ * Not thread-safe (re-uses its buffer).
+ */
+class NTriplesAssertionEncoder {
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    byte[] encode(Assertion assertion) throws IOException {
+        buffer.setLength(0);
+
+        if (assertion instanceof ClassAssertion) {
+            ClassAssertion classAssertion = (ClassAssertion) assertion;
+            appendResource(classAssertion.getIndividual());
+            appendIRI(RDF.TYPE.getIRIString());
+            appendIRI(classAssertion.getConcept().getIRI().getIRIString());
+        }
+        else if (assertion instanceof ObjectPropertyAssertion) {
+            ObjectPropertyAssertion propertyAssertion = (ObjectPropertyAssertion) assertion;
+            appendResource(propertyAssertion.getSubject());
+            appendIRI(propertyAssertion.getProperty().getIRI().getIRIString());
+            appendResource(propertyAssertion.getObject());
+        }
+        else if (assertion instanceof DataPropertyAssertion) {
+            DataPropertyAssertion propertyAssertion = (DataPropertyAssertion) assertion;
+            appendResource(propertyAssertion.getSubject());
+            appendIRI(propertyAssertion.getProperty().getIRI().getIRIString());
+            appendLiteral(propertyAssertion.getValue());
+        }
+        else if (assertion instanceof AnnotationAssertion) {
+            AnnotationAssertion annotationAssertion = (AnnotationAssertion) assertion;
+            appendResource(annotationAssertion.getSubject());
+            appendIRI(annotationAssertion.getProperty().getIRI().getIRIString());
+            Constant value = annotationAssertion.getValue();
+            if (value instanceof RDFLiteralConstant)
+                appendLiteral((RDFLiteralConstant) value);
+            else if (value instanceof ObjectConstant)
+                appendResource((ObjectConstant) value);
+            else
+                throw new IllegalArgumentException("Unsupported constant for an annotation property: " + value);
+        }
+        else
+            throw new IllegalArgumentException("Unsupported assertion: " + assertion);
+
+        buffer.append(".\n");
+        return buffer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendResource(ObjectConstant constant) {
+        if (constant instanceof IRIConstant)
+            appendIRI(((IRIConstant) constant).getIRI().getIRIString());
+        else if (constant instanceof BNode)
+            buffer.append("_:").append(((BNode) constant).getName()).append(' ');
+        else
+            throw new IllegalArgumentException("Invalid constant as subject: " + constant);
+    }
+
+    /**
+     * IRIREF ::= '<' ([^#x00-#x20<>"{}|^`\] | UCHAR)* '>'
+     */
+    private void appendIRI(String iri) {
+        buffer.append('<');
+        for (int i = 0; i < iri.length(); i++) {
+            char c = iri.charAt(i);
+            if (isForbiddenInIRIRef(c))
+                buffer.append(String.format("\\u%04X", (int) c));
+            else
+                buffer.append(c);
+        }
+        buffer.append("> ");
+    }
+
+    private static boolean isForbiddenInIRIRef(char c) {
+        switch (c) {
+            case '<':
+            case '>':
+            case '"':
+            case '{':
+            case '}':
+            case '|':
+            case '^':
+            case '`':
+            case '\\':
+                return true;
+            default:
+                return c <= 0x20;
+        }
+    }
+
+    private void appendLiteral(RDFLiteralConstant literal) throws IOException {
+        TermType type = literal.getType();
+        if (!(type instanceof RDFDatatype))
+            throw new IllegalArgumentException("A literal must have a RDF datatype: " + literal);
+        RDFDatatype datatype = (RDFDatatype) type;
+
+        buffer.append('"');
+        NTriplesUtil.escapeString(literal.getValue(), buffer);
+        buffer.append('"');
+
+        if (datatype.getLanguageTag().isPresent())
+            buffer.append('@').append(datatype.getLanguageTag().get().getFullString());
+        else if (!datatype.getIRI().equals(XSD.STRING)) {
+            buffer.append("^^");
+            appendIRI(datatype.getIRI().getIRIString());
+            return;
+        }
+        buffer.append(' ');
+    }
+}
@@ -21,14 +21,61 @@ package it.unibz.inf.ontop.cli;
  */
 
 import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration.Builder;
+import it.unibz.inf.ontop.spec.dbschema.RDBMetadataExtractor;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+import it.unibz.inf.ontop.utils.LocalJDBCConnectionUtils;
+
+import java.io.*;
+import java.sql.Connection;
+import java.util.Optional;
 
 @Command(name = "compile",
-        description = "compile the ontology axioms into  mappings",
-        hidden = true)
-public class OntopCompile implements OntopCommand {
+        description = "Compile a snapshot of the DB metadata only (not of the whole OBDA specification): " +
+                "it is loaded at startup instead of querying the DB catalog (property ontop.metadataSnapshotFile). " +
+                "The mapping (saturation included) and the ontology are still processed at every startup. " +
+                "Run it again after any change of the DB schema: such changes are not detected")
+public class OntopCompile extends OntopMappingOntologyRelatedCommand {
+
+    @Option(type = OptionType.COMMAND, name = {"-o", "--output"}, title = "snapshot file",
+            description = "output DB metadata snapshot file")
+    @Required
+    @BashCompletion(behaviour = CompletionBehaviour.FILENAMES)
+    private String outputFile;
 
     @Override
     public void run() {
+        Builder<? extends Builder> configBuilder = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .propertyFile(propertiesFile);
+
+        if (isR2rmlFile(mappingFile))
+            configBuilder.r2rmlMappingFile(mappingFile);
+        else
+            configBuilder.nativeOntopMappingFile(mappingFile);
+
+        if (constraintFile != null)
+            configBuilder.basicImplicitConstraintFile(new File(constraintFile));
+
+        OntopSQLOWLAPIConfiguration configuration = configBuilder.build();
+
+        try {
+            SQLPPMapping ppMapping = configuration.loadProvidedPPMapping();
+            RDBMetadataExtractor extractor = configuration.getInjector().getInstance(RDBMetadataExtractor.class);
 
+            try (Connection connection = LocalJDBCConnectionUtils.createConnection(configuration.getSettings());
+                 OutputStream out = new FileOutputStream(outputFile)) {
+                extractor.extractToSnapshot(ppMapping, connection,
+                        Optional.ofNullable(constraintFile).map(File::new), out);
+            }
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
     }
 }
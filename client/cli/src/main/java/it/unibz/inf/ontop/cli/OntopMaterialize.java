@@ -5,16 +5,28 @@ import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.annotations.OptionType;
 import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.CountingOutputStream;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.exception.OBDASpecificationException;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
 import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
 import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration.Builder;
+import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
 import it.unibz.inf.ontop.injection.impl.OntopModelConfigurationImpl;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
-import it.unibz.inf.ontop.rdf4j.materialization.RDF4JMaterializer;
+import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.rdf4j.utils.RDF4JHelper;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import it.unibz.inf.ontop.utils.LocalJDBCConnectionUtils;
 import org.apache.commons.rdf.api.IRI;
-import org.eclipse.rdf4j.query.GraphQueryResult;
 import org.eclipse.rdf4j.rio.RDFHandler;
 import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 import org.eclipse.rdf4j.rio.ntriples.NTriplesWriter;
@@ -25,16 +37,19 @@ import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
 import javax.annotation.Nullable;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Optional;
-import java.util.Properties;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static it.unibz.inf.ontop.injection.OntopSystemSQLSettings.FETCH_SIZE;
 import static org.apache.commons.io.FilenameUtils.removeExtension;
@@ -59,11 +74,18 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
     }
 
 
-    private static final int TRIPLE_LIMIT_PER_FILE = 500000;
+    private static final int DEFAULT_TRIPLE_LIMIT_PER_FILE = 500000;
     private static final String DEFAULT_FETCH_SIZE = "50000";
     private static final String RDF_XML = "rdfxml";
     private static final String TURTLE = "turtle";
     private static final String NTRIPLES = "ntriples";
+    private static final String NO_COMPRESSION = "none";
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String STATE_FILE = "materialization-state.properties";
+    private static final String DELTA_ADDITIONS = "delta-additions";
+    private static final String DELTA_DELETIONS = "delta-deletions";
+    private static final int MAX_SORTED_LINES_IN_MEMORY = 1000000;
 
 
     @Option(type = OptionType.COMMAND, override = true, name = {"-o", "--output"},
@@ -87,40 +109,80 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
             description = "All the SQL results of one big query will be stored in memory. Not recommended. Default: false.")
     private boolean noStream = false;
 
+    @Option(type = OptionType.COMMAND, name = {"--threads"}, title = "number of threads",
+            description = "Number of classes/properties materialized in parallel. With --separate-files, " +
+                    "each of them is also written by its own thread. Default: 1.")
+    private int threadCount = 1;
+
+    @Option(type = OptionType.COMMAND, name = {"--compression"}, title = "compression",
+            description = "Compression of the output files. Default: none.")
+    @AllowedValues(allowedValues = {NO_COMPRESSION, GZIP})
+    private String compression = NO_COMPRESSION;
+
+    @Option(type = OptionType.COMMAND, name = {"--max-triples-per-file"}, title = "maximum number of triples per file",
+            description = "Only for --separate-files. A new file is started when this number of triples is reached " +
+                    "(0 for no limit). Default: " + DEFAULT_TRIPLE_LIMIT_PER_FILE + ".")
+    private int maxTriplesPerFile = DEFAULT_TRIPLE_LIMIT_PER_FILE;
+
+    @Option(type = OptionType.COMMAND, name = {"--max-file-size"}, title = "maximum file size (in MB)",
+            description = "Only for --separate-files. A new file is started when this size (after compression) " +
+                    "is reached (0 for no limit). Default: 0.")
+    private int maxFileSizeInMB = 0;
+
+    @Option(type = OptionType.COMMAND, name = {"--change-columns"}, title = "change columns file",
+            description = "Incremental mode (only for --separate-files and ntriples). Properties file associating " +
+                    "tables to a column whose maximum value changes when the table is modified (e.g. a timestamp " +
+                    "or an increasing id). Only the classes/properties extracted from changed tables " +
+                    "(or from tables without change column) are materialized again. The difference with " +
+                    "the previous files is written into " + DELTA_ADDITIONS + " and " + DELTA_DELETIONS + " files.")
+    private String changeColumnsFile;
+
     public OntopMaterialize() {
     }
 
     @Override
     public void run() {
 
-        RDF4JMaterializer materializer = createMaterializer();
         OutputSpec outputSpec = (outputFile == null) ?
-                new OutputSpec(format) :
-                new OutputSpec(outputFile, format);
-        if (separate) {
-            runWithSeparateFiles(materializer, outputSpec);
+                new OutputSpec(format, compression) :
+                new OutputSpec(outputFile, format, compression);
+        OntopSQLOWLAPIConfiguration configuration = createConfiguration();
+        if (changeColumnsFile != null) {
+            if ((!separate) || (!format.equals(NTRIPLES)) || (outputFile == null))
+                throw new InvalidOntopConfigurationException("The incremental mode (--change-columns) requires " +
+                        "--separate-files, the ntriples format and an output directory");
+            runIncrementally(configuration, createMaterializer(configuration, 1), outputSpec);
+        } else if (separate) {
+            // The parallelism is handled here, one class/property per thread
+            runWithSeparateFiles(createMaterializer(configuration, 1), outputSpec);
         } else {
-            runWithSingleFile(materializer, outputSpec);
+            runWithSingleFile(createMaterializer(configuration, threadCount), outputSpec);
         }
     }
 
-    private RDF4JMaterializer createMaterializer() {
-
-        RDF4JMaterializer materializer;
+    private OntopSQLOWLAPIConfiguration createConfiguration() {
         try {
             OWLOntology ontology = loadOntology();
-            OntopSQLOWLAPIConfiguration materializerConfiguration = createAndInitConfigurationBuilder()
+            return createAndInitConfigurationBuilder()
                     .ontology(ontology)
                     .build();
-            materializer = RDF4JMaterializer.defaultMaterializer(
-                    materializerConfiguration,
+        } catch (OWLOntologyCreationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private OntopRDFMaterializer createMaterializer(OntopSQLOWLAPIConfiguration configuration,
+                                                    int materializerThreadCount) {
+        try {
+            return OntopRDFMaterializer.defaultMaterializer(
+                    configuration,
                     MaterializationParams.defaultBuilder()
+                            .threadCount(materializerThreadCount)
                             .build()
             );
-        } catch (OBDASpecificationException | OWLOntologyCreationException e) {
+        } catch (OBDASpecificationException e) {
             throw new RuntimeException(e);
         }
-        return materializer;
     }
 
     private OWLOntology loadOntology() throws OWLOntologyCreationException {
@@ -134,21 +196,17 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         return OWLManager.createOWLOntologyManager().createOntology();
     }
 
-    private void runWithSingleFile(RDF4JMaterializer materializer, OutputSpec outputSpec) {
-        int tripleCount = 0;
+    private void runWithSingleFile(OntopRDFMaterializer materializer, OutputSpec outputSpec) {
+        long tripleCount = 0;
 
         final long startTime = System.currentTimeMillis();
 
-        GraphQueryResult result = materializer.materialize().evaluate();
-
-        try {
-            BufferedWriter writer = outputSpec.createWriter(Optional.empty());
-            tripleCount += serializeTripleBatch(
-                    result,
-                    Optional.empty(),
-                    writer,
-                    outputSpec.createRDFHandler(writer)
-            );
+        try (MaterializedGraphResultSet result = materializer.materialize();
+             TripleWriter writer = outputSpec.createTripleWriter(Optional.empty())) {
+            while (result.hasNext()) {
+                writer.write(result.next());
+                tripleCount++;
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -160,38 +218,49 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         System.out.println("Elapsed time to materialize: " + time + " {ms}");
     }
 
-    private void runWithSeparateFiles(RDF4JMaterializer materializer, OutputSpec outputSpec) {
+    /**
+     * Classes and then properties, each of them being materialized and written by one thread of the pool
+     */
+    private void runWithSeparateFiles(OntopRDFMaterializer materializer, OutputSpec outputSpec) {
+        ImmutableList.Builder<Callable<Void>> taskBuilder = ImmutableList.builder();
+        addTasks(taskBuilder, materializer, materializer.getClasses(), PredicateType.CLASS, outputSpec);
+        addTasks(taskBuilder, materializer, materializer.getProperties(), PredicateType.PROPERTY, outputSpec);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
         try {
-            materializeClassesByFile(materializer, outputSpec);
-            materializePropertiesByFile(materializer, outputSpec);
-        } catch (Exception e) {
+            ImmutableList<Future<Void>> futures = taskBuilder.build().stream()
+                    .map(executor::submit)
+                    .collect(ImmutableCollectors.toList());
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void materializeClassesByFile(RDF4JMaterializer materializer, OutputSpec outputSpec) throws Exception {
-        ImmutableSet<IRI> classes = materializer.getClasses();
-        int total = classes.size();
-        AtomicInteger i = new AtomicInteger();
-        for (IRI c : classes) {
-            serializePredicate(materializer, c, PredicateType.CLASS, i.incrementAndGet(), total, outputSpec);
-        }
-    }
-
-    private void materializePropertiesByFile(RDF4JMaterializer materializer, OutputSpec outputSpec) throws Exception {
-        ImmutableSet<IRI> properties = materializer.getProperties();
-
-        int total = properties.size();
-        AtomicInteger i = new AtomicInteger();
-        for (IRI p : properties) {
-            serializePredicate(materializer, p, PredicateType.PROPERTY, i.incrementAndGet(), total, outputSpec);
+    private void addTasks(ImmutableList.Builder<Callable<Void>> taskBuilder, OntopRDFMaterializer materializer,
+                          ImmutableSet<IRI> predicates, PredicateType predicateType, OutputSpec outputSpec) {
+        int total = predicates.size();
+        int i = 0;
+        for (IRI predicate : predicates) {
+            int index = ++i;
+            taskBuilder.add(() -> {
+                serializePredicate(materializer, predicate, predicateType, index, total, outputSpec);
+                return null;
+            });
         }
     }
 
     /**
      * Serializes the A-box corresponding to a predicate into one or multiple file.
      */
-    private void serializePredicate(RDF4JMaterializer materializer, IRI predicateIRI,
+    private void serializePredicate(OntopRDFMaterializer materializer, IRI predicateIRI,
                                     PredicateType predicateType, int index, int total,
                                     OutputSpec outputSpec) throws Exception {
         final long startTime = System.currentTimeMillis();
@@ -200,45 +269,260 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         System.err.println(String.format("Materializing %s (%d/%d)", predicateIRI, index, total));
         System.err.println("Starts writing triples into files.");
 
-        int tripleCount = 0;
+        long tripleCount = 0;
         int fileCount = 0;
 
-        String fileSubstring = predicateIRI.toString().replaceAll("[^a-zA-Z0-9]", "_")
+        String fileSubstring = getFileSubstring(predicateIRI, predicateType);
+
+        try (MaterializedGraphResultSet result = materializer.materialize(ImmutableSet.of(predicateIRI))) {
+            while (result.hasNext()) {
+                try (TripleWriter writer = outputSpec.createTripleWriter(Optional.of(fileSubstring + fileCount))) {
+                    tripleCount += serializeTripleBatch(result, writer);
+                }
+                fileCount++;
+            }
+        }
+
+        System.out.println(String.format("NR of TRIPLES for %s: %d", predicateIRI, tripleCount));
+
+        final long endTime = System.currentTimeMillis();
+        final long time = endTime - startTime;
+        System.out.println(String.format("Elapsed time to materialize %s: %d {ms}", predicateIRI, time));
+    }
+
+    private static String getFileSubstring(IRI predicateIRI, PredicateType predicateType) {
+        return predicateIRI.toString().replaceAll("[^a-zA-Z0-9]", "_")
                 + predicateType.getCode() + "_";
+    }
 
-        GraphQueryResult result = materializer.materialize(ImmutableSet.of(predicateIRI)).evaluate();
+    /**
+     * Materializes again the classes/properties extracted from changed tables, and writes the added
+     * and deleted triples (compared to their previous files) into delta files.
+     *
+     * The state of the tables (maximum value of their change column) is stored next to the files.
+     * The new files are written into a staging directory and only moved into the output directory
+     * once the delta is complete, the state file last.
+     * The previous and new triples are compared after an external sort (bounded memory).
+     */
+    private void runIncrementally(OntopSQLOWLAPIConfiguration configuration, OntopRDFMaterializer materializer,
+                                  OutputSpec outputSpec) {
+        final long startTime = System.currentTimeMillis();
+        Path stagingDirectory = null;
+        try {
+            Path directory = outputSpec.getDirectory();
+            Files.createDirectories(directory);
+            Path stateFile = directory.resolve(STATE_FILE);
+            Properties previousState = loadProperties(stateFile);
+            Properties changeColumns = loadProperties(Paths.get(changeColumnsFile));
+
+            ImmutableMap<IRI, PredicateType> vocabulary = Stream.concat(
+                    materializer.getClasses().stream()
+                            .map(c -> Maps.immutableEntry(c, PredicateType.CLASS)),
+                    materializer.getProperties().stream()
+                            .map(p -> Maps.immutableEntry(p, PredicateType.PROPERTY)))
+                    .collect(ImmutableCollectors.toMap());
+
+            Properties newState = new Properties();
+            ImmutableSet<RelationID> unchangedRelations = extractUnchangedRelations(configuration, changeColumns,
+                    vocabulary.keySet().stream()
+                            .flatMap(p -> materializer.getSourceRelations(p).stream())
+                            .collect(ImmutableCollectors.toSet()),
+                    previousState, newState);
+
+            ImmutableMap<IRI, PredicateType> changedVocabulary = vocabulary.entrySet().stream()
+                    .filter(e -> !unchangedRelations.containsAll(materializer.getSourceRelations(e.getKey())))
+                    .collect(ImmutableCollectors.toMap());
+            System.err.println(String.format("%d classes/properties out of %d to materialize again",
+                    changedVocabulary.size(), vocabulary.size()));
+
+            // Same file system as the output directory (atomic moves)
+            stagingDirectory = Files.createTempDirectory(directory, "materialization-");
+            OutputSpec stagingSpec = outputSpec.inDirectory(stagingDirectory);
+            ExternalLineSorter sorter = new ExternalLineSorter(stagingDirectory, MAX_SORTED_LINES_IN_MEMORY,
+                    outputSpec::openReader);
+
+            ImmutableList.Builder<Path> previousFileBuilder = ImmutableList.builder();
+            long additionCount, deletionCount;
+            try (DeltaWriter additions = new DeltaWriter(stagingSpec.createWriter(DELTA_ADDITIONS));
+                 DeltaWriter deletions = new DeltaWriter(stagingSpec.createWriter(DELTA_DELETIONS))) {
+                int index = 0;
+                for (Map.Entry<IRI, PredicateType> e : changedVocabulary.entrySet()) {
+                    String fileSubstring = getFileSubstring(e.getKey(), e.getValue());
+                    ImmutableList<Path> previousFiles = outputSpec.getPredicateFiles(fileSubstring);
+                    previousFileBuilder.addAll(previousFiles);
+
+                    serializePredicate(materializer, e.getKey(), e.getValue(), ++index, changedVocabulary.size(),
+                            stagingSpec);
+
+                    Path sortedPreviousTriples = sorter.sort(previousFiles);
+                    try {
+                        Path sortedNewTriples = sorter.sort(stagingSpec.getPredicateFiles(fileSubstring));
+                        try {
+                            ExternalLineSorter.diff(sortedPreviousTriples, sortedNewTriples,
+                                    deletions::write, additions::write);
+                        } finally {
+                            Files.delete(sortedNewTriples);
+                        }
+                    } finally {
+                        Files.delete(sortedPreviousTriples);
+                    }
+                }
+                additionCount = additions.getCount();
+                deletionCount = deletions.getCount();
+            }
 
-        while (result.hasNext()) {
-            BufferedWriter writer = outputSpec.createWriter(Optional.of(fileSubstring + fileCount));
-            tripleCount += serializeTripleBatch(
-                    result,
-                    Optional.of(TRIPLE_LIMIT_PER_FILE),
-                    writer,
-                    outputSpec.createRDFHandler(writer)
-            );
-            fileCount++;
-        }
+            try (Writer writer = Files.newBufferedWriter(stagingDirectory.resolve(STATE_FILE), StandardCharsets.UTF_8)) {
+                newState.store(writer, "Maximum values of the change columns");
+            }
+            publishStagedFiles(stagingDirectory, directory, previousFileBuilder.build());
 
-        System.out.println("NR of TRIPLES: " + tripleCount);
+            System.out.println("NR of ADDED TRIPLES: " + additionCount);
+            System.out.println("NR of DELETED TRIPLES: " + deletionCount);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (stagingDirectory != null)
+                deleteDirectory(stagingDirectory);
+        }
 
         final long endTime = System.currentTimeMillis();
         final long time = endTime - startTime;
         System.out.println("Elapsed time to materialize: " + time + " {ms}");
     }
 
+    /**
+     * Moves the staged files (each of them atomically) into the output directory and then removes the previous
+     * files that have not been replaced.
+     * The state file is moved last: if interrupted before, the next run materializes the same classes/properties again.
+     */
+    private static void publishStagedFiles(Path stagingDirectory, Path directory, ImmutableList<Path> previousFiles)
+            throws IOException {
+        ImmutableList<Path> stagedFiles;
+        try (Stream<Path> files = Files.list(stagingDirectory)) {
+            stagedFiles = files
+                    .filter(f -> !f.getFileName().toString().equals(STATE_FILE))
+                    .collect(ImmutableCollectors.toList());
+        }
+        Set<Path> publishedFiles = new HashSet<>();
+        for (Path stagedFile : stagedFiles) {
+            Path target = directory.resolve(stagedFile.getFileName().toString());
+            Files.move(stagedFile, target, StandardCopyOption.ATOMIC_MOVE);
+            publishedFiles.add(target);
+        }
+        for (Path previousFile : previousFiles) {
+            if (!publishedFiles.contains(previousFile))
+                Files.deleteIfExists(previousFile);
+        }
+        Files.move(stagingDirectory.resolve(STATE_FILE), directory.resolve(STATE_FILE),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder())
+                    .forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Cannot delete the staging directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Relations having a change column whose maximum value is the same as in the previous state.
+     *
+     * Stores the current maximum values into newState.
+     */
+    private static ImmutableSet<RelationID> extractUnchangedRelations(OntopSQLOWLAPIConfiguration configuration,
+                                                                     Properties changeColumns,
+                                                                     ImmutableSet<RelationID> relations,
+                                                                     Properties previousState,
+                                                                     Properties newState) throws SQLException {
+        OntopSystemSQLSettings settings = configuration.getSettings();
+        ImmutableSet.Builder<RelationID> unchangedRelationBuilder = ImmutableSet.builder();
+
+        try (Connection connection = LocalJDBCConnectionUtils.createConnection(settings)) {
+            for (RelationID relation : relations) {
+                Optional<String> changeColumn = getChangeColumn(changeColumns, relation);
+                if (!changeColumn.isPresent())
+                    continue;
+
+                String marker;
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(String.format("SELECT MAX(%s) FROM %s",
+                             changeColumn.get(), relation.getSQLRendering()))) {
+                    resultSet.next();
+                    marker = Objects.toString(resultSet.getString(1), "");
+                }
+                String key = relation.getSQLRendering();
+                newState.setProperty(key, marker);
+                if (marker.equals(previousState.getProperty(key)))
+                    unchangedRelationBuilder.add(relation);
+            }
+        }
+        return unchangedRelationBuilder.build();
+    }
+
+    /**
+     * The table can be given with or without quotes and schema
+     */
+    private static Optional<String> getChangeColumn(Properties changeColumns, RelationID relation) {
+        return Stream.of(relation.getSQLRendering(), relation.getTableNameSQLRendering(), relation.getTableName())
+                .map(changeColumns::getProperty)
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    private static Properties loadProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * One triple per line
+     */
+    private static class DeltaWriter implements Closeable {
+        private final Writer writer;
+        private long count;
+
+        private DeltaWriter(Writer writer) {
+            this.writer = writer;
+            this.count = 0;
+        }
+
+        private void write(String triple) throws IOException {
+            writer.write(triple);
+            writer.write('\n');
+            count++;
+        }
+
+        private long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
     /**
      * Serializes a batch of triples into one file.
-     * Upper bound: TRIPLE_LIMIT_PER_FILE.
+     * Upper bounds: maxTriplesPerFile and maxFileSizeInMB.
      */
-    private int serializeTripleBatch(GraphQueryResult result, Optional<Integer> limitPerFile, BufferedWriter writer, RDFHandler handler) throws IOException {
-        int tripleCount = 0;
-        handler.startRDF();
-        while (result.hasNext() && (!limitPerFile.isPresent() || tripleCount < limitPerFile.get())) {
-            handler.handleStatement(result.next());
+    private long serializeTripleBatch(MaterializedGraphResultSet result, TripleWriter writer)
+            throws OntopQueryAnsweringException, OntopConnectionException, IOException {
+        long maxFileSize = maxFileSizeInMB * 1024L * 1024L;
+        long tripleCount = 0;
+        while (result.hasNext()
+                && (maxTriplesPerFile <= 0 || tripleCount < maxTriplesPerFile)
+                && (maxFileSize <= 0 || writer.getByteCount() < maxFileSize)) {
+            writer.write(result.next());
             tripleCount++;
         }
-        handler.endRDF();
-        writer.close();
         return tripleCount;
     }
 
@@ -289,42 +573,116 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
                 .enableOntologyAnnotationQuerying(true);
     }
 
-    private class OutputSpec {
+    private static class OutputSpec {
         private final Optional<String> prefix;
         private final String format;
+        private final String compression;
 
-        private OutputSpec(String prefix, String format) {
+        private OutputSpec(String prefix, String format, String compression) {
             this.prefix = Optional.of(removeExtension(prefix));
             this.format = format;
+            this.compression = compression;
         }
 
-        private OutputSpec(String format) {
-            this.prefix = Optional.empty();
+        private OutputSpec(String format, String compression) {
+            this(Optional.empty(), format, compression);
+        }
+
+        private OutputSpec(Optional<String> prefix, String format, String compression) {
+            this.prefix = prefix;
             this.format = format;
+            this.compression = compression;
+        }
+
+        /**
+         * Same format and compression, files written into another directory
+         */
+        private OutputSpec inDirectory(Path directory) {
+            return new OutputSpec(Optional.of(directory.toString()), format, compression);
         }
 
-        // We need a direct access to the writer to close it (cannot be done via the RDFHandler)
-        private BufferedWriter createWriter(Optional<String> prefixExtension) throws IOException {
+        private TripleWriter createTripleWriter(Optional<String> prefixExtension) throws IOException {
+            OutputStream outputStream;
             if (prefix.isPresent()) {
                 String suffix = getSuffix();
-                return Files.newBufferedWriter(
+                outputStream = Files.newOutputStream(
                         prefixExtension.isPresent() ?
                                 Paths.get(prefix.get(), prefixExtension.get() + suffix) :
-                                Paths.get(prefix.get() + suffix),
-                        Charset.forName("UTF-8")
-                );
+                                Paths.get(prefix.get() + suffix));
+            }
+            else
+                outputStream = System.out;
+
+            CountingOutputStream countingStream = new CountingOutputStream(
+                    new BufferedOutputStream(outputStream, BUFFER_SIZE));
+            OutputStream compressedStream = compress(countingStream);
+
+            // N-Triples: fast path, no RDF4J statement
+            if (format.equals(NTRIPLES))
+                return new NTriplesTripleWriter(countingStream, compressedStream);
+            return new RDFHandlerTripleWriter(countingStream,
+                    new BufferedWriter(new OutputStreamWriter(compressedStream, StandardCharsets.UTF_8), BUFFER_SIZE));
+        }
+
+        private OutputStream compress(OutputStream outputStream) throws IOException {
+            return compression.equals(GZIP)
+                    ? new GZIPOutputStream(outputStream, BUFFER_SIZE)
+                    : outputStream;
+        }
+
+        /**
+         * Only for separate files
+         */
+        private Path getDirectory() {
+            return Paths.get(prefix.orElseThrow(() -> new IllegalStateException("No output directory")));
+        }
+
+        /**
+         * Writer for a file of the output directory
+         */
+        private Writer createWriter(String fileName) throws IOException {
+            return new BufferedWriter(new OutputStreamWriter(
+                    compress(new BufferedOutputStream(
+                            Files.newOutputStream(getDirectory().resolve(fileName + getSuffix())), BUFFER_SIZE)),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        /**
+         * Files written by serializePredicate(...)
+         */
+        private ImmutableList<Path> getPredicateFiles(String fileSubstring) throws IOException {
+            Pattern pattern = Pattern.compile(Pattern.quote(fileSubstring) + "[0-9]+" + Pattern.quote(getSuffix()));
+            try (Stream<Path> files = Files.list(getDirectory())) {
+                return files
+                        .filter(f -> pattern.matcher(f.getFileName().toString()).matches())
+                        .collect(ImmutableCollectors.toList());
+            }
+        }
+
+        /**
+         * Reader for a file written with this output spec
+         */
+        private BufferedReader openReader(Path file) throws IOException {
+            InputStream inputStream = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+            try {
+                return new BufferedReader(new InputStreamReader(
+                        compression.equals(GZIP) ? new GZIPInputStream(inputStream, BUFFER_SIZE) : inputStream,
+                        StandardCharsets.UTF_8), BUFFER_SIZE);
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
             }
-            return new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8"));
         }
 
         private String getSuffix() {
+            String compressionSuffix = compression.equals(GZIP) ? ".gz" : "";
             switch (format) {
                 case RDF_XML:
-                    return ".rdf";
+                    return ".rdf" + compressionSuffix;
                 case TURTLE:
-                    return ".ttl";
+                    return ".ttl" + compressionSuffix;
                 case NTRIPLES:
-                    return ".nt";
+                    return ".nt" + compressionSuffix;
                 default:
                     throw new RuntimeException("Unknown output format: " + format);
             }
@@ -346,5 +704,78 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
                     throw new RuntimeException("Unknown output format: " + format);
             }
         }
+
+        private class RDFHandlerTripleWriter implements TripleWriter {
+            private final CountingOutputStream countingStream;
+            // We need a direct access to the writer to close it (cannot be done via the RDFHandler)
+            private final BufferedWriter writer;
+            private final RDFHandler handler;
+
+            private RDFHandlerTripleWriter(CountingOutputStream countingStream, BufferedWriter writer) {
+                this.countingStream = countingStream;
+                this.writer = writer;
+                this.handler = createRDFHandler(writer);
+                handler.startRDF();
+            }
+
+            @Override
+            public void write(Assertion assertion) {
+                handler.handleStatement(RDF4JHelper.createStatement(assertion));
+            }
+
+            @Override
+            public long getByteCount() {
+                return countingStream.getCount();
+            }
+
+            @Override
+            public void close() throws IOException {
+                handler.endRDF();
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the triples of one output file
+     */
+    private interface TripleWriter extends AutoCloseable {
+
+        void write(Assertion assertion) throws IOException;
+
+        /**
+         * Number of bytes written so far into the output (after compression)
+         */
+        long getByteCount();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class NTriplesTripleWriter implements TripleWriter {
+        private final CountingOutputStream countingStream;
+        private final OutputStream outputStream;
+        private final NTriplesAssertionEncoder encoder;
+
+        private NTriplesTripleWriter(CountingOutputStream countingStream, OutputStream outputStream) {
+            this.countingStream = countingStream;
+            this.outputStream = outputStream;
+            this.encoder = new NTriplesAssertionEncoder();
+        }
+
+        @Override
+        public void write(Assertion assertion) throws IOException {
+            outputStream.write(encoder.encode(assertion));
+        }
+
+        @Override
+        public long getByteCount() {
+            return countingStream.getCount();
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
     }
 }
@@ -0,0 +1,68 @@
+package it.unibz.inf.ontop.cli;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExternalLineSorterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSeveralRuns() throws IOException {
+        Path file1 = write("d", "b", "", "a", "d");
+        Path file2 = write("c", "a", "e");
+
+        ExternalLineSorter sorter = createSorter(2);
+        Path sorted = sorter.sort(ImmutableList.of(file1, file2));
+
+        assertEquals(ImmutableList.of("a", "b", "c", "d", "e"), Files.readAllLines(sorted, StandardCharsets.UTF_8));
+        // Only the sorted file is left
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testNoFile() throws IOException {
+        Path sorted = createSorter(2).sort(ImmutableList.of());
+        assertEquals(ImmutableList.of(), Files.readAllLines(sorted, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDiff() throws IOException {
+        ExternalLineSorter sorter = createSorter(2);
+        Path previous = sorter.sort(ImmutableList.of(write("a", "c", "d", "f")));
+        Path next = sorter.sort(ImmutableList.of(write("b", "c", "f", "g", "a")));
+
+        List<String> deletions = new ArrayList<>();
+        List<String> additions = new ArrayList<>();
+        ExternalLineSorter.diff(previous, next, deletions::add, additions::add);
+
+        assertEquals(ImmutableList.of("d"), deletions);
+        assertEquals(ImmutableList.of("b", "g"), additions);
+    }
+
+    private ExternalLineSorter createSorter(int maxLinesInMemory) {
+        return new ExternalLineSorter(temporaryFolder.getRoot().toPath(), maxLinesInMemory,
+                f -> Files.newBufferedReader(f, StandardCharsets.UTF_8));
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, ImmutableList.copyOf(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,148 @@
+package it.unibz.inf.ontop.cli;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.ObjectConstant;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.rdf4j.utils.RDF4JHelper;
+import it.unibz.inf.ontop.spec.ontology.ABoxAssertionSupplier;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
+import org.apache.commons.rdf.api.RDF;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NTriplesAssertionEncoderTest {
+
+    private static final TermFactory TERM_FACTORY;
+    private static final TypeFactory TYPE_FACTORY;
+    private static final RDF RDF_FACTORY;
+    private static final ABoxAssertionSupplier ASSERTION_SUPPLIER;
+
+    private static final String EX = "http://example.org/";
+
+    static {
+        Injector injector = OntopModelConfiguration.defaultBuilder().build().getInjector();
+        TERM_FACTORY = injector.getInstance(TermFactory.class);
+        TYPE_FACTORY = injector.getInstance(TypeFactory.class);
+        RDF_FACTORY = injector.getInstance(RDF.class);
+        ASSERTION_SUPPLIER = OntologyBuilderImpl.assertionSupplier(RDF_FACTORY);
+    }
+
+    @Test
+    public void testSameOutputAsRDF4JWriter() throws Exception {
+        ObjectConstant john = iri(EX + "person/john");
+        ObjectConstant mary = iri(EX + "person/mary%20jane");
+        ObjectConstant bnode = TERM_FACTORY.getConstantBNode("b0");
+
+        ImmutableList<Assertion> assertions = ImmutableList.of(
+                ASSERTION_SUPPLIER.createClassAssertion(EX + "Person", john),
+                ASSERTION_SUPPLIER.createClassAssertion(EX + "Person", bnode),
+                ASSERTION_SUPPLIER.createObjectPropertyAssertion(EX + "knows", john, mary),
+                ASSERTION_SUPPLIER.createDataPropertyAssertion(EX + "name", john,
+                        TERM_FACTORY.getRDFLiteralConstant("John \"Jack\" \\ Smith\nJr\t\u00E9\u4E2D",
+                                TYPE_FACTORY.getXsdStringDatatype())),
+                ASSERTION_SUPPLIER.createDataPropertyAssertion(EX + "label", john,
+                        TERM_FACTORY.getRDFLiteralConstant("Giovanni", "it")),
+                ASSERTION_SUPPLIER.createDataPropertyAssertion(EX + "age", mary,
+                        TERM_FACTORY.getRDFLiteralConstant("42", TYPE_FACTORY.getXsdIntegerDatatype())));
+
+        assertTrue(Models.isomorphic(parse(writeWithRDF4J(assertions)), parse(encode(assertions))));
+    }
+
+    /**
+     * Characters not allowed in an IRIREF are written as UCHARs, and parsed back
+     */
+    @Test
+    public void testIRIEscaping() throws Exception {
+        String subjectIRI = EX + "a\"b\\c{d}|e^f`g<h>";
+        ImmutableList<Assertion> assertions = ImmutableList.of(
+                ASSERTION_SUPPLIER.createClassAssertion(EX + "Person", iri(subjectIRI)));
+
+        String encoded = encode(assertions);
+        assertEquals("<" + EX + "a\\u0022b\\u005Cc\\u007Bd\\u007D\\u007Ce\\u005Ef\\u0060g\\u003Ch\\u003E> "
+                + "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <" + EX + "Person> .\n", encoded);
+
+        Model model = parse(encoded);
+        assertEquals(1, model.size());
+        assertEquals(subjectIRI, model.iterator().next().getSubject().stringValue());
+    }
+
+    /**
+     * Non-ASCII characters are allowed in an IRIREF (UTF-8)
+     */
+    @Test
+    public void testNonASCIIIRI() throws Exception {
+        String subjectIRI = EX + "caf\u00E9/\u4E2D";
+        ImmutableList<Assertion> assertions = ImmutableList.of(
+                ASSERTION_SUPPLIER.createClassAssertion(EX + "Place", iri(subjectIRI)));
+
+        String encoded = encode(assertions);
+        assertTrue(encoded.startsWith("<" + subjectIRI + "> "));
+
+        Model model = parse(encoded);
+        assertEquals(parse(writeWithRDF4J(assertions)), model);
+        assertEquals(subjectIRI, model.iterator().next().getSubject().stringValue());
+    }
+
+    private static ObjectConstant iri(String iri) {
+        return TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI(iri));
+    }
+
+    private static String encode(ImmutableList<Assertion> assertions) throws Exception {
+        NTriplesAssertionEncoder encoder = new NTriplesAssertionEncoder();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (Assertion assertion : assertions)
+            outputStream.write(encoder.encode(assertion));
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The IRIs are not validated: the escaped characters are not allowed in IRIs
+     */
+    private static Model parse(String nTriples) throws Exception {
+        RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
+        parser.getParserConfig().set(BasicParserSettings.VERIFY_URI_SYNTAX, false);
+        Model model = new LinkedHashModel();
+        parser.setRDFHandler(new StatementCollector(model));
+        parser.parse(new StringReader(nTriples), "");
+        return model;
+    }
+
+    /**
+     * Same settings as ontop materialize
+     */
+    private static String writeWithRDF4J(ImmutableList<Assertion> assertions) {
+        StringWriter stringWriter = new StringWriter();
+        RDFWriter writer = new NTriplesWriter(stringWriter);
+        writer.set(BasicWriterSettings.PRETTY_PRINT, false);
+        writer.startRDF();
+        for (Assertion assertion : assertions) {
+            Statement statement = RDF4JHelper.createStatement(assertion);
+            writer.handleStatement(statement);
+        }
+        writer.endRDF();
+        return stringWriter.toString();
+    }
+}
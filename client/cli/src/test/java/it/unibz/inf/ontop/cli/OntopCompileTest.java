@@ -0,0 +1,73 @@
+package it.unibz.inf.ontop.cli;
+
+import it.unibz.inf.ontop.exception.OBDASpecificationException;
+import it.unibz.inf.ontop.injection.OntopMappingSQLSettings;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.impl.OntopModelConfigurationImpl;
+import org.h2.tools.Server;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OntopCompileTest {
+
+    // Same port as H2ExternalResourceForBookExample (see exampleBooks.properties)
+    private static final String H2_PORT = "19123";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testOntopHelp(){
+        Ontop.main("help", "compile");
+    }
+
+    /**
+     * The specification is loaded from the snapshot once the DB is no longer reachable
+     */
+    @Test
+    public void testOntopCompile() throws Exception {
+        String snapshotFile = new File(temporaryFolder.getRoot(), "exampleBooks-metadata.snapshot").getPath();
+
+        Server server = Server.createTcpServer("-tcpPort", H2_PORT, "-tcpAllowOthers").start();
+        try {
+            Ontop.main("compile",
+                    "-m", "src/test/resources/books/exampleBooks.obda",
+                    "-p", "src/test/resources/books/exampleBooks.properties",
+                    "-o", snapshotFile);
+        }
+        finally {
+            server.stop();
+        }
+        assertTrue(new File(snapshotFile).length() > 0);
+
+        try {
+            createConfiguration(null).loadSpecification();
+            fail("The DB should not be reachable");
+        }
+        catch (OBDASpecificationException e) {
+            // expected
+        }
+
+        createConfiguration(snapshotFile).loadSpecification();
+    }
+
+    private static OntopSQLOWLAPIConfiguration createConfiguration(String snapshotFile) throws Exception {
+        Properties properties = OntopModelConfigurationImpl.extractProperties(
+                OntopModelConfigurationImpl.extractPropertyFile("src/test/resources/books/exampleBooks.properties"));
+        if (snapshotFile != null)
+            properties.setProperty(OntopMappingSQLSettings.METADATA_SNAPSHOT_FILE, snapshotFile);
+
+        return OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .nativeOntopMappingFile("src/test/resources/books/exampleBooks.obda")
+                .ontologyFile("src/test/resources/books/exampleBooks.owl")
+                .properties(properties)
+                .build();
+    }
+}
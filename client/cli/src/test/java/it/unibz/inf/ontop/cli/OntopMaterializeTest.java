@@ -1,14 +1,34 @@
 package it.unibz.inf.ontop.cli;
 
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExternalResource;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
 
 public class OntopMaterializeTest {
 
     @ClassRule
     public static ExternalResource h2Connection = new H2ExternalResourceForBookExample();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testOntopHelpMaterialize(){
         Ontop.main("help", "materialize");
@@ -104,6 +124,111 @@ public class OntopMaterializeTest {
         Ontop.main(argv);
     }
 
+    @Test
+    public void testOntopMaterializeSeparatefilesInParallelCompressed() throws IOException {
+        File outputDir = temporaryFolder.newFolder("parallel");
+        String[] argv = {"materialize", "-m", "src/test/resources/books/exampleBooks.obda",
+                "-t", "src/test/resources/books/exampleBooks.owl",
+                "-p", "src/test/resources/books/exampleBooks.properties",
+                "-f", "ntriples", "-o", outputDir.getPath() + File.separator,  "--separate-files",
+                "--threads", "3", "--compression", "gzip", "--max-triples-per-file", "5"
+        };
+        Ontop.main(argv);
+
+        File singleFile = temporaryFolder.newFile("single.nt");
+        Ontop.main("materialize", "-m", "src/test/resources/books/exampleBooks.obda",
+                "-t", "src/test/resources/books/exampleBooks.owl",
+                "-p", "src/test/resources/books/exampleBooks.properties",
+                "-f", "ntriples", "-o", singleFile.getPath());
+
+        File[] files = outputDir.listFiles();
+        assertNotNull(files);
+        assertTrue(files.length > 1);
+        Model model = new LinkedHashModel();
+        for (File file : files) {
+            assertTrue(file.getName(), file.getName().endsWith(".nt.gz"));
+            try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+                Model fileModel = Rio.parse(in, "", RDFFormat.NTRIPLES);
+                assertTrue(file.getName(), fileModel.size() <= 5);
+                model.addAll(fileModel);
+            }
+        }
+        try (InputStream in = new FileInputStream(singleFile)) {
+            Model expectedModel = Rio.parse(in, "", RDFFormat.NTRIPLES);
+            assertFalse(expectedModel.isEmpty());
+            assertTrue(Models.isomorphic(expectedModel, model));
+        }
+    }
+
+    @Test
+    public void testOntopMaterializeIncremental() throws IOException {
+        File outputDir = temporaryFolder.newFolder("incremental");
+        String[] argv = {"materialize", "-m", "src/test/resources/books/exampleBooks.obda",
+                "-t", "src/test/resources/books/exampleBooks.owl",
+                "-p", "src/test/resources/books/exampleBooks.properties",
+                "-f", "ntriples", "-o", outputDir.getPath() + File.separator,  "--separate-files",
+                "--change-columns", "src/test/resources/books/exampleBooks-change-columns.properties"
+        };
+        Path additions = outputDir.toPath().resolve("delta-additions.nt");
+        Path deletions = outputDir.toPath().resolve("delta-deletions.nt");
+        Path bookFile = outputDir.toPath().resolve("http___meraka_moss_exampleBooks_owl_BookC_0.nt");
+        Path editionFile = outputDir.toPath().resolve("http___meraka_moss_exampleBooks_owl_EditionC_0.nt");
+        Path stateFile = outputDir.toPath().resolve("materialization-state.properties");
+
+        // First run: everything is added
+        Ontop.main(argv);
+        List<String> bookTriples = Files.readAllLines(bookFile, StandardCharsets.UTF_8);
+        assertFalse(bookTriples.isEmpty());
+        Set<String> allTriples = new HashSet<>();
+        for (File file : outputDir.listFiles((d, n) -> n.endsWith("_0.nt")))
+            allTriples.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        assertEquals(allTriples, new HashSet<>(Files.readAllLines(additions, StandardCharsets.UTF_8)));
+        assertTrue(Files.readAllLines(deletions, StandardCharsets.UTF_8).isEmpty());
+
+        // Second run, no change in the DB: the triples of tb_edition (change column) are not materialized again
+        String extraEditionTriple = "<http://meraka/moss/exampleBooks.owl#edition/999/> " +
+                "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://meraka/moss/exampleBooks.owl#Edition> .";
+        Files.write(editionFile, Collections.singletonList(extraEditionTriple), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Ontop.main(argv);
+        assertTrue(Files.readAllLines(additions, StandardCharsets.UTF_8).isEmpty());
+        assertTrue(Files.readAllLines(deletions, StandardCharsets.UTF_8).isEmpty());
+        assertTrue(Files.readAllLines(editionFile, StandardCharsets.UTF_8).contains(extraEditionTriple));
+        assertEquals(new HashSet<>(bookTriples),
+                new HashSet<>(Files.readAllLines(bookFile, StandardCharsets.UTF_8)));
+
+        // Third run, tb_books considered as changed: the difference with the previous Book file is reported
+        String extraBookTriple = "<http://meraka/moss/exampleBooks.owl#book/999/> " +
+                "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://meraka/moss/exampleBooks.owl#Book> .";
+        String removedBookTriple = bookTriples.get(0);
+        List<String> modifiedBookTriples = new ArrayList<>(bookTriples.subList(1, bookTriples.size()));
+        modifiedBookTriples.add(extraBookTriple);
+        Files.write(bookFile, modifiedBookTriples, StandardCharsets.UTF_8);
+
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+            state.load(reader);
+        }
+        String booksKey = state.stringPropertyNames().stream()
+                .filter(k -> k.contains("tb_books"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No state for tb_books"));
+        state.setProperty(booksKey, "0");
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            state.store(writer, null);
+        }
+
+        Ontop.main(argv);
+        assertEquals(Collections.singletonList(removedBookTriple),
+                Files.readAllLines(additions, StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList(extraBookTriple),
+                Files.readAllLines(deletions, StandardCharsets.UTF_8));
+        assertEquals(new HashSet<>(bookTriples),
+                new HashSet<>(Files.readAllLines(bookFile, StandardCharsets.UTF_8)));
+        // No staging directory left
+        assertEquals(0, outputDir.listFiles(File::isDirectory).length);
+    }
+
     @Test
     public void testOntopMaterializeSeparatefilesNoFormat (){
         String[] argv = {"materialize", "-m", "src/test/resources/books/exampleBooks.obda",
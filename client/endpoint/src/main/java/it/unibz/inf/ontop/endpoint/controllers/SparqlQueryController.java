@@ -1,14 +1,18 @@
 package it.unibz.inf.ontop.endpoint.controllers;
 
+import it.unibz.inf.ontop.rdf4j.query.impl.OntopPagedTupleQueryResult;
+import it.unibz.inf.ontop.rdf4j.query.impl.OntopTupleQuery;
 import it.unibz.inf.ontop.rdf4j.repository.impl.OntopVirtualRepository;
 import it.unibz.inf.ontop.utils.VersionInfo;
 
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.BooleanQuery;
 import org.eclipse.rdf4j.query.GraphQuery;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.Query;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.eclipse.rdf4j.query.Update;
 import org.eclipse.rdf4j.query.resultio.BooleanQueryResultWriter;
 import org.eclipse.rdf4j.query.resultio.sparqljson.SPARQLBooleanJSONWriter;
@@ -34,13 +38,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.springframework.http.HttpHeaders.ACCEPT;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
@@ -50,6 +58,7 @@ import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED_VAL
 public class SparqlQueryController {
 
     private static final Logger log = LoggerFactory.getLogger(SparqlQueryController.class);
+    private static final String CONTINUATION_HEADER = "Ontop-Continuation";
 
     private final OntopVirtualRepository repository;
 
@@ -73,8 +82,10 @@ public class SparqlQueryController {
             @RequestParam(value = "query") String query,
             @RequestParam(value = "default-graph-uri", required = false) String[] defaultGraphUri,
             @RequestParam(value = "named-graph-uri", required = false) String[] namedGraphUri,
+            @RequestParam(value = "page-size", required = false) Integer pageSize,
+            @RequestParam(value = "continuation", required = false) String continuationToken,
             HttpServletResponse response) {
-        execQuery(accept, query, defaultGraphUri, namedGraphUri, response);
+        execQuery(accept, query, defaultGraphUri, namedGraphUri, pageSize, continuationToken, response);
     }
 
     @RequestMapping(value = "/sparql",
@@ -85,8 +96,10 @@ public class SparqlQueryController {
             @RequestParam(value = "query") String query,
             @RequestParam(value = "default-graph-uri", required = false) String[] defaultGraphUri,
             @RequestParam(value = "named-graph-uri", required = false) String[] namedGraphUri,
+            @RequestParam(value = "page-size", required = false) Integer pageSize,
+            @RequestParam(value = "continuation", required = false) String continuationToken,
             HttpServletResponse response) {
-        execQuery(accept, query, defaultGraphUri, namedGraphUri, response);
+        execQuery(accept, query, defaultGraphUri, namedGraphUri, pageSize, continuationToken, response);
     }
 
     @RequestMapping(value = "/sparql",
@@ -97,11 +110,18 @@ public class SparqlQueryController {
             @RequestBody String query,
             @RequestParam(value = "default-graph-uri", required = false) String[] defaultGraphUri,
             @RequestParam(value = "named-graph-uri", required = false) String[] namedGraphUri,
+            @RequestParam(value = "page-size", required = false) Integer pageSize,
+            @RequestParam(value = "continuation", required = false) String continuationToken,
             HttpServletResponse response) {
-        execQuery(accept, query, defaultGraphUri, namedGraphUri, response);
+        execQuery(accept, query, defaultGraphUri, namedGraphUri, pageSize, continuationToken, response);
     }
 
+    /**
+     * When a page size is given, SELECT queries are paged (keyset pagination): the token for requesting
+     * the next page is returned in the CONTINUATION_HEADER header (absent for the last page).
+     */
     private void execQuery(String accept, String query, String[] defaultGraphUri, String[] namedGraphUri,
+                           @Nullable Integer pageSize, @Nullable String continuationToken,
                            HttpServletResponse response) {
         try (RepositoryConnection connection = repository.getConnection()) {
             Query q = connection.prepareQuery(QueryLanguage.SPARQL, query);
@@ -111,22 +131,31 @@ public class SparqlQueryController {
                 TupleQuery selectQuery = (TupleQuery) q;
                 response.setCharacterEncoding("UTF-8");
 
+                TupleQueryResultHandler writer;
                 if ("*/*".equals(accept) || accept.contains("json")) {
                     response.setHeader(HttpHeaders.CONTENT_TYPE, "application/sparql-results+json;charset=UTF-8");
-                    selectQuery.evaluate(new SPARQLResultsJSONWriter(bao));
+                    writer = new SPARQLResultsJSONWriter(bao);
                 } else if (accept.contains("xml")) {
                     response.setHeader(HttpHeaders.CONTENT_TYPE, "application/sparql-results+xml;charset=UTF-8");
-                    selectQuery.evaluate(new SPARQLResultsXMLWriter(bao));
+                    writer = new SPARQLResultsXMLWriter(bao);
                 } else if (accept.contains("csv")) {
                     response.setHeader(HttpHeaders.CONTENT_TYPE, "text/sparql-results+csv;charset=UTF-8");
-                    selectQuery.evaluate(new SPARQLResultsCSVWriter(bao));
+                    writer = new SPARQLResultsCSVWriter(bao);
                 } else if (accept.contains("tsv")) {
                     response.setHeader(HttpHeaders.CONTENT_TYPE, "text/sparql-results+tsv;charset=UTF-8");
-                    selectQuery.evaluate(new SPARQLResultsTSVWriter(bao));
+                    writer = new SPARQLResultsTSVWriter(bao);
                 } else {
+                    writer = null;
                     response.setStatus(HttpStatus.BAD_REQUEST.value());
                 }
 
+                if (writer != null) {
+                    if (pageSize != null && selectQuery instanceof OntopTupleQuery)
+                        writePage((OntopTupleQuery) selectQuery, pageSize, continuationToken, writer, response);
+                    else
+                        selectQuery.evaluate(writer);
+                }
+
             } else if (q instanceof BooleanQuery) {
                 BooleanQuery askQuery = (BooleanQuery) q;
                 boolean b = askQuery.evaluate();
@@ -174,6 +203,28 @@ public class SparqlQueryController {
         }
     }
 
+    /**
+     * The page is read before being written, as the continuation token is sent in a header
+     */
+    private void writePage(OntopTupleQuery selectQuery, int pageSize, @Nullable String continuationToken,
+                           TupleQueryResultHandler writer, HttpServletResponse response) {
+        List<BindingSet> bindingSets = new ArrayList<>(pageSize);
+        List<String> bindingNames;
+        Optional<String> nextToken;
+        try (OntopPagedTupleQueryResult result = selectQuery.evaluatePage(pageSize, continuationToken)) {
+            bindingNames = result.getBindingNames();
+            while (result.hasNext())
+                bindingSets.add(result.next());
+            nextToken = result.getContinuationToken();
+        }
+        nextToken.ifPresent(t -> response.setHeader(CONTINUATION_HEADER, t));
+
+        writer.startQueryResult(bindingNames);
+        for (BindingSet bindingSet : bindingSets)
+            writer.handleSolution(bindingSet);
+        writer.endQueryResult();
+    }
+
     @ExceptionHandler({MalformedQueryException.class})
     public ResponseEntity<String> handleMalformedQueryException(Exception ex) {
         ex.printStackTrace();
@@ -1,6 +1,8 @@
 package it.unibz.inf.ontop.protege.core;
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.injection.OntopSystemOWLAPIConfiguration;
 import it.unibz.inf.ontop.owlapi.OntopOWLFactory;
 import it.unibz.inf.ontop.owlapi.OntopOWLReasoner;
 import it.unibz.inf.ontop.owlapi.connection.OWLConnection;
@@ -27,6 +29,8 @@ public class OntopProtegeReasoner extends OWLReasonerBase implements AutoCloseab
     private OntopOWLReasoner reasoner;
     private final OntopOWLFactory factory = OntopOWLFactory.defaultFactory();
     private final OntopConfigurationManager configurationManager;
+    // Configuration of the current reasoner
+    private OntopSystemOWLAPIConfiguration ontopConfiguration;
     private OntopOWLConnection owlConnection;
     private final OWLAPITranslatorOWL2QL owlapiTranslator;
 
@@ -36,6 +40,7 @@ public class OntopProtegeReasoner extends OWLReasonerBase implements AutoCloseab
         this.owlapiTranslator = configuration.getOWLAPITranslator();
 
         reasoner = factory.createReasoner(rootOntology, configuration);
+        this.ontopConfiguration = configuration.getOntopConfiguration();
         this.configurationManager = configuration.getOntopConfigurationManager();
         owlConnection = reasoner.getConnection();
     }
@@ -64,7 +69,10 @@ public class OntopProtegeReasoner extends OWLReasonerBase implements AutoCloseab
     public void flush() {
         super.flush();
         try {
-            reasoner = factory.createReasoner(configurationManager.buildOntopSQLOWLAPIConfiguration(getRootOntology()));
+            OntopSystemOWLAPIConfiguration newConfiguration =
+                    configurationManager.buildOntopSQLOWLAPIConfiguration(getRootOntology());
+            reasoner = factory.createReasoner(newConfiguration);
+            ontopConfiguration = newConfiguration;
         } catch (OWLOntologyCreationException e) {
             e.printStackTrace();
         }
@@ -119,6 +127,10 @@ public class OntopProtegeReasoner extends OWLReasonerBase implements AutoCloseab
         return reasoner.getInconsistentAxiom();
     }
 
+    public ImmutableList<Object> getInconsistentAxioms() {
+        return reasoner.getInconsistentAxioms();
+    }
+
     @Override
     public boolean isSatisfiable(@Nonnull OWLClassExpression classExpression) {
         return reasoner.isSatisfiable(classExpression);
@@ -330,7 +342,7 @@ public class OntopProtegeReasoner extends OWLReasonerBase implements AutoCloseab
         Ontology mergeOntology = owlapiTranslator.translateAndClassify(rootOntology);
         ClassifiedTBox tBox = mergeOntology.tbox();
 
-        return new QuestOWLEmptyEntitiesChecker(tBox, owlConnection);
+        return new QuestOWLEmptyEntitiesChecker(tBox, owlConnection, ontopConfiguration.getSettings());
     }
 
     /**
@@ -75,6 +75,11 @@ public class ImmutableHomomorphism {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
     @Override
     public String toString() {
         return "IH " + map;
@@ -6,10 +6,17 @@ import it.unibz.inf.ontop.model.atom.AtomPredicate;
 import it.unibz.inf.ontop.model.atom.DataAtom;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Thread-safe: the chase (which generates fresh variables) is performed under a lock
+ */
 public class ImmutableCQContainmentCheckUnderLIDs<P extends AtomPredicate> implements ImmutableCQContainmentCheck<P> {
 
-    private final Map<ImmutableList<DataAtom<P>>, ImmutableSet<DataAtom<P>>> chaseCache = new HashMap<>();
+    private final Map<ImmutableList<DataAtom<P>>, ImmutableSet<DataAtom<P>>> chaseCache = new ConcurrentHashMap<>();
+
+    // the result only depends on the base and the two lists of atoms (the chase is cached)
+    private final Map<HomomorphismQuery<P>, Optional<ImmutableHomomorphism>> homomorphismCache = new ConcurrentHashMap<>();
 
     private final BasicLinearInclusionDependenciesImpl<P> dependencies;
 
@@ -27,7 +34,7 @@ public class ImmutableCQContainmentCheckUnderLIDs<P extends AtomPredicate> imple
             ImmutableHomomorphismIterator<P> iterator = new ImmutableHomomorphismIterator<>(
                     builder.build(),
                     cq2.getAtoms(),
-                    chaseCache.computeIfAbsent(cq1.getAtoms(), dependencies::chaseAllAtoms));
+                    chase(cq1.getAtoms()));
             return iterator.hasNext();
         }
         return false;
@@ -37,6 +44,51 @@ public class ImmutableCQContainmentCheckUnderLIDs<P extends AtomPredicate> imple
          return new ImmutableHomomorphismIterator<>(
                 base,
                 from,
-                chaseCache.computeIfAbsent(to, dependencies::chaseAllAtoms));
+                chase(to));
+    }
+
+    /**
+     * First homomorphism extending base from the atoms to the chase of the other atoms (cached)
+     */
+    public Optional<ImmutableHomomorphism> findHomomorphism(ImmutableHomomorphism base, ImmutableList<DataAtom<P>> from, ImmutableList<DataAtom<P>> to) {
+        return homomorphismCache.computeIfAbsent(new HomomorphismQuery<>(base, from, to), q -> {
+            ImmutableHomomorphismIterator<P> iterator = homomorphismIterator(base, from, to);
+            return iterator.hasNext() ? Optional.of(iterator.next()) : Optional.empty();
+        });
+    }
+
+    private ImmutableSet<DataAtom<P>> chase(ImmutableList<DataAtom<P>> atoms) {
+        ImmutableSet<DataAtom<P>> chased = chaseCache.get(atoms);
+        if (chased != null)
+            return chased;
+
+        // the dependencies share a variable generator
+        synchronized (dependencies) {
+            return chaseCache.computeIfAbsent(atoms, dependencies::chaseAllAtoms);
+        }
+    }
+
+    private static final class HomomorphismQuery<P extends AtomPredicate> {
+        private final ImmutableHomomorphism base;
+        private final ImmutableList<DataAtom<P>> from, to;
+
+        HomomorphismQuery(ImmutableHomomorphism base, ImmutableList<DataAtom<P>> from, ImmutableList<DataAtom<P>> to) {
+            this.base = base;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HomomorphismQuery)) return false;
+            HomomorphismQuery<?> other = (HomomorphismQuery<?>) o;
+            return base.equals(other.base) && from.equals(other.from) && to.equals(other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(base, from, to);
+        }
     }
 }
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.inject.assistedinject.Assisted;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.iq.node.*;
 import it.unibz.inf.ontop.iq.*;
 import it.unibz.inf.ontop.iq.tools.ExecutorRegistry;
@@ -59,6 +60,18 @@ public interface IntermediateQueryFactory {
                                 @Assisted("columnNames") ImmutableMap<Variable, String> columnNames,
                                 String nativeQueryString, VariableNullability variableNullability);
 
+    NativeNode createNativeNode(ImmutableSortedSet<Variable> variables,
+                                @Assisted("variableTypeMap") ImmutableMap<Variable, DBTermType> variableTypeMap,
+                                @Assisted("columnNames") ImmutableMap<Variable, String> columnNames,
+                                String nativeQueryString, ImmutableList<DBConstant> parameters,
+                                VariableNullability variableNullability);
+
+    NativeNode createNativeNode(ImmutableSortedSet<Variable> variables,
+                                @Assisted("variableTypeMap") ImmutableMap<Variable, DBTermType> variableTypeMap,
+                                @Assisted("columnNames") ImmutableMap<Variable, String> columnNames,
+                                String nativeQueryString, ImmutableList<DBConstant> parameters,
+                                VariableNullability variableNullability, ImmutableSet<RelationID> relationIDs);
+
     TrueNode createTrueNode();
 
     DistinctNode createDistinctNode();
@@ -156,6 +156,13 @@ public class OntopModelSettingsImpl implements OntopModelSettings {
                         "(must have a default value)"));
     }
 
+    int getRequiredPositiveInteger(String key) {
+        int value = getRequiredInteger(key);
+        if (value <= 0)
+            throw new InvalidOntopConfigurationException(key + " must be positive (found: " + value + ")");
+        return value;
+    }
+
     long getRequiredLong(String key) {
         return getLong(key)
                 .orElseThrow(() -> new InvalidOntopConfigurationException(key + " is required but missing " +
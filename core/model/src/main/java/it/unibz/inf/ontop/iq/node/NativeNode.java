@@ -1,8 +1,12 @@
 package it.unibz.inf.ontop.iq.node;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.iq.LeafIQTree;
+import it.unibz.inf.ontop.model.term.DBConstant;
 import it.unibz.inf.ontop.model.term.Variable;
 import it.unibz.inf.ontop.model.type.DBTermType;
 
@@ -31,4 +35,19 @@ public interface NativeNode extends LeafIQTree {
     ImmutableMap<Variable, String> getColumnNames();
 
     String getNativeQueryString();
+
+    /**
+     * Values of the parameters (?) of the native query string, in order of appearance.
+     * Their DB types tell how they are passed to the DB (e.g. as strings or as integers).
+     *
+     * Empty for non-parameterized queries.
+     */
+    ImmutableList<DBConstant> getParameters();
+
+    /**
+     * Relations read by the native query (e.g. for invalidating cached results).
+     *
+     * Empty if unknown.
+     */
+    ImmutableSet<RelationID> getRelationIDs();
 }
@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.iq.node.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -16,6 +17,7 @@ import it.unibz.inf.ontop.model.term.Variable;
 import it.unibz.inf.ontop.model.term.VariableOrGroundTerm;
 import it.unibz.inf.ontop.substitution.ImmutableSubstitution;
 import it.unibz.inf.ontop.substitution.InjectiveVar2VarSubstitution;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import it.unibz.inf.ontop.utils.VariableGenerator;
 
 import javax.annotation.Nullable;
@@ -61,6 +63,14 @@ public class SliceNodeImpl extends QueryModifierNodeImpl implements SliceNode {
             return iqFactory.createEmptyNode(child.getVariables());
 
         IQTree newChild = child.normalizeForOptimization(variableGenerator);
+        if (isExistenceCheck())
+            newChild = removeDistincts(newChild, variableGenerator);
+
+        return normalizeWithNormalizedChild(newChild, variableGenerator, currentIQProperties, true);
+    }
+
+    private IQTree normalizeWithNormalizedChild(IQTree newChild, VariableGenerator variableGenerator,
+                                                IQProperties currentIQProperties, boolean pushIntoUnion) {
         QueryNode newChildRoot = newChild.getRootNode();
 
         if (newChildRoot instanceof ConstructionNode)
@@ -69,10 +79,70 @@ public class SliceNodeImpl extends QueryModifierNodeImpl implements SliceNode {
             return mergeWithSliceChild((SliceNode) newChildRoot, newChild, currentIQProperties);
         else if (newChildRoot instanceof EmptyNode)
             return newChild;
+        else if ((newChildRoot instanceof UnionNode) && (limit != null) && pushIntoUnion)
+            return pushIntoUnionChildren((UnionNode) newChildRoot, newChild, variableGenerator, currentIQProperties);
         else
             return iqFactory.createUnaryIQTree(this, newChild, currentIQProperties.declareNormalizedForOptimization());
     }
 
+    /**
+     * LIMIT 1 without offset: only the existence of a tuple matters (e.g. ASK queries),
+     * not which one is returned.
+     */
+    private boolean isExistenceCheck() {
+        return offset == 0 && limit != null && limit == 1;
+    }
+
+    /**
+     * Sound when only the existence of a tuple matters: the distincts below do not change it.
+     */
+    private IQTree removeDistincts(IQTree newChild, VariableGenerator variableGenerator) {
+        IQTree childWithoutDistincts = newChild.removeDistincts();
+        return childWithoutDistincts.equals(newChild)
+                ? newChild
+                : childWithoutDistincts.normalizeForOptimization(variableGenerator);
+    }
+
+    /**
+     * No child of the union needs to produce more than offset + limit tuples.
+     *
+     * Limiting each child allows the DB to stop each of them early (e.g. at the first match for an ASK query),
+     * instead of materializing the whole union.
+     */
+    private IQTree pushIntoUnionChildren(UnionNode unionNode, IQTree unionTree, VariableGenerator variableGenerator,
+                                         IQProperties currentIQProperties) {
+        long childLimit = offset + limit;
+        ImmutableList<IQTree> children = unionTree.getChildren();
+        if (children.stream().allMatch(c -> isLimited(c, childLimit)))
+            return iqFactory.createUnaryIQTree(this, unionTree, currentIQProperties.declareNormalizedForOptimization());
+
+        ImmutableList<IQTree> newChildren = children.stream()
+                .map(c -> isLimited(c, childLimit)
+                        ? c
+                        : iqFactory.createUnaryIQTree(iqFactory.createSliceNode(0, childLimit), c))
+                .collect(ImmutableCollectors.toList());
+
+        IQTree newUnionTree = iqFactory.createNaryIQTree(unionNode, newChildren)
+                .normalizeForOptimization(variableGenerator);
+        return normalizeWithNormalizedChild(newUnionTree, variableGenerator, currentIQProperties, false);
+    }
+
+    /**
+     * Looks through the construction nodes
+     */
+    private static boolean isLimited(IQTree tree, long maxLimit) {
+        QueryNode rootNode = tree.getRootNode();
+        if (rootNode instanceof ConstructionNode)
+            return isLimited(((UnaryIQTree) tree).getChild(), maxLimit);
+        if (!(rootNode instanceof SliceNode))
+            return false;
+        SliceNode sliceNode = (SliceNode) rootNode;
+        return sliceNode.getOffset() == 0
+                && sliceNode.getLimit()
+                    .filter(l -> l <= maxLimit)
+                    .isPresent();
+    }
+
     private IQTree liftChildConstruction(ConstructionNode childConstructionNode, UnaryIQTree childTree,
                                          VariableGenerator variableGenerator) {
         IQTree newSliceLevelTree = iqFactory.createUnaryIQTree(this, childTree.getChild())
@@ -353,7 +353,7 @@ public class UnionNodeImpl extends CompositeQueryNodeImpl implements UnionNode {
                 ? properties.declareDistinctRemovalWithoutEffect()
                 : properties.declareDistinctRemovalWithEffect();
 
-        return iqFactory.createNaryIQTree(this, children, newProperties);
+        return iqFactory.createNaryIQTree(this, newChildren, newProperties);
     }
 
     /**
@@ -1,5 +1,9 @@
 package it.unibz.inf.ontop.model.term.functionsymbol.db;
 
+import com.google.common.collect.ImmutableList;
+
+import java.util.Optional;
+
 /**
  * Such a function symbol is specific to object identifier (IRI, bnode) template
  *
@@ -7,4 +11,12 @@ package it.unibz.inf.ontop.model.term.functionsymbol.db;
  */
 public interface ObjectStringTemplateFunctionSymbol extends DBFunctionSymbol {
     String getTemplate();
+
+    /**
+     * Values of the arguments (still encoded) giving this string, as matched when the template
+     * is compared to a constant.
+     *
+     * Empty if the string does not match the template.
+     */
+    Optional<ImmutableList<String>> decompose(String value);
 }
@@ -283,11 +283,9 @@ public abstract class ObjectStringTemplateFunctionSymbolImpl extends FunctionSym
         String otherValue = otherTerm.getValue();
 
         if (isInjective(terms, variableNullability, termFactory)) {
-            Matcher matcher = pattern.matcher(otherTerm.getValue());
-            if (matcher.find()) {
-                ImmutableList<DBConstant> subConstants = IntStream.range(0, getArity())
-                        .boxed()
-                        .map(i -> matcher.group(i + 1))
+            Optional<ImmutableList<String>> arguments = decompose(otherValue);
+            if (arguments.isPresent()) {
+                ImmutableList<DBConstant> subConstants = arguments.get().stream()
                         .map(termFactory::getDBStringConstant)
                         .collect(ImmutableCollectors.toList());
                 ImmutableExpression newExpression = termFactory.getConjunction(
@@ -308,6 +306,17 @@ public abstract class ObjectStringTemplateFunctionSymbolImpl extends FunctionSym
         return super.evaluateStrictEqWithNonNullConstant(terms, otherTerm, termFactory, variableNullability);
     }
 
+    @Override
+    public Optional<ImmutableList<String>> decompose(String value) {
+        Matcher matcher = pattern.matcher(value);
+        if (!matcher.find())
+            return Optional.empty();
+
+        return Optional.of(IntStream.range(0, getArity())
+                .mapToObj(i -> matcher.group(i + 1))
+                .collect(ImmutableCollectors.toList()));
+    }
+
     @Override
     public boolean isPreferringToBePostProcessedOverBeingBlocked() {
         return true;
@@ -27,8 +27,14 @@ import it.unibz.inf.ontop.model.type.TypeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * Retrieves the database metadata (table schema and database constraints)
@@ -103,6 +109,11 @@ import java.util.*;
 public class RDBMetadataExtractionTools {
 
 	private static final boolean printouts = false;
+	/**
+	 * Number of relations of a schema from which the metadata is retrieved schema-wide
+	 * rather than relation by relation
+	 */
+	private static final int BULK_EXTRACTION_THRESHOLD = 20;
 
 	private static Logger log = LoggerFactory.getLogger(RDBMetadataExtractionTools.class);
 
@@ -182,6 +193,15 @@ public class RDBMetadataExtractionTools {
 	 */
 
 	public static void loadMetadata(RDBMetadata metadata, Connection conn, Set<RelationID> realTables) throws SQLException {
+		loadMetadata(metadata, conn, realTables, 1, null);
+	}
+
+	/**
+	 * Like loadMetadata(metadata, conn, realTables), but when the DBMS has no catalog-wide extraction
+	 * of the constraints, they are extracted relation by relation on up to parallelism additional connections.
+	 */
+	public static void loadMetadata(RDBMetadata metadata, Connection conn, Set<RelationID> realTables,
+									int parallelism, @Nullable ConnectionSupplier connectionSupplier) throws SQLException {
 
 		if (printouts)
 			System.out.println("GETTING METADATA WITH " + conn + " ON " + realTables);
@@ -226,53 +246,29 @@ public class RDBMetadataExtractionTools {
 		else if (productName.contains("Microsoft SQL Server"))
 			dt = SQLServerTypeFixer;
 
-		List<DatabaseRelationDefinition> extractedRelations = new LinkedList<>();
-
         String catalog = getCatalog(metadata, conn);
 
-        for (RelationID seedId : seedRelationIds) {
-			// the same seedId can be mapped to many tables (if the seedId has no schema)
-			// we collect attributes from all of them
-			DatabaseRelationDefinition currentRelation = null;
-
-			// catalog is ignored for now (rs.getString("TABLE_CAT"))
-            try (ResultSet rs = md.getColumns(catalog, seedId.getSchemaName(), seedId.getTableName(), null)) {
-				while (rs.next()) {
-					String schema = rs.getString("TABLE_SCHEM");
-					// MySQL workaround
-					if (schema == null)
-						schema = rs.getString("TABLE_CAT");
-
-					RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac, schema,
-										rs.getString("TABLE_NAME"));
-					QuotedID attributeId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("COLUMN_NAME"));
-					if (printouts)
-						System.out.println("         " + relationId + "." + attributeId);
-
-					if (currentRelation == null || !currentRelation.getID().equals(relationId)) {
-						// switch to the next database relation
-						currentRelation = metadata.createDatabaseRelation(relationId);
-						extractedRelations.add(currentRelation);
-					}
-
-					// columnNoNulls, columnNullable, columnNullableUnknown
-					boolean isNullable = rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
-					String typeName = rs.getString("TYPE_NAME");
-					int columnSize = rs.getInt("COLUMN_SIZE");
-					//int dataType = dt.getCorrectedDatatype(rs.getInt("DATA_TYPE"), typeName);
+		List<DatabaseRelationDefinition> extractedRelations = extractRelations(md, metadata, catalog, seedRelationIds);
 
-					DBTermType termType = metadata.getDBTypeFactory().getDBTermType(typeName, columnSize);
-
-					currentRelation.addAttribute(attributeId, typeName, termType, isNullable);
-				}
+		boolean constraintsExtracted = false;
+		if (productName.contains("Oracle") && extractedRelations.size() >= BULK_EXTRACTION_THRESHOLD) {
+			try {
+				extractOracleConstraints(conn, extractedRelations, metadata);
+				constraintsExtracted = true;
+			}
+			catch (SQLException e) {
+				log.warn("Catalog-wide extraction of the constraints failed, falling back to the JDBC metadata: " + e);
 			}
 		}
+		if (!constraintsExtracted) {
+			if (parallelism > 1 && connectionSupplier != null && extractedRelations.size() > parallelism)
+				extractConstraintsInParallel(extractedRelations, metadata, parallelism, connectionSupplier);
+			else
+				extractConstraints(md, extractedRelations, metadata);
+		}
 
-		for (DatabaseRelationDefinition relation : extractedRelations)	{
-			getPrimaryKey(md, relation, metadata.getQuotedIDFactory());
-			getUniqueAttributes(md, relation, metadata.getQuotedIDFactory());
-			getForeignKeys(md, relation, metadata);
-			if (printouts) {
+		if (printouts) {
+			for (DatabaseRelationDefinition relation : extractedRelations) {
 				System.out.println(relation + ";");
 				for (UniqueConstraint uc : relation.getUniqueConstraints())
 					System.out.println(uc + ";");
@@ -288,6 +284,301 @@ public class RDBMetadataExtractionTools {
 		}
 	}
 
+	/**
+	 * The columns of the seed relations are retrieved schema by schema (null table name pattern)
+	 * when a schema has at least BULK_EXTRACTION_THRESHOLD seed relations, and relation by relation otherwise.
+	 *
+	 * Seeds without a schema are always retrieved relation by relation: a null schema pattern
+	 * would read the columns of all the schemas.
+	 */
+	private static List<DatabaseRelationDefinition> extractRelations(DatabaseMetaData md, RDBMetadata metadata,
+																	 String catalog, List<RelationID> seedRelationIds) throws SQLException {
+		Map<RelationID, DatabaseRelationDefinition> extractedRelations = new LinkedHashMap<>();
+
+		Map<Optional<String>, List<RelationID>> seedsBySchema = new LinkedHashMap<>();
+		for (RelationID seedId : seedRelationIds)
+			seedsBySchema.computeIfAbsent(Optional.ofNullable(seedId.getSchemaName()), s -> new ArrayList<>())
+					.add(seedId);
+
+		for (Map.Entry<Optional<String>, List<RelationID>> e : seedsBySchema.entrySet()) {
+			String schema = e.getKey().orElse(null);
+			if (schema != null && e.getValue().size() >= BULK_EXTRACTION_THRESHOLD) {
+				Set<String> tableNames = e.getValue().stream()
+						.map(RelationID::getTableName)
+						.collect(Collectors.toSet());
+				try (ResultSet rs = md.getColumns(catalog, schema, null, null)) {
+					extractColumns(rs, metadata, extractedRelations, tableNames);
+				}
+			}
+			else {
+				for (RelationID seedId : e.getValue()) {
+					// catalog is ignored for now (rs.getString("TABLE_CAT"))
+					try (ResultSet rs = md.getColumns(catalog, schema, seedId.getTableName(), null)) {
+						extractColumns(rs, metadata, extractedRelations, null);
+					}
+				}
+			}
+		}
+		return new ArrayList<>(extractedRelations.values());
+	}
+
+	/**
+	 * the same seedId can be mapped to many tables (if the seedId has no schema)
+	 * we collect attributes from all of them
+	 *
+	 * @param tableNames if not null, the columns of the other tables are ignored
+	 */
+	private static void extractColumns(ResultSet rs, RDBMetadata metadata,
+									   Map<RelationID, DatabaseRelationDefinition> extractedRelations,
+									   @Nullable Set<String> tableNames) throws SQLException {
+		QuotedIDFactory idfac = metadata.getQuotedIDFactory();
+		DatabaseRelationDefinition currentRelation = null;
+		while (rs.next()) {
+			String tableName = rs.getString("TABLE_NAME");
+			if (tableNames != null && !tableNames.contains(tableName))
+				continue;
+
+			String schema = rs.getString("TABLE_SCHEM");
+			// MySQL workaround
+			if (schema == null)
+				schema = rs.getString("TABLE_CAT");
+
+			RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac, schema, tableName);
+			QuotedID attributeId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("COLUMN_NAME"));
+			if (printouts)
+				System.out.println("         " + relationId + "." + attributeId);
+
+			if (currentRelation == null || !currentRelation.getID().equals(relationId)) {
+				// switch to the next database relation
+				currentRelation = extractedRelations.get(relationId);
+				if (currentRelation == null) {
+					currentRelation = metadata.createDatabaseRelation(relationId);
+					extractedRelations.put(relationId, currentRelation);
+				}
+			}
+
+			// columnNoNulls, columnNullable, columnNullableUnknown
+			boolean isNullable = rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+			String typeName = rs.getString("TYPE_NAME");
+			int columnSize = rs.getInt("COLUMN_SIZE");
+
+			DBTermType termType = metadata.getDBTypeFactory().getDBTermType(typeName, columnSize);
+
+			currentRelation.addAttribute(attributeId, typeName, termType, isNullable);
+		}
+	}
+
+	private static void extractConstraints(DatabaseMetaData md, List<DatabaseRelationDefinition> relations,
+										   RDBMetadata metadata) throws SQLException {
+		for (DatabaseRelationDefinition relation : relations)	{
+			getPrimaryKey(md, relation, metadata.getQuotedIDFactory());
+			getUniqueAttributes(md, relation, metadata.getQuotedIDFactory());
+			getForeignKeys(md, relation, metadata);
+		}
+	}
+
+	/**
+	 * Each task extracts the constraints of a disjoint subset of the relations on its own connection.
+	 * Only the constraints of these relations are modified (the referenced relations are only read).
+	 */
+	private static void extractConstraintsInParallel(List<DatabaseRelationDefinition> relations, RDBMetadata metadata,
+													 int parallelism, ConnectionSupplier connectionSupplier)
+			throws SQLException {
+		List<List<DatabaseRelationDefinition>> partitions = new ArrayList<>();
+		for (int i = 0; i < parallelism; i++)
+			partitions.add(new ArrayList<>());
+		for (int i = 0; i < relations.size(); i++)
+			partitions.get(i % parallelism).add(relations.get(i));
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (List<DatabaseRelationDefinition> partition : partitions) {
+				futures.add(executor.submit(() -> {
+					try (Connection connection = connectionSupplier.getConnection()) {
+						extractConstraints(connection.getMetaData(), partition, metadata);
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> future : futures)
+				future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while extracting the constraints", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException)
+				throw (SQLException) e.getCause();
+			throw new SQLException(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Additional connections to the same database
+	 */
+	@FunctionalInterface
+	public interface ConnectionSupplier {
+		Connection getConnection() throws SQLException;
+	}
+
+	/**
+	 * Primary keys, unique indexes and foreign keys of all the relations, in three queries on the Oracle catalog
+	 * (instead of three DatabaseMetaData calls per relation).
+	 *
+	 * The constraints are only added to the relations once all the queries have succeeded.
+	 */
+	private static void extractOracleConstraints(Connection conn, List<DatabaseRelationDefinition> relations,
+												 RDBMetadata metadata) throws SQLException {
+		QuotedIDFactory idfac = metadata.getQuotedIDFactory();
+		Map<RelationID, DatabaseRelationDefinition> relationMap = relations.stream()
+				.collect(Collectors.toMap(DatabaseRelationDefinition::getID, r -> r, (r1, r2) -> r1));
+		List<String> owners = relations.stream()
+				.map(r -> r.getID().getSchemaName())
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toList());
+		if (owners.isEmpty())
+			throw new SQLException("No schema for the relations");
+		String ownerList = owners.stream()
+				.map(o -> "?")
+				.collect(Collectors.joining(", "));
+
+		String primaryKeyQuery = "SELECT c.owner, c.table_name, c.constraint_name, cc.column_name " +
+				"FROM all_constraints c JOIN all_cons_columns cc " +
+				"  ON c.owner = cc.owner AND c.constraint_name = cc.constraint_name AND c.table_name = cc.table_name " +
+				"WHERE c.constraint_type = 'P' AND c.owner IN (" + ownerList + ") " +
+				"ORDER BY c.owner, c.table_name, c.constraint_name, cc.position";
+		List<UniqueConstraint> uniqueConstraints = new ArrayList<>();
+		try (PreparedStatement stmt = prepareOwnerQuery(conn, primaryKeyQuery, owners);
+			 ResultSet rs = stmt.executeQuery()) {
+			extractOracleUniqueConstraints(rs, relationMap, idfac, true, uniqueConstraints);
+		}
+
+		// same as getIndexInfo(..., true, ...): the unique indexes (including those of the primary keys)
+		String uniqueIndexQuery = "SELECT i.table_owner AS owner, i.table_name, i.index_name AS constraint_name, " +
+				"  ic.column_name " +
+				"FROM all_indexes i JOIN all_ind_columns ic " +
+				"  ON i.owner = ic.index_owner AND i.index_name = ic.index_name " +
+				"WHERE i.uniqueness = 'UNIQUE' AND i.table_owner IN (" + ownerList + ") " +
+				"ORDER BY i.table_owner, i.table_name, i.index_name, ic.column_position";
+		try (PreparedStatement stmt = prepareOwnerQuery(conn, uniqueIndexQuery, owners);
+			 ResultSet rs = stmt.executeQuery()) {
+			extractOracleUniqueConstraints(rs, relationMap, idfac, false, uniqueConstraints);
+		}
+
+		String foreignKeyQuery = "SELECT c.owner, c.table_name, c.constraint_name, cc.column_name, " +
+				"  rc.owner AS r_owner, rc.table_name AS r_table_name, rcc.column_name AS r_column_name " +
+				"FROM all_constraints c " +
+				"  JOIN all_cons_columns cc ON c.owner = cc.owner AND c.constraint_name = cc.constraint_name " +
+				"  JOIN all_constraints rc ON c.r_owner = rc.owner AND c.r_constraint_name = rc.constraint_name " +
+				"  JOIN all_cons_columns rcc ON rc.owner = rcc.owner AND rc.constraint_name = rcc.constraint_name " +
+				"    AND cc.position = rcc.position " +
+				"WHERE c.constraint_type = 'R' AND c.owner IN (" + ownerList + ") " +
+				"ORDER BY c.owner, c.table_name, c.constraint_name, cc.position";
+		List<ForeignKeyConstraint> foreignKeys = new ArrayList<>();
+		try (PreparedStatement stmt = prepareOwnerQuery(conn, foreignKeyQuery, owners);
+			 ResultSet rs = stmt.executeQuery()) {
+			extractOracleForeignKeys(rs, relationMap, metadata, idfac, foreignKeys);
+		}
+
+		for (UniqueConstraint uc : uniqueConstraints)
+			uc.getRelation().addUniqueConstraint(uc);
+		for (ForeignKeyConstraint fk : foreignKeys)
+			fk.getRelation().addForeignKeyConstraint(fk);
+	}
+
+	private static PreparedStatement prepareOwnerQuery(Connection conn, String query, List<String> owners)
+			throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(query);
+		for (int i = 0; i < owners.size(); i++)
+			stmt.setString(i + 1, owners.get(i));
+		return stmt;
+	}
+
+	/**
+	 * The rows are ordered by relation, constraint and column position
+	 */
+	private static void extractOracleUniqueConstraints(ResultSet rs, Map<RelationID, DatabaseRelationDefinition> relationMap,
+													   QuotedIDFactory idfac, boolean isPrimaryKey,
+													   List<UniqueConstraint> uniqueConstraints) throws SQLException {
+		UniqueConstraint.Builder builder = null;
+		DatabaseRelationDefinition currentRelation = null;
+		String currentName = null;
+		while (rs.next()) {
+			RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac,
+					rs.getString("owner"), rs.getString("table_name"));
+			String name = rs.getString("constraint_name");
+			DatabaseRelationDefinition relation = relationMap.get(relationId);
+			if (relation != currentRelation || !name.equals(currentName)) {
+				if (builder != null)
+					addIfNotNull(uniqueConstraints, builder.build(currentName, isPrimaryKey));
+				currentRelation = relation;
+				currentName = name;
+				builder = (relation != null) ? UniqueConstraint.builder(relation) : null;
+			}
+			if (builder != null) {
+				QuotedID attrId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("column_name"));
+				Attribute attr = currentRelation.getAttribute(attrId);
+				if (attr == null) {
+					// e.g., function-based index
+					builder = null;
+					continue;
+				}
+				builder.add(attr);
+			}
+		}
+		if (builder != null)
+			addIfNotNull(uniqueConstraints, builder.build(currentName, isPrimaryKey));
+	}
+
+	private static void extractOracleForeignKeys(ResultSet rs, Map<RelationID, DatabaseRelationDefinition> relationMap,
+												 RDBMetadata metadata, QuotedIDFactory idfac,
+												 List<ForeignKeyConstraint> foreignKeys) throws SQLException {
+		ForeignKeyConstraint.Builder builder = null;
+		DatabaseRelationDefinition currentRelation = null;
+		DatabaseRelationDefinition ref = null;
+		String currentName = null;
+		while (rs.next()) {
+			RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac,
+					rs.getString("owner"), rs.getString("table_name"));
+			String name = rs.getString("constraint_name");
+			DatabaseRelationDefinition relation = relationMap.get(relationId);
+			if (relation != currentRelation || !name.equals(currentName)) {
+				if (builder != null)
+					addIfNotNull(foreignKeys, builder.build(currentName));
+				currentRelation = relation;
+				currentName = name;
+				builder = null;
+				if (relation != null) {
+					RelationID refId = RelationID.createRelationIdFromDatabaseRecord(idfac,
+							rs.getString("r_owner"), rs.getString("r_table_name"));
+					ref = metadata.getDatabaseRelation(refId);
+					if (ref != null)
+						builder = new ForeignKeyConstraint.Builder(relation, ref);
+					else
+						log.warn("Cannot find table: " + refId + " for FK " + currentName);
+				}
+			}
+			if (builder != null) {
+				QuotedID attrId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("column_name"));
+				QuotedID refAttrId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("r_column_name"));
+				builder.add(currentRelation.getAttribute(attrId), ref.getAttribute(refAttrId));
+			}
+		}
+		if (builder != null)
+			addIfNotNull(foreignKeys, builder.build(currentName));
+	}
+
+	private static <T> void addIfNotNull(List<T> list, @Nullable T element) {
+		if (element != null)
+			list.add(element);
+	}
+
     private static String getCatalog(RDBMetadata metadata, Connection conn) throws SQLException {
         String catalog = null;
 
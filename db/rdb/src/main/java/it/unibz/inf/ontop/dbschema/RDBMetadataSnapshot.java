@@ -0,0 +1,193 @@
+package it.unibz.inf.ontop.dbschema;
+
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.model.type.DBTypeFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Binary snapshot of the database relations (attributes, unique constraints and foreign keys),
+ * so that the metadata can be restored without connecting to the database.
+ *
+ * The snapshot is tagged with a fingerprint of the inputs of the extraction (chosen by the caller):
+ * it is only restored if the fingerprint is the same.
+ *
+ * Parser views are not part of the snapshot (they are created after the extraction).
+ */
+public class RDBMetadataSnapshot {
+
+	private static final int MAGIC = 0x4f4e5450; // "ONTP"
+	private static final byte VERSION = 1;
+
+	private static final byte STANDARD_SQL_IDS = 'S';
+	private static final byte LOWER_CASE_IDS = 'L';
+	private static final byte IDENTITY_IDS = 'I';
+	private static final byte MYSQL_IDS = 'M';
+
+	public static void write(RDBMetadata metadata, String fingerprint, OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeUTF(fingerprint);
+
+		writeNullableUTF(out, metadata.getDriverName());
+		writeNullableUTF(out, metadata.getDriverVersion());
+		writeNullableUTF(out, metadata.getDbmsProductName());
+		writeNullableUTF(out, metadata.getDbmsVersion());
+		writeQuotedIDFactory(out, metadata.getQuotedIDFactory());
+
+		List<DatabaseRelationDefinition> relations = new ArrayList<>(metadata.getDatabaseRelations());
+		Map<DatabaseRelationDefinition, Integer> relationIndexes = new IdentityHashMap<>();
+		out.writeInt(relations.size());
+		for (DatabaseRelationDefinition relation : relations) {
+			relationIndexes.put(relation, relationIndexes.size());
+			writeNullableUTF(out, relation.getID().getSchemaName());
+			out.writeUTF(relation.getID().getTableName());
+			out.writeInt(relation.getAttributes().size());
+			for (Attribute attribute : relation.getAttributes()) {
+				out.writeUTF(attribute.getID().getName());
+				writeNullableUTF(out, attribute.getSQLTypeName());
+				out.writeUTF(attribute.getTermType()
+						.orElseGet(attribute::getBaseTypeForValidation)
+						.getName());
+				out.writeBoolean(attribute.canNull());
+			}
+		}
+
+		// once all the relations are known (referenced relations)
+		for (DatabaseRelationDefinition relation : relations) {
+			out.writeInt(relation.getUniqueConstraints().size());
+			for (UniqueConstraint uc : relation.getUniqueConstraints()) {
+				out.writeUTF(uc.getName());
+				out.writeBoolean(uc.isPrimaryKey());
+				out.writeInt(uc.getAttributes().size());
+				for (Attribute attribute : uc.getAttributes())
+					out.writeInt(attribute.getIndex());
+			}
+			out.writeInt(relation.getForeignKeys().size());
+			for (ForeignKeyConstraint fk : relation.getForeignKeys()) {
+				Integer referencedIndex = relationIndexes.get(fk.getReferencedRelation());
+				if (referencedIndex == null)
+					throw new IllegalStateException("The relation referenced by " + fk + " is not in the metadata");
+				out.writeUTF(fk.getName());
+				out.writeInt(referencedIndex);
+				out.writeInt(fk.getComponents().size());
+				for (ForeignKeyConstraint.Component component : fk.getComponents()) {
+					out.writeInt(component.getAttribute().getIndex());
+					out.writeInt(component.getReference().getIndex());
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * @return empty if the snapshot has been produced for another fingerprint (or by another version)
+	 */
+	public static Optional<RDBMetadata> read(InputStream inputStream, String fingerprint, TypeFactory typeFactory)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a metadata snapshot");
+		if (in.readByte() != VERSION || !in.readUTF().equals(fingerprint))
+			return Optional.empty();
+
+		String driverName = readNullableUTF(in);
+		String driverVersion = readNullableUTF(in);
+		String productName = readNullableUTF(in);
+		String productVersion = readNullableUTF(in);
+		QuotedIDFactory idfac = readQuotedIDFactory(in);
+
+		RDBMetadata metadata = new RDBMetadata(driverName, driverVersion, productName, productVersion, idfac,
+				typeFactory);
+		DBTypeFactory dbTypeFactory = typeFactory.getDBTypeFactory();
+
+		int relationCount = in.readInt();
+		List<DatabaseRelationDefinition> relations = new ArrayList<>(relationCount);
+		for (int i = 0; i < relationCount; i++) {
+			String schema = readNullableUTF(in);
+			String table = in.readUTF();
+			DatabaseRelationDefinition relation = metadata.createDatabaseRelation(
+					RelationID.createRelationIdFromDatabaseRecord(idfac, schema, table));
+			int attributeCount = in.readInt();
+			for (int j = 0; j < attributeCount; j++) {
+				QuotedID attributeId = QuotedID.createIdFromDatabaseRecord(idfac, in.readUTF());
+				String typeName = readNullableUTF(in);
+				DBTermType termType = dbTypeFactory.getDBTermType(in.readUTF());
+				relation.addAttribute(attributeId, typeName, termType, in.readBoolean());
+			}
+			relations.add(relation);
+		}
+
+		for (DatabaseRelationDefinition relation : relations) {
+			int ucCount = in.readInt();
+			for (int i = 0; i < ucCount; i++) {
+				String name = in.readUTF();
+				boolean isPK = in.readBoolean();
+				UniqueConstraint.Builder builder = UniqueConstraint.builder(relation);
+				int attributeCount = in.readInt();
+				for (int j = 0; j < attributeCount; j++)
+					builder.add(relation.getAttribute(in.readInt()));
+				relation.addUniqueConstraint(builder.build(name, isPK));
+			}
+			int fkCount = in.readInt();
+			for (int i = 0; i < fkCount; i++) {
+				String name = in.readUTF();
+				DatabaseRelationDefinition referencedRelation = relations.get(in.readInt());
+				ForeignKeyConstraint.Builder builder = ForeignKeyConstraint.builder(relation, referencedRelation);
+				int componentCount = in.readInt();
+				for (int j = 0; j < componentCount; j++)
+					builder.add(relation.getAttribute(in.readInt()), referencedRelation.getAttribute(in.readInt()));
+				relation.addForeignKeyConstraint(builder.build(name));
+			}
+		}
+		return Optional.of(metadata);
+	}
+
+	private static void writeQuotedIDFactory(DataOutputStream out, QuotedIDFactory idfac) throws IOException {
+		if (idfac instanceof QuotedIDFactoryMySQL) {
+			out.writeByte(MYSQL_IDS);
+			out.writeBoolean(((QuotedIDFactoryMySQL) idfac).hasCaseSensitiveTableNames());
+		}
+		else if (idfac instanceof QuotedIDFactoryIdentity)
+			out.writeByte(IDENTITY_IDS);
+		else if (idfac instanceof QuotedIDFactoryLowerCase)
+			out.writeByte(LOWER_CASE_IDS);
+		else if (idfac instanceof QuotedIDFactoryStandardSQL)
+			out.writeByte(STANDARD_SQL_IDS);
+		else
+			throw new IllegalArgumentException("Unsupported QuotedIDFactory: " + idfac.getClass());
+		out.writeUTF(idfac.getIDQuotationString());
+	}
+
+	private static QuotedIDFactory readQuotedIDFactory(DataInputStream in) throws IOException {
+		byte kind = in.readByte();
+		switch (kind) {
+			case MYSQL_IDS:
+				boolean caseSensitiveTableNames = in.readBoolean();
+				return new QuotedIDFactoryMySQL(caseSensitiveTableNames, in.readUTF());
+			case IDENTITY_IDS:
+				return new QuotedIDFactoryIdentity(in.readUTF());
+			case LOWER_CASE_IDS:
+				return new QuotedIDFactoryLowerCase(in.readUTF());
+			case STANDARD_SQL_IDS:
+				return new QuotedIDFactoryStandardSQL(in.readUTF());
+			default:
+				throw new IOException("Invalid metadata snapshot");
+		}
+	}
+
+	private static void writeNullableUTF(DataOutputStream out, @Nullable String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null)
+			out.writeUTF(s);
+	}
+
+	@Nullable
+	private static String readNullableUTF(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
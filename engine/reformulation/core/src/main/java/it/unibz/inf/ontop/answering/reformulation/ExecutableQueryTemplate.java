@@ -0,0 +1,20 @@
+package it.unibz.inf.ontop.answering.reformulation;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.iq.IQ;
+
+import java.util.Optional;
+
+/**
+ * Executable query shared by all the input queries of the same shape (see ParameterizedInputQuery),
+ * in which the values of the parameters are given at execution time.
+ *
+ * Immutable
+ */
+public interface ExecutableQueryTemplate {
+
+    /**
+     * Returns empty if the input queries of this shape cannot share an executable query
+     */
+    Optional<IQ> bind(ImmutableList<String> parameterValues);
+}
@@ -1,11 +1,14 @@
 package it.unibz.inf.ontop.answering.reformulation;
 
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.iq.IQ;
 
 /**
  * Cache of queries.
  *
+ * Also caches the row decoders compiled for the executable queries.
+ *
  * Mutable class.
  *
  */
@@ -14,5 +17,20 @@ public interface QueryCache {
 
     void put(InputQuery inputQuery, IQ executableQuery);
 
+    /**
+     * Template for the input queries of the given shape (see ParameterizedInputQuery)
+     */
+    ExecutableQueryTemplate getTemplate(String shape);
+
+    void putTemplate(String shape, ExecutableQueryTemplate template);
+
+    /**
+     * Executable queries are compared by identity of their root node
+     * (executable queries obtained from the same template share their row decoder)
+     */
+    RowDecoder getRowDecoder(IQ executableQuery);
+
+    void putRowDecoder(IQ executableQuery, RowDecoder rowDecoder);
+
     void clear();
 }
@@ -6,12 +6,23 @@ import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
 import it.unibz.inf.ontop.exception.OntopReformulationException;
 import it.unibz.inf.ontop.iq.IQ;
 
+import java.util.function.BooleanSupplier;
+
 /**
  * See ReformulationFactory for creating a new instance.
  */
 public interface QueryReformulator {
 
-    IQ reformulateIntoNativeQuery(InputQuery inputQuery) throws OntopReformulationException;
+    default IQ reformulateIntoNativeQuery(InputQuery inputQuery) throws OntopReformulationException {
+        return reformulateIntoNativeQuery(inputQuery, () -> false);
+    }
+
+    /**
+     * Cooperative cancellation: stops between its stages (OntopReformulationInterruptedException)
+     * once isCancelled returns true or the thread is interrupted.
+     */
+    IQ reformulateIntoNativeQuery(InputQuery inputQuery, BooleanSupplier isCancelled)
+            throws OntopReformulationException;
 
     /**
      * For analysis purposes
@@ -19,4 +30,9 @@ public interface QueryReformulator {
     String getRewritingRendering(InputQuery query) throws OntopReformulationException;
 
     InputQueryFactory getInputQueryFactory();
+
+    /**
+     * Cache of the executable queries, also used for storing the row decoders compiled for them
+     */
+    QueryCache getQueryCache();
 }
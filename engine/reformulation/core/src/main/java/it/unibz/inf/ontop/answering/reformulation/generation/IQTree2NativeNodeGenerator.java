@@ -1,8 +1,11 @@
 package it.unibz.inf.ontop.answering.reformulation.generation;
 
+import com.google.common.collect.ImmutableMap;
 import it.unibz.inf.ontop.dbschema.DBParameters;
 import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.node.NativeNode;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.type.DBTermType;
 
 /**
  * TODO: find a better name
@@ -11,4 +14,10 @@ public interface IQTree2NativeNodeGenerator {
 
     NativeNode generate(IQTree iqTree, DBParameters dbParameters);
 
+    /**
+     * The default types are used for the variables whose type cannot be extracted from the tree
+     * (e.g. only bound to NULL in a branch of a union)
+     */
+    NativeNode generate(IQTree iqTree, DBParameters dbParameters, ImmutableMap<Variable, DBTermType> defaultTypes);
+
 }
@@ -1,7 +1,9 @@
 package it.unibz.inf.ontop.answering.reformulation.impl;
 
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQueryTemplate;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
 import it.unibz.inf.ontop.answering.reformulation.QueryCache;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.iq.IQ;
 
 /**
@@ -18,6 +20,24 @@ public class DummyQueryCache implements QueryCache {
     public void put(InputQuery inputQuery, IQ executableQuery) {
     }
 
+    @Override
+    public ExecutableQueryTemplate getTemplate(String shape) {
+        return null;
+    }
+
+    @Override
+    public void putTemplate(String shape, ExecutableQueryTemplate template) {
+    }
+
+    @Override
+    public RowDecoder getRowDecoder(IQ executableQuery) {
+        return null;
+    }
+
+    @Override
+    public void putRowDecoder(IQ executableQuery, RowDecoder rowDecoder) {
+    }
+
     @Override
     public void clear() {
     }
@@ -3,10 +3,13 @@ package it.unibz.inf.ontop.answering.reformulation.impl;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQueryTemplate;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
 import it.unibz.inf.ontop.answering.reformulation.QueryCache;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.injection.OntopReformulationSettings;
 import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.node.QueryNode;
 
 import javax.annotation.Nullable;
 
@@ -15,12 +18,24 @@ public class GuiceBasedQueryCache implements QueryCache {
     // NB: still present in more recent versions of Guava
     @SuppressWarnings("UnstableApiUsage")
     private final Cache<InputQuery, IQ> cache;
+    @SuppressWarnings("UnstableApiUsage")
+    private final Cache<String, ExecutableQueryTemplate> templateCache;
+    // Weak keys: identity comparison, entries released together with the root nodes of the executable queries
+    @SuppressWarnings("UnstableApiUsage")
+    private final Cache<QueryNode, RowDecoder> rowDecoderCache;
 
     @Inject
     private GuiceBasedQueryCache(OntopReformulationSettings settings) {
         cache = CacheBuilder.newBuilder()
                 .maximumSize(settings.getQueryCacheMaxSize())
                 .build();
+        templateCache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getQueryCacheMaxSize())
+                .build();
+        rowDecoderCache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getQueryCacheMaxSize())
+                .weakKeys()
+                .build();
     }
 
     @Nullable
@@ -34,8 +49,32 @@ public class GuiceBasedQueryCache implements QueryCache {
         cache.put(inputQuery, executableQuery);
     }
 
+    @Nullable
+    @Override
+    public ExecutableQueryTemplate getTemplate(String shape) {
+        return templateCache.getIfPresent(shape);
+    }
+
+    @Override
+    public void putTemplate(String shape, ExecutableQueryTemplate template) {
+        templateCache.put(shape, template);
+    }
+
+    @Nullable
+    @Override
+    public RowDecoder getRowDecoder(IQ executableQuery) {
+        return rowDecoderCache.getIfPresent(executableQuery.getTree().getRootNode());
+    }
+
+    @Override
+    public void putRowDecoder(IQ executableQuery, RowDecoder rowDecoder) {
+        rowDecoderCache.put(executableQuery.getTree().getRootNode(), rowDecoder);
+    }
+
     @Override
     public void clear() {
         cache.invalidateAll();
+        templateCache.invalidateAll();
+        rowDecoderCache.invalidateAll();
     }
 }
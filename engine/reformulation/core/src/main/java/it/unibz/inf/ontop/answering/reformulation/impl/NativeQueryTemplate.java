@@ -0,0 +1,284 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQueryTemplate;
+import it.unibz.inf.ontop.answering.reformulation.impl.QueryParameter.AtomClass;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.UnaryIQTree;
+import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.iq.node.NativeNode;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.RDF;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Executable query in which the parameters are passed separately from the native query string.
+ *
+ * Built from the executable query obtained after giving sentinel values to the parameters
+ * (see QueryParameter). The positions of the atoms of the sentinels are recorded explicitly:
+ *   - in the native query string, where they are replaced by placeholders (?),
+ *   - and as constants of the construction node, which are replaced when binding.
+ * The template is rejected if a sentinel appears anywhere else.
+ */
+class NativeQueryTemplate implements ExecutableQueryTemplate {
+
+    /**
+     * For the shapes that cannot be parameterized
+     */
+    static final ExecutableQueryTemplate NON_PARAMETERIZABLE = v -> Optional.empty();
+
+    private enum Form {
+        // Quoted string literal
+        STRING,
+        // Unquoted integer
+        NUMBER
+    }
+
+    private final IntermediateQueryFactory iqFactory;
+    private final TermFactory termFactory;
+    private final SubstitutionFactory substitutionFactory;
+    private final RDF rdfFactory;
+    private final ImmutableList<QueryParameter> parameters;
+    private final IQ sentinelQuery;
+    private final ConstructionNode constructionNode;
+    private final NativeNode sentinelNativeNode;
+    private final String parameterizedQueryString;
+    private final ImmutableList<AtomPosition> placeholderPositions;
+    private final ImmutableMap<Constant, AtomPosition> constantPositions;
+
+    private NativeQueryTemplate(IntermediateQueryFactory iqFactory, TermFactory termFactory,
+                                SubstitutionFactory substitutionFactory, RDF rdfFactory,
+                                ImmutableList<QueryParameter> parameters, IQ sentinelQuery,
+                                ConstructionNode constructionNode, NativeNode sentinelNativeNode,
+                                String parameterizedQueryString, ImmutableList<AtomPosition> placeholderPositions,
+                                ImmutableMap<Constant, AtomPosition> constantPositions) {
+        this.iqFactory = iqFactory;
+        this.termFactory = termFactory;
+        this.substitutionFactory = substitutionFactory;
+        this.rdfFactory = rdfFactory;
+        this.parameters = parameters;
+        this.sentinelQuery = sentinelQuery;
+        this.constructionNode = constructionNode;
+        this.sentinelNativeNode = sentinelNativeNode;
+        this.parameterizedQueryString = parameterizedQueryString;
+        this.placeholderPositions = placeholderPositions;
+        this.constantPositions = constantPositions;
+    }
+
+    /**
+     * The values are expected to have the signatures of the parameters
+     */
+    @Override
+    public Optional<IQ> bind(ImmutableList<String> parameterValues) {
+        ImmutableList.Builder<ImmutableList<String>> atomBuilder = ImmutableList.builder();
+        for (int i = 0; i < parameters.size(); i++) {
+            Optional<ImmutableList<String>> atoms = parameters.get(i).getAtoms(parameterValues.get(i));
+            if (!atoms.isPresent())
+                return Optional.empty();
+            atomBuilder.add(atoms.get());
+        }
+        ImmutableList<ImmutableList<String>> atoms = atomBuilder.build();
+
+        DBTermType largeIntegerType = termFactory.getTypeFactory().getDBTypeFactory().getDBLargeIntegerType();
+        NativeNode nativeNode = iqFactory.createNativeNode(sentinelNativeNode.getVariables(),
+                sentinelNativeNode.getTypeMap(), sentinelNativeNode.getColumnNames(), parameterizedQueryString,
+                placeholderPositions.stream()
+                        .map(p -> p.form == Form.NUMBER
+                                ? termFactory.getDBConstant(p.getDBString(atoms), largeIntegerType)
+                                : termFactory.getDBStringConstant(p.getDBString(atoms)))
+                        .collect(ImmutableCollectors.toList()),
+                sentinelNativeNode.getVariableNullability(), sentinelNativeNode.getRelationIDs());
+
+        // Same root node as long as possible (shares the row decoder)
+        ConstructionNode newConstructionNode = constantPositions.isEmpty()
+                ? constructionNode
+                : iqFactory.createConstructionNode(constructionNode.getVariables(),
+                        substitutionFactory.getSubstitution(constructionNode.getSubstitution().getImmutableMap().entrySet().stream()
+                                .collect(ImmutableCollectors.toMap(
+                                        Map.Entry::getKey,
+                                        e -> replaceConstants(e.getValue(), atoms)))));
+
+        return Optional.of(iqFactory.createIQ(sentinelQuery.getProjectionAtom(),
+                iqFactory.createUnaryIQTree(newConstructionNode, nativeNode)));
+    }
+
+    private ImmutableTerm replaceConstants(ImmutableTerm term, ImmutableList<ImmutableList<String>> atoms) {
+        if (term instanceof ImmutableFunctionalTerm) {
+            ImmutableFunctionalTerm functionalTerm = (ImmutableFunctionalTerm) term;
+            return termFactory.getImmutableFunctionalTerm(functionalTerm.getFunctionSymbol(),
+                    functionalTerm.getTerms().stream()
+                            .map(t -> replaceConstants(t, atoms))
+                            .collect(ImmutableCollectors.toList()));
+        }
+        AtomPosition position = constantPositions.get(term);
+        if (position == null)
+            return term;
+
+        String value = position.getDBString(atoms);
+        if (term instanceof IRIConstant)
+            return termFactory.getConstantIRI(rdfFactory.createIRI(value));
+        if (term instanceof RDFLiteralConstant)
+            return termFactory.getRDFLiteralConstant(value, ((RDFLiteralConstant) term).getType());
+        return termFactory.getDBConstant(value, ((DBConstant) term).getType());
+    }
+
+    /**
+     * Returns empty if the sentinel query does not have the expected structure
+     * (e.g. a sentinel value has been simplified away or transformed).
+     */
+    static Optional<NativeQueryTemplate> create(IQ sentinelQuery, ImmutableList<QueryParameter> parameters,
+                                                ImmutableList<QueryParameter.Sentinel> sentinels,
+                                                IntermediateQueryFactory iqFactory, TermFactory termFactory,
+                                                SubstitutionFactory substitutionFactory, RDF rdfFactory) {
+        IQTree tree = sentinelQuery.getTree();
+        if (!(tree instanceof UnaryIQTree) || !(tree.getRootNode() instanceof ConstructionNode)
+                || !(((UnaryIQTree) tree).getChild() instanceof NativeNode))
+            return Optional.empty();
+
+        ConstructionNode constructionNode = (ConstructionNode) tree.getRootNode();
+        NativeNode nativeNode = (NativeNode) ((UnaryIQTree) tree).getChild();
+        String queryString = nativeNode.getNativeQueryString();
+        // The placeholders must be the only question marks
+        if (!nativeNode.getParameters().isEmpty() || queryString.indexOf('?') >= 0)
+            return Optional.empty();
+
+        // Strings under which the atoms of the sentinels may appear
+        Map<String, AtomPosition> stringPositions = new HashMap<>();
+        Map<String, AtomPosition> numberPositions = new HashMap<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            ImmutableList<String> atoms = sentinels.get(i).getAtoms();
+            for (int j = 0; j < atoms.size(); j++) {
+                AtomClass atomClass = parameters.get(i).getAtomClass(j);
+                stringPositions.put(QueryParameter.getDBString(atoms.get(j), atomClass),
+                        new AtomPosition(parameters, i, j, Form.STRING));
+                if (atomClass == AtomClass.NUMERIC)
+                    numberPositions.put(atoms.get(j), new AtomPosition(parameters, i, j, Form.NUMBER));
+            }
+        }
+
+        StringBuilder parameterizedQueryString = new StringBuilder();
+        ImmutableList.Builder<AtomPosition> placeholderBuilder = ImmutableList.builder();
+        Matcher matcher = createAtomPattern(stringPositions.keySet(), numberPositions.keySet()).matcher(queryString);
+        int end = 0;
+        while (matcher.find()) {
+            AtomPosition position;
+            if (matcher.group(1) != null) {
+                // Excludes prefixed literals (e.g. N'...')
+                if (matcher.start() > 0 && Character.isLetterOrDigit(queryString.charAt(matcher.start() - 1)))
+                    return Optional.empty();
+                position = stringPositions.get(matcher.group(1));
+            }
+            else {
+                if (!isDelimiter(queryString, matcher.start() - 1) || !isDelimiter(queryString, matcher.end()))
+                    return Optional.empty();
+                position = numberPositions.get(matcher.group(2));
+            }
+            parameterizedQueryString.append(queryString, end, matcher.start()).append('?');
+            placeholderBuilder.add(position);
+            end = matcher.end();
+        }
+        parameterizedQueryString.append(queryString.substring(end));
+
+        ImmutableMap<Constant, AtomPosition> constantPositions = constructionNode.getSubstitution()
+                .getImmutableMap().values().stream()
+                .flatMap(NativeQueryTemplate::extractConstants)
+                .filter(c -> stringPositions.containsKey(c.getValue()))
+                .distinct()
+                .collect(ImmutableCollectors.toMap(
+                        c -> c,
+                        c -> stringPositions.get(c.getValue())));
+
+        ImmutableList<AtomPosition> placeholderPositions = placeholderBuilder.build();
+
+        // Sentinels must not appear elsewhere (e.g. transformed)
+        String remainingString = parameterizedQueryString + "\n" + constructionNode.getSubstitution()
+                .getImmutableMap().values().stream()
+                .flatMap(NativeQueryTemplate::extractConstants)
+                .filter(c -> !constantPositions.containsKey(c))
+                .map(Constant::getValue)
+                .collect(Collectors.joining("\n"));
+        if (sentinels.stream()
+                .flatMap(s -> s.getCores().stream())
+                .anyMatch(remainingString::contains))
+            return Optional.empty();
+
+        // Otherwise, the executable query does not depend on the parameter, which is suspicious
+        if (IntStream.range(0, parameters.size())
+                .anyMatch(i -> Stream.concat(placeholderPositions.stream(), constantPositions.values().stream())
+                        .noneMatch(p -> p.parameterIndex == i)))
+            return Optional.empty();
+
+        return Optional.of(new NativeQueryTemplate(iqFactory, termFactory, substitutionFactory, rdfFactory,
+                parameters, sentinelQuery, constructionNode, nativeNode, parameterizedQueryString.toString(),
+                placeholderPositions, constantPositions));
+    }
+
+    /**
+     * Group 1: quoted string literal, group 2: number
+     */
+    private static Pattern createAtomPattern(Set<String> strings, Set<String> numbers) {
+        String stringRegex = strings.stream()
+                .sorted(Comparator.comparing(String::length).reversed())
+                .map(s -> Pattern.quote(s.replace("'", "''")))
+                .collect(Collectors.joining("|", "'(", ")'"));
+        if (numbers.isEmpty())
+            return Pattern.compile(stringRegex);
+
+        return Pattern.compile(stringRegex + numbers.stream()
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|", "|(", ")")));
+    }
+
+    private static boolean isDelimiter(String string, int index) {
+        if (index < 0 || index >= string.length())
+            return true;
+        char c = string.charAt(index);
+        return !(Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '\'' || c == '"');
+    }
+
+    private static Stream<Constant> extractConstants(ImmutableTerm term) {
+        if (term instanceof Constant)
+            return Stream.of((Constant) term);
+        if (term instanceof ImmutableFunctionalTerm)
+            return ((ImmutableFunctionalTerm) term).getTerms().stream()
+                    .flatMap(NativeQueryTemplate::extractConstants);
+        return Stream.empty();
+    }
+
+
+    /**
+     * Atom of a parameter and the form under which it appears
+     */
+    private static class AtomPosition {
+        private final ImmutableList<QueryParameter> parameters;
+        private final int parameterIndex;
+        private final int atomIndex;
+        private final Form form;
+
+        private AtomPosition(ImmutableList<QueryParameter> parameters, int parameterIndex, int atomIndex, Form form) {
+            this.parameters = parameters;
+            this.parameterIndex = parameterIndex;
+            this.atomIndex = atomIndex;
+            this.form = form;
+        }
+
+        String getDBString(ImmutableList<ImmutableList<String>> atoms) {
+            String atom = atoms.get(parameterIndex).get(atomIndex);
+            return form == Form.NUMBER
+                    ? atom
+                    : QueryParameter.getDBString(atom, parameters.get(parameterIndex).getAtomClass(atomIndex));
+        }
+    }
+}
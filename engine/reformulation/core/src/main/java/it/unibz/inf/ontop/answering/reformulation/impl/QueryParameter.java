@@ -0,0 +1,184 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery.ParameterKind;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.ObjectStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import it.unibz.inf.ontop.utils.R2RMLIRISafeEncoder;
+import it.unibz.inf.ontop.utils.Templates;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Parameter of a parameterized input query, as seen by the reformulation.
+ *
+ * A value of a parameter is decomposed into atoms: the value itself, followed by the arguments
+ * of the IRI template it matches (if any). Atoms are the strings that may end up in the native query.
+ * The reformulation is expected to produce the same executable query, up to the atoms, for all the values
+ * having the same signature (kind, template and classes of the atoms).
+ *
+ * Immutable
+ */
+class QueryParameter {
+
+    enum AtomClass {
+        // Canonical non-negative integer (may end up unquoted in the native query)
+        NUMERIC,
+        PLAIN,
+        // Percent-encoded IRI template argument (ends up decoded in the native query)
+        ESCAPED
+    }
+
+    private static final Pattern NUMERIC_PATTERN = Pattern.compile("0|[1-9][0-9]{0,17}");
+    // Values that the reformulation may interpret (numbers, dates, booleans, etc.)
+    private static final Pattern NUMBER_LIKE_PATTERN = Pattern.compile("[0-9+\\-.eE:TZ]+|true|false|NaN|INF",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ESCAPED_PATTERN = Pattern.compile("([^%]|%[0-9A-Fa-f]{2})*");
+    private static final String SENTINEL_PREFIX = "ontop";
+    private static final String SENTINEL_IRI_PREFIX = "http://ontop.invalid/";
+    private static final int SENTINEL_NUMBER_LENGTH = 15;
+
+    private final ParameterKind kind;
+    private final Optional<ObjectStringTemplateFunctionSymbol> template;
+    private final ImmutableList<AtomClass> atomClasses;
+
+    QueryParameter(ParameterKind kind, Optional<ObjectStringTemplateFunctionSymbol> template,
+                   ImmutableList<AtomClass> atomClasses) {
+        this.kind = kind;
+        this.template = template;
+        this.atomClasses = atomClasses;
+    }
+
+    /**
+     * Returns empty if the value cannot be part of an atom (e.g. it may be interpreted by the reformulation)
+     */
+    static Optional<AtomClass> classify(String atom, boolean isTemplateArgument) {
+        if (NUMERIC_PATTERN.matcher(atom).matches())
+            return Optional.of(AtomClass.NUMERIC);
+        if (atom.isEmpty() || NUMBER_LIKE_PATTERN.matcher(atom).matches())
+            return Optional.empty();
+        if (isTemplateArgument && atom.indexOf('%') >= 0)
+            return ESCAPED_PATTERN.matcher(atom).matches()
+                    ? Optional.of(AtomClass.ESCAPED)
+                    : Optional.empty();
+        return Optional.of(AtomClass.PLAIN);
+    }
+
+    ParameterKind getKind() {
+        return kind;
+    }
+
+    Optional<ObjectStringTemplateFunctionSymbol> getTemplate() {
+        return template;
+    }
+
+    AtomClass getAtomClass(int atomIndex) {
+        return atomClasses.get(atomIndex);
+    }
+
+    String getSignature() {
+        return kind + template.map(t -> "<" + t.getTemplate() + ">").orElse("") + atomClasses;
+    }
+
+    /**
+     * Atoms of a value: the value itself, followed by the arguments of the template (if any)
+     */
+    Optional<ImmutableList<String>> getAtoms(String value) {
+        if (!template.isPresent())
+            return Optional.of(ImmutableList.of(value));
+
+        return template.get().decompose(value)
+                .map(arguments -> ImmutableList.<String>builder()
+                        .add(value)
+                        .addAll(arguments)
+                        .build());
+    }
+
+    /**
+     * String appearing in the native query for this atom (when not passed as a number)
+     */
+    static String getDBString(String atom, AtomClass atomClass) {
+        return atomClass == AtomClass.ESCAPED
+                ? R2RMLIRISafeEncoder.decode(atom)
+                : atom;
+    }
+
+    /**
+     * Random value of the same signature (unless it happens to match another template, which has to be checked)
+     */
+    Sentinel createSentinel() {
+        ImmutableList.Builder<String> coreBuilder = ImmutableList.builder();
+        if (!template.isPresent()) {
+            String value = (kind == ParameterKind.IRI)
+                    ? SENTINEL_IRI_PREFIX + createAtom(AtomClass.PLAIN, createCore(), coreBuilder)
+                    : createAtom(atomClasses.get(0), createCore(), coreBuilder);
+            return new Sentinel(value, ImmutableList.of(value), coreBuilder.build());
+        }
+
+        ImmutableList<String> arguments = atomClasses.subList(1, atomClasses.size()).stream()
+                .map(c -> createAtom(c, createCore(), coreBuilder))
+                .collect(ImmutableCollectors.toList());
+        String value = Templates.format(template.get().getTemplate(), arguments);
+        return new Sentinel(value,
+                ImmutableList.<String>builder()
+                        .add(value)
+                        .addAll(arguments)
+                        .build(),
+                coreBuilder.build());
+    }
+
+    private static String createAtom(AtomClass atomClass, String core, ImmutableList.Builder<String> coreBuilder) {
+        switch (atomClass) {
+            case NUMERIC:
+                String number = ThreadLocalRandom.current().ints(SENTINEL_NUMBER_LENGTH, 0, 10)
+                        .mapToObj(Integer::toString)
+                        .collect(Collectors.joining("", Integer.toString(ThreadLocalRandom.current().nextInt(1, 10)), ""));
+                coreBuilder.add(number);
+                return number;
+            case ESCAPED:
+                String secondCore = createCore();
+                coreBuilder.add(core).add(secondCore);
+                return core + "%20" + secondCore;
+            default:
+                coreBuilder.add(core);
+                return core;
+        }
+    }
+
+    private static String createCore() {
+        return SENTINEL_PREFIX + UUID.randomUUID().toString().replace("-", "");
+    }
+
+
+    /**
+     * Value of a parameter whose atoms are recognizable in the native query
+     */
+    static class Sentinel {
+        private final String value;
+        private final ImmutableList<String> atoms;
+        // Random strings that must not appear in the executable query outside the atoms
+        private final ImmutableList<String> cores;
+
+        private Sentinel(String value, ImmutableList<String> atoms, ImmutableList<String> cores) {
+            this.value = value;
+            this.atoms = atoms;
+            this.cores = cores;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        ImmutableList<String> getAtoms() {
+            return atoms;
+        }
+
+        ImmutableList<String> getCores() {
+            return cores;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.reformulation.impl.QueryParameter.AtomClass;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery.ParameterKind;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.*;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.BnodeStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.IRIStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.ObjectStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Decides, from the mapping, how the values of the parameters may influence the reformulation.
+ *
+ * Parameter values appearing in the mapping (e.g. as a constant of a mapping assertion) are not supported.
+ * IRIs are classified according to the IRI template they match, as it determines the mapping assertions
+ * they are unified with.
+ *
+ * Immutable
+ */
+class QueryParameterAnalyzer {
+
+    private final ImmutableSet<String> mappingConstants;
+    private final ImmutableSet<ObjectStringTemplateFunctionSymbol> iriTemplates;
+    private final ImmutableSet<ObjectStringTemplateFunctionSymbol> literalTemplates;
+
+    QueryParameterAnalyzer(Mapping mapping) {
+        ImmutableList<ImmutableTerm> terms = mapping.getRDFAtomPredicates().stream()
+                .flatMap(p -> mapping.getQueries(p).stream())
+                .flatMap(q -> extractTerms(q.getTree()))
+                .flatMap(QueryParameterAnalyzer::extractSubTerms)
+                .collect(ImmutableCollectors.toList());
+
+        this.mappingConstants = terms.stream()
+                .filter(t -> t instanceof Constant)
+                .map(t -> ((Constant) t).getValue())
+                .collect(ImmutableCollectors.toSet());
+
+        ImmutableSet<ObjectStringTemplateFunctionSymbol> templates = terms.stream()
+                .filter(t -> t instanceof ImmutableFunctionalTerm)
+                .map(t -> ((ImmutableFunctionalTerm) t).getFunctionSymbol())
+                .filter(f -> f instanceof ObjectStringTemplateFunctionSymbol)
+                .map(f -> (ObjectStringTemplateFunctionSymbol) f)
+                .collect(ImmutableCollectors.toSet());
+        this.iriTemplates = templates.stream()
+                .filter(t -> t instanceof IRIStringTemplateFunctionSymbol)
+                .collect(ImmutableCollectors.toSet());
+        this.literalTemplates = templates.stream()
+                .filter(t -> !(t instanceof IRIStringTemplateFunctionSymbol)
+                        && !(t instanceof BnodeStringTemplateFunctionSymbol))
+                .collect(ImmutableCollectors.toSet());
+    }
+
+    /**
+     * Returns empty if the value may influence the reformulation beyond its signature
+     */
+    Optional<QueryParameter> analyze(ParameterKind kind, String value) {
+        if (mappingConstants.contains(value))
+            return Optional.empty();
+
+        if (kind == ParameterKind.LITERAL) {
+            if (!getMatchingTemplates(value, literalTemplates).isEmpty())
+                return Optional.empty();
+            return QueryParameter.classify(value, false)
+                    .map(c -> new QueryParameter(kind, Optional.empty(), ImmutableList.of(c)));
+        }
+
+        ImmutableSet<ObjectStringTemplateFunctionSymbol> matchingTemplates = getMatchingTemplates(value, iriTemplates);
+        if (matchingTemplates.isEmpty())
+            return Optional.of(new QueryParameter(kind, Optional.empty(), ImmutableList.of(AtomClass.PLAIN)));
+        if (matchingTemplates.size() > 1)
+            return Optional.empty();
+
+        ObjectStringTemplateFunctionSymbol template = matchingTemplates.iterator().next();
+        ImmutableList.Builder<AtomClass> classBuilder = ImmutableList.<AtomClass>builder()
+                .add(AtomClass.PLAIN);
+        for (String argument : template.decompose(value).get()) {
+            Optional<AtomClass> atomClass = QueryParameter.classify(argument, true);
+            if ((!atomClass.isPresent())
+                    || mappingConstants.contains(QueryParameter.getDBString(argument, atomClass.get())))
+                return Optional.empty();
+            classBuilder.add(atomClass.get());
+        }
+        return Optional.of(new QueryParameter(kind, Optional.of(template), classBuilder.build()));
+    }
+
+    /**
+     * The sentinel must not match other templates than the ones of the values of the parameter
+     */
+    boolean isValidSentinel(QueryParameter parameter, QueryParameter.Sentinel sentinel) {
+        String value = sentinel.getValue();
+        ImmutableSet<ObjectStringTemplateFunctionSymbol> templates = (parameter.getKind() == ParameterKind.IRI)
+                ? iriTemplates
+                : literalTemplates;
+        return (!mappingConstants.contains(value))
+                && getMatchingTemplates(value, templates).equals(parameter.getTemplate()
+                        .map(ImmutableSet::of)
+                        .orElseGet(ImmutableSet::of));
+    }
+
+    private static ImmutableSet<ObjectStringTemplateFunctionSymbol> getMatchingTemplates(
+            String value, ImmutableSet<ObjectStringTemplateFunctionSymbol> templates) {
+        return templates.stream()
+                .filter(t -> t.decompose(value).isPresent())
+                .collect(ImmutableCollectors.toSet());
+    }
+
+    private static Stream<ImmutableTerm> extractTerms(IQTree tree) {
+        QueryNode node = tree.getRootNode();
+        Stream<? extends ImmutableTerm> localTerms;
+        if (node instanceof ExtendedProjectionNode)
+            localTerms = ((ExtendedProjectionNode) node).getSubstitution().getImmutableMap().values().stream();
+        else if (node instanceof JoinOrFilterNode)
+            localTerms = ((JoinOrFilterNode) node).getOptionalFilterCondition()
+                    .map(Stream::of)
+                    .orElseGet(Stream::empty);
+        else if (node instanceof DataNode)
+            localTerms = ((DataNode<?>) node).getProjectionAtom().getArguments().stream();
+        else
+            localTerms = Stream.empty();
+
+        return Stream.concat(localTerms,
+                tree.getChildren().stream()
+                        .flatMap(QueryParameterAnalyzer::extractTerms));
+    }
+
+    private static Stream<ImmutableTerm> extractSubTerms(ImmutableTerm term) {
+        if (term instanceof ImmutableFunctionalTerm)
+            return Stream.concat(Stream.of(term),
+                    ((ImmutableFunctionalTerm) term).getTerms().stream()
+                            .flatMap(QueryParameterAnalyzer::extractSubTerms));
+        return Stream.of(term);
+    }
+}
@@ -1,26 +1,44 @@
 package it.unibz.inf.ontop.answering.reformulation.impl;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQueryTemplate;
 import it.unibz.inf.ontop.answering.reformulation.QueryCache;
 import it.unibz.inf.ontop.answering.reformulation.QueryReformulator;
 import it.unibz.inf.ontop.answering.reformulation.generation.NativeQueryGenerator;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.translation.InputQueryTranslator;
 import it.unibz.inf.ontop.answering.reformulation.rewriting.QueryRewriter;
 import it.unibz.inf.ontop.answering.reformulation.unfolding.QueryUnfolder;
 import it.unibz.inf.ontop.exception.OntopReformulationException;
+import it.unibz.inf.ontop.exception.OntopReformulationInterruptedException;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
 import it.unibz.inf.ontop.injection.TranslationFactory;
 import it.unibz.inf.ontop.iq.IQ;
 import it.unibz.inf.ontop.iq.exception.EmptyQueryException;
 import it.unibz.inf.ontop.iq.optimizer.*;
 import it.unibz.inf.ontop.iq.planner.QueryPlanner;
 import it.unibz.inf.ontop.iq.tools.ExecutorRegistry;
+import it.unibz.inf.ontop.model.term.TermFactory;
 import it.unibz.inf.ontop.spec.OBDASpecification;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 /**
  * TODO: rename it QueryTranslatorImpl ?
  *
@@ -41,6 +59,13 @@ public class QuestQueryProcessor implements QueryReformulator {
 	private final InputQueryFactory inputQueryFactory;
 	private final GeneralStructuralAndSemanticIQOptimizer generalOptimizer;
 	private final QueryPlanner queryPlanner;
+	private final OntopReformulationSettings settings;
+	private final IntermediateQueryFactory iqFactory;
+	private final TermFactory termFactory;
+	private final SubstitutionFactory substitutionFactory;
+	private final RDF rdfFactory;
+	// Lazy: only needed for parameterized queries
+	private final Supplier<QueryParameterAnalyzer> parameterAnalyzer;
 
 	@AssistedInject
 	private QuestQueryProcessor(@Assisted OBDASpecification obdaSpecification,
@@ -51,15 +76,27 @@ public class QuestQueryProcessor implements QueryReformulator {
 								InputQueryFactory inputQueryFactory,
 								InputQueryTranslator inputQueryTranslator,
 								GeneralStructuralAndSemanticIQOptimizer generalOptimizer,
-								QueryPlanner queryPlanner) {
+								QueryPlanner queryPlanner,
+								OntopReformulationSettings settings,
+								IntermediateQueryFactory iqFactory,
+								TermFactory termFactory,
+								SubstitutionFactory substitutionFactory,
+								RDF rdfFactory) {
 		this.inputQueryFactory = inputQueryFactory;
 		this.rewriter = queryRewriter;
 		this.generalOptimizer = generalOptimizer;
 		this.queryPlanner = queryPlanner;
+		this.settings = settings;
+		this.iqFactory = iqFactory;
+		this.termFactory = termFactory;
+		this.substitutionFactory = substitutionFactory;
+		this.rdfFactory = rdfFactory;
 
 		this.rewriter.setTBox(obdaSpecification.getSaturatedTBox());
 		this.queryUnfolder = translationFactory.create(obdaSpecification.getSaturatedMapping());
 		this.datasourceQueryGenerator = translationFactory.create(obdaSpecification.getDBParameters());
+		Mapping saturatedMapping = obdaSpecification.getSaturatedMapping();
+		this.parameterAnalyzer = Suppliers.memoize(() -> new QueryParameterAnalyzer(saturatedMapping));
 
 		this.inputQueryTranslator = inputQueryTranslator;
 		this.queryCache = queryCache;
@@ -69,7 +106,7 @@ public class QuestQueryProcessor implements QueryReformulator {
 	}
 
 	@Override
-	public IQ reformulateIntoNativeQuery(InputQuery inputQuery)
+	public IQ reformulateIntoNativeQuery(InputQuery inputQuery, BooleanSupplier isCancelled)
 			throws OntopReformulationException {
 
 		long beginning = System.currentTimeMillis();
@@ -78,40 +115,45 @@ public class QuestQueryProcessor implements QueryReformulator {
 		if (cachedQuery != null)
 			return cachedQuery;
 
+		Optional<ParameterizedInputQuery> parameterizedQuery = settings.isParameterizedQueryCacheEnabled()
+				? inputQuery.parameterize()
+				: Optional.empty();
+		Optional<ImmutableList<QueryParameter>> parameters = parameterizedQuery.flatMap(this::analyzeParameters);
+		Optional<String> templateKey = parameters.map(ps -> getTemplateKey(parameterizedQuery.get(), ps));
+		ExecutableQueryTemplate template = templateKey
+				.map(queryCache::getTemplate)
+				.orElse(null);
+		if (template != null) {
+			Optional<IQ> boundQuery = template.bind(parameterizedQuery.get().getParameterValues());
+			if (boundQuery.isPresent()) {
+				log.debug("Executable query obtained from a parameterized query: \n{}", boundQuery.get());
+				return boundQuery.get();
+			}
+		}
+
 		try {
 			log.debug("SPARQL query:\n{}", inputQuery.getInputString());
-			IQ convertedIQ = inputQuery.translate(inputQueryTranslator);
-			log.debug("Parsed query converted into IQ (after normalization):\n{}", convertedIQ);
-
-            try {
-                log.debug("Start the rewriting process...");
-                IQ rewrittenIQ = rewriter.rewrite(convertedIQ);
-
-                log.debug("Rewritten IQ:\n{}",rewrittenIQ);
-
-                log.debug("Start the unfolding...");
-
-                IQ unfoldedIQ = queryUnfolder.optimize(rewrittenIQ);
-                if (unfoldedIQ.getTree().isDeclaredAsEmpty()) {
-                	log.info(String.format("Reformulation time: %d ms", System.currentTimeMillis() - beginning));
-					return unfoldedIQ;
-				}
-                log.debug("Unfolded query: \n" + unfoldedIQ.toString());
-
-                IQ optimizedQuery = generalOptimizer.optimize(unfoldedIQ, executorRegistry);
-				IQ plannedQuery = queryPlanner.optimize(optimizedQuery, executorRegistry);
-				log.debug("Planned query: \n" + plannedQuery);
-
-				IQ executableQuery = generateExecutableQuery(plannedQuery);
-				queryCache.put(inputQuery, executableQuery);
-				log.info(String.format("Reformulation time: %d ms", System.currentTimeMillis() - beginning));
-				return executableQuery;
+			// Same native query as the next queries of this shape (e.g. for re-using its prepared statement)
+			Optional<IQ> parameterizedExecutableQuery = (template == null && templateKey.isPresent())
+					? reformulateIntoTemplate(parameterizedQuery.get(), parameters.get(), templateKey.get(), isCancelled)
+					: Optional.empty();
 
+			IQ executableQuery;
+			if (parameterizedExecutableQuery.isPresent())
+				executableQuery = parameterizedExecutableQuery.get();
+			else {
+				IQ convertedIQ = inputQuery.translate(inputQueryTranslator);
+				log.debug("Parsed query converted into IQ (after normalization):\n{}", convertedIQ);
+				executableQuery = reformulate(convertedIQ, isCancelled);
 			}
-            catch (OntopReformulationException e) {
-                throw e;
-            }
-        }
+			queryCache.put(inputQuery, executableQuery);
+
+			log.info(String.format("Reformulation time: %d ms", System.currentTimeMillis() - beginning));
+			return executableQuery;
+		}
+		catch (OntopReformulationException e) {
+			throw e;
+		}
 		/*
 		 * Bug: should normally not be reached
 		 * TODO: remove it
@@ -123,6 +165,104 @@ public class QuestQueryProcessor implements QueryReformulator {
 		}
 	}
 
+	private IQ reformulate(IQ convertedIQ, BooleanSupplier isCancelled)
+			throws OntopReformulationException, EmptyQueryException {
+		log.debug("Start the rewriting process...");
+		IQ rewrittenIQ = rewriter.rewrite(convertedIQ);
+
+		log.debug("Rewritten IQ:\n{}",rewrittenIQ);
+		checkInterruption(isCancelled);
+
+		log.debug("Start the unfolding...");
+
+		IQ unfoldedIQ = queryUnfolder.optimize(rewrittenIQ);
+		if (unfoldedIQ.getTree().isDeclaredAsEmpty())
+			return unfoldedIQ;
+		log.debug("Unfolded query: \n" + unfoldedIQ.toString());
+		checkInterruption(isCancelled);
+
+		IQ optimizedQuery = generalOptimizer.optimize(unfoldedIQ, executorRegistry);
+		checkInterruption(isCancelled);
+		IQ plannedQuery = queryPlanner.optimize(optimizedQuery, executorRegistry);
+		log.debug("Planned query: \n" + plannedQuery);
+		checkInterruption(isCancelled);
+
+		return generateExecutableQuery(plannedQuery);
+	}
+
+	/**
+	 * Cooperative cancellation: the query has been cancelled (e.g. after a timeout) or the thread has been interrupted
+	 */
+	private static void checkInterruption(BooleanSupplier isCancelled) throws OntopReformulationInterruptedException {
+		if (isCancelled.getAsBoolean() || Thread.currentThread().isInterrupted())
+			throw new OntopReformulationInterruptedException();
+	}
+
+	/**
+	 * Returns empty if the value of some parameter may influence the reformulation beyond its signature
+	 */
+	private Optional<ImmutableList<QueryParameter>> analyzeParameters(ParameterizedInputQuery parameterizedQuery) {
+		ImmutableList<String> values = parameterizedQuery.getParameterValues();
+		ImmutableList.Builder<QueryParameter> parameterBuilder = ImmutableList.builder();
+		for (int i = 0; i < values.size(); i++) {
+			Optional<QueryParameter> parameter = parameterAnalyzer.get()
+					.analyze(parameterizedQuery.getParameterKinds().get(i), values.get(i));
+			if (!parameter.isPresent())
+				return Optional.empty();
+			parameterBuilder.add(parameter.get());
+		}
+		return Optional.of(parameterBuilder.build());
+	}
+
+	private static String getTemplateKey(ParameterizedInputQuery parameterizedQuery,
+										 ImmutableList<QueryParameter> parameters) {
+		return parameterizedQuery.getShape() + "\n" + parameters.stream()
+				.map(QueryParameter::getSignature)
+				.collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Reformulates the query after giving sentinel values to its parameters, and binds the resulting template
+	 * to the actual values.
+	 *
+	 * The template is shared by the input queries of the same shape whose parameters have the same signatures.
+	 * Returns empty if no template can be built.
+	 */
+	private Optional<IQ> reformulateIntoTemplate(ParameterizedInputQuery parameterizedQuery,
+												 ImmutableList<QueryParameter> parameters, String templateKey,
+												 BooleanSupplier isCancelled)
+			throws OntopReformulationInterruptedException {
+		ImmutableList<QueryParameter.Sentinel> sentinels = parameters.stream()
+				.map(QueryParameter::createSentinel)
+				.collect(ImmutableCollectors.toList());
+		// Unlikely
+		if (IntStream.range(0, parameters.size())
+				.anyMatch(i -> !parameterAnalyzer.get().isValidSentinel(parameters.get(i), sentinels.get(i))))
+			return Optional.empty();
+
+		Optional<NativeQueryTemplate> newTemplate;
+		try {
+			IQ sentinelQuery = reformulate(parameterizedQuery.translate(inputQueryTranslator, sentinels.stream()
+							.map(QueryParameter.Sentinel::getValue)
+							.collect(ImmutableCollectors.toList())),
+					isCancelled);
+			newTemplate = NativeQueryTemplate.create(sentinelQuery, parameters, sentinels, iqFactory, termFactory,
+					substitutionFactory, rdfFactory);
+		} catch (OntopReformulationInterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			log.debug("Cannot reformulate the parameterized query", e);
+			newTemplate = Optional.empty();
+		}
+
+		if (!newTemplate.isPresent()) {
+			queryCache.putTemplate(templateKey, NativeQueryTemplate.NON_PARAMETERIZABLE);
+			return Optional.empty();
+		}
+		queryCache.putTemplate(templateKey, newTemplate.get());
+		return newTemplate.get().bind(parameterizedQuery.getParameterValues());
+	}
+
 	private IQ generateExecutableQuery(IQ iq)
 			throws OntopReformulationException {
 
@@ -158,4 +298,9 @@ public class QuestQueryProcessor implements QueryReformulator {
 	public InputQueryFactory getInputQueryFactory() {
 		return inputQueryFactory;
 	}
+
+	@Override
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
 }
@@ -7,6 +7,8 @@ import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
 import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
 import it.unibz.inf.ontop.iq.IQ;
 
+import java.util.Optional;
+
 /**
  * Must throw an OntopInvalidInputQueryException at CONSTRUCTION time if the input query is invalid.
  *
@@ -18,4 +20,11 @@ public interface InputQuery<R extends OBDAResultSet> {
     String getInputString();
 
     IQ translate(InputQueryTranslator translator) throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException;
+
+    /**
+     * Empty if the query has no constant that can be abstracted into a parameter
+     */
+    default Optional<ParameterizedInputQuery> parameterize() {
+        return Optional.empty();
+    }
 }
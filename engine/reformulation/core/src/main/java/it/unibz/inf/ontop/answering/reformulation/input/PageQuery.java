@@ -0,0 +1,25 @@
+package it.unibz.inf.ontop.answering.reformulation.input;
+
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+/**
+ * Page of a SELECT query (see SelectQuery.createPageQuery(...))
+ */
+public interface PageQuery extends SelectQuery {
+
+    int getPageSize();
+
+    /**
+     * Token of the next page, given the last result of this page.
+     *
+     * Opaque for the client. Blank nodes cannot be used as keys.
+     */
+    String createContinuationToken(OntopBindingSet lastBindingSet) throws OntopResultConversionException;
+
+    /**
+     * Fails when a result cannot be ordered with respect to the continuation token
+     * (e.g. keys mixing literals of different datatypes)
+     */
+    void checkComparableKeys(OntopBindingSet bindingSet) throws OntopResultConversionException;
+}
@@ -0,0 +1,47 @@
+package it.unibz.inf.ontop.answering.reformulation.input;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.input.translation.InputQueryTranslator;
+import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
+import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
+import it.unibz.inf.ontop.iq.IQ;
+
+/**
+ * Input query in which some constants (IRIs and string literals) are abstracted into parameters.
+ *
+ * Input queries only differing by the values of these constants have the same shape.
+ * Occurrences of the same constant are the same parameter, so the shape also tells which parameters are equal.
+ *
+ * See InputQuery.parameterize()
+ */
+public interface ParameterizedInputQuery {
+
+    /**
+     * Identifies the shape of the query (e.g. for caching)
+     */
+    String getShape();
+
+    /**
+     * Values of the parameters in the original input query, in order
+     * (IRI strings or lexical values of the literals)
+     */
+    ImmutableList<String> getParameterValues();
+
+    /**
+     * Kinds of the parameters, in the same order as their values
+     */
+    ImmutableList<ParameterKind> getParameterKinds();
+
+    /**
+     * Translates the query obtained by giving these values to the parameters
+     */
+    IQ translate(InputQueryTranslator translator, ImmutableList<String> parameterValues)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException;
+
+
+    enum ParameterKind {
+        IRI,
+        // xsd:string literal
+        LITERAL
+    }
+}
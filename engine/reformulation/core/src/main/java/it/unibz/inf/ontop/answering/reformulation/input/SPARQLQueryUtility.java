@@ -25,6 +25,10 @@ import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
 import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public class SPARQLQueryUtility {
 	
 	private static final String ASK_KEYWORD = "ask";
@@ -127,6 +131,20 @@ public class SPARQLQueryUtility {
 				+ constant + "> ?p ?o}";
 	}
 
+	/**
+	 * Describes several resources at once, as subject and as object.
+	 *
+	 * One UNION branch per resource and position, so that each branch keeps a constant in its triple pattern
+	 * (a VALUES block joined with ?s ?p ?o would unfold all the mapping assertions).
+	 */
+	public static String getConstructBatchQuery(Collection<String> constants) {
+		return constants.stream()
+				.flatMap(c -> Stream.of(
+						"{ <" + c + "> ?p ?o BIND(<" + c + "> AS ?s) }",
+						"{ ?s ?p <" + c + "> BIND(<" + c + "> AS ?o) }"))
+				.collect(Collectors.joining(" UNION ", "CONSTRUCT { ?s ?p ?o } WHERE { ", " }"));
+	}
+
 	public static String getSelectFromConstruct(String strquery){
 		String strlower = strquery.toLowerCase();
 		// Let's assume it IS Construct query and we don't need to check
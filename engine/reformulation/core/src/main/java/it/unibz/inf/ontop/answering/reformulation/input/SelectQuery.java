@@ -2,6 +2,30 @@ package it.unibz.inf.ontop.answering.reformulation.input;
 
 
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
+import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
+
+import java.util.Optional;
 
 public interface SelectQuery extends TupleSPARQLQuery<TupleResultSet> {
+
+    /**
+     * Keyset pagination: query of the page following the continuation token (the first page if empty).
+     *
+     * The results are sorted by the ORDER BY variables, followed by the other projected variables,
+     * and the page is selected by a condition on these keys instead of an OFFSET,
+     * so that each page has the same cost.
+     *
+     * Not supported for queries having a LIMIT or OFFSET, or ordered by an expression.
+     */
+    PageQuery createPageQuery(int pageSize, Optional<String> continuationToken)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException;
+
+    /**
+     * Query returning the number of results of this query, as its only binding.
+     *
+     * Planned like any other query (as an aggregation), so that the projection, the ORDER BY
+     * and the redundant DISTINCTs do not reach the DB.
+     */
+    SelectQuery createCountQuery();
 }
@@ -1,7 +1,6 @@
 package it.unibz.inf.ontop.answering.reformulation.input.impl;
 
 import it.unibz.inf.ontop.answering.reformulation.input.AskQuery;
-import it.unibz.inf.ontop.answering.reformulation.input.translation.InputQueryTranslator;
 import it.unibz.inf.ontop.answering.reformulation.input.translation.RDF4JInputQueryTranslator;
 import it.unibz.inf.ontop.answering.resultset.BooleanResultSet;
 import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
@@ -17,10 +16,8 @@ class RDF4JAskQuery extends RDF4JInputQuery<BooleanResultSet> implements AskQuer
     }
 
     @Override
-    public IQ translate(InputQueryTranslator translator) throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
-        if (!(translator instanceof RDF4JInputQueryTranslator)) {
-            throw new IllegalArgumentException("RDF4JInputQueryImpl requires an RDF4JInputQueryTranslator");
-        }
-        return ((RDF4JInputQueryTranslator) translator).translateAskQuery(parsedQuery);
+    protected IQ translate(RDF4JInputQueryTranslator translator, ParsedQuery parsedQuery)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
+        return translator.translateAskQuery(parsedQuery);
     }
 }
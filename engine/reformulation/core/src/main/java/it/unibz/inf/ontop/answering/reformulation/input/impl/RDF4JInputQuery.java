@@ -1,19 +1,44 @@
 package it.unibz.inf.ontop.answering.reformulation.input.impl;
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery.ParameterKind;
 import it.unibz.inf.ontop.answering.reformulation.input.translation.InputQueryTranslator;
 import it.unibz.inf.ontop.answering.reformulation.input.translation.RDF4JInputQueryTranslator;
 import it.unibz.inf.ontop.answering.resultset.OBDAResultSet;
 import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
 import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
 import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.algebra.*;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+import org.eclipse.rdf4j.query.parser.ParsedBooleanQuery;
+import org.eclipse.rdf4j.query.parser.ParsedGraphQuery;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
 
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 
 class RDF4JInputQuery<R extends OBDAResultSet> implements InputQuery<R> {
 
+    private static final String PARAMETER_PREFIX = "ontop-parameter-";
+    private static final String PARAMETER_IRI_PREFIX = "urn:ontop:parameter:";
+    private static final String PARAMETER_VARIABLE_PREFIX = "_ontop_parameter_";
+    private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
     protected final ParsedQuery parsedQuery;
     private final String inputQueryString;
 
@@ -36,7 +61,220 @@ class RDF4JInputQuery<R extends OBDAResultSet> implements InputQuery<R> {
         if (!(translator instanceof RDF4JInputQueryTranslator)) {
             throw new IllegalArgumentException("RDF4JInputQueryImpl requires an RDF4JInputQueryTranslator");
         }
-        return ((RDF4JInputQueryTranslator) translator).translate(parsedQuery);
+        return translate((RDF4JInputQueryTranslator) translator, parsedQuery);
+    }
+
+    protected IQ translate(RDF4JInputQueryTranslator translator, ParsedQuery parsedQuery)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
+        return translator.translate(parsedQuery);
+    }
+
+    /**
+     * Abstracts into parameters the IRIs and the string literals (without language tag) that:
+     *   - are subjects or objects of triple patterns (except the classes of rdf:type patterns),
+     *   - or are compared (=, !=, sameTerm) to a variable in an expression (e.g. FILTER(?x = <...>)).
+     *
+     * Other constants are kept in the shape, as they may be evaluated during the reformulation.
+     * Occurrences of the same constant are the same parameter.
+     */
+    @Override
+    public Optional<ParameterizedInputQuery> parameterize() {
+        TupleExpr shapeExpression = parsedQuery.getTupleExpr().clone();
+        Set<String> otherConstants = new HashSet<>();
+        ImmutableList<ParameterSite> sites = collectParameterSites(shapeExpression, otherConstants);
+        if (sites.isEmpty())
+            return Optional.empty();
+
+        ImmutableList<Value> parameters = sites.stream()
+                .map(s -> s.value)
+                .distinct()
+                .collect(ImmutableCollectors.toList());
+        // The reformulation may compare them
+        if (parameters.stream().anyMatch(p -> otherConstants.contains(p.stringValue())))
+            return Optional.empty();
+
+        for (ParameterSite site : sites) {
+            int index = parameters.indexOf(site.value);
+            site.replace(index, createPlaceholder(getKind(site.value), index));
+        }
+
+        String shape = getClass().getName() + "\n" + parsedQuery.getDataset() + "\n" + shapeExpression;
+        return Optional.of(new RDF4JParameterizedInputQuery(shape,
+                parameters.stream()
+                        .map(Value::stringValue)
+                        .collect(ImmutableCollectors.toList()),
+                parameters.stream()
+                        .map(RDF4JInputQuery::getKind)
+                        .collect(ImmutableCollectors.toList())));
+    }
+
+    /**
+     * Parameterizable constants of the expression, in a deterministic order.
+     *
+     * The string values of the other constants are added to otherConstants.
+     */
+    private static ImmutableList<ParameterSite> collectParameterSites(TupleExpr expression,
+                                                                      Set<String> otherConstants) {
+        ImmutableList.Builder<ParameterSite> siteBuilder = ImmutableList.builder();
+        expression.visit(new AbstractQueryModelVisitor<RuntimeException>() {
+
+            @Override
+            public void meet(Var node) {
+                if (!node.hasValue())
+                    return;
+                if (isParameterizable(node, node.getValue()))
+                    siteBuilder.add(new ParameterSite(node.getValue(), (i, v) -> {
+                        // The name of a constant variable is derived from its value
+                        node.setName(PARAMETER_VARIABLE_PREFIX + i);
+                        node.setValue(v);
+                    }));
+                else
+                    otherConstants.add(node.getValue().stringValue());
+            }
+
+            @Override
+            public void meet(ValueConstant node) {
+                if (isParameterizable(node, node.getValue()))
+                    siteBuilder.add(new ParameterSite(node.getValue(), (i, v) -> node.setValue(v)));
+                else
+                    otherConstants.add(node.getValue().stringValue());
+            }
+
+            @Override
+            public void meet(BindingSetAssignment node) {
+                node.getBindingSets().forEach(b -> b.forEach(v -> otherConstants.add(v.getValue().stringValue())));
+            }
+        });
+        return siteBuilder.build();
+    }
+
+    private static boolean isParameterizable(QueryModelNode node, Value value) {
+        boolean isStringLiteral = (value instanceof Literal)
+                && (!((Literal) value).getLanguage().isPresent())
+                && ((Literal) value).getDatatype().equals(XMLSchema.STRING);
+        if (!(value instanceof IRI) && !isStringLiteral)
+            return false;
+
+        QueryModelNode parent = node.getParentNode();
+        if (parent instanceof StatementPattern) {
+            StatementPattern pattern = (StatementPattern) parent;
+            if (pattern.getSubjectVar() == node)
+                return value instanceof IRI;
+            if (pattern.getObjectVar() != node)
+                return false;
+            Var predicate = pattern.getPredicateVar();
+            // The class influences the choice of the mapping assertions
+            return !(predicate.hasValue() && predicate.getValue().equals(RDF.TYPE) && (value instanceof IRI));
+        }
+
+        ValueExpr otherArgument;
+        if ((parent instanceof Compare) && (((Compare) parent).getOperator() == Compare.CompareOp.EQ
+                || ((Compare) parent).getOperator() == Compare.CompareOp.NE)) {
+            Compare compare = (Compare) parent;
+            otherArgument = compare.getLeftArg() == node ? compare.getRightArg() : compare.getLeftArg();
+        }
+        else if (parent instanceof SameTerm) {
+            SameTerm sameTerm = (SameTerm) parent;
+            otherArgument = sameTerm.getLeftArg() == node ? sameTerm.getRightArg() : sameTerm.getLeftArg();
+        }
+        else
+            return false;
+
+        return (otherArgument instanceof Var) && (!((Var) otherArgument).hasValue());
+    }
+
+    private static ParameterKind getKind(Value value) {
+        return value instanceof IRI ? ParameterKind.IRI : ParameterKind.LITERAL;
+    }
+
+    private static Value createPlaceholder(ParameterKind kind, int index) {
+        return kind == ParameterKind.IRI
+                ? VALUE_FACTORY.createIRI(PARAMETER_IRI_PREFIX + index)
+                : VALUE_FACTORY.createLiteral(PARAMETER_PREFIX + index);
+    }
+
+    private ParsedQuery createParsedQuery(TupleExpr expression) {
+        ParsedQuery newParsedQuery;
+        if (parsedQuery instanceof ParsedBooleanQuery)
+            newParsedQuery = new ParsedBooleanQuery(expression);
+        else if (parsedQuery instanceof ParsedGraphQuery)
+            newParsedQuery = new ParsedGraphQuery(expression);
+        else
+            newParsedQuery = new ParsedTupleQuery(expression);
+        newParsedQuery.setDataset(parsedQuery.getDataset());
+        return newParsedQuery;
+    }
+
+    /**
+     * Occurrence of a parameter in the algebra expression
+     */
+    private static class ParameterSite {
+        private final Value value;
+        private final BiConsumer<Integer, Value> replacer;
+
+        private ParameterSite(Value value, BiConsumer<Integer, Value> replacer) {
+            this.value = value;
+            this.replacer = replacer;
+        }
+
+        /**
+         * Gives a new value to the i-th parameter
+         */
+        void replace(int parameterIndex, Value newValue) {
+            replacer.accept(parameterIndex, newValue);
+        }
+    }
+
+    private class RDF4JParameterizedInputQuery implements ParameterizedInputQuery {
+        private final String shape;
+        private final ImmutableList<String> parameterValues;
+        private final ImmutableList<ParameterKind> parameterKinds;
+
+        private RDF4JParameterizedInputQuery(String shape, ImmutableList<String> parameterValues,
+                                             ImmutableList<ParameterKind> parameterKinds) {
+            this.shape = shape;
+            this.parameterValues = parameterValues;
+            this.parameterKinds = parameterKinds;
+        }
+
+        @Override
+        public String getShape() {
+            return shape;
+        }
+
+        @Override
+        public ImmutableList<String> getParameterValues() {
+            return parameterValues;
+        }
+
+        @Override
+        public ImmutableList<ParameterKind> getParameterKinds() {
+            return parameterKinds;
+        }
+
+        @Override
+        public IQ translate(InputQueryTranslator translator, ImmutableList<String> newParameterValues)
+                throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
+            if (!(translator instanceof RDF4JInputQueryTranslator)) {
+                throw new IllegalArgumentException("RDF4JInputQueryImpl requires an RDF4JInputQueryTranslator");
+            }
+            TupleExpr expression = parsedQuery.getTupleExpr().clone();
+            ImmutableList<ParameterSite> sites = collectParameterSites(expression, new HashSet<>());
+            ImmutableList<Value> originalValues = sites.stream()
+                    .map(s -> s.value)
+                    .distinct()
+                    .collect(ImmutableCollectors.toList());
+
+            for (ParameterSite site : sites) {
+                int index = originalValues.indexOf(site.value);
+                String newValue = newParameterValues.get(index);
+                site.replace(index, parameterKinds.get(index) == ParameterKind.IRI
+                        ? VALUE_FACTORY.createIRI(newValue)
+                        : VALUE_FACTORY.createLiteral(newValue));
+            }
+            return RDF4JInputQuery.this.translate((RDF4JInputQueryTranslator) translator,
+                    createParsedQuery(expression));
+        }
     }
 
     @Override
@@ -0,0 +1,373 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.input.PageQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
+import it.unibz.inf.ontop.model.term.IRIConstant;
+import it.unibz.inf.ontop.model.term.RDFConstant;
+import it.unibz.inf.ontop.model.term.RDFLiteralConstant;
+import it.unibz.inf.ontop.model.type.LanguageTag;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.BooleanLiteral;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.*;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Keyset pagination on the RDF4J algebra.
+ *
+ * Only SELECT DISTINCT queries can be paged: the keys are the ORDER BY variables, followed by the other projected
+ * variables, so that they identify a result. The page following the key values K is selected by the condition
+ *   (k1 > K1) || (k1 = K1 && k2 > K2) || ...
+ * (< for descending keys) below the ORDER BY, and is limited by a slice without offset.
+ * The condition is put in disjunctive normal form, with one UNION branch per conjunction, as the reformulation
+ * does not support disjunctions involving DATATYPE(...) or LANG(...) of a nullable variable.
+ *
+ * "Follows" is total and matches the SPARQL order: unbound values come first, then blank nodes, IRIs (compared by
+ * their string) and literals. Literals are only compared to literals of the same datatype and language tag
+ * (by their string for language-tagged literals).
+ * The others are kept in the next page, where checkComparableKeys(...) rejects them: a key mixing datatypes
+ * (including different numeric datatypes) cannot be paged.
+ */
+class RDF4JPageQuery extends RDF4JSelectQuery implements PageQuery {
+
+    private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+    private static final byte TOKEN_VERSION = 1;
+    private static final byte UNBOUND = 'U';
+    private static final byte IRI_VALUE = 'I';
+    private static final byte LITERAL_VALUE = 'L';
+
+    private final int pageSize;
+    // Projected names
+    private final ImmutableList<String> keyNames;
+    // Empty for the first page
+    private final Optional<ImmutableList<Optional<Value>>> lastValues;
+
+    private RDF4JPageQuery(ParsedQuery parsedQuery, String queryString, int pageSize, ImmutableList<String> keyNames,
+                           Optional<ImmutableList<Optional<Value>>> lastValues) {
+        super(parsedQuery, queryString);
+        this.pageSize = pageSize;
+        this.keyNames = keyNames;
+        this.lastValues = lastValues;
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public String createContinuationToken(OntopBindingSet lastBindingSet) throws OntopResultConversionException {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TOKEN_VERSION);
+            out.writeInt(keyNames.size());
+            for (String keyName : keyNames) {
+                RDFConstant value = lastBindingSet.getConstant(keyName);
+                if (value == null)
+                    out.writeByte(UNBOUND);
+                else if (value instanceof IRIConstant) {
+                    out.writeByte(IRI_VALUE);
+                    out.writeUTF(((IRIConstant) value).getIRI().getIRIString());
+                }
+                else if (value instanceof RDFLiteralConstant) {
+                    RDFLiteralConstant literal = (RDFLiteralConstant) value;
+                    out.writeByte(LITERAL_VALUE);
+                    out.writeUTF(literal.getValue());
+                    out.writeUTF(literal.getType().getIRI().getIRIString());
+                    out.writeUTF(literal.getType().getLanguageTag()
+                            .map(LanguageTag::getFullString)
+                            .orElse(""));
+                }
+                else
+                    throw new OntopResultConversionException("Blank nodes cannot be used as pagination keys: "
+                            + keyName);
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new OntopResultConversionException(e);
+        }
+    }
+
+    /**
+     * The first key differing from the token must not be a literal of another datatype or language tag
+     */
+    @Override
+    public void checkComparableKeys(OntopBindingSet bindingSet) throws OntopResultConversionException {
+        if (!lastValues.isPresent())
+            return;
+
+        for (int i = 0; i < keyNames.size(); i++) {
+            RDFConstant value = bindingSet.getConstant(keyNames.get(i));
+            Optional<Value> lastValue = lastValues.get().get(i);
+            if (isEqual(value, lastValue))
+                continue;
+
+            if ((value instanceof RDFLiteralConstant) && lastValue.isPresent() && (lastValue.get() instanceof Literal)
+                    && !hasSameType((RDFLiteralConstant) value, (Literal) lastValue.get()))
+                throw new OntopResultConversionException("Keyset pagination cannot order the literals "
+                        + lastValue.get() + " and " + value + " of " + keyNames.get(i));
+            return;
+        }
+    }
+
+    private static boolean isEqual(RDFConstant value, Optional<Value> lastValue) {
+        if (!lastValue.isPresent())
+            return value == null;
+        if (value instanceof IRIConstant)
+            return (lastValue.get() instanceof IRI)
+                    && ((IRIConstant) value).getIRI().getIRIString().equals(lastValue.get().stringValue());
+        if (value instanceof RDFLiteralConstant)
+            return (lastValue.get() instanceof Literal)
+                    && hasSameType((RDFLiteralConstant) value, (Literal) lastValue.get())
+                    && ((RDFLiteralConstant) value).getValue().equals(lastValue.get().stringValue());
+        return false;
+    }
+
+    private static boolean hasSameType(RDFLiteralConstant value, Literal lastValue) {
+        return value.getType().getIRI().getIRIString().equals(lastValue.getDatatype().stringValue())
+                && value.getType().getLanguageTag()
+                        .map(LanguageTag::getFullString)
+                        .orElse("")
+                        .equalsIgnoreCase(lastValue.getLanguage().orElse(""));
+    }
+
+    static RDF4JPageQuery create(ParsedQuery parsedQuery, String queryString, int pageSize,
+                                 Optional<String> continuationToken)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
+        if (pageSize <= 0)
+            throw new OntopInvalidInputQueryException("The page size must be positive");
+
+        TupleExpr originalRoot = parsedQuery.getTupleExpr().clone();
+        TupleExpr root = (originalRoot instanceof QueryRoot) ? ((QueryRoot) originalRoot).getArg() : originalRoot;
+
+        if (root instanceof Slice)
+            throw new OntopUnsupportedInputQueryException("A query having a LIMIT or an OFFSET cannot be paged");
+        // Otherwise, the duplicates of the last result of a page would be lost
+        if (!(root instanceof Distinct))
+            throw new OntopUnsupportedInputQueryException("Keyset pagination requires a SELECT DISTINCT query");
+        TupleExpr node = ((Distinct) root).getArg();
+        if (!(node instanceof Projection))
+            throw new OntopUnsupportedInputQueryException("Keyset pagination requires a SELECT query with a projection");
+        Projection projection = (Projection) node;
+
+        Order order;
+        if (projection.getArg() instanceof Order)
+            order = (Order) projection.getArg();
+        else {
+            order = new Order(projection.getArg());
+            projection.setArg(order);
+        }
+
+        ImmutableList<Key> keys = extractKeys(projection, order);
+        order.setElements(keys.stream()
+                .map(k -> new OrderElem(new Var(k.sourceName), k.isAscending))
+                .collect(ImmutableCollectors.toList()));
+
+        Optional<ImmutableList<Optional<Value>>> lastValues = continuationToken.isPresent()
+                ? Optional.of(decode(continuationToken.get(), keys.size()))
+                : Optional.empty();
+        if (lastValues.isPresent())
+            order.setArg(createKeysetUnion(order.getArg(), createKeysetConjunctions(keys, lastValues.get())));
+
+        Slice slice = new Slice(root, 0, pageSize);
+        ParsedTupleQuery pageQuery = new ParsedTupleQuery((originalRoot instanceof QueryRoot)
+                ? new QueryRoot(slice)
+                : slice);
+        pageQuery.setDataset(parsedQuery.getDataset());
+
+        return new RDF4JPageQuery(pageQuery,
+                queryString + "\n# page " + pageSize + " " + continuationToken.orElse(""),
+                pageSize,
+                keys.stream()
+                        .map(k -> k.targetName)
+                        .collect(ImmutableCollectors.toList()),
+                lastValues);
+    }
+
+    private static ImmutableList<Key> extractKeys(Projection projection, Order order)
+            throws OntopUnsupportedInputQueryException {
+        Map<String, String> targetNames = new LinkedHashMap<>();
+        for (ProjectionElem elem : projection.getProjectionElemList().getElements())
+            targetNames.putIfAbsent(elem.getSourceName(), elem.getTargetName());
+
+        ImmutableList.Builder<Key> keyBuilder = ImmutableList.builder();
+        Set<String> orderNames = new HashSet<>();
+        for (OrderElem elem : order.getElements()) {
+            if (!(elem.getExpr() instanceof Var))
+                throw new OntopUnsupportedInputQueryException("Keyset pagination requires ordering by variables");
+            String sourceName = ((Var) elem.getExpr()).getName();
+            String targetName = targetNames.get(sourceName);
+            if (targetName == null)
+                throw new OntopUnsupportedInputQueryException("The ORDER BY variable " + sourceName
+                        + " must be projected for keyset pagination");
+            if (orderNames.add(sourceName))
+                keyBuilder.add(new Key(sourceName, targetName, elem.isAscending()));
+        }
+        // Tie-breakers
+        for (Map.Entry<String, String> e : targetNames.entrySet()) {
+            if (orderNames.add(e.getKey()))
+                keyBuilder.add(new Key(e.getKey(), e.getValue(), true));
+        }
+        return keyBuilder.build();
+    }
+
+    private static TupleExpr createKeysetUnion(TupleExpr pattern, ImmutableList<ValueExpr> conjunctions) {
+        if (conjunctions.isEmpty())
+            return new Filter(pattern, new ValueConstant(BooleanLiteral.FALSE));
+
+        TupleExpr union = null;
+        for (ValueExpr conjunction : conjunctions) {
+            Filter branch = new Filter(pattern.clone(), conjunction);
+            union = (union == null) ? branch : new Union(union, branch);
+        }
+        return union;
+    }
+
+    private static ImmutableList<ValueExpr> createKeysetConjunctions(ImmutableList<Key> keys,
+                                                                     ImmutableList<Optional<Value>> lastValues) {
+        ImmutableList.Builder<ValueExpr> conjunctionBuilder = ImmutableList.builder();
+        ValueExpr equalPrefix = null;
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Optional<Value> lastValue = lastValues.get(i);
+
+            for (ValueExpr follows : createFollowsConjunctions(key, lastValue))
+                conjunctionBuilder.add((equalPrefix == null) ? follows : new And(equalPrefix.clone(), follows));
+
+            ValueExpr equal = createEqualCondition(key, lastValue);
+            equalPrefix = (equalPrefix == null) ? equal : new And(equalPrefix, equal);
+        }
+        return conjunctionBuilder.build();
+    }
+
+    /**
+     * Disjuncts of the condition "the key follows its last value"
+     */
+    private static ImmutableList<ValueExpr> createFollowsConjunctions(Key key, Optional<Value> lastValue) {
+        if (!lastValue.isPresent())
+            return key.isAscending
+                    ? ImmutableList.of(new Bound(new Var(key.sourceName)))
+                    : ImmutableList.of();
+
+        Compare.CompareOp op = key.isAscending ? Compare.CompareOp.GT : Compare.CompareOp.LT;
+        Value value = lastValue.get();
+        ImmutableList.Builder<ValueExpr> disjunctBuilder = ImmutableList.builder();
+        if (value instanceof IRI) {
+            disjunctBuilder.add(new And(
+                    new IsURI(new Var(key.sourceName)),
+                    new Compare(new Str(new Var(key.sourceName)),
+                            new ValueConstant(VALUE_FACTORY.createLiteral(value.stringValue())), op)));
+            if (key.isAscending)
+                disjunctBuilder.add(new IsLiteral(new Var(key.sourceName)));
+        }
+        else {
+            Literal literal = (Literal) value;
+            // Language-tagged literals are not comparable in SPARQL: their strings are
+            disjunctBuilder.add(new And(
+                    createSameTypeCondition(key, literal),
+                    literal.getLanguage().isPresent()
+                            ? new Compare(new Str(new Var(key.sourceName)),
+                                    new ValueConstant(VALUE_FACTORY.createLiteral(literal.getLabel())), op)
+                            : new Compare(new Var(key.sourceName), new ValueConstant(literal), op)));
+            // Not comparable: rejected by checkComparableKeys(...)
+            disjunctBuilder.add(new And(
+                    new IsLiteral(new Var(key.sourceName)),
+                    new Not(new SameTerm(new Datatype(new Var(key.sourceName)),
+                            new ValueConstant(literal.getDatatype())))));
+            literal.getLanguage()
+                    .ifPresent(l -> disjunctBuilder.add(new And(
+                            new IsLiteral(new Var(key.sourceName)),
+                            new Not(createSameLanguageCondition(key, l)))));
+            if (!key.isAscending)
+                disjunctBuilder.add(new IsURI(new Var(key.sourceName)));
+        }
+        if (!key.isAscending)
+            disjunctBuilder
+                    .add(new Not(new Bound(new Var(key.sourceName))))
+                    .add(new IsBNode(new Var(key.sourceName)));
+        return disjunctBuilder.build();
+    }
+
+    private static ValueExpr createSameTypeCondition(Key key, Literal literal) {
+        ValueExpr sameDatatype = new And(
+                new IsLiteral(new Var(key.sourceName)),
+                new SameTerm(new Datatype(new Var(key.sourceName)), new ValueConstant(literal.getDatatype())));
+        return literal.getLanguage()
+                .<ValueExpr>map(l -> new And(sameDatatype, createSameLanguageCondition(key, l)))
+                .orElse(sameDatatype);
+    }
+
+    private static ValueExpr createSameLanguageCondition(Key key, String language) {
+        return new SameTerm(new Lang(new Var(key.sourceName)),
+                new ValueConstant(VALUE_FACTORY.createLiteral(language)));
+    }
+
+    private static ValueExpr createEqualCondition(Key key, Optional<Value> lastValue) {
+        return lastValue
+                .<ValueExpr>map(v -> new SameTerm(new Var(key.sourceName), new ValueConstant(v)))
+                .orElseGet(() -> new Not(new Bound(new Var(key.sourceName))));
+    }
+
+    private static ImmutableList<Optional<Value>> decode(String continuationToken, int keyCount)
+            throws OntopInvalidInputQueryException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                Base64.getUrlDecoder().decode(continuationToken.getBytes(StandardCharsets.US_ASCII))))) {
+            if (in.readByte() != TOKEN_VERSION || in.readInt() != keyCount)
+                throw new OntopInvalidInputQueryException("Invalid continuation token");
+
+            ImmutableList.Builder<Optional<Value>> valueBuilder = ImmutableList.builder();
+            for (int i = 0; i < keyCount; i++) {
+                byte kind = in.readByte();
+                switch (kind) {
+                    case UNBOUND:
+                        valueBuilder.add(Optional.empty());
+                        break;
+                    case IRI_VALUE:
+                        valueBuilder.add(Optional.of(VALUE_FACTORY.createIRI(in.readUTF())));
+                        break;
+                    case LITERAL_VALUE:
+                        String label = in.readUTF();
+                        String datatype = in.readUTF();
+                        String language = in.readUTF();
+                        Literal literal = language.isEmpty()
+                                ? VALUE_FACTORY.createLiteral(label, VALUE_FACTORY.createIRI(datatype))
+                                : VALUE_FACTORY.createLiteral(label, language);
+                        valueBuilder.add(Optional.of(literal));
+                        break;
+                    default:
+                        throw new OntopInvalidInputQueryException("Invalid continuation token");
+                }
+            }
+            return valueBuilder.build();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new OntopInvalidInputQueryException("Invalid continuation token");
+        }
+    }
+
+
+    private static class Key {
+        private final String sourceName;
+        private final String targetName;
+        private final boolean isAscending;
+
+        Key(String sourceName, String targetName, boolean isAscending) {
+            this.sourceName = sourceName;
+            this.targetName = targetName;
+            this.isAscending = isAscending;
+        }
+    }
+}
@@ -1,15 +1,59 @@
 package it.unibz.inf.ontop.answering.reformulation.input.impl;
 
+import it.unibz.inf.ontop.answering.reformulation.input.PageQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
+import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
+import org.eclipse.rdf4j.query.algebra.*;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+
+import java.util.Optional;
 
 class RDF4JSelectQuery extends RDF4JInputQuery<TupleResultSet> implements SelectQuery {
 
+    private static final String COUNT_VARIABLE = "count";
+
     /**
      * TODO: support bindings
      */
     RDF4JSelectQuery(ParsedQuery parsedQuery, String queryString) {
         super(parsedQuery, queryString);
     }
+
+    @Override
+    public PageQuery createPageQuery(int pageSize, Optional<String> continuationToken)
+            throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
+        return RDF4JPageQuery.create(parsedQuery, getInputString(), pageSize, continuationToken);
+    }
+
+    /**
+     * SELECT (COUNT(*) AS ?count) { the query }
+     *
+     * Without a slice, the ORDER BY of the query is dropped.
+     */
+    @Override
+    public SelectQuery createCountQuery() {
+        TupleExpr originalRoot = parsedQuery.getTupleExpr().clone();
+        TupleExpr root = (originalRoot instanceof QueryRoot) ? ((QueryRoot) originalRoot).getArg() : originalRoot;
+
+        TupleExpr node = root;
+        while (node instanceof Distinct || node instanceof Reduced)
+            node = ((UnaryTupleOperator) node).getArg();
+        if ((node instanceof Projection) && (((Projection) node).getArg() instanceof Order)) {
+            Projection projection = (Projection) node;
+            projection.setArg(((Order) projection.getArg()).getArg());
+        }
+
+        Group group = new Group(root);
+        group.addGroupElement(new GroupElem(COUNT_VARIABLE, new Count(null)));
+        Projection countProjection = new Projection(group, new ProjectionElemList(new ProjectionElem(COUNT_VARIABLE)));
+
+        ParsedTupleQuery countQuery = new ParsedTupleQuery((originalRoot instanceof QueryRoot)
+                ? new QueryRoot(countProjection)
+                : countProjection);
+        countQuery.setDataset(parsedQuery.getDataset());
+        return new RDF4JSelectQuery(countQuery, getInputString() + "\n# count");
+    }
 }
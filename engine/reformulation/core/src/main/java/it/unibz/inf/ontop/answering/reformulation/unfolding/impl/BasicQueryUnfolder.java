@@ -24,7 +24,9 @@ import it.unibz.inf.ontop.utils.CoreUtilsFactory;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import it.unibz.inf.ontop.utils.VariableGenerator;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -38,6 +40,21 @@ public class BasicQueryUnfolder extends AbstractIntensionalQueryMerger implement
     private final UnionBasedQueryMerger queryMerger;
     private final CoreUtilsFactory coreUtilsFactory;
 
+    /**
+     * Unions of definitions for the triple/quad patterns with a variable property or a variable class
+     * (e.g. ?s ?p ?o, ?s a ?c).
+     *
+     * Lazily computed as they can be very large, and then shared by all the queries (the mapping does not change).
+     */
+    private final Map<RDFAtomPredicate, Optional<IQ>> starDefinitions;
+    private final Map<RDFAtomPredicate, Optional<IQ>> starClassDefinitions;
+    /**
+     * For the same patterns, but with a constant IRI as subject or object (e.g. <http://ex.org/person/42> ?p ?o):
+     * only the definitions that may produce this IRI are used.
+     */
+    private final Map<RDFAtomPredicate, IRITemplateIndex> starIndexes;
+    private final Map<RDFAtomPredicate, IRITemplateIndex> starClassIndexes;
+
     @AssistedInject
     private BasicQueryUnfolder(@Assisted Mapping mapping, IntermediateQueryFactory iqFactory,
                                SubstitutionFactory substitutionFactory, QueryTransformerFactory transformerFactory,
@@ -48,6 +65,10 @@ public class BasicQueryUnfolder extends AbstractIntensionalQueryMerger implement
         this.transformerFactory = transformerFactory;
         this.queryMerger = queryMerger;
         this.coreUtilsFactory = coreUtilsFactory;
+        this.starDefinitions = new ConcurrentHashMap<>();
+        this.starClassDefinitions = new ConcurrentHashMap<>();
+        this.starIndexes = new ConcurrentHashMap<>();
+        this.starClassIndexes = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -55,6 +76,22 @@ public class BasicQueryUnfolder extends AbstractIntensionalQueryMerger implement
         return new BasicQueryUnfoldingTransformer(coreUtilsFactory.createVariableGenerator(knownVariables));
     }
 
+    private Optional<IQ> computeStarClassDefinition(RDFAtomPredicate predicate) {
+        return queryMerger.mergeDefinitions(getClassDefinitions(predicate));
+    }
+
+    private ImmutableList<IQ> getClassDefinitions(RDFAtomPredicate predicate) {
+        return mapping.getRDFClasses(predicate).stream()
+                .flatMap(i -> mapping.getRDFClassDefinition(predicate, i)
+                        .map(Stream::of)
+                        .orElseGet(Stream::empty))
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private Optional<IQ> computeStarDefinition(RDFAtomPredicate predicate) {
+        return queryMerger.mergeDefinitions(mapping.getQueries(predicate));
+    }
+
     protected class BasicQueryUnfoldingTransformer extends AbstractIntensionalQueryMerger.QueryMergingTransformer {
 
         protected BasicQueryUnfoldingTransformer(VariableGenerator variableGenerator) {
@@ -77,26 +114,43 @@ public class BasicQueryUnfolder extends AbstractIntensionalQueryMerger implement
                     .map(i -> i.equals(RDF.TYPE)
                             ? getRDFClassDefinition(predicate, arguments)
                             : mapping.getRDFPropertyDefinition(predicate, i))
-                    .orElseGet(() -> getStarDefinition(predicate));
+                    .orElseGet(() -> getStarDefinition(predicate, arguments));
         }
 
         private Optional<IQ> getRDFClassDefinition(RDFAtomPredicate predicate,
                                                    ImmutableList<? extends VariableOrGroundTerm> arguments) {
             return predicate.getClassIRI(arguments)
                     .map(i -> mapping.getRDFClassDefinition(predicate, i))
-                    .orElseGet(() -> getStarClassDefinition(predicate));
+                    .orElseGet(() -> getStarClassDefinition(predicate, arguments));
         }
 
-        private Optional<IQ> getStarClassDefinition(RDFAtomPredicate predicate) {
-            return queryMerger.mergeDefinitions(mapping.getRDFClasses(predicate).stream()
-                    .flatMap(i -> mapping.getRDFClassDefinition(predicate, i)
-                            .map(Stream::of)
-                            .orElseGet(Stream::empty))
-                    .collect(ImmutableCollectors.toList()));
+        private Optional<IQ> getStarClassDefinition(RDFAtomPredicate predicate,
+                                                    ImmutableList<? extends VariableOrGroundTerm> arguments) {
+            Optional<IRIConstant> subject = getIRIConstant(predicate.getSubject(arguments));
+            if (!subject.isPresent())
+                return starClassDefinitions.computeIfAbsent(predicate, BasicQueryUnfolder.this::computeStarClassDefinition);
+
+            return queryMerger.mergeDefinitions(starClassIndexes
+                    .computeIfAbsent(predicate, p -> new IRITemplateIndex(p, getClassDefinitions(p), iqFactory))
+                    .getCandidates(subject, Optional.empty()));
+        }
+
+        private Optional<IQ> getStarDefinition(RDFAtomPredicate predicate,
+                                               ImmutableList<? extends VariableOrGroundTerm> arguments) {
+            Optional<IRIConstant> subject = getIRIConstant(predicate.getSubject(arguments));
+            Optional<IRIConstant> object = getIRIConstant(predicate.getObject(arguments));
+            if (!subject.isPresent() && !object.isPresent())
+                return starDefinitions.computeIfAbsent(predicate, BasicQueryUnfolder.this::computeStarDefinition);
+
+            return queryMerger.mergeDefinitions(starIndexes
+                    .computeIfAbsent(predicate, p -> new IRITemplateIndex(p, mapping.getQueries(p), iqFactory))
+                    .getCandidates(subject, object));
         }
 
-        private Optional<IQ> getStarDefinition(RDFAtomPredicate predicate) {
-            return queryMerger.mergeDefinitions(mapping.getQueries(predicate));
+        private Optional<IRIConstant> getIRIConstant(VariableOrGroundTerm term) {
+            return Optional.of(term)
+                    .filter(t -> t instanceof IRIConstant)
+                    .map(t -> (IRIConstant) t);
         }
 
         @Override
@@ -0,0 +1,190 @@
+package it.unibz.inf.ontop.answering.reformulation.unfolding.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.UnaryIQTree;
+import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.iq.node.DistinctNode;
+import it.unibz.inf.ontop.iq.node.UnionNode;
+import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.RDFTermFunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.IRIStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.model.type.ObjectRDFType;
+import it.unibz.inf.ontop.model.type.RDFTermType;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Indexes the definitions of an RDFAtomPredicate (split into the branches of their unions)
+ * by the IRI templates and constant IRIs of their subjects and objects.
+ *
+ * Gives the definitions that may produce a given constant IRI as subject and/or object,
+ * so that the other ones are not unfolded at all.
+ *
+ * Conservative: a definition whose subject (or object) cannot be analyzed is always a candidate.
+ *
+ * A definition topped by a DISTINCT is not split: DISTINCT(A UNION B) is not the union of
+ * DISTINCT(A) and DISTINCT(B). Its subject and object are still resolved through the DISTINCT,
+ * but only from the construction nodes above its union (if any).
+ *
+ * Immutable once built (thread-safe).
+ */
+class IRITemplateIndex {
+
+    private final ImmutableList<IQ> definitions;
+    private final PositionIndex subjectIndex;
+    private final PositionIndex objectIndex;
+
+    IRITemplateIndex(RDFAtomPredicate predicate, Collection<IQ> predicateDefinitions,
+                     IntermediateQueryFactory iqFactory) {
+        this.definitions = predicateDefinitions.stream()
+                .flatMap(d -> split(d.getTree(), iqFactory)
+                        .map(t -> iqFactory.createIQ(d.getProjectionAtom(), t)))
+                .collect(ImmutableCollectors.toList());
+
+        this.subjectIndex = new PositionIndex();
+        this.objectIndex = new PositionIndex();
+        for (int i = 0; i < definitions.size(); i++) {
+            IQ definition = definitions.get(i);
+            ImmutableList<Variable> projectedVariables = definition.getProjectionAtom().getArguments();
+            subjectIndex.add(i, resolve(predicate.getSubject(projectedVariables), definition.getTree()));
+            objectIndex.add(i, resolve(predicate.getObject(projectedVariables), definition.getTree()));
+        }
+    }
+
+    /**
+     * Definitions (in the original order) that may produce these constants.
+     */
+    ImmutableList<IQ> getCandidates(Optional<IRIConstant> subject, Optional<IRIConstant> object) {
+        BitSet candidates = new BitSet(definitions.size());
+        candidates.set(0, definitions.size());
+        subject.ifPresent(s -> candidates.and(subjectIndex.lookup(s.getIRI().getIRIString())));
+        object.ifPresent(o -> candidates.and(objectIndex.lookup(o.getIRI().getIRIString())));
+
+        return candidates.stream()
+                .mapToObj(definitions::get)
+                .collect(ImmutableCollectors.toList());
+    }
+
+    /**
+     * Splits the unions, including the ones below a construction node.
+     */
+    private static Stream<IQTree> split(IQTree tree, IntermediateQueryFactory iqFactory) {
+        if (tree.getRootNode() instanceof UnionNode)
+            return tree.getChildren().stream()
+                    .flatMap(c -> split(c, iqFactory));
+
+        if ((tree.getRootNode() instanceof ConstructionNode)
+                && (((UnaryIQTree) tree).getChild().getRootNode() instanceof UnionNode)) {
+            ConstructionNode constructionNode = (ConstructionNode) tree.getRootNode();
+            return ((UnaryIQTree) tree).getChild().getChildren().stream()
+                    .flatMap(c -> split(c, iqFactory))
+                    .map(c -> iqFactory.createUnaryIQTree(constructionNode, c));
+        }
+        return Stream.of(tree);
+    }
+
+    /**
+     * Term of the variable after applying the substitutions of the construction nodes at the top of the tree
+     * (DISTINCT does not change the terms)
+     */
+    private static ImmutableTerm resolve(Variable variable, IQTree tree) {
+        ImmutableTerm term = variable;
+        for (IQTree t = tree; (t.getRootNode() instanceof ConstructionNode) || (t.getRootNode() instanceof DistinctNode);
+             t = ((UnaryIQTree) t).getChild()) {
+            if (t.getRootNode() instanceof ConstructionNode)
+                term = ((ConstructionNode) t.getRootNode()).getSubstitution().apply(term);
+        }
+        return term;
+    }
+
+
+    /**
+     * Index for one position (subject or object)
+     */
+    private static class PositionIndex {
+        // Definitions possibly producing any IRI
+        private final BitSet anyIRIDefinitions = new BitSet();
+        private final TrieNode root = new TrieNode();
+
+        void add(int definitionIndex, ImmutableTerm term) {
+            if (term instanceof IRIConstant) {
+                root.getOrCreate(((IRIConstant) term).getIRI().getIRIString()).exactDefinitions.set(definitionIndex);
+                return;
+            }
+            if (term instanceof ImmutableFunctionalTerm
+                    && ((ImmutableFunctionalTerm) term).getFunctionSymbol() instanceof RDFTermFunctionSymbol) {
+                ImmutableTerm lexicalTerm = ((ImmutableFunctionalTerm) term).getTerm(0);
+                ImmutableTerm typeTerm = ((ImmutableFunctionalTerm) term).getTerm(1);
+
+                if (typeTerm instanceof RDFTermTypeConstant) {
+                    RDFTermType termType = ((RDFTermTypeConstant) typeTerm).getRDFTermType();
+                    // Literal or bnode: no IRI
+                    if (!(termType instanceof ObjectRDFType) || ((ObjectRDFType) termType).isBlankNode())
+                        return;
+
+                    if (lexicalTerm instanceof DBConstant) {
+                        root.getOrCreate(((DBConstant) lexicalTerm).getValue()).exactDefinitions.set(definitionIndex);
+                        return;
+                    }
+                    if (lexicalTerm instanceof ImmutableFunctionalTerm
+                            && ((ImmutableFunctionalTerm) lexicalTerm).getFunctionSymbol() instanceof IRIStringTemplateFunctionSymbol) {
+                        String template = ((IRIStringTemplateFunctionSymbol) ((ImmutableFunctionalTerm) lexicalTerm)
+                                .getFunctionSymbol()).getTemplate();
+                        int placeHolderIndex = template.indexOf("{}");
+                        if (placeHolderIndex < 0)
+                            root.getOrCreate(template).exactDefinitions.set(definitionIndex);
+                        else
+                            root.getOrCreate(template.substring(0, placeHolderIndex)).prefixDefinitions.set(definitionIndex);
+                        return;
+                    }
+                }
+            }
+            anyIRIDefinitions.set(definitionIndex);
+        }
+
+        BitSet lookup(String iri) {
+            BitSet result = (BitSet) anyIRIDefinitions.clone();
+            TrieNode node = root;
+            for (int i = 0; node != null; i++) {
+                result.or(node.prefixDefinitions);
+                if (i == iri.length()) {
+                    result.or(node.exactDefinitions);
+                    break;
+                }
+                node = node.get(iri.charAt(i));
+            }
+            return result;
+        }
+    }
+
+    private static class TrieNode {
+        @Nullable
+        private Map<Character, TrieNode> children;
+        // Definitions of the IRI templates having this prefix
+        private final BitSet prefixDefinitions = new BitSet();
+        // Definitions producing exactly this IRI
+        private final BitSet exactDefinitions = new BitSet();
+
+        @Nullable
+        TrieNode get(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        TrieNode getOrCreate(String key) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                if (node.children == null)
+                    node.children = new HashMap<>();
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package it.unibz.inf.ontop.answering.resultset;
+
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+import java.util.Optional;
+
+/**
+ * Page of the results of a SELECT query (keyset pagination, see OntopStatement.executePage(...))
+ */
+public interface PagedTupleResultSet extends TupleResultSet {
+
+    /**
+     * Token for requesting the next page, available once all the results of the page have been read.
+     *
+     * Empty if this page is not full (last page).
+     */
+    Optional<String> getContinuationToken() throws OntopResultConversionException;
+}
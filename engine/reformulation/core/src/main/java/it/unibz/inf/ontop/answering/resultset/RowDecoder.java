@@ -0,0 +1,21 @@
+package it.unibz.inf.ontop.answering.resultset;
+
+/**
+ * Converts a row of the native query into a binding set.
+ *
+ * Compiled once per executable query (see QueryCache) and then applied to every row it returns.
+ *
+ * Immutable and thread-safe.
+ */
+public interface RowDecoder {
+
+    /**
+     * Number of columns expected in the native row
+     */
+    int getNativeColumnCount();
+
+    /**
+     * Native values are given in the order of the columns of the native query (NULL values are null).
+     */
+    OntopBindingSet decode(String[] nativeRow);
+}
@@ -0,0 +1,390 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.mikael.urlbuilder.util.Encoder;
+import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
+import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
+import it.unibz.inf.ontop.exception.OntopInternalBugException;
+import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.FunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.RDFTermFunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.DBConcatFunctionSymbol;
+import it.unibz.inf.ontop.model.term.functionsymbol.db.ObjectStringTemplateFunctionSymbol;
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.model.type.RDFTermType;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Compiles the substitution of the root construction node of an executable query into a small program
+ * (column reads, template concatenations, RDF term type tags) evaluated directly on the native values.
+ *
+ * Avoids building a substitution and simplifying its terms for each row.
+ * Functional terms that are not recognized are instantiated with the values of the row and simplified.
+ */
+public class CompiledRowDecoder implements RowDecoder {
+
+    private final ImmutableList<Variable> projectedVariables;
+    private final ImmutableList<BindingStep> bindingSteps;
+    private final int nativeColumnCount;
+
+    /**
+     * The order of the native variables is the one of the columns of the native query.
+     */
+    public CompiledRowDecoder(ConstructionNode constructionNode,
+                              ImmutableList<Variable> nativeVariables,
+                              ImmutableMap<Variable, DBTermType> nativeTypeMap,
+                              ImmutableList<Variable> projectedVariables,
+                              TermFactory termFactory) {
+        this.projectedVariables = projectedVariables;
+        this.nativeColumnCount = nativeVariables.size();
+
+        ImmutableMap<Variable, Integer> columnIndexes = IntStream.range(0, nativeVariables.size())
+                .boxed()
+                .collect(ImmutableCollectors.toMap(nativeVariables::get, i -> i));
+
+        StepCompiler compiler = new StepCompiler(columnIndexes, nativeTypeMap, termFactory);
+        this.bindingSteps = projectedVariables.stream()
+                .map(v -> compiler.compileBinding(constructionNode.getSubstitution().apply(v)))
+                .collect(ImmutableCollectors.toList());
+    }
+
+    @Override
+    public int getNativeColumnCount() {
+        return nativeColumnCount;
+    }
+
+    @Override
+    public OntopBindingSet decode(String[] nativeRow) {
+        LinkedHashMap<String, OntopBinding> bindingMap = new LinkedHashMap<>();
+        for (int i = 0; i < projectedVariables.size(); i++) {
+            RDFConstant constant = bindingSteps.get(i).evaluate(nativeRow);
+            if (constant != null) {
+                Variable variable = projectedVariables.get(i);
+                bindingMap.put(variable.getName(), new OntopBindingImpl(variable, constant));
+            }
+        }
+        return new OntopBindingSetImpl(bindingMap);
+    }
+
+
+    private static class StepCompiler {
+        private final ImmutableMap<Variable, Integer> columnIndexes;
+        private final ImmutableMap<Variable, DBTermType> nativeTypeMap;
+        private final TermFactory termFactory;
+        private final Encoder iriEncoder;
+
+        StepCompiler(ImmutableMap<Variable, Integer> columnIndexes, ImmutableMap<Variable, DBTermType> nativeTypeMap,
+                     TermFactory termFactory) {
+            this.columnIndexes = columnIndexes;
+            this.nativeTypeMap = nativeTypeMap;
+            this.termFactory = termFactory;
+            this.iriEncoder = new Encoder(StandardCharsets.UTF_8);
+        }
+
+        BindingStep compileBinding(ImmutableTerm term) {
+            if (term instanceof ImmutableFunctionalTerm) {
+                ImmutableFunctionalTerm functionalTerm = (ImmutableFunctionalTerm) term;
+                Optional<RDFTermType> rdfTermType = Optional.of(functionalTerm)
+                        .filter(t -> t.getFunctionSymbol() instanceof RDFTermFunctionSymbol)
+                        .map(t -> t.getTerm(1))
+                        .filter(t -> t instanceof RDFTermTypeConstant)
+                        .map(t -> ((RDFTermTypeConstant) t).getRDFTermType())
+                        .filter(t -> !t.isAbstract());
+
+                if (rdfTermType.isPresent())
+                    return new RDFTermBindingStep(compile(functionalTerm.getTerm(0)), rdfTermType.get(), termFactory);
+            }
+            return new GenericBindingStep(compile(term));
+        }
+
+        ValueStep compile(ImmutableTerm term) {
+            if (term instanceof Variable) {
+                Variable variable = (Variable) term;
+                Integer index = columnIndexes.get(variable);
+                DBTermType type = nativeTypeMap.get(variable);
+                if (index == null || type == null)
+                    throw new MinorOntopInternalBugException(variable + " is not provided by the native query");
+                return new ColumnStep(index, type, termFactory);
+            }
+            if (term instanceof Constant)
+                return new ConstantStep((Constant) term);
+
+            ImmutableFunctionalTerm functionalTerm = (ImmutableFunctionalTerm) term;
+            FunctionSymbol functionSymbol = functionalTerm.getFunctionSymbol();
+            ImmutableList<ValueStep> argumentSteps = functionalTerm.getTerms().stream()
+                    .map(this::compile)
+                    .collect(ImmutableCollectors.toList());
+
+            if (functionSymbol instanceof ObjectStringTemplateFunctionSymbol)
+                return new TemplateStep(((ObjectStringTemplateFunctionSymbol) functionSymbol).getTemplate(),
+                        argumentSteps, iriEncoder, termFactory);
+            /*
+             * Only null-rejecting concatenations can be post-processed,
+             * so they are the only ones expected in the construction node
+             */
+            if ((functionSymbol instanceof DBConcatFunctionSymbol)
+                    && functionSymbol.canBePostProcessed(functionalTerm.getTerms()))
+                return new ConcatStep(argumentSteps, termFactory);
+
+            return new FunctionalStep(functionSymbol, argumentSteps, termFactory);
+        }
+    }
+
+    /**
+     * Produces the value of a binding (null if unbound)
+     */
+    private interface BindingStep {
+        @Nullable
+        RDFConstant evaluate(String[] row);
+    }
+
+    /**
+     * Common case: RDF(lexicalTerm, RDFTermTypeConstant)
+     */
+    private static class RDFTermBindingStep implements BindingStep {
+        private final ValueStep lexicalStep;
+        private final RDFTermType rdfTermType;
+        private final TermFactory termFactory;
+
+        RDFTermBindingStep(ValueStep lexicalStep, RDFTermType rdfTermType, TermFactory termFactory) {
+            this.lexicalStep = lexicalStep;
+            this.rdfTermType = rdfTermType;
+            this.termFactory = termFactory;
+        }
+
+        @Nullable
+        @Override
+        public RDFConstant evaluate(String[] row) {
+            String lexicalValue = lexicalStep.evaluateString(row);
+            return (lexicalValue == null)
+                    ? null
+                    : termFactory.getRDFConstant(lexicalValue, rdfTermType);
+        }
+    }
+
+    private static class GenericBindingStep implements BindingStep {
+        private final ValueStep step;
+
+        GenericBindingStep(ValueStep step) {
+            this.step = step;
+        }
+
+        @Nullable
+        @Override
+        public RDFConstant evaluate(String[] row) {
+            ImmutableTerm term = step.instantiate(row).simplify();
+            if (!(term instanceof Constant))
+                throw new InvalidTermAsResultException(term);
+
+            Constant constant = (Constant) term;
+            if (constant instanceof RDFConstant)
+                return (RDFConstant) constant;
+            if (constant.isNull())
+                return null;
+            if (constant instanceof DBConstant)
+                throw new InvalidConstantTypeInResultException(
+                        constant + "is a DB constant. But a binding cannot have a DB constant as value");
+            throw new InvalidConstantTypeInResultException("Unexpected constant type for " + constant);
+        }
+    }
+
+    /**
+     * Step of the program
+     */
+    private interface ValueStep {
+
+        /**
+         * Returns null for the NULL value
+         */
+        @Nullable
+        String evaluateString(String[] row);
+
+        /**
+         * Replaces the columns by their values in the row. Not simplified.
+         */
+        ImmutableTerm instantiate(String[] row);
+    }
+
+    private static class ColumnStep implements ValueStep {
+        private final int index;
+        private final DBTermType type;
+        private final TermFactory termFactory;
+
+        ColumnStep(int index, DBTermType type, TermFactory termFactory) {
+            this.index = index;
+            this.type = type;
+            this.termFactory = termFactory;
+        }
+
+        @Nullable
+        @Override
+        public String evaluateString(String[] row) {
+            return row[index];
+        }
+
+        @Override
+        public ImmutableTerm instantiate(String[] row) {
+            String value = row[index];
+            return (value == null)
+                    ? termFactory.getNullConstant()
+                    : termFactory.getDBConstant(value, type);
+        }
+    }
+
+    private static class ConstantStep implements ValueStep {
+        private final Constant constant;
+        @Nullable
+        private final String value;
+
+        ConstantStep(Constant constant) {
+            this.constant = constant;
+            this.value = constant.isNull() ? null : constant.getValue();
+        }
+
+        @Nullable
+        @Override
+        public String evaluateString(String[] row) {
+            return value;
+        }
+
+        @Override
+        public ImmutableTerm instantiate(String[] row) {
+            return constant;
+        }
+    }
+
+    /**
+     * Abstract class for steps producing a DB string
+     */
+    private static abstract class StringStep implements ValueStep {
+        private final TermFactory termFactory;
+
+        StringStep(TermFactory termFactory) {
+            this.termFactory = termFactory;
+        }
+
+        @Override
+        public ImmutableTerm instantiate(String[] row) {
+            String value = evaluateString(row);
+            return (value == null)
+                    ? termFactory.getNullConstant()
+                    : termFactory.getDBStringConstant(value);
+        }
+    }
+
+    /**
+     * IRI or bnode template: the arguments are IRI-safe encoded (R2RML)
+     */
+    private static class TemplateStep extends StringStep {
+        private final String[] fragments;
+        private final ImmutableList<ValueStep> argumentSteps;
+        private final Encoder iriEncoder;
+
+        TemplateStep(String template, ImmutableList<ValueStep> argumentSteps, Encoder iriEncoder,
+                     TermFactory termFactory) {
+            super(termFactory);
+            this.fragments = template.split("[{][}]", -1);
+            if (fragments.length != argumentSteps.size() + 1)
+                throw new MinorOntopInternalBugException(
+                        String.format("The template %s is not matching the arity %d", template, argumentSteps.size()));
+            this.argumentSteps = argumentSteps;
+            this.iriEncoder = iriEncoder;
+        }
+
+        @Nullable
+        @Override
+        public String evaluateString(String[] row) {
+            StringBuilder sb = new StringBuilder(fragments[0]);
+            for (int i = 0; i < argumentSteps.size(); i++) {
+                String argument = argumentSteps.get(i).evaluateString(row);
+                if (argument == null)
+                    return null;
+                sb.append(iriEncoder.encodeQueryElement(argument))
+                        .append(fragments[i + 1]);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Null-rejecting concatenation
+     */
+    private static class ConcatStep extends StringStep {
+        private final ImmutableList<ValueStep> argumentSteps;
+
+        ConcatStep(ImmutableList<ValueStep> argumentSteps, TermFactory termFactory) {
+            super(termFactory);
+            this.argumentSteps = argumentSteps;
+        }
+
+        @Nullable
+        @Override
+        public String evaluateString(String[] row) {
+            StringBuilder sb = new StringBuilder();
+            for (ValueStep argumentStep : argumentSteps) {
+                String argument = argumentStep.evaluateString(row);
+                if (argument == null)
+                    return null;
+                sb.append(argument);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Fallback: the functional term is instantiated and simplified as a whole,
+     * as some function symbols (e.g. IF_ELSE_NULL) are expecting expressions as arguments, not their values
+     */
+    private static class FunctionalStep implements ValueStep {
+        private final FunctionSymbol functionSymbol;
+        private final ImmutableList<ValueStep> argumentSteps;
+        private final TermFactory termFactory;
+
+        FunctionalStep(FunctionSymbol functionSymbol, ImmutableList<ValueStep> argumentSteps, TermFactory termFactory) {
+            this.functionSymbol = functionSymbol;
+            this.argumentSteps = argumentSteps;
+            this.termFactory = termFactory;
+        }
+
+        @Nullable
+        @Override
+        public String evaluateString(String[] row) {
+            ImmutableTerm term = instantiate(row).simplify();
+            if (!(term instanceof Constant))
+                throw new InvalidTermAsResultException(term);
+
+            Constant constant = (Constant) term;
+            return constant.isNull() ? null : constant.getValue();
+        }
+
+        @Override
+        public ImmutableTerm instantiate(String[] row) {
+            return termFactory.getImmutableFunctionalTerm(functionSymbol,
+                    argumentSteps.stream()
+                            .map(s -> s.instantiate(row))
+                            .collect(ImmutableCollectors.toList()));
+        }
+    }
+
+    public static class InvalidTermAsResultException extends OntopInternalBugException {
+        InvalidTermAsResultException(ImmutableTerm term) {
+            super("Term " + term + " does not evaluate to a constant");
+        }
+    }
+
+    public static class InvalidConstantTypeInResultException extends OntopInternalBugException {
+        InvalidConstantTypeInResultException (String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+
+import java.util.LinkedHashMap;
+
+public class OntopBindingSetImpl extends AbstractOntopBindingSet implements OntopBindingSet {
+
+    OntopBindingSetImpl(LinkedHashMap<String, OntopBinding> bindingMap) {
+        super(bindingMap);
+    }
+}
@@ -0,0 +1,12 @@
+package it.unibz.inf.ontop.exception;
+
+
+/**
+ * The thread reformulating the query has been interrupted (e.g. the query has been cancelled or has timed out)
+ */
+public class OntopReformulationInterruptedException extends OntopReformulationException {
+
+    public OntopReformulationInterruptedException() {
+        super("The reformulation has been interrupted");
+    }
+}
@@ -9,6 +9,20 @@ public interface OntopReformulationSettings extends OntopOBDASettings, OntopOpti
 
     long getQueryCacheMaxSize();
 
+    /**
+     * If enabled, input queries only differing by some IRIs and string literals share their executable query
+     * (run as a prepared statement).
+     */
+    boolean isParameterizedQueryCacheEnabled();
+
+    /**
+     * Minimal number of branches of a top-level union for generating one native query per branch
+     * (executed concurrently, the union being performed by the engine).
+     *
+     * 0 disables the splitting.
+     */
+    int getUnionSplitThreshold();
+
 
     //--------------------------
     // Keys
@@ -17,4 +31,6 @@ public interface OntopReformulationSettings extends OntopOBDASettings, OntopOpti
     String EXISTENTIAL_REASONING = "ontop.existentialReasoning";
     String DISTINCT_RESULTSET = "ontop.distinctResultSet";
     String QUERY_CACHE_MAX_SIZE = "ontop.cache.query.size";
+    String PARAMETERIZED_QUERY_CACHE = "ontop.cache.query.parameterized";
+    String UNION_SPLIT_THRESHOLD = "ontop.query.unionSplitThreshold";
 }
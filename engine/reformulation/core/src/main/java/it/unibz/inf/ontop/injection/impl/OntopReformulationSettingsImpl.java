@@ -41,4 +41,14 @@ public class OntopReformulationSettingsImpl extends OntopOBDASettingsImpl implem
     public long getQueryCacheMaxSize() {
         return getRequiredLong(QUERY_CACHE_MAX_SIZE);
     }
+
+    @Override
+    public boolean isParameterizedQueryCacheEnabled() {
+        return getRequiredBoolean(PARAMETERIZED_QUERY_CACHE);
+    }
+
+    @Override
+    public int getUnionSplitThreshold() {
+        return getRequiredInteger(UNION_SPLIT_THRESHOLD);
+    }
 }
@@ -0,0 +1,252 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.impl.OntopBindingImpl;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.RDFConstant;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.RDF;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategy;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Evaluates the page queries with RDF4J (SPARQL semantics) over VALUES, and compares the concatenated pages
+ * with the unpaged result.
+ */
+public class RDF4JPageQueryTest {
+
+    private static final TermFactory TERM_FACTORY;
+    private static final RDF RDF_FACTORY;
+    private static final TripleSource EMPTY_TRIPLE_SOURCE = new TripleSource() {
+        @Override
+        public CloseableIteration<? extends org.eclipse.rdf4j.model.Statement, QueryEvaluationException> getStatements(
+                org.eclipse.rdf4j.model.Resource subj, IRI pred, Value obj, org.eclipse.rdf4j.model.Resource... contexts) {
+            return new EmptyIteration<>();
+        }
+
+        @Override
+        public SimpleValueFactory getValueFactory() {
+            return SimpleValueFactory.getInstance();
+        }
+    };
+
+    static {
+        Injector injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        TERM_FACTORY = injector.getInstance(TermFactory.class);
+        RDF_FACTORY = injector.getInstance(RDF.class);
+    }
+
+    /**
+     * SPARQL order: unbound, IRIs (by their string), literals
+     */
+    @Test
+    public void testIRIsAndLiterals() throws Exception {
+        checkPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?o WHERE {\n" +
+                "  VALUES ?o { \"x\" ex:b UNDEF ex:a \"a\" }\n" +
+                "}\n" +
+                "ORDER BY ?o", 5);
+    }
+
+    @Test
+    public void testIRIsAndLiteralsDescending() throws Exception {
+        checkPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?o WHERE {\n" +
+                "  VALUES ?o { \"x\" ex:b UNDEF ex:a \"a\" }\n" +
+                "}\n" +
+                "ORDER BY DESC(?o)", 5);
+    }
+
+    /**
+     * Unbound values come last in descending order, also for the tie-breakers
+     */
+    @Test
+    public void testUnboundKeys() throws Exception {
+        checkPages("PREFIX ex: <http://example.org/>\n" +
+                "SELECT DISTINCT ?a ?b WHERE {\n" +
+                "  VALUES (?a ?b) { (1 ex:x) (UNDEF ex:y) (2 UNDEF) (UNDEF UNDEF) (1 \"z\") (1 UNDEF) }\n" +
+                "}\n" +
+                "ORDER BY DESC(?a)", 6);
+    }
+
+    @Test
+    public void testLanguageTags() throws Exception {
+        checkPages("SELECT DISTINCT ?o WHERE {\n" +
+                "  VALUES ?o { \"b\"@en \"c\"@en \"a\"@en }\n" +
+                "}\n" +
+                "ORDER BY DESC(?o)", 3);
+    }
+
+    /**
+     * The literals of the other datatype are not silently skipped
+     */
+    @Test(expected = OntopResultConversionException.class)
+    public void testMixedDatatypes() throws Exception {
+        readAllPages("SELECT DISTINCT ?o WHERE {\n" +
+                "  VALUES ?o { \"a\" 1 \"b\" 2 }\n" +
+                "}\n" +
+                "ORDER BY ?o", 1);
+    }
+
+    @Test(expected = OntopResultConversionException.class)
+    public void testMixedLanguageTags() throws Exception {
+        readAllPages("SELECT DISTINCT ?o WHERE {\n" +
+                "  VALUES ?o { \"a\"@en \"b\"@de \"c\"@en }\n" +
+                "}\n" +
+                "ORDER BY ?o", 1);
+    }
+
+    /**
+     * The duplicates of the last result of a page would be lost
+     */
+    @Test(expected = OntopUnsupportedInputQueryException.class)
+    public void testNonDistinct() throws Exception {
+        readAllPages("SELECT ?o WHERE {\n" +
+                "  VALUES ?o { \"a\" \"a\" \"b\" }\n" +
+                "}\n" +
+                "ORDER BY ?o", 1);
+    }
+
+    @Test(expected = OntopUnsupportedInputQueryException.class)
+    public void testReduced() throws Exception {
+        readAllPages("SELECT REDUCED ?o WHERE {\n" +
+                "  VALUES ?o { \"a\" \"a\" \"b\" }\n" +
+                "}\n" +
+                "ORDER BY ?o", 1);
+    }
+
+    /**
+     * For all the page sizes, the pages are equal to the unpaged result
+     */
+    private static void checkPages(String queryString, int resultCount) throws Exception {
+        ImmutableList<ImmutableMap<String, Value>> expected = readAllPages(queryString, Integer.MAX_VALUE);
+        assertEquals(resultCount, expected.size());
+        for (int pageSize = 1; pageSize <= resultCount; pageSize++)
+            assertEquals("Page size " + pageSize, expected, readAllPages(queryString, pageSize));
+    }
+
+    private static ImmutableList<ImmutableMap<String, Value>> readAllPages(String queryString, int pageSize)
+            throws Exception {
+        ParsedQuery parsedQuery = new SPARQLParser().parseQuery(queryString, null);
+        ImmutableList.Builder<ImmutableMap<String, Value>> resultBuilder = ImmutableList.builder();
+        Optional<String> token = Optional.empty();
+        do {
+            RDF4JPageQuery pageQuery = RDF4JPageQuery.create(parsedQuery, queryString, pageSize, token);
+            StrictEvaluationStrategy strategy = new StrictEvaluationStrategy(EMPTY_TRIPLE_SOURCE, null);
+            OntopBindingSet lastBindingSet = null;
+            int count = 0;
+            try (CloseableIteration<BindingSet, QueryEvaluationException> it = strategy.evaluate(
+                    pageQuery.parsedQuery.getTupleExpr(), EmptyBindingSet.getInstance())) {
+                while (it.hasNext()) {
+                    ImmutableMap<String, Value> row = toMap(it.next());
+                    lastBindingSet = new MapBindingSet(row);
+                    pageQuery.checkComparableKeys(lastBindingSet);
+                    resultBuilder.add(row);
+                    count++;
+                }
+            }
+            token = (count == pageSize)
+                    ? Optional.of(pageQuery.createContinuationToken(lastBindingSet))
+                    : Optional.empty();
+        } while (token.isPresent());
+        return resultBuilder.build();
+    }
+
+    private static ImmutableMap<String, Value> toMap(BindingSet bindingSet) {
+        ImmutableMap.Builder<String, Value> builder = ImmutableMap.builder();
+        for (Binding binding : bindingSet)
+            builder.put(binding.getName(), binding.getValue());
+        return builder.build();
+    }
+
+    private static RDFConstant convert(Value value) {
+        if (value instanceof IRI)
+            return TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI(value.stringValue()));
+        Literal literal = (Literal) value;
+        return literal.getLanguage()
+                .map(l -> TERM_FACTORY.getRDFLiteralConstant(literal.getLabel(), l))
+                .orElseGet(() -> TERM_FACTORY.getRDFLiteralConstant(literal.getLabel(),
+                        RDF_FACTORY.createIRI(literal.getDatatype().stringValue())));
+    }
+
+
+    private static class MapBindingSet implements OntopBindingSet {
+        private final ImmutableMap<String, RDFConstant> constants;
+
+        MapBindingSet(ImmutableMap<String, Value> values) {
+            this.constants = values.entrySet().stream()
+                    .collect(ImmutableCollectors.toMap(Map.Entry::getKey, e -> convert(e.getValue())));
+        }
+
+        @Override
+        public Iterator<OntopBinding> iterator() {
+            return getBindings().iterator();
+        }
+
+        @Override
+        public ImmutableList<RDFConstant> getValues() {
+            return constants.values().asList();
+        }
+
+        @Override
+        public ImmutableList<OntopBinding> getBindings() {
+            return constants.keySet().stream()
+                    .map(this::getBinding)
+                    .collect(ImmutableCollectors.toList());
+        }
+
+        @Override
+        public ImmutableList<String> getBindingNames() {
+            return constants.keySet().asList();
+        }
+
+        @Nullable
+        @Override
+        public RDFConstant getConstant(String name) {
+            return constants.get(name);
+        }
+
+        @Nullable
+        @Override
+        public OntopBinding getBinding(String name) {
+            return hasBinding(name)
+                    ? new OntopBindingImpl(TERM_FACTORY.getVariable(name), constants.get(name))
+                    : null;
+        }
+
+        @Override
+        public boolean hasBinding(String bindingName) {
+            return constants.containsKey(bindingName);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package it.unibz.inf.ontop.answering.reformulation.unfolding.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.model.atom.AtomFactory;
+import it.unibz.inf.ontop.model.atom.DistinctVariableOnlyDataAtom;
+import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
+import it.unibz.inf.ontop.model.term.IRIConstant;
+import it.unibz.inf.ontop.model.term.ImmutableTerm;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class IRITemplateIndexTest {
+
+    private static final TermFactory TERM_FACTORY;
+    private static final TypeFactory TYPE_FACTORY;
+    private static final AtomFactory ATOM_FACTORY;
+    private static final IntermediateQueryFactory IQ_FACTORY;
+    private static final SubstitutionFactory SUBSTITUTION_FACTORY;
+    private static final RDF RDF_FACTORY;
+
+    private static final Variable S, P, O, A, B;
+    private static final DistinctVariableOnlyDataAtom PROJECTION_ATOM;
+    private static final RDFAtomPredicate TRIPLE_PREDICATE;
+
+    private static final String PERSON_TEMPLATE = "http://example.org/person/{}";
+    private static final String CITY_TEMPLATE = "http://example.org/city/{}";
+
+    static {
+        Injector injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        TERM_FACTORY = injector.getInstance(TermFactory.class);
+        TYPE_FACTORY = injector.getInstance(TypeFactory.class);
+        ATOM_FACTORY = injector.getInstance(AtomFactory.class);
+        IQ_FACTORY = injector.getInstance(IntermediateQueryFactory.class);
+        SUBSTITUTION_FACTORY = injector.getInstance(SubstitutionFactory.class);
+        RDF_FACTORY = injector.getInstance(RDF.class);
+
+        S = TERM_FACTORY.getVariable("s");
+        P = TERM_FACTORY.getVariable("p");
+        O = TERM_FACTORY.getVariable("o");
+        A = TERM_FACTORY.getVariable("a");
+        B = TERM_FACTORY.getVariable("b");
+        PROJECTION_ATOM = ATOM_FACTORY.getDistinctTripleAtom(S, P, O);
+        TRIPLE_PREDICATE = (RDFAtomPredicate) PROJECTION_ATOM.getPredicate();
+    }
+
+    @Test
+    public void testTemplatePrefix() {
+        IQ person = createDefinition(template(PERSON_TEMPLATE), literal());
+        IQ city = createDefinition(template(CITY_TEMPLATE), literal());
+        IRITemplateIndex index = new IRITemplateIndex(TRIPLE_PREDICATE, ImmutableList.of(person, city), IQ_FACTORY);
+
+        assertEquals(ImmutableList.of(person), index.getCandidates(iri("http://example.org/person/1"), Optional.empty()));
+        assertEquals(ImmutableList.of(city), index.getCandidates(iri("http://example.org/city/1"), Optional.empty()));
+        assertEquals(ImmutableList.of(), index.getCandidates(iri("http://example.org/other/1"), Optional.empty()));
+        // Literal objects
+        assertEquals(ImmutableList.of(), index.getCandidates(Optional.empty(), iri("http://example.org/city/1")));
+    }
+
+    @Test
+    public void testUnionBranches() {
+        IQ union = createUnionDefinition(
+                createTree(template(PERSON_TEMPLATE), template(CITY_TEMPLATE)),
+                createTree(template(CITY_TEMPLATE), literal()));
+        IRITemplateIndex index = new IRITemplateIndex(TRIPLE_PREDICATE, ImmutableList.of(union), IQ_FACTORY);
+
+        ImmutableList<IQ> subjectCandidates = index.getCandidates(iri("http://example.org/city/1"), Optional.empty());
+        assertEquals(1, subjectCandidates.size());
+        assertEquals(ImmutableList.of(template(CITY_TEMPLATE), literal()), getSubjectAndObject(subjectCandidates.get(0)));
+
+        ImmutableList<IQ> objectCandidates = index.getCandidates(Optional.empty(), iri("http://example.org/city/1"));
+        assertEquals(1, objectCandidates.size());
+        assertEquals(ImmutableList.of(template(PERSON_TEMPLATE), template(CITY_TEMPLATE)),
+                getSubjectAndObject(objectCandidates.get(0)));
+
+        assertEquals(2, index.getCandidates(Optional.empty(), Optional.empty()).size());
+        assertEquals(ImmutableList.of(),
+                index.getCandidates(iri("http://example.org/city/1"), iri("http://example.org/city/1")));
+    }
+
+    @Test
+    public void testConstantIRI() {
+        IQ capital = createDefinition(TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI("http://example.org/city/1")),
+                literal());
+        IRITemplateIndex index = new IRITemplateIndex(TRIPLE_PREDICATE, ImmutableList.of(capital), IQ_FACTORY);
+
+        assertEquals(ImmutableList.of(capital), index.getCandidates(iri("http://example.org/city/1"), Optional.empty()));
+        assertEquals(ImmutableList.of(), index.getCandidates(iri("http://example.org/city/10"), Optional.empty()));
+        assertEquals(ImmutableList.of(), index.getCandidates(iri("http://example.org/city/"), Optional.empty()));
+    }
+
+    @Test
+    public void testNonAnalyzableSubject() {
+        // IRI built from a column: any IRI
+        IQ anyIRI = createDefinition(TERM_FACTORY.getIRIFunctionalTerm(A, false), literal());
+        IRITemplateIndex index = new IRITemplateIndex(TRIPLE_PREDICATE, ImmutableList.of(anyIRI), IQ_FACTORY);
+
+        assertEquals(ImmutableList.of(anyIRI), index.getCandidates(iri("http://example.org/other/1"), Optional.empty()));
+    }
+
+    @Test
+    public void testDistinctDefinitions() {
+        IQ distinct = IQ_FACTORY.createIQ(PROJECTION_ATOM,
+                IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createDistinctNode(),
+                        createTree(template(PERSON_TEMPLATE), literal())));
+        IQ distinctUnion = IQ_FACTORY.createIQ(PROJECTION_ATOM,
+                IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createDistinctNode(),
+                        createUnionDefinition(
+                                createTree(template(PERSON_TEMPLATE), literal()),
+                                createTree(template(CITY_TEMPLATE), literal())).getTree()));
+        IRITemplateIndex index = new IRITemplateIndex(TRIPLE_PREDICATE, ImmutableList.of(distinct, distinctUnion),
+                IQ_FACTORY);
+
+        // Resolved through the DISTINCT
+        assertEquals(ImmutableList.of(distinctUnion),
+                index.getCandidates(iri("http://example.org/city/1"), Optional.empty()));
+        // Not split: the union below the DISTINCT is kept as a whole
+        assertEquals(ImmutableList.of(distinct, distinctUnion),
+                index.getCandidates(iri("http://example.org/person/1"), Optional.empty()));
+    }
+
+    private static Optional<IRIConstant> iri(String iri) {
+        return Optional.of(TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI(iri)));
+    }
+
+    private static ImmutableTerm template(String template) {
+        return TERM_FACTORY.getIRIFunctionalTerm(template, ImmutableList.of(A));
+    }
+
+    private static ImmutableTerm literal() {
+        return TERM_FACTORY.getRDFFunctionalTerm(B,
+                TERM_FACTORY.getRDFTermTypeConstant(TYPE_FACTORY.getXsdStringDatatype()));
+    }
+
+    private static IQ createDefinition(ImmutableTerm subject, ImmutableTerm object) {
+        return IQ_FACTORY.createIQ(PROJECTION_ATOM, createTree(subject, object));
+    }
+
+    /**
+     * Over an intensional data node providing a and b
+     */
+    private static IQTree createTree(ImmutableTerm subject, ImmutableTerm object) {
+        return IQ_FACTORY.createUnaryIQTree(
+                IQ_FACTORY.createConstructionNode(ImmutableSet.of(S, P, O),
+                        SUBSTITUTION_FACTORY.getSubstitution(ImmutableMap.of(
+                                S, subject,
+                                P, TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI("http://example.org/p")),
+                                O, object))),
+                IQ_FACTORY.createIntensionalDataNode(
+                        ATOM_FACTORY.getDataAtom(ATOM_FACTORY.getRDFAnswerPredicate(2), A, B)));
+    }
+
+    private static IQ createUnionDefinition(IQTree... branches) {
+        return IQ_FACTORY.createIQ(PROJECTION_ATOM,
+                IQ_FACTORY.createNaryIQTree(IQ_FACTORY.createUnionNode(ImmutableSet.of(S, P, O)),
+                        ImmutableList.copyOf(branches)));
+    }
+
+    private static ImmutableList<ImmutableTerm> getSubjectAndObject(IQ definition) {
+        ConstructionNode constructionNode = (ConstructionNode) definition.getTree().getRootNode();
+        return ImmutableList.of(
+                constructionNode.getSubstitution().apply(S),
+                constructionNode.getSubstitution().apply(O));
+    }
+}
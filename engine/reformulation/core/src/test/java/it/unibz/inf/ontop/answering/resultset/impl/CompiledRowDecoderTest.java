@@ -0,0 +1,144 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.model.term.ImmutableTerm;
+import it.unibz.inf.ontop.model.term.RDFConstant;
+import it.unibz.inf.ontop.model.term.RDFLiteralConstant;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledRowDecoderTest {
+
+    private static final TermFactory TERM_FACTORY;
+    private static final TypeFactory TYPE_FACTORY;
+    private static final IntermediateQueryFactory IQ_FACTORY;
+    private static final SubstitutionFactory SUBSTITUTION_FACTORY;
+    private static final RDF RDF_FACTORY;
+
+    private static final Variable X, Y, Z, A, B;
+    private static final DBTermType DB_STRING;
+
+    static {
+        Injector injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        TERM_FACTORY = injector.getInstance(TermFactory.class);
+        TYPE_FACTORY = injector.getInstance(TypeFactory.class);
+        IQ_FACTORY = injector.getInstance(IntermediateQueryFactory.class);
+        SUBSTITUTION_FACTORY = injector.getInstance(SubstitutionFactory.class);
+        RDF_FACTORY = injector.getInstance(RDF.class);
+
+        X = TERM_FACTORY.getVariable("x");
+        Y = TERM_FACTORY.getVariable("y");
+        Z = TERM_FACTORY.getVariable("z");
+        A = TERM_FACTORY.getVariable("a");
+        B = TERM_FACTORY.getVariable("b");
+        DB_STRING = TYPE_FACTORY.getDBTypeFactory().getDBStringType();
+    }
+
+    @Test
+    public void testIRITemplate() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                X, TERM_FACTORY.getIRIFunctionalTerm("http://example.org/person/{}/{}", ImmutableList.of(A, B))));
+
+        OntopBindingSet bindingSet = decoder.decode(new String[]{"1", "John Smith/Jr"});
+        assertEquals(TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI("http://example.org/person/1/John%20Smith%2FJr")),
+                bindingSet.getConstant("x"));
+    }
+
+    @Test
+    public void testIRITemplateWithNullArgument() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                X, TERM_FACTORY.getIRIFunctionalTerm("http://example.org/person/{}/{}", ImmutableList.of(A, B))));
+
+        OntopBindingSet bindingSet = decoder.decode(new String[]{"1", null});
+        assertNull(bindingSet.getConstant("x"));
+        assertFalse(bindingSet.hasBinding("x"));
+    }
+
+    @Test
+    public void testTypedLiteral() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                Y, TERM_FACTORY.getRDFFunctionalTerm(A,
+                        TERM_FACTORY.getRDFTermTypeConstant(TYPE_FACTORY.getXsdIntegerDatatype()))));
+
+        OntopBindingSet bindingSet = decoder.decode(new String[]{"42", "ignored"});
+        assertEquals(TERM_FACTORY.getRDFLiteralConstant("42", TYPE_FACTORY.getXsdIntegerDatatype()),
+                bindingSet.getConstant("y"));
+    }
+
+    @Test
+    public void testLanguageTaggedLiteral() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                Y, TERM_FACTORY.getRDFFunctionalTerm(B,
+                        TERM_FACTORY.getRDFTermTypeConstant(TYPE_FACTORY.getLangTermType("en")))));
+
+        RDFConstant constant = decoder.decode(new String[]{"ignored", "Rome"}).getConstant("y");
+        assertTrue(constant instanceof RDFLiteralConstant);
+        RDFLiteralConstant literal = (RDFLiteralConstant) constant;
+        assertEquals("Rome", literal.getValue());
+        assertEquals(TYPE_FACTORY.getLangTermType("en"), literal.getType());
+        assertEquals("en", literal.getType().getLanguageTag().get().getFullString());
+    }
+
+    @Test
+    public void testNullColumns() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                X, TERM_FACTORY.getIRIFunctionalTerm("http://example.org/person/{}", ImmutableList.of(A)),
+                Y, TERM_FACTORY.getRDFFunctionalTerm(B,
+                        TERM_FACTORY.getRDFTermTypeConstant(TYPE_FACTORY.getXsdStringDatatype()))));
+
+        OntopBindingSet bindingSet = decoder.decode(new String[]{null, "value"});
+        assertFalse(bindingSet.hasBinding("x"));
+        assertEquals(TERM_FACTORY.getRDFLiteralConstant("value", TYPE_FACTORY.getXsdStringDatatype()),
+                bindingSet.getConstant("y"));
+
+        OntopBindingSet emptyBindingSet = decoder.decode(new String[]{null, null});
+        assertFalse(emptyBindingSet.hasBinding("x"));
+        assertFalse(emptyBindingSet.hasBinding("y"));
+    }
+
+    @Test
+    public void testConstantAndProjectionOrder() throws OntopResultConversionException {
+        CompiledRowDecoder decoder = createDecoder(ImmutableMap.of(
+                Z, TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI("http://example.org/constant")),
+                X, TERM_FACTORY.getIRIFunctionalTerm("http://example.org/person/{}", ImmutableList.of(A))),
+                ImmutableList.of(X, Z));
+
+        OntopBindingSet bindingSet = decoder.decode(new String[]{"1", "2"});
+        assertEquals(ImmutableList.of("x", "z"), ImmutableList.copyOf(bindingSet.getBindingNames()));
+        assertEquals(TERM_FACTORY.getConstantIRI(RDF_FACTORY.createIRI("http://example.org/constant")),
+                bindingSet.getConstant("z"));
+        assertEquals(2, decoder.getNativeColumnCount());
+    }
+
+    private static CompiledRowDecoder createDecoder(ImmutableMap<Variable, ImmutableTerm> substitutionMap) {
+        return createDecoder(substitutionMap, substitutionMap.keySet().asList());
+    }
+
+    /**
+     * The native query has two string columns: a and b
+     */
+    private static CompiledRowDecoder createDecoder(ImmutableMap<Variable, ImmutableTerm> substitutionMap,
+                                                    ImmutableList<Variable> projectedVariables) {
+        ConstructionNode constructionNode = IQ_FACTORY.createConstructionNode(substitutionMap.keySet(),
+                SUBSTITUTION_FACTORY.getSubstitution(substitutionMap));
+        return new CompiledRowDecoder(constructionNode, ImmutableList.of(A, B),
+                ImmutableMap.of(A, DB_STRING, B, DB_STRING), projectedVariables, TERM_FACTORY);
+    }
+}
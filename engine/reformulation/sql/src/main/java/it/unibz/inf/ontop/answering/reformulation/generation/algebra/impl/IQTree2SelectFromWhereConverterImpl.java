@@ -207,7 +207,7 @@ public class IQTree2SelectFromWhereConverterImpl implements IQTree2SelectFromWhe
             UnionNode unionNode = (UnionNode) rootNode;
             ImmutableSortedSet<Variable> signature = ImmutableSortedSet.copyOf(tree.getVariables());
             ImmutableList<SQLExpression> subExpressions = tree.getChildren().stream()
-                    .map(e-> convert(e, signature))
+                    .map(e-> convert(projectAwayAfterDistinct(e, signature), signature))
                     .collect(ImmutableCollectors.toList());
             return sqlAlgebraFactory.createSQLUnionExpression(subExpressions,unionNode.getVariables());
         }
@@ -222,6 +222,21 @@ public class IQTree2SelectFromWhereConverterImpl implements IQTree2SelectFromWhe
             throw new RuntimeException("TODO: support arbitrary relations");
     }
 
+    /**
+     * A union may project away some variables of a child (e.g. for a count or an ASK query).
+     * If the child is distinct, its DISTINCT must apply to all its variables, not only to the projected ones.
+     */
+    private IQTree projectAwayAfterDistinct(IQTree child, ImmutableSortedSet<Variable> signature) {
+        QueryNode rootNode = child.getRootNode();
+        QueryNode firstNonSliceNode = (rootNode instanceof SliceNode)
+                ? ((UnaryIQTree) child).getChild().getRootNode()
+                : rootNode;
+
+        return (firstNonSliceNode instanceof DistinctNode) && !signature.containsAll(child.getVariables())
+                ? iqFactory.createUnaryIQTree(iqFactory.createConstructionNode(signature), child)
+                : child;
+    }
+
     private SQLExpression getSubExpressionOfLeftJoinExpression(IQTree tree){
         if (tree.getRootNode() instanceof InnerJoinNode){
             ImmutableList<IQTree> children = tree.getChildren();
@@ -1,6 +1,8 @@
 package it.unibz.inf.ontop.answering.reformulation.generation.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.inject.Inject;
 import it.unibz.inf.ontop.answering.reformulation.generation.IQTree2NativeNodeGenerator;
@@ -9,9 +11,11 @@ import it.unibz.inf.ontop.answering.reformulation.generation.algebra.SelectFromW
 import it.unibz.inf.ontop.answering.reformulation.generation.serializer.SelectFromWhereSerializer;
 import it.unibz.inf.ontop.answering.reformulation.generation.serializer.impl.DefaultSelectFromWhereSerializer;
 import it.unibz.inf.ontop.dbschema.DBParameters;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
 import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
 import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.ExtensionalDataNode;
 import it.unibz.inf.ontop.iq.node.NativeNode;
 import it.unibz.inf.ontop.iq.type.UniqueTermTypeExtractor;
 import it.unibz.inf.ontop.model.term.Variable;
@@ -19,6 +23,8 @@ import it.unibz.inf.ontop.model.type.DBTermType;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public class DefaultSQLIQTree2NativeNodeGenerator implements IQTree2NativeNodeGenerator {
 
@@ -41,12 +47,18 @@ public class DefaultSQLIQTree2NativeNodeGenerator implements IQTree2NativeNodeGe
 
     @Override
     public NativeNode generate(IQTree iqTree, DBParameters dbParameters) {
+        return generate(iqTree, dbParameters, ImmutableMap.of());
+    }
+
+    @Override
+    public NativeNode generate(IQTree iqTree, DBParameters dbParameters,
+                               ImmutableMap<Variable, DBTermType> defaultTypes) {
         ImmutableSortedSet<Variable> signature = ImmutableSortedSet.copyOf(iqTree.getVariables());
 
         SelectFromWhereWithModifiers selectFromWhere = converter.convert(iqTree, signature);
         SelectFromWhereSerializer.QuerySerialization serializedQuery = serializer.serialize(selectFromWhere, dbParameters);
 
-        ImmutableMap<Variable, DBTermType> variableTypeMap = extractVariableTypeMap(iqTree);
+        ImmutableMap<Variable, DBTermType> variableTypeMap = extractVariableTypeMap(iqTree, defaultTypes);
 
         ImmutableMap<Variable, String> columnNames = serializedQuery.getColumnIDs().entrySet().stream()
                 .collect(ImmutableCollectors.toMap(
@@ -54,20 +66,32 @@ public class DefaultSQLIQTree2NativeNodeGenerator implements IQTree2NativeNodeGe
                         e -> e.getValue().getAttribute().getSQLRendering()));
 
         return iqFactory.createNativeNode(signature, variableTypeMap, columnNames,
-                serializedQuery.getString(), iqTree.getVariableNullability());
+                serializedQuery.getString(), ImmutableList.of(), iqTree.getVariableNullability(),
+                extractRelationIDs(iqTree).collect(ImmutableCollectors.toSet()));
+    }
+
+    private static Stream<RelationID> extractRelationIDs(IQTree tree) {
+        if (tree instanceof ExtensionalDataNode)
+            return Stream.of(((ExtensionalDataNode) tree).getProjectionAtom().getPredicate()
+                    .getRelationDefinition().getID());
+        return tree.getChildren().stream()
+                .flatMap(DefaultSQLIQTree2NativeNodeGenerator::extractRelationIDs);
     }
 
-    private ImmutableMap<Variable, DBTermType> extractVariableTypeMap(IQTree tree) {
+    private ImmutableMap<Variable, DBTermType> extractVariableTypeMap(IQTree tree,
+                                                                      ImmutableMap<Variable, DBTermType> defaultTypes) {
         return tree.getVariables().stream()
                 .collect(ImmutableCollectors.toMap(
                         v -> v,
-                        v -> extractUniqueKnownType(v, tree)));
+                        v -> extractUniqueKnownType(v, tree, defaultTypes)));
     }
 
-    private DBTermType extractUniqueKnownType(Variable v, IQTree tree) {
+    private DBTermType extractUniqueKnownType(Variable v, IQTree tree, ImmutableMap<Variable, DBTermType> defaultTypes) {
         return uniqueTermTypeExtractor.extractUniqueTermType(v, tree)
                 .filter(t -> t instanceof DBTermType)
                 .map(t -> (DBTermType) t)
+                .map(Optional::of)
+                .orElseGet(() -> Optional.ofNullable(defaultTypes.get(v)))
                 .orElseThrow(() -> new MinorOntopInternalBugException(
                         "Was expecting an unique and known DB term type to be extracted " +
                                 "for the SQL variable " + v));
@@ -1,6 +1,9 @@
 package it.unibz.inf.ontop.answering.reformulation.generation.impl;
 
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import it.unibz.inf.ontop.answering.reformulation.generation.IQTree2NativeNodeGenerator;
@@ -12,6 +15,7 @@ import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.dbschema.DBParameters;
 import it.unibz.inf.ontop.dbschema.RDBMetadata;
 import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
 import it.unibz.inf.ontop.injection.OptimizerFactory;
 import it.unibz.inf.ontop.iq.IQ;
 import it.unibz.inf.ontop.iq.IQTree;
@@ -20,9 +24,16 @@ import it.unibz.inf.ontop.iq.node.*;
 import it.unibz.inf.ontop.iq.optimizer.PostProcessableFunctionLifter;
 import it.unibz.inf.ontop.iq.optimizer.TermTypeTermLifter;
 import it.unibz.inf.ontop.iq.transformer.BooleanExpressionPushDownTransformer;
+import it.unibz.inf.ontop.iq.type.UniqueTermTypeExtractor;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import it.unibz.inf.ontop.utils.VariableGenerator;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * TODO: explain
  *
@@ -42,6 +53,8 @@ public class SQLGeneratorImpl implements NativeQueryGenerator {
     private final IQTree2NativeNodeGenerator defaultIQTree2NativeNodeGenerator;
     private final DialectExtraNormalizer extraNormalizer;
     private final BooleanExpressionPushDownTransformer pushDownTransformer;
+    private final UniqueTermTypeExtractor uniqueTermTypeExtractor;
+    private final int unionSplitThreshold;
 
     @AssistedInject
     private SQLGeneratorImpl(@Assisted DBParameters dbParameters,
@@ -51,7 +64,8 @@ public class SQLGeneratorImpl implements NativeQueryGenerator {
                              PostProcessingProjectionSplitter projectionSplitter,
                              TermTypeTermLifter rdfTypeLifter, PostProcessableFunctionLifter functionLifter,
                              IQTree2NativeNodeGenerator defaultIQTree2NativeNodeGenerator,
-                             DialectExtraNormalizer extraNormalizer, BooleanExpressionPushDownTransformer pushDownTransformer)
+                             DialectExtraNormalizer extraNormalizer, BooleanExpressionPushDownTransformer pushDownTransformer,
+                             UniqueTermTypeExtractor uniqueTermTypeExtractor, OntopReformulationSettings settings)
     {
         this.functionLifter = functionLifter;
         this.extraNormalizer = extraNormalizer;
@@ -63,6 +77,8 @@ public class SQLGeneratorImpl implements NativeQueryGenerator {
         this.projectionSplitter = projectionSplitter;
         this.rdfTypeLifter = rdfTypeLifter;
         this.defaultIQTree2NativeNodeGenerator = defaultIQTree2NativeNodeGenerator;
+        this.uniqueTermTypeExtractor = uniqueTermTypeExtractor;
+        this.unionSplitThreshold = settings.getUnionSplitThreshold();
     }
 
     @Override
@@ -80,9 +96,9 @@ public class SQLGeneratorImpl implements NativeQueryGenerator {
         PostProcessingProjectionSplitter.PostProcessingSplit split = projectionSplitter.split(liftedIQ);
 
         IQTree normalizedSubTree = normalizeSubTree(split.getSubTree(), split.getVariableGenerator());
-        NativeNode nativeNode = generateNativeNode(normalizedSubTree);
+        IQTree nativeTree = generateNativeTree(normalizedSubTree);
 
-        UnaryIQTree newTree = iqFactory.createUnaryIQTree(split.getPostProcessingConstructionNode(), nativeNode);
+        UnaryIQTree newTree = iqFactory.createUnaryIQTree(split.getPostProcessingConstructionNode(), nativeTree);
 
         return iqFactory.createIQ(query.getProjectionAtom(), newTree);
     }
@@ -130,6 +146,55 @@ public class SQLGeneratorImpl implements NativeQueryGenerator {
         return subTree;
     }
 
+    /**
+     * Either a NativeNode or, for a large top-level union, a union of NativeNodes (one per branch).
+     *
+     * The branches of a union are independent, so the DB can evaluate them concurrently
+     * (and plan smaller queries) while the engine only has to concatenate their results.
+     * The number of branches is used as a (rough) estimate of the cost of the union.
+     */
+    private IQTree generateNativeTree(IQTree normalizedSubTree) {
+        Optional<ImmutableList<IQTree>> branches = extractTopUnionBranches(normalizedSubTree)
+                .filter(b -> (unionSplitThreshold > 0) && (b.size() >= unionSplitThreshold));
+
+        if (!branches.isPresent())
+            return generateNativeNode(normalizedSubTree);
+
+        log.debug("Generating one native query for each of the " + branches.get().size() + " branches of the union");
+        // For the variables only bound to NULL in some branches
+        ImmutableMap<Variable, DBTermType> unionTypes = normalizedSubTree.getVariables().stream()
+                .flatMap(v -> uniqueTermTypeExtractor.extractUniqueTermType(v, normalizedSubTree)
+                        .filter(t -> t instanceof DBTermType)
+                        .map(t -> Maps.immutableEntry(v, (DBTermType) t))
+                        .map(Stream::of)
+                        .orElseGet(Stream::empty))
+                .collect(ImmutableCollectors.toMap());
+
+        return iqFactory.createNaryIQTree(
+                iqFactory.createUnionNode(normalizedSubTree.getVariables()),
+                branches.get().stream()
+                        .map(b -> defaultIQTree2NativeNodeGenerator.generate(b, dbParameters, unionTypes))
+                        .collect(ImmutableCollectors.toList()));
+    }
+
+    /**
+     * Only when nothing (e.g. a distinct, an order by or a slice) needs to be applied on top of the union.
+     * A construction node above the union is pushed into the branches.
+     */
+    private Optional<ImmutableList<IQTree>> extractTopUnionBranches(IQTree tree) {
+        if (tree.getRootNode() instanceof UnionNode)
+            return Optional.of(tree.getChildren());
+
+        if ((tree.getRootNode() instanceof ConstructionNode)
+                && (((UnaryIQTree) tree).getChild().getRootNode() instanceof UnionNode)) {
+            ConstructionNode constructionNode = (ConstructionNode) tree.getRootNode();
+            return Optional.of(((UnaryIQTree) tree).getChild().getChildren().stream()
+                    .map(c -> (IQTree) iqFactory.createUnaryIQTree(constructionNode, c))
+                    .collect(ImmutableCollectors.toList()));
+        }
+        return Optional.empty();
+    }
+
     private NativeNode generateNativeNode(IQTree normalizedSubTree) {
         return defaultIQTree2NativeNodeGenerator.generate(normalizedSubTree, dbParameters);
     }
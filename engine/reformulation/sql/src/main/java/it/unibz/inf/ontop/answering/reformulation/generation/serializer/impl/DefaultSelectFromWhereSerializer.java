@@ -242,12 +242,8 @@ public class DefaultSelectFromWhereSerializer implements SelectFromWhereSerializ
 
         @Override
         public QuerySerialization visit(SQLUnionExpression sqlUnionExpression) {
-            ImmutableList<QuerySerialization> querySerializationList = sqlUnionExpression.getSubExpressions().stream()
-                    .map(e -> e.acceptVisitor(this))
-                    .collect(ImmutableCollectors.toList());
-
-            String sqlSubString = querySerializationList.stream()
-                    .map(QuerySerialization::getString)
+            String sqlSubString = sqlUnionExpression.getSubExpressions().stream()
+                    .map(this::serializeUnionChild)
                     .collect(Collectors.joining("UNION ALL \n"));
 
             RelationID alias = generateFreshViewAlias();
@@ -260,6 +256,21 @@ public class DefaultSelectFromWhereSerializer implements SelectFromWhereSerializ
             return new QuerySerializationImpl(sqlSubString, columnIDs);
         }
 
+        /**
+         * A child having its own ORDER BY or slice (e.g. pushed down for an ASK query) is put between parentheses,
+         * so that its modifiers do not apply to the whole union.
+         */
+        private String serializeUnionChild(SQLExpression expression) {
+            String sql = expression.acceptVisitor(this).getString();
+            if (expression instanceof SelectFromWhereWithModifiers) {
+                SelectFromWhereWithModifiers selectFromWhere = (SelectFromWhereWithModifiers) expression;
+                if (selectFromWhere.getLimit().isPresent() || selectFromWhere.getOffset().isPresent()
+                        || !selectFromWhere.getSortConditions().isEmpty())
+                    return String.format("(%s)\n", sql);
+            }
+            return sql;
+        }
+
         //this function is required in case at least one of the children is
         // SelectFromWhereWithModifiers expression
         private QuerySerialization getSQLSerializationForChild(SQLExpression expression){
@@ -1,8 +1,16 @@
 package it.unibz.inf.ontop.answering.connection;
 
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OBDAResultSet;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.PagedTupleResultSet;
 import it.unibz.inf.ontop.exception.*;
 import it.unibz.inf.ontop.iq.IQ;
+import org.reactivestreams.Publisher;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * OBDAStatement specific to Ontop.
@@ -18,4 +26,37 @@ public interface OntopStatement extends OBDAStatement {
     String getRewritingRendering(InputQuery inputQuery) throws OntopReformulationException;
 
     IQ getExecutableQuery(InputQuery inputQuery) throws OntopReformulationException;
+
+    /**
+     * Reformulates and evaluates the query on the asynchronous query executor of the connection,
+     * without blocking the calling thread.
+     *
+     * Cancelling the returned future cancels the query.
+     * The future completes exceptionally with the exception that execute(...) would have thrown.
+     *
+     * Like a JDBC statement, a statement executes one query at a time: while an asynchronous query is being
+     * executed, the future of another call completes exceptionally (IllegalStateException), and execute(...)
+     * must not be called. As for execute(...), the next query closes the result set of the previous one.
+     */
+    <R extends OBDAResultSet> CompletableFuture<R> executeAsync(InputQuery<R> inputQuery);
+
+    /**
+     * Publishes the results of the SELECT query, with back-pressure: the rows are only fetched
+     * when requested by the subscriber.
+     *
+     * The query is executed when the subscriber first requests results.
+     * Cancelling the subscription cancels the query and closes its result set.
+     */
+    Publisher<OntopBindingSet> executeAndPublish(SelectQuery inputQuery);
+
+    /**
+     * Keyset pagination: evaluates the page of the SELECT query following the continuation token
+     * (the first page if empty), see SelectQuery.createPageQuery(...).
+     *
+     * Unlike with LIMIT/OFFSET, all the pages have the same cost.
+     * The token of the next page is given by the result set once the page has been read.
+     */
+    PagedTupleResultSet executePage(SelectQuery inputQuery, int pageSize, Optional<String> continuationToken)
+            throws OntopReformulationException, OntopQueryEvaluationException, OntopConnectionException,
+            OntopResultConversionException;
 }
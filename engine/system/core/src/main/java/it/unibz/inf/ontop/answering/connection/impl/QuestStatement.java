@@ -1,19 +1,38 @@
 package it.unibz.inf.ontop.answering.connection.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import it.unibz.inf.ontop.answering.connection.OntopStatement;
 import it.unibz.inf.ontop.answering.reformulation.QueryReformulator;
 import it.unibz.inf.ontop.answering.reformulation.input.*;
 import it.unibz.inf.ontop.answering.resultset.*;
+import it.unibz.inf.ontop.answering.resultset.impl.DescribeGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.KeysetPageResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.TupleResultSetPublisher;
 import it.unibz.inf.ontop.exception.*;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.iq.IQ;
 import it.unibz.inf.ontop.model.term.Constant;
 import it.unibz.inf.ontop.model.term.IRIConstant;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CountDownLatch;
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -24,17 +43,64 @@ public abstract class QuestStatement implements OntopStatement {
 
 	private final QueryReformulator engine;
 	private final InputQueryFactory inputQueryFactory;
+	private final OntopSystemSettings settings;
+	private final Executor asyncExecutor;
+	// Executes the (synchronous) queries. If empty, they are executed by the calling thread.
+	private final Optional<Executor> queryExecutor;
 
-	private QueryExecutionThread executionThread;
-	private boolean canceled = false;
+	/**
+	 * Set by cancel(). Cleared once checked by the execution it applies to: the running one,
+	 * otherwise the next one.
+	 */
+	private volatile boolean canceled = false;
+
+	private enum ExecutionPhase {
+		IDLE,
+		REFORMULATION,
+		EVALUATION,
+		// The results of the last query are being fetched (until the next query or the closing of the statement)
+		FETCHING
+	}
 
+	// Guards the execution phase, the execution id and the deadline
+	private final Object executionLock = new Object();
+	private ExecutionPhase executionPhase = ExecutionPhase.IDLE;
+	private long executionId = 0;
+	private Optional<ScheduledFuture<?>> deadline = Optional.empty();
+
+	// Only one asynchronous query at a time (see executeAsync(...))
+	private final AtomicBoolean isAsyncQueryInProgress = new AtomicBoolean(false);
 
 	private static final Logger log = LoggerFactory.getLogger(QuestStatement.class);
 
+	/**
+	 * Shared by all the statements: cancels the queries that have reached their deadline
+	 */
+	private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER = createTimeoutScheduler();
+
+	/**
+	 * Set in the threads executing a query for the query executor: nested queries (e.g. for DESCRIBE)
+	 * are executed in place, otherwise they could wait for a thread of the (bounded) executor forever.
+	 */
+	private static final ThreadLocal<Boolean> IS_QUERY_EXECUTOR_THREAD = ThreadLocal.withInitial(() -> false);
+
 
-	public QuestStatement(QueryReformulator queryProcessor, InputQueryFactory inputQueryFactory) {
+	public QuestStatement(QueryReformulator queryProcessor, InputQueryFactory inputQueryFactory,
+						  OntopSystemSettings settings, Executor asyncExecutor) {
+		this(queryProcessor, inputQueryFactory, settings, asyncExecutor, Optional.empty());
+	}
+
+	public QuestStatement(QueryReformulator queryProcessor, InputQueryFactory inputQueryFactory,
+						  OntopSystemSettings settings, Executor asyncExecutor, Optional<Executor> queryExecutor) {
 		this.engine = queryProcessor;
 		this.inputQueryFactory = inputQueryFactory;
+		this.settings = settings;
+		this.asyncExecutor = asyncExecutor;
+		this.queryExecutor = queryExecutor;
+	}
+
+	protected Optional<Executor> getQueryExecutor() {
+		return queryExecutor;
 	}
 
 	/**
@@ -47,79 +113,6 @@ public abstract class QuestStatement implements OntopStatement {
 				throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
 	}
 
-	/**
-	 * Execution thread
-	 */
-	private class QueryExecutionThread<R extends OBDAResultSet, Q extends InputQuery<R>> extends Thread {
-
-		private final Q inputQuery;
-		private final QuestStatement.Evaluator<R, Q> evaluator;
-		private final CountDownLatch monitor;
-		private final IQ executableQuery;
-
-		private R resultSet;	  // only for SELECT and ASK queries
-		private Exception exception;
-		private boolean executingTargetQuery;
-
-		QueryExecutionThread(Q inputQuery, IQ executableQuery, Evaluator<R,Q> evaluator,
-							 CountDownLatch monitor) {
-			this.executableQuery = executableQuery;
-			this.inputQuery = inputQuery;
-			this.evaluator = evaluator;
-			this.monitor = monitor;
-			this.exception = null;
-			this.executingTargetQuery = false;
-		}
-
-		public boolean errorStatus() {
-			return exception != null;
-		}
-
-		public Exception getException() {
-			return exception;
-		}
-
-		public R getResultSet() {
-			return resultSet;
-		}
-
-		public void cancel() throws OntopQueryEvaluationException {
-			canceled = true;
-			if (!executingTargetQuery) {
-				this.stop();
-			} else {
-				cancelExecution();
-			}
-		}
-
-		@Override
-		public void run() {
-			//                        FOR debugging H2 in-memory database
-//			try {
-//				org.h2.tools.Server.startWebServer(((QuestConnection)conn).getSQLConnection());
-//			} catch (SQLException e) {
-//				e.printStackTrace();
-//			}
-			try {
-				/**
-				 * Executes the target query.
-				 */
-				log.debug("Executing the query and get the result...");
-				executingTargetQuery = true;
-				resultSet = evaluator.evaluate(inputQuery, executableQuery);
-				log.debug("Execution finished.\n");
-				/*
-				 * TODO: re-handle the timeout exception.
-				 */
-			} catch (Exception e) {
-				exception = e;
-				log.error(e.getMessage(), e);
-			} finally {
-				monitor.countDown();
-			}
-		}
-	}
-
 	protected abstract TupleResultSet executeSelectQuery(IQ executableQuery)
 			throws OntopQueryEvaluationException;
 
@@ -137,26 +130,14 @@ public abstract class QuestStatement implements OntopStatement {
 	}
 
 	/**
-	 * TODO: describe
-	 */
-	private SimpleGraphResultSet executeDescribeConstructQuery(ConstructQuery constructQuery, IQ executableQuery)
-			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
-		return executeGraphQuery(constructQuery, executableQuery, true);
-	}
-
-	/**
-	 * TODO: describe
+	 * Streams the triples (not buffered)
 	 */
 	private SimpleGraphResultSet executeConstructQuery(ConstructQuery constructQuery, IQ executableQuery)
 			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
-		return executeGraphQuery(constructQuery, executableQuery, false);
+		return executeGraphQuery(constructQuery, executableQuery);
 	}
 
-	/**
-	 * TODO: refactor
-	 */
-	protected abstract SimpleGraphResultSet executeGraphQuery(ConstructQuery query, IQ executableQuery,
-															  boolean collectResults)
+	protected abstract SimpleGraphResultSet executeGraphQuery(ConstructQuery query, IQ executableQuery)
 			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
 
 	/**
@@ -164,6 +145,12 @@ public abstract class QuestStatement implements OntopStatement {
 	 */
 	protected abstract void cancelExecution() throws OntopQueryEvaluationException;
 
+	/**
+	 * New statement on the same connection, for evaluating sub-queries concurrently with the consumption
+	 * of the results of this statement (e.g. the CONSTRUCT sub-queries of a DESCRIBE query)
+	 */
+	protected abstract OntopStatement createSubStatement() throws OntopConnectionException;
+
 	/**
 	 * Calls the necessary tuple or graph query execution Implements describe
 	 * uri or var logic Returns the result set for the given query
@@ -172,13 +159,13 @@ public abstract class QuestStatement implements OntopStatement {
 	public <R extends OBDAResultSet> R execute(InputQuery<R> inputQuery) throws OntopConnectionException,
             OntopReformulationException, OntopQueryEvaluationException, OntopResultConversionException {
 		if (inputQuery instanceof SelectQuery) {
-			return (R) executeInThread((SelectQuery) inputQuery, this::executeSelectQuery);
+			return (R) executeQuery((SelectQuery) inputQuery, this::executeSelectQuery);
 		}
 		else if (inputQuery instanceof AskQuery) {
-			return (R) executeInThread((AskQuery) inputQuery, this::executeBooleanQuery);
+			return (R) executeQuery((AskQuery) inputQuery, this::executeBooleanQuery);
 		}
 		else if (inputQuery instanceof ConstructQuery) {
-			return (R) executeInThread((ConstructQuery) inputQuery, this::executeConstructQuery);
+			return (R) executeQuery((ConstructQuery) inputQuery, this::executeConstructQuery);
 		}
 		else if (inputQuery instanceof DescribeQuery) {
 			return (R) executeDescribeQuery((DescribeQuery) inputQuery);
@@ -191,6 +178,10 @@ public abstract class QuestStatement implements OntopStatement {
 	/**
 	 * TODO: completely refactor this old-way of processing DESCRIBE.
 	 *  ---> should be converted into 1 CONSTRUCT query
+	 *
+	 * One CONSTRUCT query per batch of described resources (as subject and as object).
+	 * Evaluated lazily on a sub-statement, by the async executor: their triples are streamed to the client
+	 * through a bounded queue.
 	 */
 	private SimpleGraphResultSet executeDescribeQuery(DescribeQuery inputQuery)
 			throws OntopReformulationException, OntopResultConversionException, OntopConnectionException,
@@ -198,44 +189,13 @@ public abstract class QuestStatement implements OntopStatement {
 
 		ImmutableSet<String> constants = extractDescribeQueryConstants(inputQuery);
 
-		SimpleGraphResultSet describeResultSet = null;
+		ImmutableList<String> constructQueries = StreamSupport.stream(
+				Iterables.partition(constants, settings.getDescribeBatchSize()).spliterator(), false)
+				.map(SPARQLQueryUtility::getConstructBatchQuery)
+				.collect(ImmutableCollectors.toList());
 
-		try {
-			// execute describe <uriconst> in subject position
-			for (String constant : constants) {
-				// for each constant we execute a construct with
-				// the uri as subject, and collect the results
-				String str = SPARQLQueryUtility.getConstructSubjQuery(constant);
-				ConstructQuery constructQuery = inputQueryFactory.createConstructQuery(str);
-
-				SimpleGraphResultSet set = executeInThread(constructQuery, this::executeDescribeConstructQuery);
-				if (describeResultSet == null) { // just for the first time
-					describeResultSet = set;
-				} else if (set != null) {
-					// 2nd and manyth times execute, but collect result into one object
-					while (set.hasNext())
-						describeResultSet.addNewResult(set.next());
-				}
-			}
-			// execute describe <uriconst> in object position
-			for (String constant : constants) {
-				String str = SPARQLQueryUtility.getConstructObjQuery(constant);
-
-				ConstructQuery constructQuery = inputQueryFactory.createConstructQuery(str);
-				SimpleGraphResultSet set = executeInThread(constructQuery, this::executeDescribeConstructQuery);
-
-				if (describeResultSet == null) { // just for the first time
-					describeResultSet = set;
-				} else if (set != null) {
-					while (set.hasNext())
-						describeResultSet.addNewResult(set.next());
-				}
-			}
-			// Exception is re-cast because not due to the initial input query
-		} catch (OntopInvalidInputQueryException e) {
-			throw new OntopReformulationException(e);
-		}
-		return describeResultSet;
+		return new DescribeGraphResultSet(constructQueries, new DescribeSubQueryEvaluator(createSubStatement()),
+				asyncExecutor, settings.getDescribeQueueSize(), settings.getDescribeDeduplicationCapacity());
 	}
 
 	private ImmutableSet<String> extractDescribeQueryConstants(DescribeQuery inputQuery)
@@ -249,18 +209,18 @@ public abstract class QuestStatement implements OntopStatement {
 			String sel = SPARQLQueryUtility.getSelectVarDescribe(inputQueryString);
 			try {
 				SelectQuery selectQuery = inputQueryFactory.createSelectQuery(sel);
-				TupleResultSet resultSet = execute(selectQuery);
-
-				ImmutableSet.Builder<String> constantSetBuilder = ImmutableSet.builder();
-				while (resultSet.hasNext()) {
-                    final OntopBindingSet bindingSet = resultSet.next();
-                    Constant constant = bindingSet.getValues().get(0);
-					if (constant instanceof IRIConstant) {
-						// collect constants in list
-						constantSetBuilder.add(((IRIConstant) constant).getIRI().getIRIString());
+				try (TupleResultSet resultSet = execute(selectQuery)) {
+					ImmutableSet.Builder<String> constantSetBuilder = ImmutableSet.builder();
+					while (resultSet.hasNext()) {
+						final OntopBindingSet bindingSet = resultSet.next();
+						Constant constant = bindingSet.getValues().get(0);
+						if (constant instanceof IRIConstant) {
+							// collect constants in list
+							constantSetBuilder.add(((IRIConstant) constant).getIRI().getIRIString());
+						}
 					}
+					return constantSetBuilder.build();
 				}
-				return constantSetBuilder.build();
 				// Exception is re-cast because not due to the initial input query
 			} catch (OntopInvalidInputQueryException e) {
 				throw new OntopReformulationException(e);
@@ -281,55 +241,308 @@ public abstract class QuestStatement implements OntopStatement {
 
 
 	/**
-	 * Internal method to start a new query execution thread type defines the
-	 * query type SELECT, ASK, CONSTRUCT, or DESCRIBE
+	 * Executes the query with the query executor (see OntopSystemSettings.getQueryExecutorKind()) and waits
+	 * for its result. Without query executor, the query is executed in the calling thread.
+	 *
+	 * Interrupting the waiting thread cancels the query.
 	 */
-	private <R extends OBDAResultSet, Q extends InputQuery<R>> R executeInThread(Q inputQuery, Evaluator<R, Q> evaluator)
+	private <R extends OBDAResultSet, Q extends InputQuery<R>> R executeQuery(Q inputQuery, Evaluator<R, Q> evaluator)
 			throws OntopReformulationException, OntopQueryEvaluationException {
+		if ((!queryExecutor.isPresent()) || IS_QUERY_EXECUTOR_THREAD.get())
+			return executeQueryInPlace(inputQuery, evaluator);
 
-		log.debug("Executing SPARQL query: \n{}", inputQuery.getInputString());
+		CompletableFuture<R> future = new CompletableFuture<>();
+		try {
+			queryExecutor.get().execute(() -> {
+				IS_QUERY_EXECUTOR_THREAD.set(true);
+				try {
+					future.complete(executeQueryInPlace(inputQuery, evaluator));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				} finally {
+					IS_QUERY_EXECUTOR_THREAD.remove();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			throw new OntopQueryEvaluationException("The query executor rejected the query", e);
+		}
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			try {
+				cancel();
+			} catch (OntopConnectionException ex) {
+				log.warn("Cannot cancel an interrupted query", ex);
+			}
+			// The result is not wanted anymore
+			future.thenAccept(r -> {
+				try {
+					r.close();
+				} catch (OntopConnectionException ex) {
+					log.debug("Cannot close the result of an interrupted query", ex);
+				}
+			});
+			throw new OntopQueryEvaluationException("Query execution was interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof OntopReformulationException)
+				throw (OntopReformulationException) cause;
+			if (cause instanceof OntopQueryEvaluationException)
+				throw (OntopQueryEvaluationException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new OntopQueryEvaluationException((Exception) cause);
+		}
+	}
 
-		CountDownLatch monitor = new CountDownLatch(1);
-		IQ executableQuery = engine.reformulateIntoNativeQuery(inputQuery);
+	/**
+	 * Reformulates and evaluates the query in the current thread.
+	 *
+	 * Its deadline (query timeout) covers the reformulation, the evaluation and the fetching of the results.
+	 * Cancellation is cooperative and never interrupts the calling thread: the reformulation checks the
+	 * cancellation flag between its stages, and the evaluation and the fetching are cancelled by
+	 * the DB engine (see cancelExecution()).
+	 */
+	private <R extends OBDAResultSet, Q extends InputQuery<R>> R executeQueryInPlace(Q inputQuery,
+																					  Evaluator<R, Q> evaluator)
+			throws OntopReformulationException, OntopQueryEvaluationException {
 
-		QueryExecutionThread<R, Q> executionthread = new QueryExecutionThread<>(inputQuery, executableQuery, evaluator,
-				monitor);
+		log.debug("Executing SPARQL query: \n{}", inputQuery.getInputString());
 
-		this.executionThread = executionthread;
-		executionthread.start();
+		long id = startExecution();
+		boolean succeeded = false;
 		try {
-			monitor.await();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+			IQ executableQuery = engine.reformulateIntoNativeQuery(inputQuery, () -> canceled);
+
+			setExecutionPhase(id, ExecutionPhase.EVALUATION);
+
+			log.debug("Executing the query and get the result...");
+			R resultSet = evaluator.evaluate(inputQuery, executableQuery);
+			log.debug("Execution finished.\n");
+
+			try {
+				setExecutionPhase(id, ExecutionPhase.FETCHING);
+			} catch (OntopQueryEvaluationException e) {
+				resultSet.close();
+				throw e;
+			}
+			succeeded = true;
+			return resultSet;
+
+		} catch (OntopReformulationInterruptedException e) {
+			throw new OntopQueryEvaluationException("Query execution was cancelled", e);
+		} catch (OntopResultConversionException | OntopConnectionException | RuntimeException e) {
+			throw new OntopQueryEvaluationException(e);
+		} finally {
+			if (!succeeded)
+				endExecution(id);
 		}
-		if (executionthread.errorStatus()) {
-			Exception ex = executionthread.getException();
-			if (ex instanceof OntopReformulationException) {
-				throw (OntopReformulationException) ex;
+	}
+
+	/**
+	 * Ends the previous execution (if any). A cancellation requested in the meantime applies to the new one.
+	 */
+	private long startExecution() throws OntopQueryEvaluationException {
+		synchronized (executionLock) {
+			endExecution();
+			if (canceled) {
+				canceled = false;
+				throw new OntopQueryEvaluationException("Query execution was cancelled");
 			}
-			else if (ex instanceof OntopQueryEvaluationException) {
-				throw (OntopQueryEvaluationException) ex;
+			long id = ++executionId;
+			executionPhase = ExecutionPhase.REFORMULATION;
+			deadline = scheduleDeadline(id);
+			return id;
+		}
+	}
+
+	/**
+	 * The cancellation flag is checked (and then cleared) atomically with the change of phase:
+	 * a cancellation cannot be missed between two phases
+	 */
+	private void setExecutionPhase(long id, ExecutionPhase phase) throws OntopQueryEvaluationException {
+		synchronized (executionLock) {
+			if (id != executionId)
+				throw new OntopQueryEvaluationException("Query execution was ended by another execution");
+			if (canceled) {
+				canceled = false;
+				throw new OntopQueryEvaluationException("Query execution was cancelled");
 			}
+			executionPhase = phase;
+		}
+	}
+
+	/**
+	 * Also to be called when the statement is closed: the last query cannot be cancelled anymore
+	 * and its deadline is dropped.
+	 */
+	protected void endExecution() {
+		synchronized (executionLock) {
+			endExecution(executionId);
+		}
+	}
+
+	private void endExecution(long id) {
+		synchronized (executionLock) {
+			if (id != executionId)
+				return;
+			if (executionPhase != ExecutionPhase.IDLE)
+				canceled = false;
+			executionPhase = ExecutionPhase.IDLE;
+			deadline.ifPresent(f -> f.cancel(false));
+			deadline = Optional.empty();
+		}
+	}
+
+	@Override
+	public <R extends OBDAResultSet> CompletableFuture<R> executeAsync(InputQuery<R> inputQuery) {
+		CompletableFuture<R> future = new CompletableFuture<>();
+		if (!isAsyncQueryInProgress.compareAndSet(false, true)) {
+			future.completeExceptionally(new IllegalStateException(
+					"Another asynchronous query is still being executed by this statement"));
+			return future;
+		}
+
+		// Whoever sets it first: the task (the query is executed) or the cancellation (the task does nothing)
+		AtomicBoolean started = new AtomicBoolean(false);
+		future.whenComplete((r, e) -> {
+			if (!(e instanceof CancellationException))
+				return;
+			if (started.compareAndSet(false, true))
+				isAsyncQueryInProgress.set(false);
+			// Only when started, otherwise the cancellation would apply to the next query of the statement
 			else {
-				throw new OntopQueryEvaluationException(ex);
+				try {
+					cancel();
+				} catch (OntopConnectionException ex) {
+					log.warn("Cannot cancel an asynchronous query", ex);
+				}
 			}
+		});
+
+		try {
+			asyncExecutor.execute(() -> {
+				// Cancelled before being started
+				if (!started.compareAndSet(false, true))
+					return;
+				// Released before completing the future: its callbacks may execute the next query
+				R result;
+				try {
+					result = execute(inputQuery);
+				} catch (Throwable e) {
+					isAsyncQueryInProgress.set(false);
+					future.completeExceptionally(e);
+					return;
+				}
+				isAsyncQueryInProgress.set(false);
+				// The result is not wanted anymore
+				if (!future.complete(result)) {
+					try {
+						result.close();
+					} catch (OntopConnectionException e) {
+						log.debug("Cannot close the result of a cancelled asynchronous query", e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			isAsyncQueryInProgress.set(false);
+			future.completeExceptionally(e);
 		}
+		return future;
+	}
 
-		if (canceled) {
-			canceled = false;
-			throw new OntopQueryEvaluationException("Query execution was cancelled");
+	@Override
+	public Publisher<OntopBindingSet> executeAndPublish(SelectQuery inputQuery) {
+		return new TupleResultSetPublisher(this, inputQuery, asyncExecutor);
+	}
+
+	@Override
+	public PagedTupleResultSet executePage(SelectQuery inputQuery, int pageSize, Optional<String> continuationToken)
+			throws OntopReformulationException, OntopQueryEvaluationException, OntopConnectionException,
+			OntopResultConversionException {
+		PageQuery pageQuery = inputQuery.createPageQuery(pageSize, continuationToken);
+		return new KeysetPageResultSet(execute(pageQuery), pageQuery);
+	}
+
+	/**
+	 * The query timeout of the statement, otherwise the default one
+	 */
+	private Optional<ScheduledFuture<?>> scheduleDeadline(long id) throws OntopQueryEvaluationException {
+		int timeout;
+		try {
+			timeout = getQueryTimeout();
+		} catch (OntopConnectionException e) {
+			throw new OntopQueryEvaluationException(e);
 		}
-		return executionthread.getResultSet();
+		if (timeout <= 0)
+			timeout = settings.getDefaultQueryTimeout().orElse(0);
+		if (timeout <= 0)
+			return Optional.empty();
+
+		return Optional.of(TIMEOUT_SCHEDULER.schedule(() -> {
+			try {
+				cancel(id);
+			} catch (OntopConnectionException e) {
+				log.warn("Cannot cancel a query that timed out", e);
+			}
+		}, timeout, TimeUnit.SECONDS));
 	}
 
-	
+	private static ScheduledThreadPoolExecutor createTimeoutScheduler() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, "ontop-query-timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Most queries finish before their deadline
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+	/**
+	 * Cancels the running query, or the fetching of the results of the last query.
+	 * If no query is running, the next one is cancelled.
+	 */
 	@Override
 	public void cancel() throws OntopConnectionException {
-		canceled = true;
-		try {
-			QuestStatement.this.executionThread.cancel();
-		} catch (Exception e) {
-			throw new OntopConnectionException(e);
+		synchronized (executionLock) {
+			if (executionPhase == ExecutionPhase.IDLE)
+				canceled = true;
+			else
+				cancel(executionId);
+		}
+	}
+
+	/**
+	 * Only if the execution is still running or fetching (e.g. not for the deadline of a past query)
+	 */
+	private void cancel(long id) throws OntopConnectionException {
+		synchronized (executionLock) {
+			if (id != executionId)
+				return;
+			try {
+				switch (executionPhase) {
+					case IDLE:
+						// Already ended
+						break;
+					case REFORMULATION:
+						canceled = true;
+						break;
+					case EVALUATION:
+						canceled = true;
+						cancelExecution();
+						break;
+					case FETCHING:
+						cancelExecution();
+						break;
+				}
+			} catch (Exception e) {
+				throw new OntopConnectionException(e);
+			}
 		}
 	}
 
@@ -351,4 +564,39 @@ public abstract class QuestStatement implements OntopStatement {
 			return engine.reformulateIntoNativeQuery(inputQuery);
 	}
 
+
+	private class DescribeSubQueryEvaluator implements DescribeGraphResultSet.ConstructQueryEvaluator {
+
+		private final OntopStatement subStatement;
+
+		private DescribeSubQueryEvaluator(OntopStatement subStatement) {
+			this.subStatement = subStatement;
+		}
+
+		@Override
+		public SimpleGraphResultSet evaluate(String constructQueryString)
+				throws OntopQueryAnsweringException, OntopConnectionException {
+			try {
+				return subStatement.execute(inputQueryFactory.createConstructQuery(constructQueryString));
+				// Exception is re-cast because not due to the initial input query
+			} catch (OntopInvalidInputQueryException e) {
+				throw new OntopReformulationException(e);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			try {
+				subStatement.cancel();
+			} catch (OntopConnectionException e) {
+				log.warn("Cannot cancel a DESCRIBE sub-query", e);
+			}
+		}
+
+		@Override
+		public void close() throws OntopConnectionException {
+			subStatement.close();
+		}
+	}
+
 }
@@ -0,0 +1,229 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the results of a DESCRIBE query.
+ *
+ * The CONSTRUCT sub-queries are evaluated one after the other by a producer task (run by the executor
+ * of the engine), which fills a bounded queue consumed by the client.
+ * The client can therefore start reading the first triples while the next sub-queries are still running,
+ * and the memory consumption does not depend on the number of described resources.
+ *
+ * The sub-queries are evaluated on their own statement (see ConstructQueryEvaluator),
+ * not on the one of the DESCRIBE query.
+ * The producer stops when the result set is closed, or when the client has not consumed anything
+ * for PRODUCER_STALL_TIMEOUT_SECONDS (result set dropped without being closed).
+ *
+ * Duplicates are removed with a bounded filter remembering the most recent triples.
+ */
+public class DescribeGraphResultSet implements SimpleGraphResultSet {
+
+    /**
+     * Owned by the result set: closed once the producer is done
+     */
+    public interface ConstructQueryEvaluator extends AutoCloseable {
+
+        SimpleGraphResultSet evaluate(String constructQueryString)
+                throws OntopQueryAnsweringException, OntopConnectionException;
+
+        /**
+         * Cancels the sub-query being evaluated, if any. Called by another thread.
+         */
+        void cancel();
+
+        @Override
+        void close() throws OntopConnectionException;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DescribeGraphResultSet.class);
+
+    private static final long OFFER_INTERVAL_MILLIS = 100;
+    private static final long PRODUCER_STALL_TIMEOUT_SECONDS = 600;
+
+    // Empty: no more triple
+    private final BlockingQueue<Optional<Assertion>> queue;
+    private final int queueSize;
+    private final ImmutableList<String> constructQueries;
+    private final ConstructQueryEvaluator evaluator;
+    private final Executor executor;
+
+    // Only accessed by the producer
+    private final Set<Assertion> deduplicationFilter;
+
+    // Set by the producer before signaling the end
+    private volatile Exception producerException;
+    private volatile boolean isClosed;
+
+    private boolean isStarted;
+    private boolean isFinished;
+    // Look-ahead
+    private Assertion nextAssertion;
+
+    public DescribeGraphResultSet(ImmutableList<String> constructQueries, ConstructQueryEvaluator evaluator,
+                                  Executor executor, int queueSize, int deduplicationCapacity) {
+        this.constructQueries = constructQueries;
+        this.evaluator = evaluator;
+        this.executor = executor;
+        this.queueSize = queueSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.deduplicationFilter = Collections.newSetFromMap(new LinkedHashMap<Assertion, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Assertion, Boolean> eldest) {
+                return size() > deduplicationCapacity;
+            }
+        });
+        this.isStarted = false;
+        this.isFinished = false;
+        this.isClosed = false;
+    }
+
+    private void produce() {
+        try {
+            for (String constructQuery : constructQueries) {
+                if (isClosed)
+                    return;
+                try (SimpleGraphResultSet resultSet = evaluator.evaluate(constructQuery)) {
+                    while (resultSet.hasNext()) {
+                        Assertion assertion = resultSet.next();
+                        if (deduplicationFilter.add(assertion) && !enqueue(Optional.of(assertion)))
+                            return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            producerException = e;
+        } catch (Exception e) {
+            if (!isClosed)
+                log.debug("DESCRIBE sub-query failed", e);
+            producerException = e;
+        } finally {
+            closeEvaluator();
+        }
+        signalEnd();
+    }
+
+    /**
+     * Returns false if the triple is not wanted anymore (closed or abandoned result set)
+     */
+    private boolean enqueue(Optional<Assertion> element) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PRODUCER_STALL_TIMEOUT_SECONDS);
+        while (!isClosed) {
+            if (queue.offer(element, OFFER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS))
+                return true;
+            if (System.nanoTime() - deadline > 0) {
+                log.warn("DESCRIBE results not consumed for {}s: the result set has probably not been closed. " +
+                        "Stopping the evaluation of the sub-queries.", PRODUCER_STALL_TIMEOUT_SECONDS);
+                // A late consumer gets an error instead of truncated results
+                producerException = new OntopConnectionException("The DESCRIBE results have not been consumed for "
+                        + PRODUCER_STALL_TIMEOUT_SECONDS + "s");
+                queue.clear();
+                queue.offer(Optional.empty());
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void signalEnd() {
+        try {
+            enqueue(Optional.empty());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeEvaluator() {
+        try {
+            evaluator.close();
+        } catch (OntopConnectionException e) {
+            log.warn("Cannot close the statement of the DESCRIBE sub-queries", e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        if (nextAssertion != null)
+            return true;
+        if (isFinished || isClosed)
+            return false;
+
+        if (!isStarted) {
+            isStarted = true;
+            try {
+                executor.execute(this::produce);
+            } catch (RejectedExecutionException e) {
+                isFinished = true;
+                closeEvaluator();
+                throw new OntopConnectionException(e);
+            }
+        }
+
+        Optional<Assertion> element;
+        try {
+            element = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OntopConnectionException(e);
+        }
+
+        if (element.isPresent()) {
+            nextAssertion = element.get();
+            return true;
+        }
+
+        isFinished = true;
+        Exception e = producerException;
+        if (e == null)
+            return false;
+        if (e instanceof OntopConnectionException)
+            throw (OntopConnectionException) e;
+        if (e instanceof OntopResultConversionException)
+            throw (OntopResultConversionException) e;
+        throw new OntopConnectionException(e);
+    }
+
+    @Override
+    public Assertion next() {
+        if (nextAssertion == null)
+            throw new NoSuchElementException("Please call hasNext() before calling next()");
+        Assertion assertion = nextAssertion;
+        nextAssertion = null;
+        return assertion;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return queueSize;
+    }
+
+    /**
+     * The producer (if started) notices it and closes the evaluator
+     */
+    @Override
+    public void close() {
+        if (isClosed)
+            return;
+        isClosed = true;
+        if (isStarted)
+            evaluator.cancel();
+        else
+            closeEvaluator();
+        queue.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.reformulation.input.PageQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.PagedTupleResultSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps track of the last result of the page, from which the continuation token is derived
+ */
+public class KeysetPageResultSet implements PagedTupleResultSet {
+
+    private final TupleResultSet resultSet;
+    private final PageQuery pageQuery;
+    @Nullable
+    private OntopBindingSet lastBindingSet;
+    private int rowCount = 0;
+
+    public KeysetPageResultSet(TupleResultSet resultSet, PageQuery pageQuery) {
+        this.resultSet = resultSet;
+        this.pageQuery = pageQuery;
+    }
+
+    @Override
+    public Optional<String> getContinuationToken() throws OntopResultConversionException {
+        if (rowCount < pageQuery.getPageSize() || lastBindingSet == null)
+            return Optional.empty();
+        return Optional.of(pageQuery.createContinuationToken(lastBindingSet));
+    }
+
+    @Override
+    public int getColumnCount() {
+        return resultSet.getColumnCount();
+    }
+
+    @Override
+    public List<String> getSignature() throws OntopConnectionException {
+        return resultSet.getSignature();
+    }
+
+    @Override
+    public int getFetchSize() throws OntopConnectionException {
+        return resultSet.getFetchSize();
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        return resultSet.hasNext();
+    }
+
+    @Override
+    public OntopBindingSet next() throws OntopConnectionException, OntopResultConversionException {
+        lastBindingSet = resultSet.next();
+        pageQuery.checkComparableKeys(lastBindingSet);
+        rowCount++;
+        return lastBindingSet;
+    }
+
+    @Override
+    public void close() throws OntopConnectionException {
+        resultSet.close();
+    }
+}
@@ -0,0 +1,219 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the results of a SELECT query (Reactive Streams).
+ *
+ * The query is executed when the subscriber requests its first results. The rows are then fetched
+ * on demand: at most as many rows as requested by the subscriber are read from the result set.
+ *
+ * The query is executed and its results are fetched by the executor, never by the thread of the subscriber.
+ *
+ * Only one subscriber (the results can only be consumed once).
+ */
+public class TupleResultSetPublisher implements Publisher<OntopBindingSet> {
+
+    private static final Logger log = LoggerFactory.getLogger(TupleResultSetPublisher.class);
+
+    private final OntopStatement statement;
+    private final SelectQuery inputQuery;
+    private final Executor executor;
+    private final AtomicBoolean isSubscribed;
+
+    public TupleResultSetPublisher(OntopStatement statement, SelectQuery inputQuery, Executor executor) {
+        this.statement = statement;
+        this.inputQuery = inputQuery;
+        this.executor = executor;
+        this.isSubscribed = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super OntopBindingSet> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!isSubscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The results of a query can only be published once"));
+            return;
+        }
+        subscriber.onSubscribe(new ResultSubscription(subscriber));
+    }
+
+    private class ResultSubscription implements Subscription {
+
+        private final Subscriber<? super OntopBindingSet> subscriber;
+        private final AtomicLong demand;
+        // Number of drain requests not processed yet: only one thread drains at a time
+        private final AtomicInteger pendingDrains;
+        private volatile boolean isCancelled;
+        @Nullable
+        private volatile IllegalArgumentException invalidRequest;
+
+        // Only accessed by the draining thread
+        @Nullable
+        private TupleResultSet resultSet;
+        private boolean isTerminated;
+
+        private ResultSubscription(Subscriber<? super OntopBindingSet> subscriber) {
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong(0);
+            this.pendingDrains = new AtomicInteger(0);
+            this.isCancelled = false;
+            this.isTerminated = false;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                invalidRequest = new IllegalArgumentException("The number of requested elements must be positive: " + n);
+            else
+                // Saturates at Long.MAX_VALUE (unbounded)
+                demand.getAndUpdate(d -> (d + n < 0) ? Long.MAX_VALUE : d + n);
+            scheduleDrain();
+        }
+
+        /**
+         * Also cancels the query if it is still being executed
+         */
+        @Override
+        public void cancel() {
+            if (isCancelled)
+                return;
+            isCancelled = true;
+            try {
+                statement.cancel();
+            } catch (OntopConnectionException e) {
+                log.debug("Cannot cancel the query", e);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    isCancelled = true;
+                    signalError(e);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                drainOnce();
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (isTerminated)
+                return;
+            if (isCancelled) {
+                terminate();
+                return;
+            }
+            IllegalArgumentException requestException = invalidRequest;
+            if (requestException != null) {
+                terminate();
+                signalError(requestException);
+                return;
+            }
+
+            try {
+                if (resultSet == null)
+                    resultSet = statement.execute(inputQuery);
+
+                while (demand.get() > 0) {
+                    if (isCancelled) {
+                        terminate();
+                        return;
+                    }
+                    if (!resultSet.hasNext()) {
+                        terminate();
+                        signalComplete();
+                        return;
+                    }
+                    OntopBindingSet bindingSet = resultSet.next();
+                    demand.decrementAndGet();
+                    if (!signalNext(bindingSet))
+                        return;
+                }
+            } catch (Exception e) {
+                terminate();
+                // No signal after a cancellation
+                if (!isCancelled)
+                    signalError(e);
+            }
+        }
+
+        /**
+         * Rule 2.13: a subscriber throwing from onNext is considered as having cancelled its subscription
+         * (no onError signal)
+         */
+        private boolean signalNext(OntopBindingSet bindingSet) {
+            try {
+                subscriber.onNext(bindingSet);
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("The subscriber failed to process a row: the subscription is cancelled", e);
+                isCancelled = true;
+                terminate();
+                return false;
+            }
+        }
+
+        private void signalComplete() {
+            try {
+                subscriber.onComplete();
+            } catch (RuntimeException e) {
+                log.warn("The subscriber failed to process the completion signal", e);
+            }
+        }
+
+        private void signalError(Exception error) {
+            try {
+                subscriber.onError(error);
+            } catch (RuntimeException e) {
+                log.warn("The subscriber failed to process the error signal", e);
+            }
+        }
+
+        private void terminate() {
+            isTerminated = true;
+            if (resultSet != null) {
+                try {
+                    resultSet.close();
+                } catch (OntopConnectionException e) {
+                    log.debug("Cannot close the result set", e);
+                }
+            }
+        }
+    }
+}
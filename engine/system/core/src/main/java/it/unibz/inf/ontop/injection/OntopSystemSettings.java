@@ -18,12 +18,100 @@ public interface OntopSystemSettings extends OntopReformulationSettings {
      */
     boolean isPermanentDBConnectionEnabled();
 
+    /**
+     * Maximum number of triples buffered by a DESCRIBE query
+     * while its sub-queries are being evaluated.
+     */
+    int getDescribeQueueSize();
+
+    /**
+     * Number of the most recent triples remembered for removing duplicates from the results of a DESCRIBE query.
+     *
+     * Bounded: duplicates separated by more triples may not be detected.
+     */
+    int getDescribeDeduplicationCapacity();
+
+    /**
+     * Number of resources described by the same CONSTRUCT sub-query of a DESCRIBE query
+     * (i.e. reformulated and sent to the DB together). Must be positive.
+     */
+    int getDescribeBatchSize();
+
+    /**
+     * Number of threads executing the asynchronous queries (reformulation and fetching of the results).
+     *
+     * If lower than or equal to 0, the number of available processors.
+     */
+    int getAsyncQueryThreadCount();
+
+    /**
+     * Threads reformulating and evaluating the (synchronous) queries
+     */
+    QueryExecutorKind getQueryExecutorKind();
+
+    /**
+     * Number of threads of the POOL query executor, shared by all the connections.
+     *
+     * If lower than or equal to 0, the number of available processors.
+     */
+    int getQueryExecutorThreadCount();
+
+    /**
+     * Number of axioms (disjointness, functional properties) checked by the same query
+     * during a consistency check.
+     */
+    int getConsistencyCheckBatchSize();
+
+    /**
+     * Maximum number of consistency check queries running concurrently.
+     *
+     * If lower than or equal to 0, the number of available processors.
+     */
+    int getConsistencyCheckParallelism();
+
+    /**
+     * Number of entities (classes and properties) checked by the same query when looking for the empty entities.
+     */
+    int getEmptyEntitiesCheckBatchSize();
+
+    /**
+     * Maximum number of empty entity check queries running concurrently.
+     *
+     * If lower than or equal to 0, the number of available processors.
+     */
+    int getEmptyEntitiesCheckParallelism();
+
+    enum QueryExecutorKind {
+        /**
+         * The calling thread (no extra thread)
+         */
+        CALLER,
+        /**
+         * Bounded pool of threads
+         */
+        POOL,
+        /**
+         * One virtual thread per query. Requires Java 21+, otherwise POOL is used.
+         */
+        VIRTUAL
+    }
+
     //--------------------------
     // Keys
     //--------------------------
 
     String DEFAULT_QUERY_TIMEOUT = "ontop.query.defaultTimeout";
     String PERMANENT_DB_CONNECTION = "ontop.permanentConnection";
+    String DESCRIBE_QUEUE_SIZE = "ontop.query.describe.queueSize";
+    String DESCRIBE_DEDUPLICATION_CAPACITY = "ontop.query.describe.deduplicationCapacity";
+    String DESCRIBE_BATCH_SIZE = "ontop.query.describe.batchSize";
+    String ASYNC_QUERY_THREAD_COUNT = "ontop.query.async.threadCount";
+    String QUERY_EXECUTOR = "ontop.query.executor";
+    String QUERY_EXECUTOR_THREAD_COUNT = "ontop.query.executor.threadCount";
+    String CONSISTENCY_CHECK_BATCH_SIZE = "ontop.consistencyCheck.batchSize";
+    String CONSISTENCY_CHECK_PARALLELISM = "ontop.consistencyCheck.parallelism";
+    String EMPTY_ENTITIES_CHECK_BATCH_SIZE = "ontop.emptyEntitiesCheck.batchSize";
+    String EMPTY_ENTITIES_CHECK_PARALLELISM = "ontop.emptyEntitiesCheck.parallelism";
 
 
 }
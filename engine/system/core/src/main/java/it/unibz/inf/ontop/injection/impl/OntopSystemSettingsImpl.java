@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.injection.OntopOBDASettings;
 import it.unibz.inf.ontop.injection.OntopSystemSettings;
 
@@ -12,6 +13,9 @@ public class OntopSystemSettingsImpl extends OntopReformulationSettingsImpl impl
 
     OntopSystemSettingsImpl(Properties userProperties) {
         super(loadProperties(userProperties));
+        // Fails early (not at the first DESCRIBE query)
+        getRequiredPositiveInteger(DESCRIBE_BATCH_SIZE);
+        getRequiredPositiveInteger(DESCRIBE_QUEUE_SIZE);
     }
 
     private static Properties loadProperties(Properties userProperties) {
@@ -33,4 +37,60 @@ public class OntopSystemSettingsImpl extends OntopReformulationSettingsImpl impl
     public boolean isPermanentDBConnectionEnabled() {
         return getRequiredBoolean(PERMANENT_DB_CONNECTION);
     }
+
+    @Override
+    public int getDescribeQueueSize() {
+        return getRequiredPositiveInteger(DESCRIBE_QUEUE_SIZE);
+    }
+
+    @Override
+    public int getDescribeDeduplicationCapacity() {
+        return getRequiredInteger(DESCRIBE_DEDUPLICATION_CAPACITY);
+    }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return getRequiredPositiveInteger(DESCRIBE_BATCH_SIZE);
+    }
+
+    @Override
+    public int getAsyncQueryThreadCount() {
+        return getRequiredInteger(ASYNC_QUERY_THREAD_COUNT);
+    }
+
+    @Override
+    public QueryExecutorKind getQueryExecutorKind() {
+        String value = getRequiredProperty(QUERY_EXECUTOR);
+        try {
+            return QueryExecutorKind.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOntopConfigurationException(QUERY_EXECUTOR + " must be caller, pool or virtual (found: "
+                    + value + ")");
+        }
+    }
+
+    @Override
+    public int getQueryExecutorThreadCount() {
+        return getRequiredInteger(QUERY_EXECUTOR_THREAD_COUNT);
+    }
+
+    @Override
+    public int getConsistencyCheckBatchSize() {
+        return getRequiredInteger(CONSISTENCY_CHECK_BATCH_SIZE);
+    }
+
+    @Override
+    public int getConsistencyCheckParallelism() {
+        return getRequiredInteger(CONSISTENCY_CHECK_PARALLELISM);
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckBatchSize() {
+        return getRequiredInteger(EMPTY_ENTITIES_CHECK_BATCH_SIZE);
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckParallelism() {
+        return getRequiredInteger(EMPTY_ENTITIES_CHECK_PARALLELISM);
+    }
 }
@@ -16,6 +16,14 @@ public interface MaterializationParams {
      */
     boolean canMaterializationBeIncomplete();
 
+    /**
+     * Number of RDF properties/classes materialized in parallel
+     * (each with its own connection).
+     *
+     * 1 by default.
+     */
+    int getThreadCount();
+
 
     static Builder defaultBuilder() {
         return new MaterializationParamsImpl.DefaultBuilder<>();
@@ -26,6 +34,8 @@ public interface MaterializationParams {
 
         B enableIncompleteMaterialization(boolean enable);
 
+        B threadCount(int threadCount);
+
         MaterializationParams build();
 
     }
@@ -2,6 +2,7 @@ package it.unibz.inf.ontop.materialization;
 
 import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.exception.OBDASpecificationException;
 import it.unibz.inf.ontop.injection.OntopSystemConfiguration;
 import it.unibz.inf.ontop.materialization.impl.DefaultOntopRDFMaterializer;
@@ -40,4 +41,11 @@ public interface OntopRDFMaterializer {
     ImmutableSet<IRI> getClasses();
 
     ImmutableSet<IRI> getProperties();
+
+    /**
+     * Relations from which the triples of the class/property are extracted (empty if not in the vocabulary).
+     *
+     * Useful for deciding what to re-materialize when some relations have changed.
+     */
+    ImmutableSet<RelationID> getSourceRelations(IRI classOrProperty);
 }
@@ -3,7 +3,6 @@ package it.unibz.inf.ontop.materialization.impl;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.UnmodifiableIterator;
 import com.google.inject.Injector;
 import it.unibz.inf.ontop.answering.OntopQueryEngine;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
@@ -12,11 +11,14 @@ import it.unibz.inf.ontop.answering.reformulation.input.ConstructQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
 import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
 import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.dbschema.RelationID;
 import it.unibz.inf.ontop.exception.*;
 import it.unibz.inf.ontop.injection.OntopSystemConfiguration;
 import it.unibz.inf.ontop.injection.OntopSystemFactory;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
 import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.ExtensionalDataNode;
 import it.unibz.inf.ontop.model.atom.TriplePredicate;
 import it.unibz.inf.ontop.spec.OBDASpecification;
 import it.unibz.inf.ontop.spec.mapping.Mapping;
@@ -28,9 +30,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 
@@ -47,6 +49,7 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 	private final OntopQueryEngine queryEngine;
 
 	private final ImmutableMap<IRI, VocabularyEntry> vocabulary;
+	private final ImmutableMap<IRI, ImmutableSet<RelationID>> sourceRelations;
 
 	private static final class VocabularyEntry {
         private final IRI name;
@@ -74,6 +77,7 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 		this.queryEngine = engineFactory.create(specification, configuration.getExecutorRegistry());
 		this.inputQueryFactory = injector.getInstance(InputQueryFactory.class);
 		this.vocabulary = extractVocabulary(specification.getSaturatedMapping());
+		this.sourceRelations = extractSourceRelations(specification.getSaturatedMapping(), vocabulary);
 		this.params = materializationParams;
 	}
 
@@ -109,6 +113,12 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 				.collect(ImmutableCollectors.toSet());
 	}
 
+	@Override
+	public ImmutableSet<RelationID> getSourceRelations(IRI classOrProperty) {
+		return Optional.ofNullable(sourceRelations.get(classOrProperty))
+				.orElseGet(ImmutableSet::of);
+	}
+
 	/**
 	 * TODO: refactor so as to work with quads
 	 */
@@ -122,6 +132,31 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 				.orElseGet(ImmutableMap::of);
     }
 
+	private static ImmutableMap<IRI, ImmutableSet<RelationID>> extractSourceRelations(
+			Mapping mapping, ImmutableMap<IRI, VocabularyEntry> vocabulary) {
+		return mapping.getRDFAtomPredicates().stream()
+				.filter(p -> p instanceof TriplePredicate)
+				.findFirst()
+				.map(p -> vocabulary.values().stream()
+						.collect(ImmutableCollectors.toMap(
+								e -> e.name,
+								e -> ((e.arity == 1)
+										? mapping.getRDFClassDefinition(p, e.name)
+										: mapping.getRDFPropertyDefinition(p, e.name))
+										.map(d -> extractRelations(d.getTree())
+												.collect(ImmutableCollectors.toSet()))
+										.orElseGet(ImmutableSet::of))))
+				.orElseGet(ImmutableMap::of);
+	}
+
+	private static Stream<RelationID> extractRelations(IQTree tree) {
+		if (tree.getRootNode() instanceof ExtensionalDataNode)
+			return Stream.of(((ExtensionalDataNode) tree.getRootNode()).getProjectionAtom().getPredicate()
+					.getRelationDefinition().getID());
+		return tree.getChildren().stream()
+				.flatMap(DefaultOntopRDFMaterializer::extractRelations);
+	}
+
     private static Stream<VocabularyEntry> extractTripleVocabulary(Mapping mapping, TriplePredicate triplePredicate) {
 		Stream<VocabularyEntry> vocabularyPropertyStream = mapping.getRDFProperties(triplePredicate).stream()
 				.map(p -> new VocabularyEntry(p, 2));
@@ -133,46 +168,62 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 	}
 
 
+	/**
+	 * The vocabulary entries are materialized in parallel by a fixed number of workers
+	 * (see MaterializationParams.getThreadCount()), each using its own connection.
+	 *
+	 * The workers fill a bounded queue consumed by the client.
+	 */
 	private static class DefaultMaterializedGraphResultSet implements MaterializedGraphResultSet {
 
+		private static final int QUEUE_CAPACITY = 10000;
+
 		private final ImmutableMap<IRI, VocabularyEntry> vocabulary;
 		private final InputQueryFactory inputQueryFactory;
 		private final boolean canBeIncomplete;
+		private final int threadCount;
 
 		private final OntopQueryEngine queryEngine;
-		private final UnmodifiableIterator<VocabularyEntry> vocabularyIterator;
+		// Shared by the workers
+		private final Queue<VocabularyEntry> remainingEntries;
+		// Empty: one worker has finished
+		private final BlockingQueue<Optional<Assertion>> queue;
+		private final List<IRI> possiblyIncompleteClassesAndProperties;
 
-		private int counter;
-		@Nullable
-		private OntopConnection ontopConnection;
-		@Nullable
-		private OntopStatement tmpStatement;
+		// First failure of a worker (including runtime exceptions)
+		private final AtomicReference<Throwable> workerException;
+		private volatile boolean isClosed;
+
+		private long counter;
 		@Nullable
-		private SimpleGraphResultSet tmpGraphResultSet;
+		private ExecutorService executor;
+		private int runningWorkers;
 		@Nullable
-//		private Assertion nextAssertion;
+		private Assertion nextAssertion;
 
 		private Logger LOGGER = LoggerFactory.getLogger(DefaultMaterializedGraphResultSet.class);
-		private final List<IRI> possiblyIncompleteClassesAndProperties;
 
 
 		DefaultMaterializedGraphResultSet(ImmutableMap<IRI, VocabularyEntry> vocabulary, MaterializationParams params,
 										  OntopQueryEngine queryEngine, InputQueryFactory inputQueryFactory) {
 
 			this.vocabulary = vocabulary;
-			this.vocabularyIterator = vocabulary.values().iterator();
+			this.remainingEntries = new ConcurrentLinkedQueue<>(vocabulary.values());
 
 			this.queryEngine = queryEngine;
 			this.canBeIncomplete = params.canMaterializationBeIncomplete();
+			this.threadCount = Math.min(params.getThreadCount(), Math.max(vocabulary.size(), 1));
 			this.inputQueryFactory = inputQueryFactory;
-			this.possiblyIncompleteClassesAndProperties = new ArrayList<>();
+			this.possiblyIncompleteClassesAndProperties = Collections.synchronizedList(new ArrayList<>());
+			this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+			this.workerException = new AtomicReference<>();
 
 			counter = 0;
 			// Lately initiated
-			ontopConnection = null;
-			tmpStatement = null;
-			tmpGraphResultSet = null;
-//			nextAssertion = null;
+			executor = null;
+			runningWorkers = 0;
+			nextAssertion = null;
+			isClosed = false;
 		}
 
 		@Override
@@ -183,91 +234,130 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 
 		@Override
 		public boolean hasNext() throws OntopQueryAnsweringException, OntopConnectionException {
-			// Initialization
-			if (ontopConnection == null)
-				ontopConnection = queryEngine.getConnection();
+			if (nextAssertion != null)
+				return true;
+			if (isClosed)
+				return false;
 
-			if ((tmpGraphResultSet != null) && tmpGraphResultSet.hasNext()) {
+			// Initialization
+			if (executor == null) {
+				executor = Executors.newFixedThreadPool(threadCount, r -> {
+					Thread thread = new Thread(r, "ontop-materializer");
+					thread.setDaemon(true);
+					return thread;
+				});
+				runningWorkers = threadCount;
+				for (int i = 0; i < threadCount; i++)
+					executor.execute(this::work);
+			}
 
-				// Two times in a row (can be tolerated)
-//				if (nextAssertion != null)
-//					return true;
+			while (runningWorkers > 0) {
+				Optional<Assertion> element;
+				try {
+					element = queue.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OntopConnectionException(e);
+				}
 
-//				nextAssertion = tmpGraphResultSet.next();
-				return true;
+				if (element.isPresent()) {
+					nextAssertion = element.get();
+					return true;
+				}
+				runningWorkers--;
+
+				Throwable e = workerException.get();
+				if (e instanceof OntopQueryAnsweringException)
+					throw (OntopQueryAnsweringException) e;
+				if (e instanceof OntopConnectionException)
+					throw (OntopConnectionException) e;
+				if (e instanceof Error)
+					throw (Error) e;
+				if (e != null)
+					throw new OntopConnectionException((Exception) e);
 			}
+			return false;
+		}
 
-			while(vocabularyIterator.hasNext()) {
-				/*
-			 	* Closes the previous result set and statement (if open)
-			 	*/
-				if (tmpGraphResultSet != null) {
-					try {
-						tmpGraphResultSet.close();
-					} catch (OntopConnectionException e) {
-						LOGGER.warn("Non-critical exception while closing the graph result set: " + e);
-						// Not critical, continue
-					}
-				}
-				if (tmpStatement != null) {
-					try {
-						tmpStatement.close();
-					} catch (OntopConnectionException e) {
-						LOGGER.warn("Non-critical exception while closing the statement: " + e);
-						// Not critical, continue
-					}
+		/**
+		 * Run by each worker: materializes vocabulary entries until none is left.
+		 *
+		 * Whatever happens, the end of the worker is signaled to the consumer (unless closed).
+		 */
+		private void work() {
+			try (OntopConnection connection = queryEngine.getConnection()) {
+				VocabularyEntry entry;
+				while ((!isClosed) && (workerException.get() == null)
+						&& ((entry = remainingEntries.poll()) != null)) {
+					materialize(entry, connection);
 				}
+			} catch (InterruptedException e) {
+				// Closed by the consumer
+				Thread.currentThread().interrupt();
+			} catch (Throwable e) {
+				if (!isClosed)
+					LOGGER.error("Materialization worker failed", e);
+				workerException.compareAndSet(null, e);
+			} finally {
+				signalEnd();
+			}
+		}
 
-				/*
-				 * New query for the next RDF property/class
-				 */
-                VocabularyEntry predicate = vocabularyIterator.next();
-				ConstructQuery query = inputQueryFactory.createConstructQuery(predicate.getQuery());
+		private void signalEnd() {
+			try {
+				if (!isClosed)
+					queue.put(Optional.empty());
+			} catch (InterruptedException e) {
+				// Closed by the consumer
+				Thread.currentThread().interrupt();
+			}
+		}
 
-				try {
-					tmpStatement = ontopConnection.createStatement();
-					tmpGraphResultSet = tmpStatement.execute(query);
-
-					if (tmpGraphResultSet.hasNext()) {
-//						nextAssertion = tmpGraphResultSet.next();
-						return true;
-					}
-				} catch (OntopQueryAnsweringException | OntopConnectionException e) {
-					if (canBeIncomplete) {
-						LOGGER.warn("Possibly incomplete class/property " + predicate + " (materialization problem).\n"
-								+ "Details: " + e);
-						possiblyIncompleteClassesAndProperties.add(predicate.name);
-					}
-					else {
-						LOGGER.error("Problem materialiing the class/property " + predicate);
-						throw e;
-					}
+		private void materialize(VocabularyEntry predicate, OntopConnection connection) throws InterruptedException {
+			long start = System.currentTimeMillis();
+			long count = 0;
+			try (OntopStatement statement = connection.createStatement();
+				 SimpleGraphResultSet graphResultSet = statement.execute(
+				 		inputQueryFactory.createConstructQuery(predicate.getQuery()))) {
+				while ((!isClosed) && graphResultSet.hasNext()) {
+					queue.put(Optional.of(graphResultSet.next()));
+					count++;
+				}
+			} catch (OntopQueryAnsweringException | OntopConnectionException e) {
+				if (canBeIncomplete) {
+					LOGGER.warn("Possibly incomplete class/property " + predicate.name + " (materialization problem).\n"
+							+ "Details: " + e);
+					possiblyIncompleteClassesAndProperties.add(predicate.name);
 				}
+				else {
+					LOGGER.error("Problem materializing the class/property " + predicate.name);
+					workerException.compareAndSet(null, e);
+				}
+				return;
 			}
-
-			return false;
+			long duration = System.currentTimeMillis() - start;
+			LOGGER.info(String.format("Materialized %d triples for %s in %d ms (%d triples/s)",
+					count, predicate.name, duration, count * 1000 / Math.max(duration, 1)));
 		}
 
 		@Override
-		public Assertion next() throws OntopQueryAnsweringException {
+		public Assertion next() {
+			if (nextAssertion == null)
+				throw new NoSuchElementException("Please call hasNext() before calling next()");
+			Assertion assertion = nextAssertion;
+			nextAssertion = null;
 			counter++;
-			try {
-				return tmpGraphResultSet.next();
-			} catch (OntopResultConversionException e) {
-			    throw new OntopQueryAnsweringException(e);
-			}
+			return assertion;
 		}
 
 		/**
-		 * Releases all the connection resources
+		 * Stops the workers, which release their connection
 		 */
-		public void close() throws OntopConnectionException {
-			if (tmpStatement != null) {
-				tmpStatement.close();
-			}
-			if (ontopConnection != null) {
-				ontopConnection.close();
-			}
+		public void close() {
+			isClosed = true;
+			if (executor != null)
+				executor.shutdownNow();
+			queue.clear();
 		}
 
 		public long getTripleCountSoFar() {
@@ -275,7 +365,9 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 		}
 
 		public ImmutableList<IRI> getPossiblyIncompleteRDFPropertiesAndClassesSoFar() {
-			return ImmutableList.copyOf(possiblyIncompleteClassesAndProperties);
+			synchronized (possiblyIncompleteClassesAndProperties) {
+				return ImmutableList.copyOf(possiblyIncompleteClassesAndProperties);
+			}
 		}
 	}
 
@@ -5,9 +5,11 @@ import it.unibz.inf.ontop.materialization.MaterializationParams;
 public class MaterializationParamsImpl implements MaterializationParams {
 
     private final boolean enableIncompleteMaterialization;
+    private final int threadCount;
 
-    private MaterializationParamsImpl(boolean enableIncompleteMaterialization) {
+    private MaterializationParamsImpl(boolean enableIncompleteMaterialization, int threadCount) {
         this.enableIncompleteMaterialization = enableIncompleteMaterialization;
+        this.threadCount = threadCount;
     }
 
 
@@ -16,14 +18,21 @@ public class MaterializationParamsImpl implements MaterializationParams {
         return enableIncompleteMaterialization;
     }
 
+    @Override
+    public int getThreadCount() {
+        return threadCount;
+    }
+
 
     public static class DefaultBuilder<B extends Builder<B>> implements Builder<B> {
 
         private final B builder;
         private boolean canMaterializationBeIncomplete;
+        private int threadCount;
 
         public DefaultBuilder() {
             this.canMaterializationBeIncomplete = false;
+            this.threadCount = 1;
             this.builder = (B) this;
         }
 
@@ -33,9 +42,17 @@ public class MaterializationParamsImpl implements MaterializationParams {
             return builder;
         }
 
+        @Override
+        public B threadCount(int threadCount) {
+            if (threadCount < 1)
+                throw new IllegalArgumentException("The number of threads must be positive");
+            this.threadCount = threadCount;
+            return builder;
+        }
+
         @Override
         public MaterializationParams build() {
-            return new MaterializationParamsImpl(canMaterializationBeIncomplete);
+            return new MaterializationParamsImpl(canMaterializationBeIncomplete, threadCount);
         }
     }
 
@@ -0,0 +1,62 @@
+package it.unibz.inf.ontop.answering.connection;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.dbschema.RelationID;
+import it.unibz.inf.ontop.iq.node.NativeNode;
+
+import java.util.Optional;
+
+/**
+ * Results of the native queries, shared by all the connections of the query engine.
+ *
+ * Keyed on the native query string, its parameters and the maximum number of rows.
+ * Each entry is tagged with the relations read by the query (see NativeNode.getRelationIDs()),
+ * so that the application can invalidate the results depending on a modified relation.
+ * The entries are otherwise evicted after a TTL or when the memory bound is reached.
+ *
+ * Disabled by default (see OntopSystemSQLSettings.getResultCacheMaxBytes()).
+ *
+ * The instance used by the query engine can be obtained from the injector of the configuration.
+ */
+public interface SQLResultCache {
+
+    boolean isEnabled();
+
+    /**
+     * Native rows (see RowDecoder) of a previous execution of the query
+     */
+    Optional<ImmutableList<String[]>> get(NativeNode nativeNode, int maxRows);
+
+    /**
+     * The recorded rows are added to the cache only if the query has been consumed completely
+     * and if no invalidation took place in the meantime.
+     */
+    Recorder createRecorder(NativeNode nativeNode, int maxRows);
+
+    /**
+     * Evicts the results of the queries reading the relation.
+     *
+     * If the relation ID has no schema, the relations of any schema having this name are considered.
+     */
+    void invalidate(RelationID relationID);
+
+    /**
+     * Evicts the results of the queries reading a table (or view) of this name, in any schema.
+     *
+     * The name is compared ignoring the case.
+     */
+    void invalidate(String tableName);
+
+    void invalidateAll();
+
+
+    interface Recorder {
+
+        void add(String[] nativeRow);
+
+        /**
+         * Called once all the rows have been read
+         */
+        void complete();
+    }
+}
@@ -0,0 +1,201 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
+import it.unibz.inf.ontop.dbschema.RelationID;
+import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
+import it.unibz.inf.ontop.iq.node.NativeNode;
+import it.unibz.inf.ontop.model.term.DBConstant;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Guava cache weighted by an estimation of the memory used by the rows.
+ *
+ * A result exceeding a fraction of the memory bound is not cached (so that it does not evict all the others).
+ *
+ * Thread-safe.
+ */
+@Singleton
+public class DefaultSQLResultCache implements SQLResultCache {
+
+    private static final int CONCURRENCY_LEVEL = 4;
+    // The weight of an entry must remain below the capacity of a segment of the Guava cache
+    private static final int MAX_ENTRY_FRACTION = 2 * CONCURRENCY_LEVEL;
+    private static final long ROW_OVERHEAD = 32;
+    private static final long VALUE_OVERHEAD = 48;
+
+    // Null if disabled
+    @Nullable
+    private final Cache<Key, Entry> cache;
+    private final long maxEntryBytes;
+    // Guarded by this. Incremented by each invalidation.
+    private long invalidationCount = 0;
+
+    @Inject
+    private DefaultSQLResultCache(OntopSystemSQLSettings settings) {
+        long maxBytes = settings.getResultCacheMaxBytes();
+        this.maxEntryBytes = Math.min(maxBytes / MAX_ENTRY_FRACTION, Integer.MAX_VALUE);
+        this.cache = maxBytes > 0
+                ? CacheBuilder.newBuilder()
+                    .concurrencyLevel(CONCURRENCY_LEVEL)
+                    .maximumWeight(maxBytes)
+                    .weigher((Key k, Entry e) -> e.weight)
+                    .expireAfterWrite(settings.getResultCacheTTL(), TimeUnit.SECONDS)
+                    .build()
+                : null;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @Override
+    public Optional<ImmutableList<String[]>> get(NativeNode nativeNode, int maxRows) {
+        if (cache == null)
+            return Optional.empty();
+        return Optional.ofNullable(cache.getIfPresent(new Key(nativeNode, maxRows)))
+                .map(e -> e.rows);
+    }
+
+    @Override
+    public Recorder createRecorder(NativeNode nativeNode, int maxRows) {
+        if (cache == null)
+            throw new IllegalStateException("The result cache is disabled");
+        synchronized (this) {
+            return new RecorderImpl(new Key(nativeNode, maxRows), nativeNode.getRelationIDs(), invalidationCount);
+        }
+    }
+
+    @Override
+    public void invalidate(RelationID relationID) {
+        invalidateIf(r -> relationID.hasSchema()
+                ? r.equals(relationID)
+                : r.getSchemalessID().equals(relationID));
+    }
+
+    @Override
+    public void invalidate(String tableName) {
+        invalidateIf(r -> r.getTableName().equalsIgnoreCase(tableName));
+    }
+
+    private synchronized void invalidateIf(Predicate<RelationID> relationCondition) {
+        if (cache == null)
+            return;
+        invalidationCount++;
+        cache.asMap().values().removeIf(e -> e.relationIDs.stream().anyMatch(relationCondition));
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        if (cache == null)
+            return;
+        invalidationCount++;
+        cache.invalidateAll();
+    }
+
+    /**
+     * Not added if an invalidation took place after the creation of the recorder
+     * (the rows may have been read before the modification).
+     */
+    private synchronized void put(Key key, Entry entry, long initialInvalidationCount) {
+        if (cache != null && invalidationCount == initialInvalidationCount)
+            cache.put(key, entry);
+    }
+
+
+    private class RecorderImpl implements Recorder {
+        private final Key key;
+        private final ImmutableSet<RelationID> relationIDs;
+        private final long initialInvalidationCount;
+        // Null once abandoned (too large)
+        @Nullable
+        private List<String[]> rows = new ArrayList<>();
+        private long weight = 0;
+
+        RecorderImpl(Key key, ImmutableSet<RelationID> relationIDs, long initialInvalidationCount) {
+            this.key = key;
+            this.relationIDs = relationIDs;
+            this.initialInvalidationCount = initialInvalidationCount;
+        }
+
+        @Override
+        public void add(String[] nativeRow) {
+            if (rows == null)
+                return;
+            weight += estimateWeight(nativeRow);
+            if (weight > maxEntryBytes)
+                rows = null;
+            else
+                rows.add(nativeRow);
+        }
+
+        @Override
+        public void complete() {
+            if (rows == null)
+                return;
+            put(key, new Entry(ImmutableList.copyOf(rows), relationIDs, (int) weight), initialInvalidationCount);
+            rows = null;
+        }
+
+        private long estimateWeight(String[] nativeRow) {
+            long rowWeight = ROW_OVERHEAD;
+            for (String value : nativeRow) {
+                if (value != null)
+                    rowWeight += VALUE_OVERHEAD + 2L * value.length();
+            }
+            return rowWeight;
+        }
+    }
+
+    private static class Key {
+        private final String nativeQueryString;
+        private final ImmutableList<DBConstant> parameters;
+        private final int maxRows;
+
+        Key(NativeNode nativeNode, int maxRows) {
+            this.nativeQueryString = nativeNode.getNativeQueryString();
+            this.parameters = nativeNode.getParameters();
+            this.maxRows = maxRows;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return maxRows == key.maxRows
+                    && nativeQueryString.equals(key.nativeQueryString)
+                    && parameters.equals(key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nativeQueryString, parameters, maxRows);
+        }
+    }
+
+    private static class Entry {
+        private final ImmutableList<String[]> rows;
+        private final ImmutableSet<RelationID> relationIDs;
+        private final int weight;
+
+        Entry(ImmutableList<String[]> rows, ImmutableSet<RelationID> relationIDs, int weight) {
+            this.rows = rows;
+            this.relationIDs = relationIDs;
+            this.weight = weight;
+        }
+    }
+}
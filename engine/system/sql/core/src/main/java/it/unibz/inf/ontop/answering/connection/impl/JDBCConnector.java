@@ -5,6 +5,7 @@ import com.google.inject.assistedinject.AssistedInject;
 import it.unibz.inf.ontop.answering.connection.DBConnector;
 import it.unibz.inf.ontop.answering.connection.JDBCStatementInitializer;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.dbschema.DBParameters;
@@ -20,7 +21,11 @@ import org.apache.commons.rdf.api.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.sql.*;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * For RDBMS having a JDBC driver.
@@ -42,6 +47,14 @@ public class JDBCConnector implements DBConnector {
     private final TermFactory termFactory;
     private final RDF rdfFactory;
     private final JDBCStatementInitializer statementInitializer;
+    private final SQLResultCache resultCache;
+
+    // Created lazily (most applications only run synchronous queries)
+    @Nullable
+    private ExecutorService asyncQueryExecutor;
+    // Created lazily. Empty if the queries are executed by the calling thread
+    @Nullable
+    private Optional<ExecutorService> queryExecutor;
 
     @AssistedInject
     private JDBCConnector(@Assisted QueryReformulator queryReformulator,
@@ -51,6 +64,7 @@ public class JDBCConnector implements DBConnector {
                           SubstitutionFactory substitutionFactory,
                           RDF rdfFactory,
                           JDBCStatementInitializer statementInitializer,
+                          SQLResultCache resultCache,
                           OntopSystemSQLSettings settings) {
         this.queryReformulator = queryReformulator;
         this.inputQueryFactory = inputQueryFactory;
@@ -60,6 +74,7 @@ public class JDBCConnector implements DBConnector {
         this.connectionPool = connectionPool;
         this.rdfFactory = rdfFactory;
         this.statementInitializer = statementInitializer;
+        this.resultCache = resultCache;
     }
 
     /**
@@ -93,6 +108,76 @@ public class JDBCConnector implements DBConnector {
             log.error(e.getMessage());
         }
         connectionPool.close();
+
+        synchronized (this) {
+            if (asyncQueryExecutor != null) {
+                asyncQueryExecutor.shutdownNow();
+                asyncQueryExecutor = null;
+            }
+            if (queryExecutor != null) {
+                queryExecutor.ifPresent(ExecutorService::shutdownNow);
+                queryExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Shared by all the connections for running the asynchronous queries.
+     *
+     * Size: see OntopSystemSettings.getAsyncQueryThreadCount()
+     */
+    synchronized ExecutorService getAsyncQueryExecutor() {
+        if (asyncQueryExecutor == null) {
+            int threadCount = settings.getAsyncQueryThreadCount();
+            asyncQueryExecutor = Executors.newFixedThreadPool(
+                    threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors(),
+                    r -> {
+                        Thread thread = new Thread(r, "ontop-async-query");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return asyncQueryExecutor;
+    }
+
+    /**
+     * Shared by all the connections for running the (synchronous) queries.
+     *
+     * See OntopSystemSettings.getQueryExecutorKind()
+     */
+    synchronized Optional<ExecutorService> getQueryExecutor() {
+        if (queryExecutor == null)
+            queryExecutor = createQueryExecutor();
+        return queryExecutor;
+    }
+
+    private Optional<ExecutorService> createQueryExecutor() {
+        switch (settings.getQueryExecutorKind()) {
+            case CALLER:
+                return Optional.empty();
+            case VIRTUAL:
+                // Not available before Java 21
+                try {
+                    return Optional.of((ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor")
+                            .invoke(null));
+                } catch (ReflectiveOperationException e) {
+                    log.warn("Virtual threads are not supported by this JVM, using a pool of threads instead");
+                }
+            default:
+                int threadCount = settings.getQueryExecutorThreadCount();
+                return Optional.of(Executors.newFixedThreadPool(
+                        threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors(),
+                        r -> {
+                            Thread thread = new Thread(r, "ontop-query");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+        }
+    }
+
+    SQLResultCache getResultCache() {
+        return resultCache;
     }
 
     public synchronized Connection getSQLPoolConnection() throws OntopConnectionException {
@@ -0,0 +1,159 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of the prepared statements of a JDBC connection, indexed by their SQL query string.
+ *
+ * A prepared statement is borrowed for the time of an execution (removed from the cache) and released afterwards,
+ * so that it is never used by two OntopStatements at the same time.
+ *
+ * Hit, miss and eviction counts are available through getters (see SQLConnection.getPreparedStatementCache())
+ * and are logged (debug) when the cache is closed.
+ *
+ * Thread-safe.
+ */
+public class PreparedStatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    private final Connection connection;
+    private final int maxSize;
+    // Access order
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public PreparedStatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public BorrowedStatement borrow(String sqlQuery) throws SQLException {
+        PreparedStatement statement;
+        synchronized (statements) {
+            statement = statements.remove(sqlQuery);
+        }
+        if (statement != null) {
+            hitCount.incrementAndGet();
+            return new BorrowedStatement(sqlQuery, statement);
+        }
+        missCount.incrementAndGet();
+        return new BorrowedStatement(sqlQuery,
+                connection.prepareStatement(sqlQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    }
+
+    /**
+     * Its previous result set must not be used anymore
+     */
+    private void release(String sqlQuery, PreparedStatement statement) throws SQLException {
+        if (statement.isClosed())
+            return;
+        statement.clearParameters();
+
+        PreparedStatement evictedStatement = null;
+        synchronized (statements) {
+            PreparedStatement previous = statements.put(sqlQuery, statement);
+            if (previous != null)
+                // Another one for the same query has been released in the meantime
+                evictedStatement = previous;
+            else if (statements.size() > maxSize) {
+                Map.Entry<String, PreparedStatement> eldest = statements.entrySet().iterator().next();
+                statements.remove(eldest.getKey());
+                evictedStatement = eldest.getValue();
+            }
+        }
+        if (evictedStatement != null) {
+            evictionCount.incrementAndGet();
+            evictedStatement.close();
+        }
+    }
+
+    /**
+     * Prepared statement given back to the cache at most once: either when its result set is closed
+     * (see JDBCTupleResultSet and SQLBooleanResultSet) or when the OntopStatement executes its next query.
+     */
+    public class BorrowedStatement {
+        private final String sqlQuery;
+        private final PreparedStatement statement;
+        private final AtomicBoolean isReleased;
+
+        private BorrowedStatement(String sqlQuery, PreparedStatement statement) {
+            this.sqlQuery = sqlQuery;
+            this.statement = statement;
+            this.isReleased = new AtomicBoolean(false);
+        }
+
+        public PreparedStatement getStatement() {
+            return statement;
+        }
+
+        /**
+         * The statement must be released once the returned result set is closed
+         */
+        public ResultSet executeQuery() throws SQLException {
+            return statement.executeQuery();
+        }
+
+        public void release() throws SQLException {
+            if (isReleased.compareAndSet(false, true))
+                PreparedStatementCache.this.release(sqlQuery, statement);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Statements closed because the cache was full (or because another one for the same query was released)
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Hits / (hits + misses). 0 if nothing has been requested.
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : ((double) hits) / total;
+    }
+
+    public void close() throws SQLException {
+        log.debug(String.format("Prepared statement cache: %d hits, %d misses (hit rate: %.2f), %d evictions",
+                getHitCount(), getMissCount(), getHitRate(), getEvictionCount()));
+
+        SQLException exception = null;
+        synchronized (statements) {
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    exception = e;
+                }
+            }
+            statements.clear();
+        }
+        if (exception != null)
+            throw exception;
+    }
+}
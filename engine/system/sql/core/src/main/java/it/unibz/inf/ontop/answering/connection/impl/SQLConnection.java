@@ -1,6 +1,8 @@
 package it.unibz.inf.ontop.answering.connection.impl;
 
 import java.sql.Connection;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import it.unibz.inf.ontop.answering.connection.JDBCStatementInitializer;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
@@ -15,6 +17,8 @@ import it.unibz.inf.ontop.model.term.TermFactory;
 import it.unibz.inf.ontop.substitution.SubstitutionFactory;
 import org.apache.commons.rdf.api.RDF;
 
+import javax.annotation.Nullable;
+
 /***
  * Quest connection is responsible for wrapping a JDBC connection to the data
  * source. It will translate calls to OBDAConnection into JDBC Connection calls
@@ -40,6 +44,9 @@ public class SQLConnection implements OntopConnection {
 	private boolean isClosed;
 	private final RDF rdfFactory;
 	private final JDBCStatementInitializer statementInitializer;
+	// Null if disabled
+	@Nullable
+	private PreparedStatementCache preparedStatementCache;
 
 
 	public SQLConnection(JDBCConnector jdbcConnector, QueryReformulator queryProcessor, Connection connection,
@@ -57,11 +64,29 @@ public class SQLConnection implements OntopConnection {
 		this.settings = settings;
 		this.rdfFactory = rdfFactory;
 		this.isClosed = false;
+		this.preparedStatementCache = createPreparedStatementCache(connection);
+	}
+
+	@Nullable
+	private PreparedStatementCache createPreparedStatementCache(Connection connection) {
+		int cacheSize = settings.getPreparedStatementCacheSize();
+		return cacheSize > 0
+				? new PreparedStatementCache(connection, cacheSize)
+				: null;
+	}
+
+	/**
+	 * Empty if prepared statements are not re-used (see OntopSystemSQLSettings.getPreparedStatementCacheSize())
+	 */
+	public Optional<PreparedStatementCache> getPreparedStatementCache() {
+		return Optional.ofNullable(preparedStatementCache);
 	}
 
 	@Override
 	public void close() throws OntopConnectionException {
 		try {
+			if (preparedStatementCache != null)
+				preparedStatementCache.close();
 			conn.close();
 		} catch (Exception e) {
 			throw new OntopConnectionException(e);
@@ -74,11 +99,18 @@ public class SQLConnection implements OntopConnection {
 			if (conn.isClosed()) {
 				// Sometimes it gets dropped, reconnect
 				conn = jdbcConnector.getSQLPoolConnection();
+				preparedStatementCache = createPreparedStatementCache(conn);
 			}
 			return new SQLQuestStatement(
 					this.queryProcessor,
 					statementInitializer.createAndInitStatement(conn),
-					inputQueryFactory, termFactory, rdfFactory, substitutionFactory, settings);
+					preparedStatementCache,
+					inputQueryFactory, termFactory, rdfFactory, substitutionFactory, settings,
+					// The executor is only created when needed
+					command -> jdbcConnector.getAsyncQueryExecutor().execute(command),
+					jdbcConnector.getQueryExecutor().map(e -> (Executor) e),
+					jdbcConnector::getSQLPoolConnection,
+					jdbcConnector.getResultCache());
 		} catch (Exception e) {
 			throw new OntopConnectionException(e);
 		}
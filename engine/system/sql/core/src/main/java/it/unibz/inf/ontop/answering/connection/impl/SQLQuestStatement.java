@@ -1,10 +1,17 @@
 package it.unibz.inf.ontop.answering.connection.impl;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
+import it.unibz.inf.ontop.answering.reformulation.QueryCache;
 import it.unibz.inf.ontop.answering.reformulation.input.*;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.answering.resultset.impl.*;
 import it.unibz.inf.ontop.answering.resultset.BooleanResultSet;
 import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
@@ -20,13 +27,22 @@ import it.unibz.inf.ontop.iq.UnaryIQTree;
 import it.unibz.inf.ontop.iq.exception.EmptyQueryException;
 import it.unibz.inf.ontop.iq.node.ConstructionNode;
 import it.unibz.inf.ontop.iq.node.NativeNode;
+import it.unibz.inf.ontop.iq.node.UnionNode;
+import it.unibz.inf.ontop.model.atom.DistinctVariableOnlyDataAtom;
+import it.unibz.inf.ontop.model.term.DBConstant;
+import it.unibz.inf.ontop.model.term.RDFConstant;
+import it.unibz.inf.ontop.model.term.RDFLiteralConstant;
 import it.unibz.inf.ontop.model.term.TermFactory;
 import it.unibz.inf.ontop.model.term.Variable;
 import it.unibz.inf.ontop.model.type.DBTermType;
 import it.unibz.inf.ontop.model.type.TypeFactory;
 import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.apache.commons.rdf.api.RDF;
 
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.*;
 import java.sql.ResultSet;
 
@@ -37,22 +53,60 @@ import java.sql.ResultSet;
 public class SQLQuestStatement extends QuestStatement {
 
     private final Statement sqlStatement;
+    private final QueryReformulator queryProcessor;
+    private final InputQueryFactory inputQueryFactory;
     private final TermFactory termFactory;
     private final RDF rdfFactory;
     private final SubstitutionFactory substitutionFactory;
     private final OntopSystemSQLSettings settings;
+    private final QueryCache queryCache;
+    // Null if prepared statements are not re-used
+    @Nullable
+    private final PreparedStatementCache preparedStatementCache;
+    // Prepared statement of the last query (kept for cancelling it)
+    @Nullable
+    private volatile PreparedStatement preparedStatement;
+    @Nullable
+    private PreparedStatementCache.BorrowedStatement borrowedStatement;
+    private final Executor asyncExecutor;
+    private final ConnectionSupplier poolConnectionSupplier;
+    // Statements of the branches of split unions (see UnionTupleResultSet), closed with their result sets
+    private final Set<Statement> branchStatements;
+    // Pool connections of the branches of split unions, released with their result sets
+    private final Set<Connection> branchConnections;
+    private final SQLResultCache resultCache;
 
     public SQLQuestStatement(QueryReformulator queryProcessor, Statement sqlStatement,
+                             @Nullable PreparedStatementCache preparedStatementCache,
                              InputQueryFactory inputQueryFactory,
                              TermFactory termFactory,
                              RDF rdfFactory, SubstitutionFactory substitutionFactory,
-                             OntopSystemSQLSettings settings) {
-        super(queryProcessor, inputQueryFactory);
+                             OntopSystemSQLSettings settings, Executor asyncExecutor,
+                             Optional<Executor> queryExecutor,
+                             ConnectionSupplier poolConnectionSupplier, SQLResultCache resultCache) {
+        super(queryProcessor, inputQueryFactory, settings, asyncExecutor, queryExecutor);
         this.sqlStatement = sqlStatement;
+        this.queryProcessor = queryProcessor;
+        this.inputQueryFactory = inputQueryFactory;
+        this.preparedStatementCache = preparedStatementCache;
         this.termFactory = termFactory;
         this.rdfFactory = rdfFactory;
         this.substitutionFactory = substitutionFactory;
         this.settings = settings;
+        this.queryCache = queryProcessor.getQueryCache();
+        this.asyncExecutor = asyncExecutor;
+        this.poolConnectionSupplier = poolConnectionSupplier;
+        this.branchStatements = ConcurrentHashMap.newKeySet();
+        this.branchConnections = ConcurrentHashMap.newKeySet();
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Connections of the pool (released by closing them)
+     */
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        Connection get() throws OntopConnectionException;
     }
 
     @Override
@@ -117,14 +171,20 @@ public class SQLQuestStatement extends QuestStatement {
      */
     @Override
     public int getTupleCount(InputQuery inputQuery) throws OntopReformulationException, OntopQueryEvaluationException {
+        if (inputQuery instanceof SelectQuery)
+            return getSelectTupleCount((SelectQuery) inputQuery);
+
         IQ targetQuery = getExecutableQuery(inputQuery);
+        Optional<ImmutableList<NativeNode>> nativeBranches = extractNativeBranches(targetQuery);
+        if (nativeBranches.isPresent())
+            return getUnionTupleCount(nativeBranches.get());
         try {
             String sql = extractSQLQuery(targetQuery);
             String newsql = "SELECT count(*) FROM (" + sql + ") t1";
             if (!isCanceled()) {
                 try {
 
-                    java.sql.ResultSet set = sqlStatement.executeQuery(newsql);
+                    java.sql.ResultSet set = executeSQLQuery(newsql, extractNativeNode(targetQuery).getParameters());
                     if (set.next()) {
                         return set.getInt(1);
                     } else {
@@ -142,9 +202,56 @@ public class SQLQuestStatement extends QuestStatement {
         }
     }
 
+    /**
+     * Planned as an aggregation query (see SelectQuery.createCountQuery()) instead of wrapping the native query
+     */
+    private int getSelectTupleCount(SelectQuery selectQuery)
+            throws OntopReformulationException, OntopQueryEvaluationException {
+        IQ countQuery = getExecutableQuery(selectQuery.createCountQuery());
+        if (isCanceled())
+            throw new OntopQueryEvaluationException("Action canceled.");
+        try (TupleResultSet results = executeSelectQuery(countQuery)) {
+            if (!results.hasNext())
+                return 0;
+            RDFConstant count = results.next().getValues().get(0);
+            return (count instanceof RDFLiteralConstant)
+                    ? Integer.parseInt(((RDFLiteralConstant) count).getValue())
+                    : 0;
+        } catch (OntopConnectionException | OntopResultConversionException | NumberFormatException e) {
+            throw new OntopQueryEvaluationException(e);
+        }
+    }
+
+    private int getUnionTupleCount(ImmutableList<NativeNode> nativeBranches) throws OntopQueryEvaluationException {
+        int count = 0;
+        for (NativeNode nativeNode : nativeBranches) {
+            if (isCanceled())
+                throw new OntopQueryEvaluationException("Action canceled.");
+            String newsql = "SELECT count(*) FROM (" + nativeNode.getNativeQueryString() + ") t1";
+            try (ResultSet set = executeSQLQuery(newsql, nativeNode.getParameters())) {
+                if (set.next())
+                    count += set.getInt(1);
+            } catch (SQLException e) {
+                throw new OntopQueryEvaluationException(e);
+            }
+        }
+        return count;
+    }
+
     @Override
     public void close() throws OntopConnectionException {
+        endExecution();
         try {
+            for (Statement branchStatement : branchStatements)
+                branchStatement.close();
+            branchStatements.clear();
+            for (Connection branchConnection : branchConnections)
+                branchConnection.close();
+            branchConnections.clear();
+            PreparedStatement lastPreparedStatement = preparedStatement;
+            if ((borrowedStatement == null) && (lastPreparedStatement != null))
+                lastPreparedStatement.close();
+            releasePreparedStatement();
             if (sqlStatement != null)
                 sqlStatement.close();
         } catch (SQLException e) {
@@ -152,8 +259,38 @@ public class SQLQuestStatement extends QuestStatement {
         }
     }
 
+    /**
+     * Same JDBC connection, same settings (fetch size, max rows, timeout)
+     */
+    @Override
+    protected SQLQuestStatement createSubStatement() throws OntopConnectionException {
+        try {
+            Statement subSqlStatement = sqlStatement.getConnection().createStatement();
+            try {
+                subSqlStatement.setFetchSize(sqlStatement.getFetchSize());
+                subSqlStatement.setMaxRows(sqlStatement.getMaxRows());
+                subSqlStatement.setQueryTimeout(sqlStatement.getQueryTimeout());
+            } catch (SQLException e) {
+                subSqlStatement.close();
+                throw e;
+            }
+            return new SQLQuestStatement(queryProcessor, subSqlStatement, preparedStatementCache, inputQueryFactory,
+                    termFactory, rdfFactory, substitutionFactory, settings, asyncExecutor, getQueryExecutor(),
+                    poolConnectionSupplier, resultCache);
+        } catch (SQLException e) {
+            throw new OntopConnectionException(e);
+        }
+    }
+
     protected void cancelExecution() throws OntopQueryEvaluationException {
         try {
+            PreparedStatement lastPreparedStatement = preparedStatement;
+            if (lastPreparedStatement != null)
+                lastPreparedStatement.cancel();
+            for (Statement branchStatement : branchStatements) {
+                if (!branchStatement.isClosed())
+                    branchStatement.cancel();
+            }
             sqlStatement.cancel();
         } catch (SQLException e) {
             throw new OntopQueryEvaluationException(e);
@@ -163,11 +300,14 @@ public class SQLQuestStatement extends QuestStatement {
     @Override
     protected BooleanResultSet executeBooleanQuery(IQ executableQuery)
             throws OntopQueryEvaluationException {
+        Optional<ImmutableList<NativeNode>> nativeBranches = extractNativeBranches(executableQuery);
+        if (nativeBranches.isPresent())
+            return new PredefinedBooleanResultSet(askUnionQuery(nativeBranches.get()));
         try {
             String sqlQuery = extractSQLQuery(executableQuery);
             try {
-                java.sql.ResultSet set = sqlStatement.executeQuery(sqlQuery);
-                return new SQLBooleanResultSet(set);
+                java.sql.ResultSet set = executeSQLQuery(sqlQuery, extractNativeNode(executableQuery).getParameters());
+                return new SQLBooleanResultSet(set, borrowedStatement);
             } catch (SQLException e) {
                 throw new OntopQueryEvaluationException(e.getMessage());
             }
@@ -179,46 +319,314 @@ public class SQLQuestStatement extends QuestStatement {
     @Override
     protected TupleResultSet executeSelectQuery(IQ executableQuery)
             throws OntopQueryEvaluationException {
+        Optional<ImmutableList<NativeNode>> nativeBranches = extractNativeBranches(executableQuery);
+        if (nativeBranches.isPresent())
+            return executeUnionQuery(executableQuery, nativeBranches.get(), settings.isDistinctPostProcessingEnabled());
         try {
-            String sqlQuery = extractSQLQuery(executableQuery);
-            ConstructionNode constructionNode = extractRootConstructionNode(executableQuery);
-            NativeNode nativeNode = extractNativeNode(executableQuery);
-            ImmutableSortedSet<Variable> signature = nativeNode.getVariables();
-            ImmutableMap<Variable, DBTermType> typeMap = nativeNode.getTypeMap();
-            try {
-                java.sql.ResultSet set = sqlStatement.executeQuery(sqlQuery);
-                return settings.isDistinctPostProcessingEnabled()
-                        ? new DistinctJDBCTupleResultSet(set, signature, typeMap, constructionNode, executableQuery.getProjectionAtom(), termFactory, substitutionFactory)
-                        : new JDBCTupleResultSet(set, signature, typeMap, constructionNode, executableQuery.getProjectionAtom(), termFactory, substitutionFactory);
-            } catch (SQLException e) {
-                throw new OntopQueryEvaluationException(e);
-            }
+            return executeNativeQuery(executableQuery, settings.isDistinctPostProcessingEnabled());
+        } catch (SQLException e) {
+            throw new OntopQueryEvaluationException(e);
         } catch (EmptyQueryException e) {
             return new EmptyTupleResultSet(executableQuery.getProjectionAtom().getArguments());
         }
     }
 
     @Override
-    protected SimpleGraphResultSet executeGraphQuery(ConstructQuery inputQuery, IQ executableQuery, boolean collectResults)
+    protected SimpleGraphResultSet executeGraphQuery(ConstructQuery inputQuery, IQ executableQuery)
             throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
         TupleResultSet tuples;
-        try {
-            String sqlQuery = extractSQLQuery(executableQuery);
-            ConstructionNode constructionNode = extractRootConstructionNode(executableQuery);
-            NativeNode nativeNode = extractNativeNode(executableQuery);
-            ImmutableSortedSet<Variable> SQLSignature = nativeNode.getVariables();
-            ImmutableMap<Variable, DBTermType> SQLTypeMap = nativeNode.getTypeMap();
+        Optional<ImmutableList<NativeNode>> nativeBranches = extractNativeBranches(executableQuery);
+        if (nativeBranches.isPresent())
+            tuples = executeUnionQuery(executableQuery, nativeBranches.get(), false);
+        else {
             try {
-                ResultSet rs = sqlStatement.executeQuery(sqlQuery);
-                tuples = new JDBCTupleResultSet(rs, SQLSignature, SQLTypeMap, constructionNode,
-                        executableQuery.getProjectionAtom(), termFactory, substitutionFactory);
+                tuples = executeNativeQuery(executableQuery, false);
             } catch (SQLException e) {
                 throw new OntopQueryEvaluationException(e.getMessage());
+            } catch (EmptyQueryException e) {
+                tuples = new EmptyTupleResultSet(executableQuery.getProjectionAtom().getArguments());
+            }
+        }
+        return new DefaultSimpleGraphResultSet(tuples, inputQuery.getConstructTemplate(), termFactory, rdfFactory);
+    }
+
+    /**
+     * When enabled, the rows are taken from the result cache, or recorded for it.
+     */
+    private TupleResultSet executeNativeQuery(IQ executableQuery, boolean removeDuplicates)
+            throws SQLException, EmptyQueryException {
+        String sqlQuery = extractSQLQuery(executableQuery);
+        NativeNode nativeNode = extractNativeNode(executableQuery);
+        RowDecoder rowDecoder = getRowDecoder(executableQuery);
+        DistinctVariableOnlyDataAtom answerAtom = executableQuery.getProjectionAtom();
+
+        SQLResultCache.Recorder recorder = null;
+        if (resultCache.isEnabled()) {
+            int maxRows = sqlStatement.getMaxRows();
+            Optional<ImmutableList<String[]>> cachedRows = resultCache.get(nativeNode, maxRows);
+            if (cachedRows.isPresent())
+                return new CachedTupleResultSet(cachedRows.get(), answerAtom, rowDecoder);
+            recorder = resultCache.createRecorder(nativeNode, maxRows);
+        }
+
+        ResultSet set = executeSQLQuery(sqlQuery, nativeNode.getParameters());
+        // Released when the result set is closed
+        return removeDuplicates
+                ? new DistinctJDBCTupleResultSet(set, answerAtom, rowDecoder, recorder, borrowedStatement)
+                : new JDBCTupleResultSet(set, answerAtom, rowDecoder, recorder, borrowedStatement);
+    }
+
+    /**
+     * The branches are executed concurrently, each on its own connection, and their results are concatenated
+     * (see UnionTupleResultSet).
+     */
+    private TupleResultSet executeUnionQuery(IQ executableQuery, ImmutableList<NativeNode> nativeBranches,
+                                             boolean removeDuplicates) throws OntopQueryEvaluationException {
+        DistinctVariableOnlyDataAtom answerAtom = executableQuery.getProjectionAtom();
+        try {
+            ConstructionNode constructionNode = extractRootConstructionNode(executableQuery);
+            forgetClosedBranchStatements();
+
+            ImmutableList.Builder<UnionTupleResultSet.BranchExecution> executionBuilder = ImmutableList.builder();
+            for (NativeNode nativeNode : nativeBranches) {
+                if (nativeNode.getNativeQueryString().isEmpty())
+                    continue;
+                RowDecoder rowDecoder = createRowDecoder(constructionNode, nativeNode, answerAtom);
+                executionBuilder.add(new UnionTupleResultSet.BranchExecution() {
+                    @Override
+                    public Optional<TupleResultSet> executeOnOwnConnection() throws SQLException {
+                        return executeBranchOnPoolConnection(nativeNode, rowDecoder, answerAtom);
+                    }
+
+                    @Override
+                    public TupleResultSet executeOnStatementConnection() throws SQLException {
+                        return new JDBCTupleResultSet(executeBranch(sqlStatement.getConnection(), nativeNode),
+                                answerAtom, rowDecoder);
+                    }
+                });
             }
+            return new UnionTupleResultSet(answerAtom.getArguments(), executionBuilder.build(), asyncExecutor,
+                    settings.getUnionSplitParallelism(), removeDuplicates, settings.getUnionSplitMaxDistinctResults(),
+                    sqlStatement.getMaxRows());
+        } catch (SQLException e) {
+            throw new OntopQueryEvaluationException(e);
         } catch (EmptyQueryException e) {
-            tuples = new EmptyTupleResultSet(executableQuery.getProjectionAtom().getArguments());
+            return new EmptyTupleResultSet(answerAtom.getArguments());
         }
-        return new DefaultSimpleGraphResultSet(tuples, inputQuery.getConstructTemplate(), collectResults, termFactory, rdfFactory);
+    }
+
+    /**
+     * The branches are probed one after the other (at most one row each), until one of them has a result
+     */
+    private boolean askUnionQuery(ImmutableList<NativeNode> nativeBranches) throws OntopQueryEvaluationException {
+        forgetClosedBranchStatements();
+        for (NativeNode nativeNode : nativeBranches) {
+            if (nativeNode.getNativeQueryString().isEmpty())
+                continue;
+            if (isCanceled())
+                throw new OntopQueryEvaluationException("Action canceled.");
+            try (ResultSet resultSet = executeBranch(sqlStatement.getConnection(), nativeNode, 1)) {
+                if (resultSet.next())
+                    return true;
+            } catch (SQLException e) {
+                throw new OntopQueryEvaluationException(e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run by the async executor. The connection is released when the result set is closed.
+     *
+     * Empty if the pool has no connection available (the branch is then executed on the connection of the statement).
+     */
+    private Optional<TupleResultSet> executeBranchOnPoolConnection(NativeNode nativeNode, RowDecoder rowDecoder,
+                                                                   DistinctVariableOnlyDataAtom answerAtom)
+            throws SQLException {
+        Connection connection;
+        try {
+            connection = poolConnectionSupplier.get();
+        } catch (OntopConnectionException e) {
+            return Optional.empty();
+        }
+        branchConnections.add(connection);
+        try {
+            ResultSet resultSet = executeBranch(connection, nativeNode);
+            return Optional.of(new JDBCTupleResultSet(resultSet, answerAtom, rowDecoder) {
+                @Override
+                public void close() throws OntopConnectionException {
+                    try {
+                        super.close();
+                    } finally {
+                        try {
+                            releaseBranchConnection(connection);
+                        } catch (SQLException e) {
+                            throw new OntopConnectionException(e);
+                        }
+                    }
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            releaseBranchConnection(connection);
+            throw e;
+        }
+    }
+
+    private void releaseBranchConnection(Connection connection) throws SQLException {
+        if (branchConnections.remove(connection))
+            connection.close();
+    }
+
+    private ResultSet executeBranch(Connection connection, NativeNode nativeNode) throws SQLException {
+        return executeBranch(connection, nativeNode, sqlStatement.getMaxRows());
+    }
+
+    private ResultSet executeBranch(Connection connection, NativeNode nativeNode, int maxRows) throws SQLException {
+        PreparedStatement branchStatement = connection.prepareStatement(nativeNode.getNativeQueryString());
+        branchStatements.add(branchStatement);
+        try {
+            branchStatement.setFetchSize(sqlStatement.getFetchSize());
+            branchStatement.setQueryTimeout(sqlStatement.getQueryTimeout());
+            initPreparedStatement(branchStatement, nativeNode.getParameters());
+            branchStatement.setMaxRows(maxRows);
+            ResultSet resultSet = branchStatement.executeQuery();
+            branchStatement.closeOnCompletion();
+            return resultSet;
+        } catch (SQLException e) {
+            branchStatement.close();
+            throw e;
+        }
+    }
+
+    private void forgetClosedBranchStatements() {
+        branchStatements.removeIf(s -> {
+            try {
+                return s.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Parameterized queries (see NativeNode.getParameters()) are executed as prepared statements.
+     *
+     * When enabled, the prepared statements are borrowed from the cache of the connection,
+     * so that the DB does not have to plan the same query again.
+     * Like for a plain JDBC statement, the result set of the previous query is closed by the next execution.
+     */
+    private ResultSet executeSQLQuery(String sqlQuery, ImmutableList<DBConstant> parameters) throws SQLException {
+        releasePreparedStatement();
+        if (parameters.isEmpty() && (preparedStatementCache == null))
+            return sqlStatement.executeQuery(sqlQuery);
+
+        if (preparedStatementCache == null) {
+            PreparedStatement newPreparedStatement = sqlStatement.getConnection().prepareStatement(sqlQuery);
+            try {
+                initPreparedStatement(newPreparedStatement, parameters);
+                preparedStatement = newPreparedStatement;
+                ResultSet resultSet = newPreparedStatement.executeQuery();
+                newPreparedStatement.closeOnCompletion();
+                return resultSet;
+            } catch (SQLException e) {
+                newPreparedStatement.close();
+                throw e;
+            }
+        }
+
+        PreparedStatementCache.BorrowedStatement newBorrowedStatement = preparedStatementCache.borrow(sqlQuery);
+        try {
+            initPreparedStatement(newBorrowedStatement.getStatement(), parameters);
+            borrowedStatement = newBorrowedStatement;
+            preparedStatement = newBorrowedStatement.getStatement();
+            return newBorrowedStatement.executeQuery();
+        } catch (SQLException e) {
+            newBorrowedStatement.getStatement().close();
+            throw e;
+        }
+    }
+
+    private void initPreparedStatement(PreparedStatement statement, ImmutableList<DBConstant> parameters)
+            throws SQLException {
+        statement.setFetchSize(sqlStatement.getFetchSize());
+        statement.setMaxRows(sqlStatement.getMaxRows());
+        statement.setQueryTimeout(sqlStatement.getQueryTimeout());
+        for (int i = 0; i < parameters.size(); i++) {
+            setParameter(statement, i + 1, parameters.get(i));
+        }
+    }
+
+    /**
+     * Integers are passed as numbers (the DB may not compare an integer column with a string parameter),
+     * the other values as strings.
+     */
+    private static void setParameter(PreparedStatement statement, int index, DBConstant parameter)
+            throws SQLException {
+        if (parameter.getType().getCategory() != DBTermType.Category.INTEGER) {
+            statement.setString(index, parameter.getValue());
+            return;
+        }
+        BigInteger value = new BigInteger(parameter.getValue());
+        if (value.bitLength() < Long.SIZE)
+            statement.setLong(index, value.longValue());
+        else
+            statement.setBigDecimal(index, new BigDecimal(value));
+    }
+
+    /**
+     * Gives back the prepared statement of the previous query to the cache, if not already done
+     * when closing its result set.
+     */
+    private void releasePreparedStatement() throws SQLException {
+        preparedStatement = null;
+        PreparedStatementCache.BorrowedStatement lastBorrowedStatement = borrowedStatement;
+        borrowedStatement = null;
+        if (lastBorrowedStatement != null)
+            lastBorrowedStatement.release();
+    }
+
+    /**
+     * Compiled once per executable query, then cached alongside it
+     */
+    private RowDecoder getRowDecoder(IQ executableQuery) throws EmptyQueryException {
+        RowDecoder cachedDecoder = queryCache.getRowDecoder(executableQuery);
+        if (cachedDecoder != null)
+            return cachedDecoder;
+
+        RowDecoder rowDecoder = createRowDecoder(extractRootConstructionNode(executableQuery),
+                extractNativeNode(executableQuery), executableQuery.getProjectionAtom());
+        queryCache.putRowDecoder(executableQuery, rowDecoder);
+        return rowDecoder;
+    }
+
+    /**
+     * Not cached for the branches of a split union (they share the root node of the executable query)
+     */
+    private RowDecoder createRowDecoder(ConstructionNode constructionNode, NativeNode nativeNode,
+                                        DistinctVariableOnlyDataAtom answerAtom) {
+        ImmutableSortedSet<Variable> sqlSignature = nativeNode.getVariables();
+        ImmutableMap<Variable, DBTermType> sqlTypeMap = nativeNode.getTypeMap();
+
+        return new CompiledRowDecoder(constructionNode, ImmutableList.copyOf(sqlSignature), sqlTypeMap,
+                answerAtom.getArguments(), termFactory);
+    }
+
+    /**
+     * Executable query made of several native queries, one per branch of a union
+     * (see the union splitting of the native query generator)
+     */
+    private Optional<ImmutableList<NativeNode>> extractNativeBranches(IQ executableQuery) {
+        IQTree tree = executableQuery.getTree();
+        if (!(tree instanceof UnaryIQTree))
+            return Optional.empty();
+        IQTree child = ((UnaryIQTree) tree).getChild();
+        if (!(child.getRootNode() instanceof UnionNode)
+                || !child.getChildren().stream().allMatch(c -> c instanceof NativeNode))
+            return Optional.empty();
+
+        return Optional.of(child.getChildren().stream()
+                .map(c -> (NativeNode) c)
+                .collect(ImmutableCollectors.toList()));
     }
 
     private NativeNode extractNativeNode(IQ executableQuery) throws EmptyQueryException {
@@ -0,0 +1,63 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.model.atom.DistinctVariableOnlyDataAtom;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Replays native rows taken from the SQLResultCache
+ */
+public class CachedTupleResultSet implements TupleResultSet {
+
+    private final ImmutableList<String> signature;
+    private final ImmutableList<String[]> nativeRows;
+    private final RowDecoder rowDecoder;
+    private int rowIndex = 0;
+
+    public CachedTupleResultSet(ImmutableList<String[]> nativeRows, DistinctVariableOnlyDataAtom answerAtom,
+                                RowDecoder rowDecoder) {
+        this.signature = answerAtom.getArguments().stream()
+                .map(Variable::getName)
+                .collect(ImmutableCollectors.toList());
+        this.nativeRows = nativeRows;
+        this.rowDecoder = rowDecoder;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return signature.size();
+    }
+
+    @Override
+    public List<String> getSignature() {
+        return signature;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return nativeRows.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rowIndex < nativeRows.size();
+    }
+
+    @Override
+    public OntopBindingSet next() {
+        if (!hasNext())
+            throw new NoSuchElementException("No next OntopBindingSet in this TupleResultSet");
+        return rowDecoder.decode(nativeRows.get(rowIndex++));
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -20,17 +20,14 @@ package it.unibz.inf.ontop.answering.resultset.impl;
  * #L%
  */
 
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSortedSet;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
+import it.unibz.inf.ontop.answering.connection.impl.PreparedStatementCache;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
-import it.unibz.inf.ontop.iq.node.ConstructionNode;
 import it.unibz.inf.ontop.model.atom.DistinctVariableOnlyDataAtom;
-import it.unibz.inf.ontop.model.term.TermFactory;
-import it.unibz.inf.ontop.model.term.Variable;
-import it.unibz.inf.ontop.model.type.DBTermType;
-import it.unibz.inf.ontop.substitution.SubstitutionFactory;
 
+import javax.annotation.Nullable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
@@ -44,12 +41,23 @@ public class DistinctJDBCTupleResultSet extends JDBCTupleResultSet implements Tu
 
     private Set<List<Object>> rowKeys;
 
-    public DistinctJDBCTupleResultSet(ResultSet rs, ImmutableSortedSet<Variable> sqlSignature, ImmutableMap<Variable, DBTermType> sqlTypes,
-                                      ConstructionNode constructionNode,
-                                      DistinctVariableOnlyDataAtom answerAtom, TermFactory termFactory,
-                                      SubstitutionFactory substitutionFactory) {
+    public DistinctJDBCTupleResultSet(ResultSet rs, DistinctVariableOnlyDataAtom answerAtom, RowDecoder rowDecoder) {
+        this(rs, answerAtom, rowDecoder, null);
+    }
+
+    /**
+     * Only the fresh rows are recorded
+     */
+    public DistinctJDBCTupleResultSet(ResultSet rs, DistinctVariableOnlyDataAtom answerAtom, RowDecoder rowDecoder,
+                                      @Nullable SQLResultCache.Recorder recorder) {
+        this(rs, answerAtom, rowDecoder, recorder, null);
+    }
+
+    public DistinctJDBCTupleResultSet(ResultSet rs, DistinctVariableOnlyDataAtom answerAtom, RowDecoder rowDecoder,
+                                      @Nullable SQLResultCache.Recorder recorder,
+                                      @Nullable PreparedStatementCache.BorrowedStatement borrowedStatement) {
 
-        super(rs, sqlSignature, sqlTypes, constructionNode, answerAtom, termFactory, substitutionFactory);
+        super(rs, answerAtom, rowDecoder, recorder, borrowedStatement);
         rowKeys = new HashSet<>();
     }
 
@@ -1,73 +1,91 @@
 package it.unibz.inf.ontop.answering.resultset.impl;
 
-import com.google.common.collect.*;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
+import it.unibz.inf.ontop.answering.connection.impl.PreparedStatementCache;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.RowDecoder;
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
-import it.unibz.inf.ontop.iq.node.ConstructionNode;
 import it.unibz.inf.ontop.model.atom.DistinctVariableOnlyDataAtom;
-import it.unibz.inf.ontop.model.term.*;
-import it.unibz.inf.ontop.model.type.DBTermType;
-import it.unibz.inf.ontop.substitution.ImmutableSubstitution;
-import it.unibz.inf.ontop.substitution.SubstitutionFactory;
 
 import javax.annotation.Nullable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Iterator;
 
 public class JDBCTupleResultSet extends AbstractTupleResultSet implements TupleResultSet {
 
-    private final ImmutableSortedSet<Variable> sqlSignature;
-    private final ImmutableMap<Variable, DBTermType> sqlTypeMap;
-    private final ImmutableSubstitution<ImmutableTerm> sparqlVar2Term;
-    private final SubstitutionFactory substitutionFactory;
-    private final TermFactory termFactory;
+    private final RowDecoder rowDecoder;
+    // Null if the rows are not cached
+    @Nullable
+    private SQLResultCache.Recorder recorder;
+    // Null if the statement does not come from a PreparedStatementCache
+    @Nullable
+    private final PreparedStatementCache.BorrowedStatement borrowedStatement;
 
     public JDBCTupleResultSet(ResultSet rs,
-                              ImmutableSortedSet<Variable> sqlSignature,
-                              ImmutableMap<Variable, DBTermType> sqlTypeMap,
-                              ConstructionNode constructionNode,
                               DistinctVariableOnlyDataAtom answerAtom,
-                              TermFactory termFactory,
-                              SubstitutionFactory substitutionFactory) {
+                              RowDecoder rowDecoder) {
+        this(rs, answerAtom, rowDecoder, null);
+    }
+
+    public JDBCTupleResultSet(ResultSet rs,
+                              DistinctVariableOnlyDataAtom answerAtom,
+                              RowDecoder rowDecoder,
+                              @Nullable SQLResultCache.Recorder recorder) {
+        this(rs, answerAtom, rowDecoder, recorder, null);
+    }
+
+    /**
+     * The borrowed statement is given back to its cache when the result set is closed
+     */
+    public JDBCTupleResultSet(ResultSet rs,
+                              DistinctVariableOnlyDataAtom answerAtom,
+                              RowDecoder rowDecoder,
+                              @Nullable SQLResultCache.Recorder recorder,
+                              @Nullable PreparedStatementCache.BorrowedStatement borrowedStatement) {
         super(rs, answerAtom.getArguments());
-        this.sqlSignature = sqlSignature;
-        this.sqlTypeMap = sqlTypeMap;
-        this.substitutionFactory = substitutionFactory;
-        this.termFactory = termFactory;
-        this.sparqlVar2Term = constructionNode.getSubstitution();
+        this.rowDecoder = rowDecoder;
+        this.recorder = recorder;
+        this.borrowedStatement = borrowedStatement;
     }
 
+    @Override
+    public boolean hasNext() throws OntopConnectionException {
+        boolean hasNext = super.hasNext();
+        if (!hasNext && recorder != null) {
+            recorder.complete();
+            recorder = null;
+        }
+        return hasNext;
+    }
 
     @Override
-    protected SQLOntopBindingSet readCurrentRow() throws OntopConnectionException {
+    public void close() throws OntopConnectionException {
+        try {
+            super.close();
+        } finally {
+            if (borrowedStatement != null) {
+                try {
+                    borrowedStatement.release();
+                } catch (SQLException e) {
+                    throw new OntopConnectionException(e);
+                }
+            }
+        }
+    }
 
-        //builder (+loop) in order to throw checked exception
-        final ImmutableMap.Builder<Variable, Constant> builder = ImmutableMap.builder();
-        Iterator<Variable> it = sqlSignature.iterator();
+    @Override
+    protected OntopBindingSet readCurrentRow() throws OntopConnectionException {
+        String[] nativeRow = new String[rowDecoder.getNativeColumnCount()];
         try {
-            for (int i = 1; i <= sqlSignature.size(); i++) {
-                Variable var = it.next();
-                builder.put(
-                        var,
-                        convertToConstant(
-                            rs.getString(i),
-                            sqlTypeMap.get(var)
-                        ));
+            for (int i = 0; i < nativeRow.length; i++) {
+                nativeRow[i] = rs.getString(i + 1);
             }
         } catch (SQLException e) {
             throw new OntopConnectionException(e);
         }
-        return new SQLOntopBindingSet(
-                signature,
-                substitutionFactory.getSubstitution(builder.build()),
-                sparqlVar2Term
-        );
-    }
-
-    private Constant convertToConstant(@Nullable String jdbcValue, DBTermType termType) {
-        if (jdbcValue == null)
-            return termFactory.getNullConstant();
-        return termFactory.getDBConstant(jdbcValue, termType);
+        if (recorder != null)
+            recorder.add(nativeRow);
+        return rowDecoder.decode(nativeRow);
     }
 }
@@ -20,9 +20,11 @@ package it.unibz.inf.ontop.answering.resultset.impl;
  * #L%
  */
 
+import it.unibz.inf.ontop.answering.connection.impl.PreparedStatementCache;
 import it.unibz.inf.ontop.answering.resultset.BooleanResultSet;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
 
+import javax.annotation.Nullable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -30,10 +32,21 @@ public class SQLBooleanResultSet implements BooleanResultSet {
 
     private final ResultSet set;
     private boolean hasRead;
+    // Null if the statement does not come from a PreparedStatementCache
+    @Nullable
+    private final PreparedStatementCache.BorrowedStatement borrowedStatement;
 
     public SQLBooleanResultSet(ResultSet set) {
+        this(set, null);
+    }
+
+    /**
+     * The borrowed statement is given back to its cache when the result set is closed
+     */
+    public SQLBooleanResultSet(ResultSet set, @Nullable PreparedStatementCache.BorrowedStatement borrowedStatement) {
         this.set = set;
         this.hasRead = false;
+        this.borrowedStatement = borrowedStatement;
     }
 
     @Override
@@ -42,6 +55,8 @@ public class SQLBooleanResultSet implements BooleanResultSet {
             return;
         try {
             set.close();
+            if (borrowedStatement != null)
+                borrowedStatement.release();
         } catch (SQLException e) {
             throw new OntopConnectionException(e);
         }
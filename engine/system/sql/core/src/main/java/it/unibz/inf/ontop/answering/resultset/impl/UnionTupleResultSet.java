@@ -0,0 +1,289 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.model.term.RDFConstant;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concatenation of the results of the branches of a union (bag semantics), each branch being a separate query.
+ *
+ * The branches are consumed in order. At most parallelism branches are open at the same time: the branches
+ * ahead of the one being consumed are submitted to the executor, which runs each of them on a connection of its
+ * own. A branch that has not been started by the executor when its results are needed is executed by the consuming
+ * thread on the connection of the statement (no dead-lock when the consumer is itself a thread of the executor,
+ * nor when no other connection is available).
+ *
+ * When distinct post-processing is enabled, the duplicates are removed across the branches, for up to
+ * maxDistinctResults answers.
+ */
+public class UnionTupleResultSet implements TupleResultSet {
+
+    /**
+     * Execution of one branch
+     */
+    public interface BranchExecution {
+
+        /**
+         * Run by the executor, on a connection of its own (released when the result set is closed).
+         * Empty if no connection is available.
+         */
+        Optional<TupleResultSet> executeOnOwnConnection() throws Exception;
+
+        /**
+         * Run by the consuming thread, on the connection of the statement
+         */
+        TupleResultSet executeOnStatementConnection() throws Exception;
+    }
+
+    private final ImmutableList<String> signature;
+    private final ImmutableList<Branch> branches;
+    private final Executor executor;
+    // Null if the duplicates are kept
+    @Nullable
+    private final Set<ImmutableMap<String, RDFConstant>> bindingSetKeys;
+    private final int maxDistinctResults;
+    // 0 for no limit
+    private final int maxRows;
+
+    private int branchIndex = 0;
+    // Number of branches submitted to the executor
+    private int submittedBranchCount = 0;
+    @Nullable
+    private TupleResultSet currentResultSet;
+    @Nullable
+    private OntopBindingSet nextBindingSet;
+    private int rowCount = 0;
+
+    public UnionTupleResultSet(ImmutableList<Variable> answerVariables,
+                               ImmutableList<BranchExecution> branchExecutions, Executor executor, int parallelism,
+                               boolean removeDuplicates, int maxDistinctResults, int maxRows) {
+        this.signature = answerVariables.stream()
+                .map(Variable::getName)
+                .collect(ImmutableCollectors.toList());
+        this.executor = executor;
+        this.bindingSetKeys = removeDuplicates ? new HashSet<>() : null;
+        this.maxDistinctResults = maxDistinctResults;
+        this.maxRows = maxRows;
+        this.branches = branchExecutions.stream()
+                .map(Branch::new)
+                .collect(ImmutableCollectors.toList());
+
+        while (submittedBranchCount < Math.min(parallelism, branches.size()))
+            submitNextBranch();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return signature.size();
+    }
+
+    @Override
+    public List<String> getSignature() {
+        return signature;
+    }
+
+    @Override
+    public int getFetchSize() throws OntopConnectionException {
+        return currentResultSet == null ? 0 : currentResultSet.getFetchSize();
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        if (nextBindingSet != null)
+            return true;
+        if (maxRows > 0 && rowCount >= maxRows)
+            return false;
+
+        while (true) {
+            if (currentResultSet == null) {
+                if (branchIndex >= branches.size())
+                    return false;
+                currentResultSet = branches.get(branchIndex).getResultSet();
+            }
+            while (currentResultSet.hasNext()) {
+                OntopBindingSet bindingSet = currentResultSet.next();
+                if (bindingSetKeys == null || isNew(bindingSet)) {
+                    nextBindingSet = bindingSet;
+                    return true;
+                }
+            }
+            // The next branch
+            branches.get(branchIndex++).close();
+            currentResultSet = null;
+            if (submittedBranchCount < branches.size())
+                submitNextBranch();
+        }
+    }
+
+    @Override
+    public OntopBindingSet next() throws OntopConnectionException, OntopResultConversionException {
+        if (!hasNext())
+            throw new NoSuchElementException("No next OntopBindingSet in this TupleResultSet");
+        OntopBindingSet bindingSet = nextBindingSet;
+        nextBindingSet = null;
+        rowCount++;
+        return bindingSet;
+    }
+
+    /**
+     * Also cancels the branches that have not been started yet
+     */
+    @Override
+    public void close() throws OntopConnectionException {
+        OntopConnectionException exception = null;
+        for (Branch branch : branches) {
+            try {
+                branch.close();
+            } catch (OntopConnectionException e) {
+                exception = e;
+            }
+        }
+        currentResultSet = null;
+        if (exception != null)
+            throw exception;
+    }
+
+    private void submitNextBranch() {
+        Branch branch = branches.get(submittedBranchCount++);
+        try {
+            executor.execute(branch);
+        } catch (RejectedExecutionException e) {
+            // Will be executed by the consuming thread
+        }
+    }
+
+    private boolean isNew(OntopBindingSet bindingSet) throws OntopResultConversionException {
+        if (!bindingSetKeys.add(computeKey(bindingSet)))
+            return false;
+        if (bindingSetKeys.size() > maxDistinctResults)
+            throw new OntopResultConversionException("More than " + maxDistinctResults + " distinct answers " +
+                    "for a union split into several queries. Increase ontop.query.unionSplitMaxDistinctResults " +
+                    "or the value of ontop.query.unionSplitThreshold");
+        return true;
+    }
+
+    private static ImmutableMap<String, RDFConstant> computeKey(OntopBindingSet bindingSet) {
+        return bindingSet.getBindings().stream()
+                .collect(ImmutableCollectors.toMap(OntopBinding::getName, OntopBinding::getValue));
+    }
+
+
+    /**
+     * Started either by the executor or by the consuming thread (whichever comes first)
+     */
+    private static class Branch implements Runnable {
+
+        private final BranchExecution execution;
+        private final AtomicBoolean isStarted = new AtomicBoolean(false);
+        // Completed by the executor
+        private final CompletableFuture<Optional<TupleResultSet>> ownConnectionResult = new CompletableFuture<>();
+
+        // Guarded by this
+        private boolean isClosed = false;
+        @Nullable
+        private TupleResultSet resultSet;
+
+        Branch(BranchExecution execution) {
+            this.execution = execution;
+        }
+
+        /**
+         * By the executor
+         */
+        @Override
+        public void run() {
+            if (!isStarted.compareAndSet(false, true))
+                return;
+            synchronized (this) {
+                if (isClosed) {
+                    ownConnectionResult.complete(Optional.empty());
+                    return;
+                }
+            }
+            try {
+                Optional<TupleResultSet> newResultSet = execution.executeOnOwnConnection();
+                newResultSet.ifPresent(this::register);
+                ownConnectionResult.complete(newResultSet);
+            } catch (Throwable e) {
+                ownConnectionResult.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * By the consuming thread
+         */
+        TupleResultSet getResultSet() throws OntopConnectionException {
+            try {
+                Optional<TupleResultSet> ownConnectionResultSet = isStarted.compareAndSet(false, true)
+                        ? Optional.empty()
+                        : ownConnectionResult.get();
+                if (ownConnectionResultSet.isPresent())
+                    return ownConnectionResultSet.get();
+
+                TupleResultSet newResultSet = execution.executeOnStatementConnection();
+                register(newResultSet);
+                return newResultSet;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OntopConnectionException(e);
+            } catch (ExecutionException e) {
+                throw convert(e.getCause());
+            } catch (Exception e) {
+                throw convert(e);
+            }
+        }
+
+        /**
+         * The result set of a branch executed after the union has been closed is closed right away
+         */
+        private void register(TupleResultSet newResultSet) {
+            boolean closeNow;
+            synchronized (this) {
+                closeNow = isClosed;
+                if (!closeNow)
+                    resultSet = newResultSet;
+            }
+            if (closeNow)
+                closeQuietly(newResultSet);
+        }
+
+        void close() throws OntopConnectionException {
+            TupleResultSet resultSetToClose;
+            synchronized (this) {
+                isClosed = true;
+                resultSetToClose = resultSet;
+                resultSet = null;
+            }
+            if (resultSetToClose != null)
+                resultSetToClose.close();
+        }
+
+        private static OntopConnectionException convert(Throwable cause) {
+            if (cause instanceof OntopConnectionException)
+                return (OntopConnectionException) cause;
+            if (cause instanceof Exception)
+                return new OntopConnectionException((Exception) cause);
+            return new OntopConnectionException(cause.getMessage());
+        }
+
+        private static void closeQuietly(TupleResultSet resultSet) {
+            try {
+                resultSet.close();
+            } catch (OntopConnectionException e) {
+                // Nobody is waiting for it
+            }
+        }
+    }
+}
@@ -16,6 +16,35 @@ public interface OntopSystemSQLSettings extends OntopSystemSettings, OntopReform
 
     int getFetchSize();
 
+    /**
+     * Maximum number of prepared statements kept open per connection (0: no prepared statement is re-used)
+     */
+    int getPreparedStatementCacheSize();
+
+    /**
+     * Approximate memory (in bytes) used by the cached results of the native queries (0: no result is cached).
+     *
+     * See SQLResultCache
+     */
+    long getResultCacheMaxBytes();
+
+    /**
+     * Time (in seconds) after which a cached result is evicted
+     */
+    int getResultCacheTTL();
+
+    /**
+     * Maximum number of branches of a split union (see getUnionSplitThreshold()) executed and kept open
+     * at the same time, each on its own connection of the pool
+     */
+    int getUnionSplitParallelism();
+
+    /**
+     * Maximum number of distinct answers of a split union when the duplicates are removed across its branches
+     * (see isDistinctPostProcessingEnabled()). Beyond, the query fails.
+     */
+    int getUnionSplitMaxDistinctResults();
+
     //--------------------------
     // Keys
     //--------------------------
@@ -31,4 +60,9 @@ public interface OntopSystemSQLSettings extends OntopSystemSettings, OntopReform
      * If <= 0, the fetch size is ignored
      */
     String FETCH_SIZE = "jdbc.fetchSize";
+    String PREPARED_STATEMENT_CACHE_SIZE = "jdbc.preparedStatementCacheSize";
+    String RESULT_CACHE_MAX_BYTES = "jdbc.resultCache.maxBytes";
+    String RESULT_CACHE_TTL = "jdbc.resultCache.ttl";
+    String UNION_SPLIT_PARALLELISM = "ontop.query.unionSplitParallelism";
+    String UNION_SPLIT_MAX_DISTINCT_RESULTS = "ontop.query.unionSplitMaxDistinctResults";
 }
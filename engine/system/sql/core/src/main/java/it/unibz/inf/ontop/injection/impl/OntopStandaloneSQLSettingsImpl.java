@@ -37,6 +37,16 @@ public class OntopStandaloneSQLSettingsImpl extends OntopMappingSQLAllSettingsIm
         return getRequiredLong(QUERY_CACHE_MAX_SIZE);
     }
 
+    @Override
+    public boolean isParameterizedQueryCacheEnabled() {
+        return getRequiredBoolean(PARAMETERIZED_QUERY_CACHE);
+    }
+
+    @Override
+    public int getUnionSplitThreshold() {
+        return getRequiredInteger(UNION_SPLIT_THRESHOLD);
+    }
+
     @Override
     public boolean isKeepAliveEnabled() {
         return systemSettings.isKeepAliveEnabled();
@@ -67,6 +77,31 @@ public class OntopStandaloneSQLSettingsImpl extends OntopMappingSQLAllSettingsIm
         return systemSettings.getFetchSize();
     }
 
+    @Override
+    public int getPreparedStatementCacheSize() {
+        return systemSettings.getPreparedStatementCacheSize();
+    }
+
+    @Override
+    public long getResultCacheMaxBytes() {
+        return systemSettings.getResultCacheMaxBytes();
+    }
+
+    @Override
+    public int getResultCacheTTL() {
+        return systemSettings.getResultCacheTTL();
+    }
+
+    @Override
+    public int getUnionSplitParallelism() {
+        return systemSettings.getUnionSplitParallelism();
+    }
+
+    @Override
+    public int getUnionSplitMaxDistinctResults() {
+        return systemSettings.getUnionSplitMaxDistinctResults();
+    }
+
     @Override
     public Optional<Integer> getDefaultQueryTimeout() {
         return getInteger(DEFAULT_QUERY_TIMEOUT);
@@ -76,4 +111,54 @@ public class OntopStandaloneSQLSettingsImpl extends OntopMappingSQLAllSettingsIm
     public boolean isPermanentDBConnectionEnabled() {
         return systemSettings.isPermanentDBConnectionEnabled();
     }
+
+    @Override
+    public int getDescribeQueueSize() {
+        return systemSettings.getDescribeQueueSize();
+    }
+
+    @Override
+    public int getDescribeDeduplicationCapacity() {
+        return systemSettings.getDescribeDeduplicationCapacity();
+    }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return systemSettings.getDescribeBatchSize();
+    }
+
+    @Override
+    public int getAsyncQueryThreadCount() {
+        return systemSettings.getAsyncQueryThreadCount();
+    }
+
+    @Override
+    public QueryExecutorKind getQueryExecutorKind() {
+        return systemSettings.getQueryExecutorKind();
+    }
+
+    @Override
+    public int getQueryExecutorThreadCount() {
+        return systemSettings.getQueryExecutorThreadCount();
+    }
+
+    @Override
+    public int getConsistencyCheckBatchSize() {
+        return systemSettings.getConsistencyCheckBatchSize();
+    }
+
+    @Override
+    public int getConsistencyCheckParallelism() {
+        return systemSettings.getConsistencyCheckParallelism();
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckBatchSize() {
+        return systemSettings.getEmptyEntitiesCheckBatchSize();
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckParallelism() {
+        return systemSettings.getEmptyEntitiesCheckParallelism();
+    }
 }
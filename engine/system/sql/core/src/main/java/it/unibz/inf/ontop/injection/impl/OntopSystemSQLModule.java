@@ -1,6 +1,7 @@
 package it.unibz.inf.ontop.injection.impl;
 
 import it.unibz.inf.ontop.answering.connection.JDBCStatementInitializer;
+import it.unibz.inf.ontop.answering.connection.SQLResultCache;
 import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
 import it.unibz.inf.ontop.answering.connection.pool.JDBCConnectionPool;
 
@@ -19,5 +20,6 @@ public class OntopSystemSQLModule extends OntopAbstractModule {
         bind(OntopSystemSQLSettings.class).toInstance(settings);
         bindFromSettings(JDBCConnectionPool.class);
         bindFromSettings(JDBCStatementInitializer.class);
+        bindFromSettings(SQLResultCache.class);
     }
 }
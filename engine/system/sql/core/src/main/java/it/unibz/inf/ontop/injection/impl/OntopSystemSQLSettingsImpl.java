@@ -20,6 +20,9 @@ public class OntopSystemSQLSettingsImpl extends OntopReformulationSQLSettingsImp
         super(loadProperties(userProperties));
         systemSettings = new OntopSystemSettingsImpl(copyProperties());
         sqlCredentialSettings = new OntopSQLCredentialSettingsImpl(copyProperties());
+        // Fails early (not at the first split union)
+        getRequiredPositiveInteger(UNION_SPLIT_PARALLELISM);
+        getRequiredPositiveInteger(UNION_SPLIT_MAX_DISTINCT_RESULTS);
     }
 
     private static Properties loadProperties(Properties userProperties) {
@@ -82,6 +85,31 @@ public class OntopSystemSQLSettingsImpl extends OntopReformulationSQLSettingsImp
         return getRequiredInteger(FETCH_SIZE);
     }
 
+    @Override
+    public int getPreparedStatementCacheSize() {
+        return getRequiredInteger(PREPARED_STATEMENT_CACHE_SIZE);
+    }
+
+    @Override
+    public long getResultCacheMaxBytes() {
+        return getRequiredLong(RESULT_CACHE_MAX_BYTES);
+    }
+
+    @Override
+    public int getResultCacheTTL() {
+        return getRequiredInteger(RESULT_CACHE_TTL);
+    }
+
+    @Override
+    public int getUnionSplitParallelism() {
+        return getRequiredPositiveInteger(UNION_SPLIT_PARALLELISM);
+    }
+
+    @Override
+    public int getUnionSplitMaxDistinctResults() {
+        return getRequiredPositiveInteger(UNION_SPLIT_MAX_DISTINCT_RESULTS);
+    }
+
     @Override
     public Optional<Integer> getDefaultQueryTimeout() {
         return getInteger(DEFAULT_QUERY_TIMEOUT);
@@ -92,6 +120,56 @@ public class OntopSystemSQLSettingsImpl extends OntopReformulationSQLSettingsImp
         return systemSettings.isPermanentDBConnectionEnabled();
     }
 
+    @Override
+    public int getDescribeQueueSize() {
+        return systemSettings.getDescribeQueueSize();
+    }
+
+    @Override
+    public int getDescribeDeduplicationCapacity() {
+        return systemSettings.getDescribeDeduplicationCapacity();
+    }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return systemSettings.getDescribeBatchSize();
+    }
+
+    @Override
+    public int getAsyncQueryThreadCount() {
+        return systemSettings.getAsyncQueryThreadCount();
+    }
+
+    @Override
+    public QueryExecutorKind getQueryExecutorKind() {
+        return systemSettings.getQueryExecutorKind();
+    }
+
+    @Override
+    public int getQueryExecutorThreadCount() {
+        return systemSettings.getQueryExecutorThreadCount();
+    }
+
+    @Override
+    public int getConsistencyCheckBatchSize() {
+        return systemSettings.getConsistencyCheckBatchSize();
+    }
+
+    @Override
+    public int getConsistencyCheckParallelism() {
+        return systemSettings.getConsistencyCheckParallelism();
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckBatchSize() {
+        return systemSettings.getEmptyEntitiesCheckBatchSize();
+    }
+
+    @Override
+    public int getEmptyEntitiesCheckParallelism() {
+        return systemSettings.getEmptyEntitiesCheckParallelism();
+    }
+
     @Override
     public String getJdbcUser() {
         return sqlCredentialSettings.getJdbcUser();
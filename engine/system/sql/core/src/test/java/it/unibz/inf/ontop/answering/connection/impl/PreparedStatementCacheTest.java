@@ -0,0 +1,70 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class PreparedStatementCacheTest {
+
+    private Connection connection;
+    private PreparedStatementCache cache;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:prepared-statement-cache", "sa", "");
+        cache = new PreparedStatementCache(connection, 1);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        cache.close();
+        connection.close();
+    }
+
+    @Test
+    public void testCounts() throws SQLException {
+        execute("SELECT 1");
+        execute("SELECT 1");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+
+        // Evicts the first one
+        execute("SELECT 2");
+        execute("SELECT 1");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    /**
+     * The result set is the one of the driver (no wrapper)
+     */
+    @Test
+    public void testDriverResultSet() throws SQLException {
+        PreparedStatementCache.BorrowedStatement statement = cache.borrow("SELECT 1");
+        try (ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.isWrapperFor(org.h2.jdbc.JdbcResultSet.class));
+            assertSame(statement.getStatement(), resultSet.getStatement());
+        }
+        statement.release();
+        // Released only once
+        statement.release();
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    private void execute(String sqlQuery) throws SQLException {
+        PreparedStatementCache.BorrowedStatement statement = cache.borrow(sqlQuery);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.next());
+        }
+        statement.release();
+    }
+}
@@ -0,0 +1,197 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.term.Variable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UnionTupleResultSetTest {
+
+    private static final TermFactory TERM_FACTORY = OntopModelConfiguration.defaultBuilder()
+            .enableTestMode()
+            .build()
+            .getTermFactory();
+    private static final Variable X = TERM_FACTORY.getVariable("x");
+
+    private ExecutorService executor;
+    // Result sets of the branches open at the same time
+    private final AtomicInteger openCount = new AtomicInteger(0);
+    private final AtomicInteger maxOpenCount = new AtomicInteger(0);
+    private final AtomicInteger ownConnectionCount = new AtomicInteger(0);
+    private final AtomicInteger statementConnectionCount = new AtomicInteger(0);
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBoundedParallelism() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(true, "a", "b"), branch(true, "c"), branch(true), branch(true, "d", "e"),
+                branch(true, "f"), branch(true, "g"));
+
+        try (TupleResultSet resultSet = new UnionTupleResultSet(ImmutableList.of(X), branches, executor, 2,
+                false, 100, 0)) {
+            assertEquals(ImmutableList.of("a", "b", "c", "d", "e", "f", "g"), consume(resultSet));
+        }
+        assertTrue(maxOpenCount.get() <= 2);
+        assertEquals(0, openCount.get());
+        assertEquals(branches.size(), ownConnectionCount.get() + statementConnectionCount.get());
+    }
+
+    /**
+     * When the pool has no connection available, the branches are run by the consuming thread
+     */
+    @Test
+    public void testNoConnectionAvailable() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(false, "a"), branch(false, "b"), branch(false, "c"));
+
+        try (TupleResultSet resultSet = new UnionTupleResultSet(ImmutableList.of(X), branches, executor, 2,
+                false, 100, 0)) {
+            assertEquals(ImmutableList.of("a", "b", "c"), consume(resultSet));
+        }
+        assertEquals(0, ownConnectionCount.get());
+        assertEquals(3, statementConnectionCount.get());
+        assertEquals(1, maxOpenCount.get());
+    }
+
+    @Test
+    public void testRejectingExecutor() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(true, "a"), branch(true, "b"));
+
+        try (TupleResultSet resultSet = new UnionTupleResultSet(ImmutableList.of(X), branches,
+                c -> { throw new RejectedExecutionException(); }, 2, false, 100, 0)) {
+            assertEquals(ImmutableList.of("a", "b"), consume(resultSet));
+        }
+        assertEquals(0, ownConnectionCount.get());
+        assertEquals(2, statementConnectionCount.get());
+    }
+
+    @Test
+    public void testDuplicatesRemoved() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(true, "a", "b"), branch(true, "b", "c", "a"));
+
+        try (TupleResultSet resultSet = new UnionTupleResultSet(ImmutableList.of(X), branches, executor, 2,
+                true, 3, 0)) {
+            assertEquals(ImmutableList.of("a", "b", "c"), consume(resultSet));
+        }
+    }
+
+    @Test(expected = OntopResultConversionException.class)
+    public void testTooManyDistinctResults() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(true, "a", "b"), branch(true, "c"));
+
+        try (TupleResultSet resultSet = new UnionTupleResultSet(ImmutableList.of(X), branches, executor, 2,
+                true, 2, 0)) {
+            consume(resultSet);
+        }
+    }
+
+    @Test
+    public void testClosedBeforeConsumption() throws Exception {
+        ImmutableList<UnionTupleResultSet.BranchExecution> branches = ImmutableList.of(
+                branch(true, "a"), branch(true, "b"), branch(true, "c"));
+
+        new UnionTupleResultSet(ImmutableList.of(X), branches, executor, 3, false, 100, 0).close();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(0, openCount.get());
+    }
+
+    private static ImmutableList<String> consume(TupleResultSet resultSet) throws Exception {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        while (resultSet.hasNext())
+            builder.add(resultSet.next().getConstant(X.getName()).getValue());
+        return builder.build();
+    }
+
+    private UnionTupleResultSet.BranchExecution branch(boolean isConnectionAvailable, String... values) {
+        return new UnionTupleResultSet.BranchExecution() {
+            @Override
+            public Optional<TupleResultSet> executeOnOwnConnection() {
+                if (!isConnectionAvailable)
+                    return Optional.empty();
+                ownConnectionCount.incrementAndGet();
+                return Optional.of(new ListTupleResultSet(values));
+            }
+
+            @Override
+            public TupleResultSet executeOnStatementConnection() {
+                statementConnectionCount.incrementAndGet();
+                return new ListTupleResultSet(values);
+            }
+        };
+    }
+
+    private class ListTupleResultSet implements TupleResultSet {
+        private final Iterator<String> iterator;
+        private boolean isClosed = false;
+
+        ListTupleResultSet(String... values) {
+            this.iterator = Arrays.asList(values).iterator();
+            maxOpenCount.accumulateAndGet(openCount.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public List<String> getSignature() {
+            return ImmutableList.of(X.getName());
+        }
+
+        @Override
+        public int getFetchSize() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public OntopBindingSet next() {
+            LinkedHashMap<String, OntopBinding> bindingMap = new LinkedHashMap<>();
+            bindingMap.put(X.getName(), new OntopBindingImpl(X, TERM_FACTORY.getRDFLiteralConstant(iterator.next(),
+                    TERM_FACTORY.getTypeFactory().getXsdStringDatatype())));
+            return new OntopBindingSetImpl(bindingMap);
+        }
+
+        @Override
+        public void close() {
+            if (!isClosed) {
+                isClosed = true;
+                openCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -143,6 +143,17 @@ public class OntopMaterializerTest {
 
 	@Test
 	public void testOneSource() throws Exception {
+		testOneSource(MaterializationParams.defaultBuilder().build());
+	}
+
+	@Test
+	public void testOneSourceInParallel() throws Exception {
+		testOneSource(MaterializationParams.defaultBuilder()
+				.threadCount(3)
+				.build());
+	}
+
+	private void testOneSource(MaterializationParams materializationParams) throws Exception {
 
     	SQLPPMapping ppMapping = createMapping();
 
@@ -165,13 +176,15 @@ public class OntopMaterializerTest {
 		}
 		in.close();
 
+		// The in-memory DB may be kept alive by the connection pool of a previous test
+		st.executeUpdate("DROP TABLE IF EXISTS \"data\"");
 		st.executeUpdate(bf.toString());
 		conn.commit();
 
 		ImmutableSet<IRI> vocabulary = Stream.of(fnIRI, lnIRI, ageIRI, hasschoolIRI, schoolIRI)
 				.collect(ImmutableCollectors.toSet());
 
-		OntopRDFMaterializer materializer = OntopRDFMaterializer.defaultMaterializer(configuration);
+		OntopRDFMaterializer materializer = OntopRDFMaterializer.defaultMaterializer(configuration, materializationParams);
 
 		try (MaterializedGraphResultSet materializationResultSet = materializer.materialize(vocabulary)) {
 
@@ -42,6 +42,13 @@ public interface OntopMappingSettings extends OntopOBDASettings, OntopOptimizati
      */
     boolean isCanIRIComplete();
 
+    /**
+     * Number of threads processing the mapping assertions (conversion and transformations).
+     *
+     * By default, the number of available processors.
+     */
+    int getMappingProcessingParallelism();
+
     //--------------------------
     // Keys
     //--------------------------
@@ -52,6 +59,7 @@ public interface OntopMappingSettings extends OntopOBDASettings, OntopOptimizati
     String INFER_DEFAULT_DATATYPE = "ontop.inferDefaultDatatype";
     String TOLERATE_ABSTRACT_DATATYPE = "ontop.tolerateAbstractDatatype";
     String IS_CANONICAL_IRI_COMPLETE = "ontop.isCanonicalIRIComplete";
+    String MAPPING_PROCESSING_PARALLELISM = "ontop.mappingProcessing.parallelism";
 
 
     /**
@@ -56,4 +56,10 @@ class OntopMappingSettingsImpl extends OntopOBDASettingsImpl implements OntopMap
     public boolean isCanIRIComplete() {
         return getRequiredBoolean(IS_CANONICAL_IRI_COMPLETE);
     }
+
+    @Override
+    public int getMappingProcessingParallelism() {
+        int parallelism = getRequiredInteger(MAPPING_PROCESSING_PARALLELISM);
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
 }
@@ -3,7 +3,6 @@ package it.unibz.inf.ontop.spec.mapping.transformer.impl;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.constraints.ImmutableHomomorphism;
-import it.unibz.inf.ontop.constraints.ImmutableHomomorphismIterator;
 import it.unibz.inf.ontop.constraints.impl.ImmutableCQContainmentCheckUnderLIDs;
 import it.unibz.inf.ontop.model.atom.RelationPredicate;
 import it.unibz.inf.ontop.model.term.*;
@@ -91,9 +90,7 @@ public class TMappingEntry {
 
             boolean couldIgnore = false;
 
-            Optional<ImmutableHomomorphism> to = getHomomorphismIterator(current, assertion)
-                            .filter(ImmutableHomomorphismIterator::hasNext)
-                            .map(ImmutableHomomorphismIterator::next);
+            Optional<ImmutableHomomorphism> to = getHomomorphism(current, assertion);
 
             if (to.isPresent()) {
                 if (current.getConditions().isEmpty() ||
@@ -114,9 +111,7 @@ public class TMappingEntry {
                 }
             }
 
-            Optional<ImmutableHomomorphism> from = getHomomorphismIterator(assertion, current)
-                            .filter(ImmutableHomomorphismIterator::hasNext)
-                            .map(ImmutableHomomorphismIterator::next);
+            Optional<ImmutableHomomorphism> from = getHomomorphism(assertion, current);
 
             if (from.isPresent()) {
                 if (assertion.getConditions().isEmpty() ||
@@ -175,13 +170,14 @@ public class TMappingEntry {
         rules.add(assertion);
     }
 
-    private Optional<ImmutableHomomorphismIterator<RelationPredicate>> getHomomorphismIterator(TMappingRule from, TMappingRule to) {
+    private Optional<ImmutableHomomorphism> getHomomorphism(TMappingRule from, TMappingRule to) {
         ImmutableHomomorphism.Builder builder = ImmutableHomomorphism.builder();
         for (int i = 0; i < from.getHeadTerms().size(); i++)
             if (!builder.extend(from.getHeadTerms().get(i), to.getHeadTerms().get(i)).isValid())
                 return Optional.empty();
 
         ImmutableHomomorphism h = builder.build();
-        return Optional.of(cqc.homomorphismIterator(h, IQ2CQ.toDataAtoms(from.getDatabaseAtoms()), IQ2CQ.toDataAtoms(to.getDatabaseAtoms())));
+        // NB: the IRI constants of the heads do not occur in h, so the result can be shared between the entries
+        return cqc.findHomomorphism(h, IQ2CQ.toDataAtoms(from.getDatabaseAtoms()), IQ2CQ.toDataAtoms(to.getDatabaseAtoms()));
     }
 }
@@ -28,6 +28,7 @@ import it.unibz.inf.ontop.constraints.impl.ImmutableCQContainmentCheckUnderLIDs;
 import it.unibz.inf.ontop.datalog.*;
 import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
 import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopMappingSettings;
 import it.unibz.inf.ontop.iq.IQ;
 import it.unibz.inf.ontop.iq.tools.UnionBasedQueryMerger;
 import it.unibz.inf.ontop.iq.transform.NoNullValueEnforcer;
@@ -44,6 +45,7 @@ import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
 import it.unibz.inf.ontop.spec.mapping.transformer.MappingCQCOptimizer;
 import it.unibz.inf.ontop.spec.mapping.transformer.MappingSaturator;
 import it.unibz.inf.ontop.spec.mapping.transformer.QueryUnionSplitter;
+import it.unibz.inf.ontop.spec.mapping.utils.ParallelMappingProcessor;
 import it.unibz.inf.ontop.spec.ontology.*;
 import it.unibz.inf.ontop.substitution.SubstitutionFactory;
 import it.unibz.inf.ontop.utils.CoreUtilsFactory;
@@ -51,6 +53,7 @@ import it.unibz.inf.ontop.utils.ImmutableCollectors;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 @Singleton
@@ -69,6 +72,7 @@ public class TMappingSaturatorImpl implements MappingSaturator  {
     private final UnionBasedQueryMerger queryMerger;
     private final SubstitutionFactory substitutionFactory;
     private final CoreUtilsFactory coreUtilsFactory;
+    private final OntopMappingSettings settings;
 
     @Inject
 	private TMappingSaturatorImpl(TMappingExclusionConfig tMappingExclusionConfig,
@@ -81,7 +85,8 @@ public class TMappingSaturatorImpl implements MappingSaturator  {
                                   IntermediateQueryFactory iqFactory,
                                   UnionBasedQueryMerger queryMerger,
                                   SubstitutionFactory substitutionFactory,
-                                  CoreUtilsFactory coreUtilsFactory) {
+                                  CoreUtilsFactory coreUtilsFactory,
+                                  OntopMappingSettings settings) {
         this.tMappingExclusionConfig = tMappingExclusionConfig;
 		this.atomFactory = atomFactory;
 		this.termFactory = termFactory;
@@ -93,10 +98,23 @@ public class TMappingSaturatorImpl implements MappingSaturator  {
         this.queryMerger = queryMerger;
         this.substitutionFactory = substitutionFactory;
         this.coreUtilsFactory = coreUtilsFactory;
+        this.settings = settings;
     }
 
     @Override
     public ImmutableList<MappingAssertion> saturate(ImmutableList<MappingAssertion> mapping, ClassifiedTBox reasoner) {
+        return saturate(mapping, reasoner, true);
+    }
+
+    /**
+     * Reference saturation (for testing): the definition of each node is built from the original
+     * mapping assertions of all its sub-nodes, without reusing the saturated definitions of the sub-nodes.
+     */
+    public ImmutableList<MappingAssertion> saturateWithoutReuse(ImmutableList<MappingAssertion> mapping, ClassifiedTBox reasoner) {
+        return saturate(mapping, reasoner, false);
+    }
+
+    private ImmutableList<MappingAssertion> saturate(ImmutableList<MappingAssertion> mapping, ClassifiedTBox reasoner, boolean reuse) {
 
         ImmutableCQContainmentCheckUnderLIDs<RelationPredicate> cqc =
                 new ImmutableCQContainmentCheckUnderLIDs<>(
@@ -114,30 +132,41 @@ public class TMappingSaturatorImpl implements MappingSaturator  {
                         .map(q -> Maps.immutableEntry(a.getIndex(), new TMappingRule(q, termFactory, atomFactory))))
                 .collect(ImmutableCollectors.toMultimap()).asMap();
 
-        ImmutableMap<MappingAssertionIndex, ImmutableList<TMappingRule>> saturated = original.keySet().stream()
+        ImmutableMap<MappingAssertionIndex, ImmutableList<TMappingRule>> saturated;
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(settings.getMappingProcessingParallelism())) {
+            saturated = original.keySet().stream()
                 .map(MappingAssertionIndex::getPredicate)
                 .distinct()
                 .map(rdfAtomPredicate -> new TMappingRuleHeadConstructorProvider(rdfAtomPredicate, termFactory))
-                .flatMap(provider -> Stream.concat(Stream.concat(
-                    reasoner.objectPropertiesDAG().stream()
-                        .filter(node -> !node.getRepresentative().isInverse() && !tMappingExclusionConfig.contains(node.getRepresentative()))
-                        .flatMap(node -> node.getMembers().stream()
-                                .filter(d -> !d.isInverse() || d.getInverse() != node.getRepresentative())
-                                .map(saturator(node, reasoner.objectPropertiesDAG(), original, provider::constructor, cqc))),
-
-                    reasoner.dataPropertiesDAG().stream()
-                        .filter(node -> !tMappingExclusionConfig.contains(node.getRepresentative()))
-                        .flatMap(node -> node.getMembers().stream()
-                                .map(saturator(node, reasoner.dataPropertiesDAG(), original, provider::constructor, cqc)))),
-
-                    reasoner.classesDAG().stream()
-                        .filter(node -> (node.getRepresentative() instanceof OClass) && !tMappingExclusionConfig.contains((OClass)node.getRepresentative()))
-                        .flatMap(node -> node.getMembers().stream()
-                                .filter(d -> d instanceof OClass)
-                                .map(saturator(node, reasoner.classesDAG(), original, provider::constructor, cqc)))))
+                .flatMap(provider -> {
+                    ImmutableMap<Equivalences<ObjectPropertyExpression>, ImmutableList<TMappingRule>> objectProperties =
+                            saturateDAG(reasoner.objectPropertiesDAG(), ope -> !ope.isInverse(), original, provider::constructor, cqc, processor, reuse);
+                    ImmutableMap<Equivalences<DataPropertyExpression>, ImmutableList<TMappingRule>> dataProperties =
+                            saturateDAG(reasoner.dataPropertiesDAG(), dpe -> true, original, provider::constructor, cqc, processor, reuse);
+                    ImmutableMap<Equivalences<ClassExpression>, ImmutableList<TMappingRule>> classes =
+                            saturateDAG(reasoner.classesDAG(), ce -> ce instanceof OClass, original, provider::constructor, cqc, processor, reuse);
+
+                    return Stream.concat(Stream.concat(
+                        reasoner.objectPropertiesDAG().stream()
+                            .filter(node -> !node.getRepresentative().isInverse() && !tMappingExclusionConfig.contains(node.getRepresentative()))
+                            .flatMap(node -> node.getMembers().stream()
+                                    .filter(d -> !d.isInverse() || d.getInverse() != node.getRepresentative())
+                                    .map(saturator(objectProperties.get(node), provider::constructor))),
 
+                        reasoner.dataPropertiesDAG().stream()
+                            .filter(node -> !tMappingExclusionConfig.contains(node.getRepresentative()))
+                            .flatMap(node -> node.getMembers().stream()
+                                    .map(saturator(dataProperties.get(node), provider::constructor)))),
+
+                        reasoner.classesDAG().stream()
+                            .filter(node -> (node.getRepresentative() instanceof OClass) && !tMappingExclusionConfig.contains((OClass)node.getRepresentative()))
+                            .flatMap(node -> node.getMembers().stream()
+                                    .filter(d -> d instanceof OClass)
+                                    .map(saturator(classes.get(node), provider::constructor))));
+                })
                 .filter(e -> !e.getValue().isEmpty())
                 .collect(ImmutableCollectors.toMap());
+        }
 
         ImmutableMap<MappingAssertionIndex, ImmutableList<TMappingRule>> combined = Stream.concat(
                 saturated.entrySet().stream(),
@@ -161,27 +190,126 @@ public class TMappingSaturatorImpl implements MappingSaturator  {
                 .normalizeForOptimization();
     }
 
-    private <T> Function<T, Map.Entry<MappingAssertionIndex, ImmutableList<TMappingRule>>> saturator(Equivalences<T> node,
+    private <T> Function<T, Map.Entry<MappingAssertionIndex, ImmutableList<TMappingRule>>> saturator(
+                                                     ImmutableList<TMappingRule> saturatedRepresentative,
+                                                     Function<T, TMappingRuleHeadConstructor> constructor) {
+        return constructor.andThen(
+                t -> Maps.immutableEntry(
+                        t.indexOf(),
+                        saturatedRepresentative.stream()
+                            .map(m -> new TMappingRule(t.getArguments(m.getHeadTerms(), t.getIri()), m))
+                            .collect(ImmutableCollectors.toList())));
+    }
+
+    /**
+     * Saturated definitions of the representatives of the DAG nodes, for the nodes whose representative
+     * is reusable (i.e., such that the head of a sub-node rule can be moved to any super-node by replacing the IRI).
+     *
+     * The nodes are processed layer by layer (all the sub-nodes of a node are in the lower layers),
+     * so that the definition of a node is built from the saturated definitions of its direct sub-nodes
+     * (and not from the original mapping assertions of all its sub-nodes).
+     * The nodes of a layer are processed in parallel.
+     *
+     * Without reuse, the definitions of all the nodes are built from the original mapping assertions.
+     */
+    private <T> ImmutableMap<Equivalences<T>, ImmutableList<TMappingRule>> saturateDAG(
                                                      EquivalencesDAG<T> dag,
+                                                     Predicate<T> isReusable,
                                                      ImmutableMap<MappingAssertionIndex, Collection<TMappingRule>> original,
                                                      Function<T, TMappingRuleHeadConstructor> constructor,
-                                                     ImmutableCQContainmentCheckUnderLIDs<RelationPredicate> cqc) {
+                                                     ImmutableCQContainmentCheckUnderLIDs<RelationPredicate> cqc,
+                                                     ParallelMappingProcessor processor,
+                                                     boolean reuse) {
+        if (!reuse)
+            return dag.stream()
+                    .collect(ImmutableCollectors.toMap(
+                            node -> node,
+                            node -> saturateFromOriginal(node, dag, original, constructor, cqc)));
+
+        Map<Equivalences<T>, Integer> layers = new HashMap<>();
+        dag.stream().forEach(node -> computeLayer(node, dag, layers));
+
+        ImmutableMultimap<Integer, Equivalences<T>> reusableNodesByLayer = dag.stream()
+                .filter(node -> isReusable.test(node.getRepresentative()))
+                .collect(ImmutableCollectors.toMultimap(layers::get, node -> node));
+
+        // only modified between the layers
+        Map<Equivalences<T>, ImmutableList<TMappingRule>> saturated = new HashMap<>();
+        for (int layer : ImmutableSortedSet.copyOf(reusableNodesByLayer.keySet())) {
+            ImmutableList<Equivalences<T>> nodes = ImmutableList.copyOf(reusableNodesByLayer.get(layer));
+            ImmutableList<ImmutableList<TMappingRule>> definitions = processor.transform(nodes,
+                    chunk -> chunk.stream()
+                            .map(node -> {
+                                IRIConstant iri = constructor.apply(node.getRepresentative()).getIri();
+                                return getRules(node, iri, dag, isReusable, original, constructor, saturated, new HashSet<>())
+                                        .collect(TMappingEntry.toTMappingEntry(cqc, termFactory));
+                            })
+                            .collect(ImmutableCollectors.toList()),
+                    RuntimeException.class);
 
-	    IRIConstant iri = constructor.apply(node.getRepresentative()).getIri();
+            for (int i = 0; i < nodes.size(); i++)
+                saturated.put(nodes.get(i), definitions.get(i));
+        }
+        return ImmutableMap.copyOf(saturated);
+    }
 
-        ImmutableList<TMappingRule> saturatedRepresentative = dag.getSub(node).stream()
+    private <T> ImmutableList<TMappingRule> saturateFromOriginal(Equivalences<T> node,
+                                                                EquivalencesDAG<T> dag,
+                                                                ImmutableMap<MappingAssertionIndex, Collection<TMappingRule>> original,
+                                                                Function<T, TMappingRuleHeadConstructor> constructor,
+                                                                ImmutableCQContainmentCheckUnderLIDs<RelationPredicate> cqc) {
+        IRIConstant iri = constructor.apply(node.getRepresentative()).getIri();
+        return dag.getSub(node).stream()
                 .flatMap(subnode -> subnode.getMembers().stream())
                 .map(constructor)
                 .flatMap(t -> original.getOrDefault(t.indexOf(), ImmutableList.of()).stream()
                         .map(m -> new TMappingRule(t.getArguments(m.getHeadTerms(), iri), m)))
                 .collect(TMappingEntry.toTMappingEntry(cqc, termFactory));
+    }
 
-        return constructor.andThen(
-                t -> Maps.immutableEntry(
-                        t.indexOf(),
-                        saturatedRepresentative.stream()
-                            .map(m -> new TMappingRule(t.getArguments(m.getHeadTerms(), t.getIri()), m))
-                            .collect(ImmutableCollectors.toList())));
+    private static <T> int computeLayer(Equivalences<T> node, EquivalencesDAG<T> dag, Map<Equivalences<T>, Integer> layers) {
+        Integer layer = layers.get(node);
+        if (layer == null) {
+            layer = dag.getDirectSub(node).stream()
+                    .mapToInt(subnode -> computeLayer(subnode, dag, layers) + 1)
+                    .max()
+                    .orElse(0);
+            layers.put(node, layer);
+        }
+        return layer;
+    }
+
+    /**
+     * Rules of the node and of its sub-nodes, with the heads for the given IRI.
+     * The saturated definitions of the reusable sub-nodes are used when available.
+     */
+    private <T> Stream<TMappingRule> getRules(Equivalences<T> node,
+                                              IRIConstant iri,
+                                              EquivalencesDAG<T> dag,
+                                              Predicate<T> isReusable,
+                                              ImmutableMap<MappingAssertionIndex, Collection<TMappingRule>> original,
+                                              Function<T, TMappingRuleHeadConstructor> constructor,
+                                              Map<Equivalences<T>, ImmutableList<TMappingRule>> saturated,
+                                              Set<Equivalences<T>> visited) {
+        Stream<TMappingRule> ownRules = node.getMembers().stream()
+                .map(constructor)
+                .flatMap(t -> original.getOrDefault(t.indexOf(), ImmutableList.of()).stream()
+                        .map(m -> new TMappingRule(t.getArguments(m.getHeadTerms(), iri), m)));
+
+        ImmutableList<Equivalences<T>> subnodes = dag.getDirectSub(node).stream()
+                .filter(visited::add)
+                .collect(ImmutableCollectors.toList());
+
+        return Stream.concat(ownRules, subnodes.stream()
+                .flatMap(subnode -> {
+                    ImmutableList<TMappingRule> subnodeRules = saturated.get(subnode);
+                    if (subnodeRules == null)
+                        return getRules(subnode, iri, dag, isReusable, original, constructor, saturated, visited);
+
+                    TMappingRuleHeadConstructor t = constructor.apply(subnode.getRepresentative());
+                    return subnodeRules.stream()
+                            .map(m -> new TMappingRule(t.getArguments(m.getHeadTerms(), iri), m));
+                }));
     }
 
     private static abstract class TMappingRuleHeadConstructor {
@@ -0,0 +1,94 @@
+package it.unibz.inf.ontop.spec.mapping.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Applies a transformation working element by element (e.g. mapping assertion by mapping assertion)
+ * to chunks of a list on several threads. The results are concatenated in the order of the chunks,
+ * so the output does not depend on the scheduling.
+ *
+ * The transformation must be thread-safe.
+ *
+ * With a parallelism of 1, the transformation is applied to the whole list in the calling thread.
+ */
+public class ParallelMappingProcessor implements AutoCloseable {
+
+    // Several chunks per thread, for balancing the load
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+    // Null if sequential
+    @Nullable
+    private final ExecutorService executor;
+
+    public ParallelMappingProcessor(int parallelism) {
+        this.parallelism = parallelism;
+        this.executor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                        .setNameFormat("ontop-mapping-%d")
+                        .setDaemon(true)
+                        .build())
+                : null;
+    }
+
+    public <T, R, E extends Exception> ImmutableList<R> transform(ImmutableList<T> elements,
+                                                                  ChunkTransformation<T, R, E> transformation,
+                                                                  Class<E> exceptionClass) throws E {
+        if (executor == null || elements.size() < 2)
+            return transformation.transform(elements);
+
+        int chunkSize = Math.max(1, (elements.size() + parallelism * CHUNKS_PER_THREAD - 1)
+                / (parallelism * CHUNKS_PER_THREAD));
+
+        List<Future<ImmutableList<R>>> futures = new ArrayList<>();
+        for (int i = 0; i < elements.size(); i += chunkSize) {
+            ImmutableList<T> chunk = elements.subList(i, Math.min(i + chunkSize, elements.size()));
+            futures.add(executor.submit(() -> transformation.transform(chunk)));
+        }
+
+        ImmutableList.Builder<R> resultBuilder = ImmutableList.builder();
+        try {
+            for (Future<ImmutableList<R>> future : futures)
+                resultBuilder.addAll(future.get());
+        }
+        catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new MinorOntopInternalBugException("Interrupted while processing the mapping");
+        }
+        catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (exceptionClass.isInstance(cause))
+                throw exceptionClass.cast(cause);
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new MinorOntopInternalBugException("Unexpected exception while processing the mapping: " + cause);
+        }
+        return resultBuilder.build();
+    }
+
+    @Override
+    public void close() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+
+    @FunctionalInterface
+    public interface ChunkTransformation<T, R, E extends Exception> {
+        ImmutableList<R> transform(ImmutableList<T> chunk) throws E;
+    }
+}
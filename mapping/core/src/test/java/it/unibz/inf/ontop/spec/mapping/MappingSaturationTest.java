@@ -4,7 +4,9 @@ import com.google.common.collect.*;
 import it.unibz.inf.ontop.dbschema.BasicDBMetadata;
 import it.unibz.inf.ontop.dbschema.DatabaseRelationDefinition;
 import it.unibz.inf.ontop.dbschema.QuotedIDFactory;
+import it.unibz.inf.ontop.injection.OntopMappingConfiguration;
 import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.node.ConstructionNode;
 import it.unibz.inf.ontop.iq.node.ExtensionalDataNode;
 import it.unibz.inf.ontop.iq.node.UnionNode;
@@ -13,17 +15,27 @@ import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
 import it.unibz.inf.ontop.model.atom.RelationPredicate;
 import it.unibz.inf.ontop.model.term.*;
 import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.model.vocabulary.RDF;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import it.unibz.inf.ontop.spec.mapping.transformer.MappingSaturator;
+import it.unibz.inf.ontop.spec.mapping.transformer.impl.TMappingSaturatorImpl;
 import it.unibz.inf.ontop.spec.ontology.*;
+import it.unibz.inf.ontop.spec.ontology.impl.DatatypeImpl;
 import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.apache.commons.rdf.api.IRI;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import static it.unibz.inf.ontop.utils.MappingTestingTools.*;
 import static junit.framework.TestCase.*;
 
 public class MappingSaturationTest {
-    private static final RelationPredicate P1_PREDICATE;
+    private static final RelationPredicate P1_PREDICATE, P2_PREDICATE, P3_PREDICATE;
 
     private static Variable A = TERM_FACTORY.getVariable("a");
     private static Variable B = TERM_FACTORY.getVariable("b");
@@ -36,6 +48,8 @@ public class MappingSaturationTest {
 
     private static final IRI PROP_GIVES_LECTURE, PROP_TEACHES, PROP_GIVES_LAB, PROP_IS_TAUGHT_BY;
 
+    private static final String VOC = "http://example.org/voc#";
+
     static {
         BasicDBMetadata dbMetadata = createDummyMetadata();
         QuotedIDFactory idFactory = dbMetadata.getQuotedIDFactory();
@@ -47,6 +61,16 @@ public class MappingSaturationTest {
         table1Def.addAttribute(idFactory.createAttributeID("col12"), dbIntType.getName(), dbIntType, false);
         P1_PREDICATE = table1Def.getAtomPredicate();
 
+        DatabaseRelationDefinition table2Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "p2"));
+        table2Def.addAttribute(idFactory.createAttributeID("col1"), dbIntType.getName(), dbIntType, false);
+        table2Def.addAttribute(idFactory.createAttributeID("col2"), dbIntType.getName(), dbIntType, false);
+        P2_PREDICATE = table2Def.getAtomPredicate();
+
+        DatabaseRelationDefinition table3Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "p3"));
+        table3Def.addAttribute(idFactory.createAttributeID("col1"), dbIntType.getName(), dbIntType, false);
+        table3Def.addAttribute(idFactory.createAttributeID("col2"), dbIntType.getName(), dbIntType, false);
+        P3_PREDICATE = table3Def.getAtomPredicate();
+
         URI_TEMPLATE_PERSON =  "http://example.org/person/{}";
         URI_TEMPLATE_COURSE1 =  "http://example.org/uni1/course/{}";
         URI_TEMPLATE_COURSE2 =  "http://example.org/uni2/course/{}";
@@ -142,7 +166,222 @@ public class MappingSaturationTest {
         System.out.println(PROP_TEACHES + ":\n" + saturatedMapping.get(MappingAssertionIndex.ofProperty(tp, PROP_TEACHES)) + "\nvs\n" + maTeaches);
     }
 
-    private ImmutableTerm getConstantIRI(IRI iri) {
+    /**
+     * The definition of D is built from the saturated definitions of B and C, which both contain A
+     */
+    @Test
+    public void testDiamondSameAsWithoutReuse() throws InconsistentOntologyException {
+        OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+        OClass a = builder.declareClass(voc("A"));
+        OClass b = builder.declareClass(voc("B"));
+        OClass c = builder.declareClass(voc("C"));
+        OClass d = builder.declareClass(voc("D"));
+        OClass e = builder.declareClass(voc("E"));
+        OClass f = builder.declareClass(voc("F"));
+        builder.addSubClassOfAxiom(a, b);
+        builder.addSubClassOfAxiom(a, c);
+        builder.addSubClassOfAxiom(b, d);
+        builder.addSubClassOfAxiom(c, d);
+        // E is equivalent to B
+        builder.addSubClassOfAxiom(e, b);
+        builder.addSubClassOfAxiom(b, e);
+        builder.addSubClassOfAxiom(f, c);
+        ClassifiedTBox tbox = builder.build().tbox();
+
+        ImmutableList<MappingAssertion> mapping = ImmutableList.of(
+                classAssertion("A", URI_TEMPLATE_PERSON, P1_PREDICATE),
+                classAssertion("B", URI_TEMPLATE_PERSON, P2_PREDICATE),
+                // same as A, subsumed
+                classAssertion("C", URI_TEMPLATE_PERSON, P1_PREDICATE),
+                classAssertion("E", URI_TEMPLATE_COURSE1, P3_PREDICATE),
+                classAssertion("F", URI_TEMPLATE_COURSE2, P1_PREDICATE));
+
+        ImmutableMap<MappingAssertionIndex, IQ> saturatedMapping = checkSameAsWithoutReuse(MAPPING_SATURATOR, mapping, tbox);
+        // A, B, E and F, A only once
+        assertEquals(4, saturatedMapping.get(classIndex("D")).getTree().getChildren().get(0).getChildren().size());
+    }
+
+    /**
+     * The nodes represented by an existential or by an inverse property are expanded through their sub-nodes
+     */
+    @Test
+    public void testExistentialsAndInversesSameAsWithoutReuse() throws InconsistentOntologyException {
+        OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+        ObjectPropertyExpression r = builder.declareObjectProperty(voc("r"));
+        ObjectPropertyExpression s = builder.declareObjectProperty(voc("s"));
+        ObjectPropertyExpression t = builder.declareObjectProperty(voc("t"));
+        ObjectPropertyExpression q = builder.declareObjectProperty(voc("q"));
+        DataPropertyExpression dp = builder.declareDataProperty(voc("dp"));
+        DataPropertyExpression dq = builder.declareDataProperty(voc("dq"));
+        OClass g = builder.declareClass(voc("G"));
+        OClass h = builder.declareClass(voc("H"));
+        OClass k = builder.declareClass(voc("K"));
+        // r- is the representative of a node without a named property
+        builder.addSubPropertyOfAxiom(s, r.getInverse());
+        builder.addSubPropertyOfAxiom(r.getInverse(), q);
+        builder.addSubPropertyOfAxiom(t, s);
+        // exists t is the representative of a node without a named class
+        builder.addSubClassOfAxiom(t.getDomain(), g);
+        builder.addSubClassOfAxiom(r.getRange(), h);
+        builder.addSubClassOfAxiom(h, g);
+        builder.addSubPropertyOfAxiom(dq, dp);
+        builder.addSubClassOfAxiom(dp.getDomainRestriction(DatatypeImpl.rdfsLiteral), k);
+        builder.addSubClassOfAxiom(g, k);
+        ClassifiedTBox tbox = builder.build().tbox();
+
+        ImmutableList<MappingAssertion> mapping = ImmutableList.of(
+                objectPropertyAssertion("r", URI_TEMPLATE_PERSON, URI_TEMPLATE_COURSE1, P1_PREDICATE),
+                objectPropertyAssertion("s", URI_TEMPLATE_COURSE2, URI_TEMPLATE_PERSON, P2_PREDICATE),
+                objectPropertyAssertion("t", URI_TEMPLATE_COURSE1, URI_TEMPLATE_PERSON, P3_PREDICATE),
+                dataPropertyAssertion("dq", URI_TEMPLATE_PERSON, P3_PREDICATE),
+                classAssertion("H", URI_TEMPLATE_COURSE2, P3_PREDICATE));
+
+        ImmutableMap<MappingAssertionIndex, IQ> saturatedMapping = checkSameAsWithoutReuse(MAPPING_SATURATOR, mapping, tbox);
+        assertTrue(saturatedMapping.containsKey(propertyIndex("q")));
+        assertTrue(saturatedMapping.containsKey(propertyIndex("dp")));
+        assertTrue(saturatedMapping.containsKey(classIndex("G")));
+        assertTrue(saturatedMapping.containsKey(classIndex("K")));
+    }
+
+    /**
+     * The excluded nodes are not saturated, but they are still used for saturating their super-nodes
+     */
+    @Test
+    public void testExcludedNodesSameAsWithoutReuse() throws InconsistentOntologyException {
+        OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+        OClass a = builder.declareClass(voc("A"));
+        OClass b = builder.declareClass(voc("B"));
+        OClass c = builder.declareClass(voc("C"));
+        ObjectPropertyExpression r = builder.declareObjectProperty(voc("r"));
+        ObjectPropertyExpression s = builder.declareObjectProperty(voc("s"));
+        ObjectPropertyExpression q = builder.declareObjectProperty(voc("q"));
+        builder.addSubClassOfAxiom(a, b);
+        builder.addSubClassOfAxiom(b, c);
+        builder.addSubPropertyOfAxiom(r, s);
+        builder.addSubPropertyOfAxiom(s, q);
+        builder.addSubClassOfAxiom(s.getDomain(), b);
+        ClassifiedTBox tbox = builder.build().tbox();
+
+        ImmutableList<MappingAssertion> mapping = ImmutableList.of(
+                classAssertion("A", URI_TEMPLATE_PERSON, P1_PREDICATE),
+                classAssertion("B", URI_TEMPLATE_COURSE1, P2_PREDICATE),
+                objectPropertyAssertion("r", URI_TEMPLATE_PERSON, URI_TEMPLATE_COURSE1, P3_PREDICATE),
+                objectPropertyAssertion("s", URI_TEMPLATE_COURSE2, URI_TEMPLATE_PERSON, P2_PREDICATE));
+
+        MappingSaturator saturator = OntopMappingConfiguration.defaultBuilder()
+                .tMappingExclusionConfig(new TMappingExclusionConfig(
+                        ImmutableSet.of(VOC + "B"), ImmutableSet.of(VOC + "s")))
+                .enableTestMode()
+                .build()
+                .getInjector()
+                .getInstance(MappingSaturator.class);
+
+        ImmutableMap<MappingAssertionIndex, IQ> saturatedMapping = checkSameAsWithoutReuse(saturator, mapping, tbox);
+        assertEquals(mapping.get(1).getQuery(), saturatedMapping.get(classIndex("B")));
+        assertEquals(mapping.get(3).getQuery(), saturatedMapping.get(propertyIndex("s")));
+        // A, B, r, s
+        assertEquals(4, saturatedMapping.get(classIndex("C")).getTree().getChildren().get(0).getChildren().size());
+        assertEquals(2, saturatedMapping.get(propertyIndex("q")).getTree().getChildren().get(0).getChildren().size());
+    }
+
+    private static ImmutableMap<MappingAssertionIndex, IQ> checkSameAsWithoutReuse(MappingSaturator saturator,
+                                                                                  ImmutableList<MappingAssertion> mapping,
+                                                                                  ClassifiedTBox tbox) {
+        TMappingSaturatorImpl tMappingSaturator = (TMappingSaturatorImpl) saturator;
+        ImmutableMap<MappingAssertionIndex, IQ> expected = tMappingSaturator.saturateWithoutReuse(mapping, tbox).stream()
+                .collect(ImmutableCollectors.toMap(MappingAssertion::getIndex, MappingAssertion::getQuery));
+        ImmutableMap<MappingAssertionIndex, IQ> saturatedMapping = tMappingSaturator.saturate(mapping, tbox).stream()
+                .collect(ImmutableCollectors.toMap(MappingAssertion::getIndex, MappingAssertion::getQuery));
+
+        assertEquals(expected.keySet(), saturatedMapping.keySet());
+        expected.forEach((index, query) -> assertEquals(index.toString(),
+                getCanonicalBranches(query), getCanonicalBranches(saturatedMapping.get(index))));
+        return saturatedMapping;
+    }
+
+    /**
+     * The union branches are compared up to their order and to the renaming of their variables
+     */
+    private static ImmutableMultiset<String> getCanonicalBranches(IQ query) {
+        IQTree child = query.getTree().getChildren().get(0);
+        ImmutableList<IQTree> branches = (child.getRootNode() instanceof UnionNode)
+                ? child.getChildren()
+                : ImmutableList.of(query.getTree());
+        return branches.stream()
+                .map(MappingSaturationTest::getCanonicalString)
+                .collect(ImmutableCollectors.toMultiset());
+    }
+
+    private static String getCanonicalString(IQTree tree) {
+        ImmutableMap<String, Variable> variables = tree.getKnownVariables().stream()
+                .collect(ImmutableCollectors.toMap(Variable::getName, v -> v));
+        Map<Variable, Variable> renaming = new HashMap<>();
+        Matcher matcher = Pattern.compile("\\w+").matcher(tree.toString());
+        while (matcher.find()) {
+            Variable variable = variables.get(matcher.group());
+            if (variable != null && !renaming.containsKey(variable))
+                renaming.put(variable, TERM_FACTORY.getVariable("x" + renaming.size()));
+        }
+        return tree.applyFreshRenaming(SUBSTITUTION_FACTORY.getInjectiveVar2VarSubstitution(renaming)).toString();
+    }
+
+    private static MappingAssertion classAssertion(String className, String template, RelationPredicate table) {
+        return createAssertion(classIndex(className),
+                TERM_FACTORY.getIRIFunctionalTerm(template, ImmutableList.of(A)),
+                TERM_FACTORY.getConstantIRI(RDF.TYPE),
+                getConstantIRI(voc(className)),
+                table);
+    }
+
+    private static MappingAssertion objectPropertyAssertion(String propertyName, String subjectTemplate,
+                                                            String objectTemplate, RelationPredicate table) {
+        return createAssertion(propertyIndex(propertyName),
+                TERM_FACTORY.getIRIFunctionalTerm(subjectTemplate, ImmutableList.of(A)),
+                getConstantIRI(voc(propertyName)),
+                TERM_FACTORY.getIRIFunctionalTerm(objectTemplate, ImmutableList.of(B)),
+                table);
+    }
+
+    private static MappingAssertion dataPropertyAssertion(String propertyName, String subjectTemplate,
+                                                          RelationPredicate table) {
+        return createAssertion(propertyIndex(propertyName),
+                TERM_FACTORY.getIRIFunctionalTerm(subjectTemplate, ImmutableList.of(A)),
+                getConstantIRI(voc(propertyName)),
+                TERM_FACTORY.getRDFLiteralFunctionalTerm(B, XSD.STRING),
+                table);
+    }
+
+    private static MappingAssertion createAssertion(MappingAssertionIndex index, ImmutableTerm subject,
+                                                    ImmutableTerm property, ImmutableTerm object,
+                                                    RelationPredicate table) {
+        DistinctVariableOnlyDataAtom spoAtom = ATOM_FACTORY.getDistinctTripleAtom(S, P, O);
+        ConstructionNode mappingRootNode = IQ_FACTORY.createConstructionNode(
+                ImmutableSet.of(S, P, O),
+                SUBSTITUTION_FACTORY.getSubstitution(S, subject, P, property, O, object));
+        ExtensionalDataNode extensionalDataNode = IQ_FACTORY.createExtensionalDataNode(
+                ATOM_FACTORY.getDataAtom(table, ImmutableList.of(A, B)));
+        return new MappingAssertion(index,
+                IQ_FACTORY.createIQ(spoAtom, IQ_FACTORY.createUnaryIQTree(mappingRootNode, extensionalDataNode)),
+                null);
+    }
+
+    private static MappingAssertionIndex classIndex(String className) {
+        return MappingAssertionIndex.ofClass(getTriplePredicate(), voc(className));
+    }
+
+    private static MappingAssertionIndex propertyIndex(String propertyName) {
+        return MappingAssertionIndex.ofProperty(getTriplePredicate(), voc(propertyName));
+    }
+
+    private static RDFAtomPredicate getTriplePredicate() {
+        return (RDFAtomPredicate) ATOM_FACTORY.getDistinctTripleAtom(S, P, O).getPredicate();
+    }
+
+    private static IRI voc(String name) {
+        return RDF_FACTORY.createIRI(VOC + name);
+    }
+
+    private static ImmutableTerm getConstantIRI(IRI iri) {
         return TERM_FACTORY.getConstantIRI(iri);
     }
 }
@@ -0,0 +1,70 @@
+package it.unibz.inf.ontop.spec.mapping.utils;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelMappingProcessorTest {
+
+    private static final ImmutableList<Integer> ELEMENTS = IntStream.range(0, 103).boxed()
+            .collect(ImmutableCollectors.toList());
+
+    /**
+     * The results are in the order of the elements, whatever the number of chunks
+     */
+    @Test
+    public void testSameResultsAsSequential() {
+        ImmutableList<String> expected = transform(1);
+        assertEquals(ELEMENTS.size(), expected.size());
+        for (int parallelism : new int[] { 2, 4, 7 })
+            assertEquals("Parallelism " + parallelism, expected, transform(parallelism));
+    }
+
+    @Test
+    public void testSeveralChunksAndThreads() {
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        Set<Integer> chunkSizes = ConcurrentHashMap.newKeySet();
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(4)) {
+            processor.transform(ELEMENTS, chunk -> {
+                threadNames.add(Thread.currentThread().getName());
+                chunkSizes.add(chunk.size());
+                return chunk;
+            }, RuntimeException.class);
+        }
+        // 103 elements in chunks of 7
+        assertTrue(chunkSizes.contains(7));
+        assertTrue(threadNames.stream().allMatch(n -> n.startsWith("ontop-mapping-")));
+    }
+
+    @Test(expected = TestException.class)
+    public void testCheckedException() throws TestException {
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(4)) {
+            processor.transform(ELEMENTS, chunk -> {
+                if (chunk.contains(50))
+                    throw new TestException();
+                return chunk;
+            }, TestException.class);
+        }
+    }
+
+    private static ImmutableList<String> transform(int parallelism) {
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(parallelism)) {
+            return processor.transform(ELEMENTS,
+                    chunk -> chunk.stream()
+                            .map(i -> "element " + i)
+                            .collect(ImmutableCollectors.toList()),
+                    RuntimeException.class);
+        }
+    }
+
+
+    private static class TestException extends Exception {
+    }
+}
@@ -0,0 +1,174 @@
+package it.unibz.inf.ontop.dbschema;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bulk extraction of the columns and parallel extraction of the constraints, on H2
+ */
+public class RDBMetadataExtractionToolsTest {
+
+    // Above the bulk extraction threshold
+    private static final int TABLE_COUNT = 25;
+
+    private static final TypeFactory TYPE_FACTORY = OntopModelConfiguration.defaultBuilder().build().getTypeFactory();
+
+    private String jdbcUrl;
+    private Connection connection;
+    // Schema and table name patterns of the getColumns calls
+    private final List<List<String>> getColumnsCalls = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws SQLException {
+        jdbcUrl = "jdbc:h2:mem:" + UUID.randomUUID();
+        connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+        try (Statement st = connection.createStatement()) {
+            for (int i = 0; i < TABLE_COUNT; i++)
+                st.executeUpdate("CREATE TABLE T" + i + " (ID INT PRIMARY KEY, NAME VARCHAR(20) NOT NULL UNIQUE"
+                        + ((i > 0) ? ", REF INT REFERENCES T" + (i - 1) + "(ID)" : "") + ")");
+            // Same table names in another schema
+            st.executeUpdate("CREATE SCHEMA OTHER");
+            st.executeUpdate("CREATE TABLE OTHER.T0 (CODE VARCHAR(10) PRIMARY KEY)");
+            st.executeUpdate("CREATE TABLE OTHER.U (CODE VARCHAR(10))");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testBulkExtraction() throws SQLException {
+        RDBMetadata metadata = loadMetadata(null, 1);
+
+        assertEquals(TABLE_COUNT + 2, metadata.getDatabaseRelations().size());
+        // One call for PUBLIC, one call per relation of OTHER
+        assertEquals(3, getColumnsCalls.size());
+        assertTrue(getColumnsCalls.contains(pattern("PUBLIC", null)));
+
+        DatabaseRelationDefinition t5 = metadata.getDatabaseRelation(relationId("PUBLIC", "T5"));
+        assertEquals(3, t5.getAttributes().size());
+        assertNotNull(t5.getPrimaryKey());
+        assertEquals(2, t5.getUniqueConstraints().size());
+        assertEquals(1, t5.getForeignKeys().size());
+        assertEquals(relationId("PUBLIC", "T4"), t5.getForeignKeys().get(0).getReferencedRelation().getID());
+
+        DatabaseRelationDefinition otherT0 = metadata.getDatabaseRelation(relationId("OTHER", "T0"));
+        assertEquals(1, otherT0.getAttributes().size());
+    }
+
+    @Test
+    public void testParallelExtraction() throws SQLException {
+        AtomicInteger connectionCount = new AtomicInteger(0);
+        RDBMetadata sequentialMetadata = loadMetadata(null, 1);
+        RDBMetadata parallelMetadata = loadMetadata(null, 4, () -> {
+            connectionCount.incrementAndGet();
+            return DriverManager.getConnection(jdbcUrl, "sa", "");
+        });
+
+        assertEquals(4, connectionCount.get());
+        assertEquals(describe(sequentialMetadata), describe(parallelMetadata));
+    }
+
+    /**
+     * Seeds without a schema are never extracted with a null schema pattern and a null table name pattern
+     */
+    @Test
+    public void testSeedsWithoutSchema() throws SQLException {
+        QuotedIDFactory idfac = RDBMetadataExtractionTools.createMetadata(connection, TYPE_FACTORY)
+                .getQuotedIDFactory();
+        ImmutableSet.Builder<RelationID> seedBuilder = ImmutableSet.builder();
+        for (int i = 0; i < TABLE_COUNT; i++)
+            seedBuilder.add(idfac.createRelationID(null, "T" + i));
+
+        RDBMetadata metadata = loadMetadata(seedBuilder.build(), 4,
+                () -> DriverManager.getConnection(jdbcUrl, "sa", ""));
+
+        assertEquals(TABLE_COUNT, getColumnsCalls.size());
+        assertFalse(getColumnsCalls.contains(pattern(null, null)));
+        // As before, a seed without a schema is matched in all the schemas
+        assertEquals(TABLE_COUNT + 1, metadata.getDatabaseRelations().size());
+        assertEquals(1, metadata.getDatabaseRelation(relationId("OTHER", "T0")).getAttributes().size());
+        assertEquals(1, metadata.getDatabaseRelation(relationId("PUBLIC", "T7")).getForeignKeys().size());
+    }
+
+    private RDBMetadata loadMetadata(Set<RelationID> realTables, int parallelism) throws SQLException {
+        return loadMetadata(realTables, parallelism, null);
+    }
+
+    private RDBMetadata loadMetadata(Set<RelationID> realTables, int parallelism,
+                                     RDBMetadataExtractionTools.ConnectionSupplier connectionSupplier)
+            throws SQLException {
+        getColumnsCalls.clear();
+        Connection recordingConnection = recordGetColumnsCalls(connection);
+        RDBMetadata metadata = RDBMetadataExtractionTools.createMetadata(recordingConnection, TYPE_FACTORY);
+        RDBMetadataExtractionTools.loadMetadata(metadata, recordingConnection, realTables, parallelism,
+                connectionSupplier);
+        return metadata;
+    }
+
+    private Connection recordGetColumnsCalls(Connection connection) throws SQLException {
+        DatabaseMetaData md = connection.getMetaData();
+        DatabaseMetaData recordingMetadata = (DatabaseMetaData) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { DatabaseMetaData.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getColumns"))
+                        getColumnsCalls.add(pattern((String) args[1], (String) args[2]));
+                    return invoke(md, method, args);
+                });
+        return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("getMetaData")
+                        ? recordingMetadata
+                        : invoke(connection, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<String> pattern(String schemaPattern, String tableNamePattern) {
+        return Arrays.asList(schemaPattern, tableNamePattern);
+    }
+
+    private RelationID relationId(String schema, String table) {
+        return RelationID.createRelationIdFromDatabaseRecord(new QuotedIDFactoryStandardSQL("\""), schema, table);
+    }
+
+    private static ImmutableList<String> describe(RDBMetadata metadata) {
+        return metadata.getDatabaseRelations().stream()
+                .map(r -> r + " " + r.getUniqueConstraints() + " " + r.getForeignKeys())
+                .sorted()
+                .collect(ImmutableCollectors.toList());
+    }
+}
@@ -1,6 +1,32 @@
 package it.unibz.inf.ontop.injection;
 
+import java.util.Optional;
 
 public interface OntopMappingSQLSettings extends OntopMappingSettings, OntopSQLCredentialSettings {
 
+    /**
+     * Number of connections used for extracting the constraints of the relations relation by relation,
+     * when the DBMS has no catalog-wide extraction of them.
+     *
+     * Additional connections are opened only if greater than 1.
+     */
+    int getMetadataExtractionParallelism();
+
+    /**
+     * Snapshot of the DB metadata produced by "ontop compile".
+     *
+     * Used instead of extracting the metadata when it has been produced for the same mapping, constraints and
+     * DB settings. Otherwise, the metadata is extracted as usual.
+     *
+     * Only the DB metadata is restored: the mapping and the ontology are still processed at startup.
+     * Changes of the DB schema are not detected: the snapshot must be produced again after them.
+     */
+    Optional<String> getMetadataSnapshotFile();
+
+    //--------------------------
+    // Keys
+    //--------------------------
+
+    String METADATA_EXTRACTION_PARALLELISM = "ontop.metadataExtraction.parallelism";
+    String METADATA_SNAPSHOT_FILE = "ontop.metadataSnapshotFile";
 }
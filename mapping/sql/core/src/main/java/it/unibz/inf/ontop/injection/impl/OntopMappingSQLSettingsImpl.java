@@ -3,6 +3,7 @@ package it.unibz.inf.ontop.injection.impl;
 import it.unibz.inf.ontop.injection.OntopMappingSQLSettings;
 import it.unibz.inf.ontop.injection.OntopSQLCredentialSettings;
 
+import java.util.Optional;
 import java.util.Properties;
 
 import static it.unibz.inf.ontop.injection.impl.OntopSQLCoreSettingsImpl.loadSQLCoreProperties;
@@ -52,4 +53,14 @@ public class OntopMappingSQLSettingsImpl extends OntopMappingSettingsImpl implem
     public String getJdbcDriver() {
         return sqlSettings.getJdbcDriver();
     }
+
+    @Override
+    public int getMetadataExtractionParallelism() {
+        return getRequiredInteger(METADATA_EXTRACTION_PARALLELISM);
+    }
+
+    @Override
+    public Optional<String> getMetadataSnapshotFile() {
+        return getProperty(METADATA_SNAPSHOT_FILE);
+    }
 }
@@ -7,6 +7,7 @@ import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.util.Optional;
 
@@ -27,4 +28,21 @@ public interface RDBMetadataExtractor {
     RDBMetadata extract(SQLPPMapping ppMapping, @Nullable Connection dbConnection,
                         DBMetadata partiallyDefinedMetadata, Optional<File> constraintFile)
             throws DBMetadataExtractionException;
+
+    /**
+     * Metadata of the snapshot (see OntopMappingSQLSettings.getMetadataSnapshotFile()), when it is configured
+     * and has been produced for the same mapping, constraint file and DB settings.
+     *
+     * Does not connect to the DB.
+     */
+    Optional<RDBMetadata> loadSnapshot(SQLPPMapping ppMapping, Optional<File> constraintFile)
+            throws DBMetadataExtractionException;
+
+    /**
+     * Extracts the metadata and writes it as a snapshot, to be used by the next extractions
+     * for the same mapping and constraint file (see OntopMappingSQLSettings.getMetadataSnapshotFile()).
+     */
+    void extractToSnapshot(SQLPPMapping ppMapping, Connection dbConnection, Optional<File> constraintFile,
+                           OutputStream snapshotStream)
+            throws DBMetadataExtractionException;
 }
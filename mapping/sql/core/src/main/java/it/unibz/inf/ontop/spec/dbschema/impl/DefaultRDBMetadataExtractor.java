@@ -1,18 +1,26 @@
 package it.unibz.inf.ontop.spec.dbschema.impl;
 
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import it.unibz.inf.ontop.dbschema.*;
 import it.unibz.inf.ontop.injection.OntopMappingSQLSettings;
 import it.unibz.inf.ontop.exception.DBMetadataExtractionException;
 import it.unibz.inf.ontop.model.type.TypeFactory;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.spec.dbschema.RDBMetadataExtractor;
 import it.unibz.inf.ontop.spec.dbschema.PreProcessedImplicitRelationalDBConstraintExtractor;
 import it.unibz.inf.ontop.spec.dbschema.PreProcessedImplicitRelationalDBConstraintSet;
+import it.unibz.inf.ontop.utils.LocalJDBCConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.io.File;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Optional;
@@ -25,6 +33,8 @@ import static it.unibz.inf.ontop.spec.dbschema.impl.SQLTableNameExtractor.getRea
  */
 public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
 
+    private static final Logger log = LoggerFactory.getLogger(DefaultRDBMetadataExtractor.class);
+
     /**
      * If we have to parse the full metadata or just the table list in the mappings.
      */
@@ -39,6 +49,17 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
     private final PreProcessedImplicitRelationalDBConstraintExtractor implicitDBConstraintExtractor;
     private final TypeFactory typeFactory;
 
+    /**
+     * Connections used for extracting the constraints in parallel
+     */
+    private final int parallelism;
+    private final RDBMetadataExtractionTools.ConnectionSupplier connectionSupplier;
+
+    private final Optional<String> snapshotFile;
+    private final String jdbcUrl;
+    @Nullable
+    private final String jdbcUser;
+
     @Inject
     private DefaultRDBMetadataExtractor(OntopMappingSQLSettings settings,
                                         PreProcessedImplicitRelationalDBConstraintExtractor implicitDBConstraintExtractor,
@@ -46,6 +67,11 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
         this.obtainFullMetadata = settings.isFullMetadataExtractionEnabled();
         this.implicitDBConstraintExtractor = implicitDBConstraintExtractor;
         this.typeFactory = typeFactory;
+        this.parallelism = settings.getMetadataExtractionParallelism();
+        this.connectionSupplier = () -> LocalJDBCConnectionUtils.createConnection(settings);
+        this.snapshotFile = settings.getMetadataSnapshotFile();
+        this.jdbcUrl = settings.getJdbcUrl();
+        this.jdbcUser = settings.getJdbcUser();
     }
 
     @Override
@@ -60,6 +86,26 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
         }
     }
 
+    @Override
+    public Optional<RDBMetadata> loadSnapshot(SQLPPMapping ppMapping, Optional<File> constraintFile)
+            throws DBMetadataExtractionException {
+        if (!snapshotFile.isPresent())
+            return Optional.empty();
+        return readSnapshot(new File(snapshotFile.get()), computeFingerprint(ppMapping, constraintFile));
+    }
+
+    @Override
+    public void extractToSnapshot(SQLPPMapping ppMapping, Connection connection, Optional<File> constraintFile,
+                                  OutputStream snapshotStream) throws DBMetadataExtractionException {
+        RDBMetadata metadata = extract(ppMapping, connection, constraintFile);
+        try {
+            RDBMetadataSnapshot.write(metadata, computeFingerprint(ppMapping, constraintFile), snapshotStream);
+        }
+        catch (IOException e) {
+            throw new DBMetadataExtractionException("Cannot write the metadata snapshot: " + e.getMessage());
+        }
+    }
+
     @Override
     public RDBMetadata extract(SQLPPMapping ppMapping, @Nullable Connection connection,
                                DBMetadata partiallyDefinedMetadata, Optional<File> constraintFile)
@@ -78,7 +124,7 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
 
             // if we have to parse the full metadata or just the table list in the mappings
             if (obtainFullMetadata) {
-                RDBMetadataExtractionTools.loadMetadata(metadata, connection, null);
+                RDBMetadataExtractionTools.loadMetadata(metadata, connection, null, parallelism, connectionSupplier);
             }
             else {
                 try {
@@ -94,7 +140,8 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
                         realTables.addAll(referredTables);
                     });
 
-                    RDBMetadataExtractionTools.loadMetadata(metadata, connection, realTables);
+                    RDBMetadataExtractionTools.loadMetadata(metadata, connection, realTables, parallelism,
+                            connectionSupplier);
                 }
                 catch (SQLException e) {
                     System.out.println("Error obtaining the metadata " + e);
@@ -113,4 +160,54 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
             throw new DBMetadataExtractionException(e.getMessage());
         }
     }
+
+    private Optional<RDBMetadata> readSnapshot(File file, String fingerprint) {
+        if (!file.exists()) {
+            log.warn("The metadata snapshot {} does not exist, the metadata is extracted from the DB", file);
+            return Optional.empty();
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            Optional<RDBMetadata> metadata = RDBMetadataSnapshot.read(in, fingerprint, typeFactory);
+            if (metadata.isPresent())
+                log.info("DB metadata loaded from the snapshot {}", file);
+            else
+                log.warn("The metadata snapshot {} has been produced for other inputs, " +
+                        "the metadata is extracted from the DB", file);
+            return metadata;
+        }
+        catch (IOException e) {
+            log.warn("Cannot read the metadata snapshot {} ({}), the metadata is extracted from the DB", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The extracted metadata depends on the DB, on the source queries (for the table names)
+     * and on the constraint file.
+     *
+     * Only the inputs are fingerprinted, not the DB schema: after a schema change, the snapshot must be produced again.
+     */
+    private String computeFingerprint(SQLPPMapping ppMapping, Optional<File> constraintFile)
+            throws DBMetadataExtractionException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, jdbcUrl);
+        putString(hasher, String.valueOf(jdbcUser));
+        hasher.putBoolean(obtainFullMetadata);
+        for (SQLPPTriplesMap triplesMap : ppMapping.getTripleMaps())
+            putString(hasher, triplesMap.getSourceQuery().getSQLQuery());
+        if (constraintFile.isPresent()) {
+            try {
+                hasher.putBytes(Files.readAllBytes(constraintFile.get().toPath()));
+            }
+            catch (IOException e) {
+                throw new DBMetadataExtractionException("Cannot read the constraint file: " + e.getMessage());
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putString(Hasher hasher, String s) {
+        hasher.putInt(s.length());
+        hasher.putString(s, StandardCharsets.UTF_8);
+    }
 }
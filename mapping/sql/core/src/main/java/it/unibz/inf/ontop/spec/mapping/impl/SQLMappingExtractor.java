@@ -24,6 +24,7 @@ import it.unibz.inf.ontop.spec.mapping.pp.impl.SQLPPMappingImpl;
 import it.unibz.inf.ontop.spec.mapping.transformer.MappingCanonicalTransformer;
 import it.unibz.inf.ontop.spec.mapping.transformer.MappingDatatypeFiller;
 import it.unibz.inf.ontop.spec.mapping.transformer.MappingEqualityTransformer;
+import it.unibz.inf.ontop.spec.mapping.utils.ParallelMappingProcessor;
 import it.unibz.inf.ontop.spec.mapping.validation.MappingOntologyComplianceValidator;
 import it.unibz.inf.ontop.spec.ontology.Ontology;
 import it.unibz.inf.ontop.substitution.SubstitutionFactory;
@@ -99,13 +100,25 @@ public class SQLMappingExtractor extends AbstractMappingExtractor<SQLPPMapping,
         SQLPPMapping expandedPPMapping = expandPPMapping(ppMapping, settings, dbMetadata);
 
         // NB: may also add views in the DBMetadata (for non-understood SQL queries)
+        long start = System.currentTimeMillis();
         ImmutableList<MappingAssertion> provMapping = ppMappingConverter.convert(expandedPPMapping, dbMetadata, executorRegistry);
+        log.debug("Mapping conversion: {} ms", System.currentTimeMillis() - start);
         dbMetadata.freeze();
 
-        ImmutableList<MappingAssertion> eqMapping = mappingEqualityTransformer.transform(provMapping);
-        ImmutableList<MappingAssertion> filledProvMapping = mappingDatatypeFiller.transform(eqMapping);
-        ImmutableList<MappingAssertion> castMapping = mappingCaster.transform(filledProvMapping);
-        ImmutableList<MappingAssertion> canonizedMapping = canonicalTransformer.transform(castMapping);
+        ImmutableList<MappingAssertion> canonizedMapping;
+        // The stages below process the mapping assertion by assertion, except the canonical transformation
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(settings.getMappingProcessingParallelism())) {
+            ImmutableList<MappingAssertion> eqMapping = runStage("Mapping equality transformation", processor,
+                    mappingEqualityTransformer::transform, provMapping);
+            ImmutableList<MappingAssertion> filledProvMapping = runStage("Mapping datatype filling", processor,
+                    mappingDatatypeFiller::transform, eqMapping);
+            ImmutableList<MappingAssertion> castMapping = runStage("Mapping casting", processor,
+                    mappingCaster::transform, filledProvMapping);
+
+            start = System.currentTimeMillis();
+            canonizedMapping = canonicalTransformer.transform(castMapping);
+            log.debug("Mapping canonical transformation: {} ms", System.currentTimeMillis() - start);
+        }
 
         validateMapping(optionalOntology, canonizedMapping);
 
@@ -113,6 +126,16 @@ public class SQLMappingExtractor extends AbstractMappingExtractor<SQLPPMapping,
         // dbMetadata GOES NO FURTHER - no need to freeze it
     }
 
+    private static ImmutableList<MappingAssertion> runStage(
+            String stageName, ParallelMappingProcessor processor,
+            ParallelMappingProcessor.ChunkTransformation<MappingAssertion, MappingAssertion, UnknownDatatypeException> stage,
+            ImmutableList<MappingAssertion> mapping) throws UnknownDatatypeException {
+        long start = System.currentTimeMillis();
+        ImmutableList<MappingAssertion> newMapping = processor.transform(mapping, stage, UnknownDatatypeException.class);
+        log.debug("{}: {} ms", stageName, System.currentTimeMillis() - start);
+        return newMapping;
+    }
+
     protected SQLPPMapping expandPPMapping(SQLPPMapping ppMapping, OntopMappingSQLSettings settings, RDBMetadata dbMetadata)
             throws MetaMappingExpansionException {
 
@@ -141,7 +164,7 @@ public class SQLMappingExtractor extends AbstractMappingExtractor<SQLPPMapping,
     }
 
     /**
-     * Makes use of the DB connection
+     * Makes use of the DB connection, unless the metadata is restored from a snapshot
      */
     private RDBMetadata extractDBMetadata(SQLPPMapping ppMapping, Optional<RDBMetadata> optionalDBMetadata,
                                           OBDASpecInput specInput)
@@ -155,6 +178,16 @@ public class SQLMappingExtractor extends AbstractMappingExtractor<SQLPPMapping,
         if (isDBMetadataProvided && (!settings.isProvidedDBMetadataCompletionEnabled()))
             return optionalDBMetadata.get();
 
+        /*
+         * Restored from the snapshot without connecting to the DB
+         */
+        if (!isDBMetadataProvided) {
+            Optional<RDBMetadata> snapshotMetadata = dbMetadataExtractor.loadSnapshot(ppMapping,
+                    specInput.getConstraintFile());
+            if (snapshotMetadata.isPresent())
+                return snapshotMetadata.get();
+        }
+
         try (Connection localConnection = LocalJDBCConnectionUtils.createConnection(settings)) {
             return isDBMetadataProvided
                     ? dbMetadataExtractor.extract(ppMapping, localConnection, optionalDBMetadata.get(),
@@ -9,6 +9,7 @@ import it.unibz.inf.ontop.dbschema.*;
 import it.unibz.inf.ontop.exception.InvalidMappingSourceQueriesException;
 import it.unibz.inf.ontop.injection.CoreSingletons;
 import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.OntopMappingSettings;
 import it.unibz.inf.ontop.iq.IQ;
 import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.tools.ExecutorRegistry;
@@ -28,12 +29,14 @@ import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMappingConverter;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.spec.mapping.transformer.impl.IQ2CQ;
 import it.unibz.inf.ontop.spec.mapping.utils.MappingTools;
+import it.unibz.inf.ontop.spec.mapping.utils.ParallelMappingProcessor;
 import it.unibz.inf.ontop.substitution.ImmutableSubstitution;
 import it.unibz.inf.ontop.substitution.SubstitutionFactory;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 
@@ -50,16 +53,18 @@ public class LegacySQLPPMappingConverter implements SQLPPMappingConverter {
     private final AtomFactory atomFactory;
     private final SubstitutionFactory substitutionFactory;
     private final CoreSingletons coreSingletons;
+    private final OntopMappingSettings settings;
 
     @Inject
     private LegacySQLPPMappingConverter(NoNullValueEnforcer noNullValueEnforcer,
-                                        CoreSingletons coreSingletons) {
+                                        CoreSingletons coreSingletons, OntopMappingSettings settings) {
         this.termFactory = coreSingletons.getTermFactory();
         this.noNullValueEnforcer = noNullValueEnforcer;
         this.iqFactory = coreSingletons.getIQFactory();
         this.atomFactory = coreSingletons.getAtomFactory();
         this.substitutionFactory = coreSingletons.getSubstitutionFactory();
         this.coreSingletons = coreSingletons;
+        this.settings = settings;
     }
 
     @Override
@@ -72,112 +77,174 @@ public class LegacySQLPPMappingConverter implements SQLPPMappingConverter {
 
     /**
      * May also add views in the DBMetadata!
+     *
+     * The source queries are parsed and the target atoms are converted in parallel,
+     * while the parser views are created sequentially (in the order of the triples maps).
      */
 
     public ImmutableList<MappingAssertion> convert(Collection<SQLPPTriplesMap> triplesMaps,
                                                    RDBMetadata metadata) throws InvalidMappingSourceQueriesException {
-        List<MappingAssertion> mutableMap = new ArrayList<>();
 
-        List<String> errorMessages = new ArrayList<>();
+        ImmutableList<SQLPPTriplesMap> triplesMapList = ImmutableList.copyOf(triplesMaps);
+
+        ImmutableList<TriplesMapConversion> conversions;
+        try (ParallelMappingProcessor processor = new ParallelMappingProcessor(settings.getMappingProcessingParallelism())) {
+            ImmutableList<TriplesMapConversion> parsedTriplesMaps = processor.transform(triplesMapList,
+                    chunk -> chunk.stream()
+                            .map(m -> parseSourceQuery(m, metadata))
+                            .collect(ImmutableCollectors.toList()),
+                    RuntimeException.class);
+
+            // NB: modifies the metadata
+            ImmutableList<TriplesMapConversion> triplesMapsWithSource = parsedTriplesMaps.stream()
+                    .map(c -> createSourceTree(c, metadata))
+                    .collect(ImmutableCollectors.toList());
+
+            conversions = processor.transform(triplesMapsWithSource,
+                    chunk -> chunk.stream()
+                            .map(c -> convertTargetAtoms(c, metadata))
+                            .collect(ImmutableCollectors.toList()),
+                    RuntimeException.class);
+        }
+
+        ImmutableList<String> errorMessages = conversions.stream()
+                .flatMap(c -> c.errorMessages.stream())
+                .collect(ImmutableCollectors.toList());
+
+        if (!errorMessages.isEmpty())
+            throw new InvalidMappingSourceQueriesException(Joiner.on("\n\n").join(errorMessages));
+
+        ImmutableList<MappingAssertion> mapping = conversions.stream()
+                .flatMap(c -> c.assertions.stream())
+                .collect(ImmutableCollectors.toList());
+
+        LOGGER.debug("Original mapping size: {}", mapping.size());
 
-        for (SQLPPTriplesMap mappingAxiom : triplesMaps) {
+        return mapping;
+    }
+
+    /**
+     * Does not modify the metadata (thread-safe)
+     */
+    private TriplesMapConversion parseSourceQuery(SQLPPTriplesMap mappingAxiom, RDBMetadata metadata) {
+        String sourceQuery = mappingAxiom.getSourceQuery().getSQLQuery();
+        try {
             try {
-                String sourceQuery = mappingAxiom.getSourceQuery().getSQLQuery();
-
-                ImmutableList<DataAtom<RelationPredicate>> dataAtoms;
-                Optional<ImmutableExpression> filter;
-                ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable;
-
-                try {
-                    SelectQueryParser sqp = new SelectQueryParser(metadata, coreSingletons);
-                    RAExpression re = sqp.parse(sourceQuery);
-                    lookupTable = re.getAttributes();
-                    dataAtoms = re.getDataAtoms();
-                    filter = re.getFilterAtoms().reverse().stream()
-                                        .reduce((a, b) -> termFactory.getConjunction(b, a));
-                }
-                catch (UnsupportedSelectQueryException e) {
-                    ImmutableList<QuotedID> attributes = new SelectQueryAttributeExtractor(metadata, termFactory)
-                            .extract(sourceQuery);
-                    ParserViewDefinition view = metadata.createParserView(sourceQuery, attributes);
+                SelectQueryParser sqp = new SelectQueryParser(metadata, coreSingletons);
+                RAExpression re = sqp.parse(sourceQuery);
+                Optional<ImmutableExpression> filter = re.getFilterAtoms().reverse().stream()
+                        .reduce((a, b) -> termFactory.getConjunction(b, a));
+
+                return TriplesMapConversion.withSource(mappingAxiom,
+                        createTree(re.getDataAtoms(), filter), re.getAttributes());
+            }
+            catch (UnsupportedSelectQueryException e) {
+                ImmutableList<QuotedID> attributes = new SelectQueryAttributeExtractor(metadata, termFactory)
+                        .extract(sourceQuery);
+                return TriplesMapConversion.withViewAttributes(mappingAxiom, attributes);
+            }
+        }
+        catch (InvalidSelectQueryException e) {
+            return TriplesMapConversion.withError(mappingAxiom, "Error: " + e.getMessage()
+                    + " \nProblem location: source query of triplesMap \n["
+                    +  mappingAxiom.getTriplesMapProvenance().getProvenanceInfo() + "]");
+        }
+    }
 
-                    // this is required to preserve the order of the variables
-                    ImmutableList<Map.Entry<QualifiedAttributeID, Variable>> list = view.getAttributes().stream()
-                            .map(att -> new AbstractMap.SimpleEntry<>(
-                                    new QualifiedAttributeID(null, att.getID()), // strip off the ParserViewDefinitionName
-                                    termFactory.getVariable(att.getID().getName())))
-                            .collect(ImmutableCollectors.toList());
+    /**
+     * Creates the parser view of a non-understood source query (modifies the metadata, not thread-safe)
+     */
+    private TriplesMapConversion createSourceTree(TriplesMapConversion conversion, RDBMetadata metadata) {
+        if (conversion.viewAttributes == null)
+            return conversion;
 
-                    lookupTable = list.stream().collect(ImmutableCollectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        String sourceQuery = conversion.triplesMap.getSourceQuery().getSQLQuery();
+        ParserViewDefinition view = metadata.createParserView(sourceQuery, conversion.viewAttributes);
 
-                    ImmutableList<Variable> arguments = list.stream().map(Map.Entry::getValue).collect(ImmutableCollectors.toList());
+        // this is required to preserve the order of the variables
+        ImmutableList<Map.Entry<QualifiedAttributeID, Variable>> list = view.getAttributes().stream()
+                .map(att -> new AbstractMap.SimpleEntry<>(
+                        new QualifiedAttributeID(null, att.getID()), // strip off the ParserViewDefinitionName
+                        termFactory.getVariable(att.getID().getName())))
+                .collect(ImmutableCollectors.toList());
 
-                    dataAtoms = ImmutableList.of(atomFactory.getDataAtom(view.getAtomPredicate(), arguments));
-                    filter = Optional.empty();
-                }
+        ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable = list.stream()
+                .collect(ImmutableCollectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
-                final IQTree tree = IQ2CQ.toIQTree(dataAtoms.stream()
-                                .map(iqFactory::createExtensionalDataNode)
-                                .collect(ImmutableCollectors.toList()),
-                        filter, iqFactory);
-
-                for (TargetAtom atom : mappingAxiom.getTargetAtoms()) {
-                    PPMappingAssertionProvenance provenance = mappingAxiom.getMappingAssertionProvenance(atom);
-                    try {
-                        ImmutableMap.Builder<Variable, ImmutableTerm> builder = ImmutableMap.builder();
-                        ImmutableList.Builder<Variable> varBuilder2 = ImmutableList.builder();
-                        for (Variable v : atom.getProjectionAtom().getArguments()) {
-                            ImmutableTerm t = atom.getSubstitution().get(v);
-                            if (t != null) {
-                                builder.put(v, renameVariables(t, lookupTable, metadata.getQuotedIDFactory()));
-                                varBuilder2.add(v);
-                            }
-                            else {
-                                ImmutableTerm tt = renameVariables(v, lookupTable, metadata.getQuotedIDFactory());
-                                if (tt instanceof Variable) { // avoids Var -> Var
-                                    Variable v2 = (Variable) tt;
-                                    varBuilder2.add(v2);
-                                }
-                                else {
-                                    builder.put(v, tt);
-                                    varBuilder2.add(v);
-                                }
-                            }
-                        }
-                        ImmutableList<Variable> varList = varBuilder2.build();
-                        ImmutableSubstitution<ImmutableTerm> substitution = substitutionFactory.getSubstitution(builder.build());
+        ImmutableList<Variable> arguments = list.stream().map(Map.Entry::getValue).collect(ImmutableCollectors.toList());
+
+        ImmutableList<DataAtom<RelationPredicate>> dataAtoms = ImmutableList.of(
+                atomFactory.getDataAtom(view.getAtomPredicate(), arguments));
+
+        return TriplesMapConversion.withSource(conversion.triplesMap,
+                createTree(dataAtoms, Optional.empty()), lookupTable);
+    }
+
+    private IQTree createTree(ImmutableList<DataAtom<RelationPredicate>> dataAtoms,
+                              Optional<ImmutableExpression> filter) {
+        return IQ2CQ.toIQTree(dataAtoms.stream()
+                        .map(iqFactory::createExtensionalDataNode)
+                        .collect(ImmutableCollectors.toList()),
+                filter, iqFactory);
+    }
+
+    /**
+     * Does not modify the metadata (thread-safe)
+     */
+    private TriplesMapConversion convertTargetAtoms(TriplesMapConversion conversion, RDBMetadata metadata) {
+        if (conversion.tree == null)
+            return conversion;
 
-                        IQ iq0 = iqFactory.createIQ(
-                                    atomFactory.getDistinctVariableOnlyDataAtom(atom.getProjectionAtom().getPredicate(), varList),
-                                    iqFactory.createUnaryIQTree(
-                                            iqFactory.createConstructionNode(ImmutableSet.copyOf(varList), substitution), tree));
+        SQLPPTriplesMap mappingAxiom = conversion.triplesMap;
+        ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable = conversion.lookupTable;
 
-                        IQ iq = noNullValueEnforcer.transform(iq0).normalizeForOptimization();
+        ImmutableList.Builder<MappingAssertion> assertionBuilder = ImmutableList.builder();
+        ImmutableList.Builder<String> errorMessageBuilder = ImmutableList.builder();
 
-                        mutableMap.add(new MappingAssertion(MappingTools.extractRDFPredicate(iq), iq,  provenance));
-                        //if (previous != null)
-                        //    LOGGER.warn("Redundant triples maps: \n" + provenance + "\n and \n" + previous);
+        for (TargetAtom atom : mappingAxiom.getTargetAtoms()) {
+            PPMappingAssertionProvenance provenance = mappingAxiom.getMappingAssertionProvenance(atom);
+            try {
+                ImmutableMap.Builder<Variable, ImmutableTerm> builder = ImmutableMap.builder();
+                ImmutableList.Builder<Variable> varBuilder2 = ImmutableList.builder();
+                for (Variable v : atom.getProjectionAtom().getArguments()) {
+                    ImmutableTerm t = atom.getSubstitution().get(v);
+                    if (t != null) {
+                        builder.put(v, renameVariables(t, lookupTable, metadata.getQuotedIDFactory()));
+                        varBuilder2.add(v);
                     }
-                    catch (AttributeNotFoundException e) {
-                        errorMessages.add("Error: " + e.getMessage()
-                                + " \nProblem location: source query of the mapping assertion \n["
-                                + provenance.getProvenanceInfo() + "]");
+                    else {
+                        ImmutableTerm tt = renameVariables(v, lookupTable, metadata.getQuotedIDFactory());
+                        if (tt instanceof Variable) { // avoids Var -> Var
+                            Variable v2 = (Variable) tt;
+                            varBuilder2.add(v2);
+                        }
+                        else {
+                            builder.put(v, tt);
+                            varBuilder2.add(v);
+                        }
                     }
                 }
-            }
-            catch (InvalidSelectQueryException e) {
-                errorMessages.add("Error: " + e.getMessage()
-                        + " \nProblem location: source query of triplesMap \n["
-                        +  mappingAxiom.getTriplesMapProvenance().getProvenanceInfo() + "]");
-            }
-        }
+                ImmutableList<Variable> varList = varBuilder2.build();
+                ImmutableSubstitution<ImmutableTerm> substitution = substitutionFactory.getSubstitution(builder.build());
 
-        if (!errorMessages.isEmpty())
-            throw new InvalidMappingSourceQueriesException(Joiner.on("\n\n").join(errorMessages));
+                IQ iq0 = iqFactory.createIQ(
+                            atomFactory.getDistinctVariableOnlyDataAtom(atom.getProjectionAtom().getPredicate(), varList),
+                            iqFactory.createUnaryIQTree(
+                                    iqFactory.createConstructionNode(ImmutableSet.copyOf(varList), substitution),
+                                    conversion.tree));
 
-        LOGGER.debug("Original mapping size: {}", mutableMap.size());
+                IQ iq = noNullValueEnforcer.transform(iq0).normalizeForOptimization();
 
-        return ImmutableList.copyOf(mutableMap);
+                assertionBuilder.add(new MappingAssertion(MappingTools.extractRDFPredicate(iq), iq,  provenance));
+            }
+            catch (AttributeNotFoundException e) {
+                errorMessageBuilder.add("Error: " + e.getMessage()
+                        + " \nProblem location: source query of the mapping assertion \n["
+                        + provenance.getProvenanceInfo() + "]");
+            }
+        }
+        return new TriplesMapConversion(mappingAxiom, null, null, null,
+                assertionBuilder.build(), errorMessageBuilder.build());
     }
 
 
@@ -218,6 +285,50 @@ public class LegacySQLPPMappingConverter implements SQLPPMappingConverter {
                 throw new RuntimeException("Unknown term type: " + term);
     }
 
+    /**
+     * State of the conversion of a triples map, from the parsing of its source query
+     * to its mapping assertions (or error messages)
+     */
+    private static class TriplesMapConversion {
+        private final SQLPPTriplesMap triplesMap;
+        // Non-null once the source query is converted into a tree
+        @Nullable
+        private final IQTree tree;
+        @Nullable
+        private final ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable;
+        // Non-null if a parser view is needed for the source query
+        @Nullable
+        private final ImmutableList<QuotedID> viewAttributes;
+        private final ImmutableList<MappingAssertion> assertions;
+        private final ImmutableList<String> errorMessages;
+
+        private TriplesMapConversion(SQLPPTriplesMap triplesMap, @Nullable IQTree tree,
+                                     @Nullable ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable,
+                                     @Nullable ImmutableList<QuotedID> viewAttributes,
+                                     ImmutableList<MappingAssertion> assertions, ImmutableList<String> errorMessages) {
+            this.triplesMap = triplesMap;
+            this.tree = tree;
+            this.lookupTable = lookupTable;
+            this.viewAttributes = viewAttributes;
+            this.assertions = assertions;
+            this.errorMessages = errorMessages;
+        }
+
+        static TriplesMapConversion withSource(SQLPPTriplesMap triplesMap, IQTree tree,
+                                               ImmutableMap<QualifiedAttributeID, ImmutableTerm> lookupTable) {
+            return new TriplesMapConversion(triplesMap, tree, lookupTable, null, ImmutableList.of(), ImmutableList.of());
+        }
+
+        static TriplesMapConversion withViewAttributes(SQLPPTriplesMap triplesMap, ImmutableList<QuotedID> attributes) {
+            return new TriplesMapConversion(triplesMap, null, null, attributes, ImmutableList.of(), ImmutableList.of());
+        }
+
+        static TriplesMapConversion withError(SQLPPTriplesMap triplesMap, String errorMessage) {
+            return new TriplesMapConversion(triplesMap, null, null, null, ImmutableList.of(),
+                    ImmutableList.of(errorMessage));
+        }
+    }
+
     private static class AttributeNotFoundException extends Exception {
         AttributeNotFoundException(String message) {
             super(message);
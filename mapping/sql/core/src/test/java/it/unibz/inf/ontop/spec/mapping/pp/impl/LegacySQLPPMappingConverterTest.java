@@ -0,0 +1,135 @@
+package it.unibz.inf.ontop.spec.mapping.pp.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.dbschema.*;
+import it.unibz.inf.ontop.exception.TargetQueryParserException;
+import it.unibz.inf.ontop.injection.OntopMappingSQLConfiguration;
+import it.unibz.inf.ontop.injection.OntopMappingSettings;
+import it.unibz.inf.ontop.injection.TargetQueryParserFactory;
+import it.unibz.inf.ontop.model.type.DBTermType;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.spec.mapping.SQLMappingFactory;
+import it.unibz.inf.ontop.spec.mapping.impl.SQLMappingFactoryImpl;
+import it.unibz.inf.ontop.spec.mapping.parser.TargetQueryParser;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The conversion does not depend on the parallelism
+ */
+public class LegacySQLPPMappingConverterTest {
+
+    private static final SQLMappingFactory MAPPING_FACTORY = SQLMappingFactoryImpl.getInstance();
+    // Many chunks for a parallelism of 4
+    private static final int TRIPLES_MAP_COUNT = 60;
+
+    @Test
+    public void testParallelConversion() throws Exception {
+        Conversion sequentialConversion = convert(1);
+        Conversion parallelConversion = convert(4);
+
+        // One parser view per GROUP BY source query
+        assertEquals(TRIPLES_MAP_COUNT / 3, sequentialConversion.parserViews.size());
+        assertTrue(sequentialConversion.assertions.size() > TRIPLES_MAP_COUNT);
+
+        assertEquals(sequentialConversion.assertions, parallelConversion.assertions);
+        assertEquals(sequentialConversion.parserViews, parallelConversion.parserViews);
+    }
+
+    private static Conversion convert(int parallelism) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(OntopMappingSettings.MAPPING_PROCESSING_PARALLELISM, String.valueOf(parallelism));
+        Injector injector = OntopMappingSQLConfiguration.defaultBuilder()
+                .jdbcUrl("jdbc:h2:mem:something")
+                .jdbcDriver("org.h2.Driver")
+                .jdbcUser("user")
+                .jdbcPassword("password")
+                .properties(properties)
+                .enableTestMode()
+                .build()
+                .getInjector();
+        assertEquals(parallelism, injector.getInstance(OntopMappingSettings.class).getMappingProcessingParallelism());
+
+        RDBMetadata metadata = createMetadata(injector);
+        ImmutableList<String> assertions = injector.getInstance(LegacySQLPPMappingConverter.class)
+                .convert(createTriplesMaps(injector), metadata).stream()
+                .map(a -> a.getQuery().toString())
+                .collect(ImmutableCollectors.toList());
+
+        ImmutableMap<String, String> parserViews = metadata.copyRelations().values().stream()
+                .filter(r -> r instanceof ParserViewDefinition)
+                .map(r -> (ParserViewDefinition) r)
+                .collect(ImmutableCollectors.toMap(v -> v.getID().toString(), ParserViewDefinition::getStatement));
+
+        return new Conversion(assertions, parserViews);
+    }
+
+    private static RDBMetadata createMetadata(Injector injector) {
+        RDBMetadata md = injector.getInstance(DummyRDBMetadata.class).clone();
+        QuotedIDFactory idfac = md.getQuotedIDFactory();
+        TypeFactory typeFactory = injector.getInstance(TypeFactory.class);
+        DBTermType integerType = typeFactory.getDBTypeFactory().getDBLargeIntegerType();
+        DBTermType stringType = typeFactory.getDBTypeFactory().getDBStringType();
+
+        DatabaseRelationDefinition table = md.createDatabaseRelation(idfac.createRelationID(null, "Student"));
+        table.addAttribute(idfac.createAttributeID("id"), integerType.getName(), integerType, false);
+        table.addAttribute(idfac.createAttributeID("first_name"), stringType.getName(), stringType, false);
+        table.addAttribute(idfac.createAttributeID("year"), integerType.getName(), integerType, false);
+        table.addAttribute(idfac.createAttributeID("nationality"), stringType.getName(), stringType, true);
+        table.addUniqueConstraint(UniqueConstraint.primaryKeyOf(table.getAttribute(idfac.createAttributeID("id"))));
+        return md;
+    }
+
+    private static ImmutableList<SQLPPTriplesMap> createTriplesMaps(Injector injector)
+            throws TargetQueryParserException {
+        TargetQueryParser targetParser = injector.getInstance(TargetQueryParserFactory.class)
+                .createParser(ImmutableMap.of(":", "http://www.example.org/university#"));
+
+        ImmutableList.Builder<SQLPPTriplesMap> builder = ImmutableList.builder();
+        for (int i = 0; i < TRIPLES_MAP_COUNT; i++) {
+            switch (i % 3) {
+                case 0:
+                    builder.add(triplesMap(targetParser, "MAPPING-" + i,
+                            "select id, first_name from Student where year = " + i,
+                            ":S_{id} a :Student" + i + " ; :fname {first_name} ."));
+                    break;
+                case 1:
+                    builder.add(triplesMap(targetParser, "MAPPING-" + i,
+                            "select id, nationality from Student where year > " + i,
+                            ":S_{id} :nationality" + i + " {nationality} ."));
+                    break;
+                default:
+                    // Not supported by the parser: a parser view is created
+                    builder.add(triplesMap(targetParser, "MAPPING-" + i,
+                            "select nationality, max(year) as y from Student where id > " + i
+                                    + " group by nationality",
+                            ":N_{nationality} :lastYear" + i + " {y} ."));
+            }
+        }
+        return builder.build();
+    }
+
+    private static SQLPPTriplesMap triplesMap(TargetQueryParser targetParser, String id, String source,
+                                              String target) throws TargetQueryParserException {
+        return new OntopNativeSQLPPTriplesMap(id, MAPPING_FACTORY.getSQLQuery(source), targetParser.parse(target));
+    }
+
+
+    private static class Conversion {
+        private final ImmutableList<String> assertions;
+        private final ImmutableMap<String, String> parserViews;
+
+        private Conversion(ImmutableList<String> assertions, ImmutableMap<String, String> parserViews) {
+            this.assertions = assertions;
+            this.parserViews = parserViews;
+        }
+    }
+}
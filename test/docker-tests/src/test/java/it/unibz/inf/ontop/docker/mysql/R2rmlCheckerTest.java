@@ -81,7 +81,9 @@ public class R2rmlCheckerTest {
 	private List<IRI> emptyRolesR2rml = new ArrayList<>();
 
 	private OntopOWLReasoner reasonerOBDA;
+	private OntopSQLOWLAPIConfiguration configOBDA;
 	private OntopOWLReasoner reasonerR2rml;
+	private OntopSQLOWLAPIConfiguration configR2rml;
 
     @Before
 	public void setUp() throws Exception {
@@ -180,7 +182,7 @@ public class R2rmlCheckerTest {
 
 		// Now we are ready for querying
 		conn = reasonerOBDA.getConnection();
-		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn);
+		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn, configOBDA.getSettings());
 		Iterator<IRI> iteratorC = empties.iEmptyConcepts();
 		while (iteratorC.hasNext()){
 			emptyConceptsObda.add(iteratorC.next());
@@ -208,7 +210,7 @@ public class R2rmlCheckerTest {
 
 		// Now we are ready for querying
 		conn = reasonerR2rml.getConnection();
-		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn);
+		QuestOWLEmptyEntitiesChecker empties = new QuestOWLEmptyEntitiesChecker(onto, conn, configR2rml.getSettings());
 		Iterator<IRI> iteratorC = empties.iEmptyConcepts();
 		while (iteratorC.hasNext()){
 			emptyConceptsR2rml.add(iteratorC.next());
@@ -339,13 +341,13 @@ public class R2rmlCheckerTest {
 		log.info("Loading r2rml file");
 		OntopOWLFactory factory = OntopOWLFactory.defaultFactory();
 
-		OntopSQLOWLAPIConfiguration config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+		configR2rml = OntopSQLOWLAPIConfiguration.defaultBuilder()
 				.r2rmlMappingFile(r2rmlFileName)
 				.ontologyFile(owlFileName)
 				.propertyFile(propertyFileName)
 				.enableTestMode()
 				.build();
-        reasonerR2rml = factory.createReasoner(config);
+        reasonerR2rml = factory.createReasoner(configR2rml);
 	}
 
 	/**
@@ -361,13 +363,13 @@ public class R2rmlCheckerTest {
 		// Creating a new instance of the reasoner
 		OntopOWLFactory factory = OntopOWLFactory.defaultFactory();
 
-		OntopSQLOWLAPIConfiguration config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+		configOBDA = OntopSQLOWLAPIConfiguration.defaultBuilder()
 				.nativeOntopMappingFile(obdaFileName)
 				.propertyFile(propertyFileName)
 				.ontologyFile(owlFileName)
 				.enableTestMode()
 				.build();
-		reasonerOBDA = factory.createReasoner(config);
+		reasonerOBDA = factory.createReasoner(configOBDA);
 	}
 
 	private int runSPARQLConceptsQuery(String description,	OWLConnection conn) throws Exception {
@@ -114,6 +114,7 @@ public class RDBMSSIRepositoryManager {
 	private final static TableDescription uriIdTable = new TableDescription("URIID",
 			ImmutableMap.of("ID", "INTEGER", 
 					        "URI", "VARCHAR(400)"), "*");
+	private final static String URIID_INSERT = uriIdTable.getINSERT("?, ?");
 	
 	final static TableDescription emptinessIndexTable = new TableDescription("NONEMPTYNESSINDEX",
 			ImmutableMap.of("TABLEID", "INTEGER", 
@@ -347,39 +348,42 @@ public class RDBMSSIRepositoryManager {
 */
 
 	public int insertData(Connection conn, Iterator<Assertion> data, int commitLimit, int batchLimit) throws SQLException {
+		return insertData(ImmutableList.of(conn), data, commitLimit, batchLimit);
+	}
+
+	/**
+	 * Bulk loading: the assertions are encoded into rows by the calling thread (which also consumes the iterator,
+	 * e.g. while parsing), while the rows are written in batches in the background, one thread per writer connection.
+	 *
+	 * The writer connections are not closed.
+	 */
+	public int insertData(ImmutableList<Connection> writerConnections, Iterator<Assertion> data, int commitLimit,
+						  int batchLimit) throws SQLException {
 		log.debug("Inserting data into DB");
 
 		// The precondition for the limit number must be greater or equal to one.
 		commitLimit = (commitLimit < 1) ? 1 : commitLimit;
 		batchLimit = (batchLimit < 1) ? 1 : batchLimit;
 
-		boolean oldAutoCommit = conn.getAutoCommit();
-		conn.setAutoCommit(false);
-
-		PreparedStatement uriidStm = conn.prepareStatement(uriIdTable.getINSERT("?, ?"));
-		Map<SemanticIndexViewID, PreparedStatement> stmMap = new HashMap<>();
-		
 		// For counting the insertion
 		int success = 0;
 		Map<IRI, Integer> failures = new HashMap<>();
 
-		int batchCount = 0;
-		int commitCount = 0;
-
-		try {
+		try (SemanticIndexBatchWriter writer = new SemanticIndexBatchWriter(writerConnections, batchLimit, commitLimit)) {
 			while (data.hasNext()) {
 				Assertion ax = data.next();
 
 				// log.debug("Inserting statement: {}", ax);
-				batchCount++;
-				commitCount++;
 
 				if (ax instanceof ClassAssertion) {
 					ClassAssertion ca = (ClassAssertion) ax; 
 					try {
-						process(conn, ca, uriidStm, stmMap);
+						process(ca, writer);
 						success++;
 					}
+					catch (SQLException e) {
+						throw e;
+					}
 					catch (Exception e) {
 						IRI iri = ca.getConcept().getIRI();
 						Integer counter = failures.get(iri);
@@ -391,9 +395,12 @@ public class RDBMSSIRepositoryManager {
 				else if (ax instanceof ObjectPropertyAssertion) {
 					ObjectPropertyAssertion opa = (ObjectPropertyAssertion)ax;
 					try {
-						process(conn, opa, uriidStm, stmMap);	
+						process(opa, writer);
 						success++;
 					}
+					catch (SQLException e) {
+						throw e;
+					}
 					catch (Exception e) {
 						IRI iri = opa.getProperty().getIRI();
 						Integer counter = failures.get(iri);
@@ -405,9 +412,12 @@ public class RDBMSSIRepositoryManager {
 				else if (ax instanceof DataPropertyAssertion)  {
 					DataPropertyAssertion dpa = (DataPropertyAssertion)ax;
 					try {
-						process(conn, dpa, uriidStm, stmMap);				
+						process(dpa, writer);
 						success++;					
 					}
+					catch (SQLException e) {
+						throw e;
+					}
 					catch (Exception e) {
 						IRI iri = dpa.getProperty().getIRI();
 						Integer counter = failures.get(iri);
@@ -416,45 +426,12 @@ public class RDBMSSIRepositoryManager {
 						failures.put(iri, counter + 1);
 					}
 				}
-
-
-				// Check if the batch count is already in the batch limit
-				if (batchCount == batchLimit) {
-					uriidStm.executeBatch();
-					uriidStm.clearBatch();
-					for (PreparedStatement stm : stmMap.values()) {
-						stm.executeBatch();
-						stm.clearBatch();
-					}
-					batchCount = 0; // reset the counter
-				}
-
-				// Check if the commit count is already in the commit limit
-				if (commitCount == commitLimit) {
-					conn.commit();
-					commitCount = 0; // reset the counter
-				}
 			}
 
-			// Execute the rest of the batch
-			uriidStm.executeBatch();
-			uriidStm.clearBatch();
-			for (PreparedStatement stm : stmMap.values()) {
-				stm.executeBatch();
-				stm.clearBatch();
-			}
-			// Commit the rest of the batch insert
-			conn.commit();
-		}
-		finally {
-			// Close all open statements
-			uriidStm.close();
-			for (PreparedStatement stm : stmMap.values()) 
-				stm.close();
+			// Writes the rest of the batches and commits
+			writer.finish();
 		}
 
-		conn.setAutoCommit(oldAutoCommit);
-
 		// Print the monitoring log
 		log.debug("Total successful insertions: " + success + ".");
 		int totalFailures = 0;
@@ -470,7 +447,7 @@ public class RDBMSSIRepositoryManager {
 	}
 
 
-	private void process(Connection conn, ObjectPropertyAssertion ax, PreparedStatement uriidStm, Map<SemanticIndexViewID, PreparedStatement> stmMap) throws SQLException {
+	private void process(ObjectPropertyAssertion ax, SemanticIndexBatchWriter writer) throws SQLException {
 
 		ObjectPropertyExpression ope0 = ax.getProperty();
 		if (ope0.isInverse()) 
@@ -498,26 +475,17 @@ public class RDBMSSIRepositoryManager {
 
 		SemanticIndexView view = views.getView(o1.getType(), o2.getType());
 		
-		PreparedStatement stm = stmMap.get(view.getId());
-		if (stm == null) {
-			stm = conn.prepareStatement(view.getINSERT());
-			stmMap.put(view.getId(), stm);
-		}
-		
-		int uri_id = getObjectConstantUriId(o1, uriidStm);
-		int uri2_id = getObjectConstantUriId(o2, uriidStm);
+		int uri_id = getObjectConstantUriId(o1, writer);
+		int uri2_id = getObjectConstantUriId(o2, writer);
 		
 		// Construct the database INSERT statements		
-		stm.setInt(1, uri_id);
-		stm.setInt(2, uri2_id);		
-		stm.setInt(3, idx);
-		stm.addBatch();
+		writer.add(view.getINSERT(), new Object[] { uri_id, uri2_id, idx });
 		
 		// Register non emptiness
 		view.addIndex(idx);
 	} 
 
-	private void process(Connection conn, DataPropertyAssertion ax, PreparedStatement uriidStm, Map<SemanticIndexViewID, PreparedStatement> stmMap) throws SQLException {
+	private void process(DataPropertyAssertion ax, SemanticIndexBatchWriter writer) throws SQLException {
 
 		// replace the property by its canonical representative
 		DataPropertyExpression dpe0 = ax.getProperty();
@@ -525,38 +493,36 @@ public class RDBMSSIRepositoryManager {
 		int idx = cacheSI.getEntry(dpe).getIndex();
 		
 		ObjectConstant subject = ax.getSubject();
-		int uri_id = getObjectConstantUriId(subject, uriidStm);
+		int uri_id = getObjectConstantUriId(subject, writer);
 
 		RDFLiteralConstant object = ax.getValue();
 
 		// ROMAN (28 June 2016): quite fragile because objectType is UNSUPPORTED for SHORT, BYTE, etc.
 		//                       a a workaround, obtain the URI ID first, without triggering an exception here
 		SemanticIndexView view =  views.getView(subject.getType(), object.getType());
-		PreparedStatement stm = stmMap.get(view.getId());
-		if (stm == null) {
-			stm = conn.prepareStatement(view.getINSERT());
-			stmMap.put(view.getId(), stm);
-		}
 
-		stm.setInt(1, uri_id);
-		
 		String value = object.getValue();
+		// URI, VAL, IDX (and LANG)
+		Object[] row = new Object[3];
+		row[0] = uri_id;
 		
 		switch (COL_TYPE.getColType(object.getType().getIRI())) {
 			case LANG_STRING:  // -3
-				stm.setString(2, value);
-				stm.setString(4, object.getType().getLanguageTag().get().getFullString());
+				row = new Object[4];
+				row[0] = uri_id;
+				row[1] = value;
+				row[3] = object.getType().getLanguageTag().get().getFullString();
 				break;  
 			case STRING:   // 1
-				stm.setString(2, value);
+				row[1] = value;
 				break;
 	        case INT:   // 3
 	            //if (value.charAt(0) == '+') // ROMAN: not needed in Java 7
 	            //    value = value.substring(1, value.length());
-	        	stm.setInt(2, Integer.parseInt(value));
+	        	row[1] = Integer.parseInt(value);
 	            break;
 	        case UNSIGNED_INT:  // 4
-	        	stm.setInt(2, Integer.parseInt(value));
+	        	row[1] = Integer.parseInt(value);
 	            break;
 	        case INTEGER:  // 2
 	        case NEGATIVE_INTEGER:   // 5
@@ -566,24 +532,23 @@ public class RDBMSSIRepositoryManager {
 	        case LONG: // 10
 	            //if (value.charAt(0) == '+')  // ROMAN: not needed in Java 7
 	            //    value = value.substring(1, value.length());
-	            stm.setLong(2, Long.parseLong(value));
+	            row[1] = Long.parseLong(value);
 	            break;
 	        case FLOAT: // 9
-				stm.setDouble(2, Float.parseFloat(value));
+				row[1] = (double) Float.parseFloat(value);
 	            break;
 			case DOUBLE: // 12
-				stm.setDouble(2, Double.parseDouble(value));
+				row[1] = Double.parseDouble(value);
 				break;
 			case DECIMAL: // 11
-				stm.setBigDecimal(2, new BigDecimal(value));
+				row[1] = new BigDecimal(value);
 				break;
 			case DATETIME_STAMP: // 15
 			case DATETIME: // 13
-				Timestamp timestamp = XsdDatatypeConverter.parseXsdDateTime(value);
-				stm.setTimestamp(2, timestamp);
+				row[1] = XsdDatatypeConverter.parseXsdDateTime(value);
 				break;
 			case BOOLEAN: // 14				
-				stm.setBoolean(2, XsdDatatypeConverter.parseXsdBoolean(value));
+				row[1] = XsdDatatypeConverter.parseXsdBoolean(value);
 				break;
 			default:
 				// UNSUPPORTED DATATYPE
@@ -591,15 +556,15 @@ public class RDBMSSIRepositoryManager {
 				return;				
 		}
 		
-		stm.setInt(3, idx);
-		stm.addBatch();
+		row[2] = idx;
+		writer.add(view.getINSERT(), row);
 		
 		// register non-emptiness
 		view.addIndex(idx);
 	}
 	
 		
-	private void process(Connection conn, ClassAssertion ax, PreparedStatement uriidStm, Map<SemanticIndexViewID, PreparedStatement> stmMap) throws SQLException {
+	private void process(ClassAssertion ax, SemanticIndexBatchWriter writer) throws SQLException {
 		
 		// replace concept by the canonical representative (which must be a concept name)
 		OClass concept0 = ax.getConcept();
@@ -609,19 +574,11 @@ public class RDBMSSIRepositoryManager {
 		ObjectConstant c1 = ax.getIndividual();
 
 		SemanticIndexView view =  views.getView(c1.getType());
-	
-		PreparedStatement stm = stmMap.get(view.getId());
-		if (stm == null) {
-			stm = conn.prepareStatement(view.getINSERT());
-			stmMap.put(view.getId(), stm);
-		}
 
-		int uri_id = getObjectConstantUriId(c1, uriidStm); 
+		int uri_id = getObjectConstantUriId(c1, writer); 
 		
 		// Construct the database INSERT statements
-		stm.setInt(1, uri_id);
-		stm.setInt(2, conceptIndex);
-		stm.addBatch();
+		writer.add(view.getINSERT(), new Object[] { uri_id, conceptIndex });
 	
 		// Register non emptiness
 		view.addIndex(conceptIndex);
@@ -632,7 +589,7 @@ public class RDBMSSIRepositoryManager {
 	// TODO: use database to get the maximum URIId
 	private int maxURIId = -1;
 	
-	private int getObjectConstantUriId(ObjectConstant c, PreparedStatement uriidStm) throws SQLException {
+	private int getObjectConstantUriId(ObjectConstant c, SemanticIndexBatchWriter writer) throws SQLException {
 		
 		// TODO (ROMAN): I am not sure this is entirely correct for blank nodes
 		String uri = (c instanceof BNode) ? ((BNode) c).getName() : ((IRIConstant) c).getIRI().getIRIString();
@@ -645,9 +602,7 @@ public class RDBMSSIRepositoryManager {
 			maxURIId++;
 			
 			// Construct the database INSERT statement
-			uriidStm.setInt(1, uri_id);
-			uriidStm.setString(2, uri);
-			uriidStm.addBatch();								
+			writer.add(URIID_INSERT, new Object[] { uri_id, uri });
 		}
 			
 		return uri_id;
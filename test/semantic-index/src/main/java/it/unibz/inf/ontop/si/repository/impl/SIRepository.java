@@ -33,6 +33,8 @@ public class SIRepository {
     private static final Logger LOG = LoggerFactory.getLogger(SIRepository.class);
     private static final String DEFAULT_USER = "sa";
     private static final String DEFAULT_PASSWORD = "";
+    // Connections writing the ABox in parallel (while the assertions are being parsed and encoded)
+    private static final int WRITER_CONNECTION_COUNT = 2;
 
     private final RDBMSSIRepositoryManager dataRepository;
     private final TermFactory termFactory;
@@ -60,8 +62,25 @@ public class SIRepository {
         return loadingConfiguration.getJdbcDriver();
     }
 
+    /**
+     * The data is written through the given connection and additional connections to the same database
+     * (closed at the end)
+     */
     public int insertData(Connection connection, Iterator<Assertion> iterator) throws SQLException {
-        return dataRepository.insertData(connection, iterator, 5000, 500);
+        ImmutableList.Builder<Connection> additionalConnectionBuilder = ImmutableList.builder();
+        try {
+            for (int i = 1; i < WRITER_CONNECTION_COUNT; i++)
+                additionalConnectionBuilder.add(openConnection());
+            ImmutableList<Connection> writerConnections = ImmutableList.<Connection>builder()
+                    .add(connection)
+                    .addAll(additionalConnectionBuilder.build())
+                    .build();
+            return dataRepository.insertData(writerConnections, iterator, 5000, 500);
+        }
+        finally {
+            for (Connection additionalConnection : additionalConnectionBuilder.build())
+                additionalConnection.close();
+        }
     }
 
     public SemanticIndexURIMap getUriMap() { return dataRepository.getUriMap(); }
@@ -69,7 +88,7 @@ public class SIRepository {
     public Connection createConnection() throws SemanticIndexException {
 
         try {
-            Connection localConnection = DriverManager.getConnection(getJdbcUrl(), getUser(), getPassword());
+            Connection localConnection = openConnection();
             // Creating the ABox repository
             dataRepository.createDBSchemaAndInsertMetadata(localConnection);
             return localConnection;
@@ -79,6 +98,10 @@ public class SIRepository {
         }
     }
 
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(getJdbcUrl(), getUser(), getPassword());
+    }
+
     public SQLPPMapping createMappings() {
 
         OntopMappingConfiguration defaultConfiguration = OntopMappingConfiguration.defaultBuilder()
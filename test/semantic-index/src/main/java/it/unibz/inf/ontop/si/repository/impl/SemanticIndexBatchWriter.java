@@ -0,0 +1,219 @@
+package it.unibz.inf.ontop.si.repository.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the rows produced by RDBMSSIRepositoryManager in JDBC batches, on one thread per writer connection,
+ * while the caller keeps on encoding assertions.
+ *
+ * The rows are partitioned among the connections batch by batch (round-robin), so that a large table
+ * does not end up on a single connection.
+ *
+ * Each connection commits after commitLimit rows (and at the end). If the loading fails or is not finished,
+ * the uncommitted rows are rolled back when closing.
+ *
+ * Not thread-safe (one encoding thread).
+ */
+class SemanticIndexBatchWriter implements AutoCloseable {
+
+	// Per writer: limits the memory used by the batches waiting to be written
+	private static final int MAX_PENDING_BATCHES_PER_WRITER = 4;
+
+	private final ImmutableList<Writer> writers;
+	private final int batchLimit;
+	private final Map<String, List<Object[]>> buffers = new HashMap<>();
+	private final Semaphore pendingBatches;
+	private final AtomicReference<SQLException> failure = new AtomicReference<>();
+	private int nextWriter = 0;
+	private boolean finished = false;
+
+	SemanticIndexBatchWriter(ImmutableList<Connection> connections, int batchLimit, int commitLimit) throws SQLException {
+		if (connections.isEmpty())
+			throw new IllegalArgumentException("At least one writer connection is required");
+
+		this.batchLimit = batchLimit;
+		ImmutableList.Builder<Writer> writerBuilder = ImmutableList.builder();
+		for (Connection connection : connections)
+			writerBuilder.add(new Writer(connection, commitLimit));
+		this.writers = writerBuilder.build();
+		this.pendingBatches = new Semaphore(MAX_PENDING_BATCHES_PER_WRITER * connections.size());
+	}
+
+	void add(String insertCommand, Object[] row) throws SQLException {
+		List<Object[]> buffer = buffers.computeIfAbsent(insertCommand, c -> new ArrayList<>(batchLimit));
+		buffer.add(row);
+		if (buffer.size() >= batchLimit) {
+			buffers.remove(insertCommand);
+			submit(insertCommand, buffer);
+		}
+	}
+
+	/**
+	 * Writes the remaining rows and commits. Blocking.
+	 */
+	void finish() throws SQLException {
+		for (Map.Entry<String, List<Object[]>> e : buffers.entrySet())
+			submit(e.getKey(), e.getValue());
+		buffers.clear();
+
+		ImmutableList<Future<?>> completions = writers.stream()
+				.map(w -> w.executor.submit(() -> {
+					w.complete();
+					return null;
+				}))
+				.collect(ImmutableCollectors.toList());
+		for (Future<?> completion : completions)
+			waitFor(completion);
+		checkFailure();
+		finished = true;
+	}
+
+	private void submit(String insertCommand, List<Object[]> rows) throws SQLException {
+		checkFailure();
+		try {
+			pendingBatches.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while loading the data", e);
+		}
+
+		Writer writer = writers.get(nextWriter);
+		nextWriter = (nextWriter + 1) % writers.size();
+		writer.executor.execute(() -> {
+			try {
+				if (failure.get() == null)
+					writer.write(insertCommand, rows);
+			} catch (SQLException e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				pendingBatches.release();
+			}
+		});
+	}
+
+	private void checkFailure() throws SQLException {
+		SQLException e = failure.get();
+		if (e != null)
+			throw e;
+	}
+
+	private static void waitFor(Future<?> future) throws SQLException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while loading the data", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException)
+				throw (SQLException) cause;
+			throw new SQLException(cause);
+		}
+	}
+
+	/**
+	 * Rolls back the uncommitted rows if not finished, and closes the prepared statements
+	 * (does not close the connections)
+	 */
+	@Override
+	public void close() throws SQLException {
+		SQLException exception = null;
+		for (Writer writer : writers) {
+			writer.executor.shutdown();
+			try {
+				writer.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			try {
+				writer.close(!finished);
+			} catch (SQLException e) {
+				exception = e;
+			}
+		}
+		if (exception != null)
+			throw exception;
+	}
+
+
+	private static class Writer {
+		private final Connection connection;
+		private final int commitLimit;
+		private final boolean oldAutoCommit;
+		private final ExecutorService executor;
+		// Only accessed by the thread of the executor
+		private final Map<String, PreparedStatement> statements = new HashMap<>();
+		private int uncommittedRows = 0;
+
+		Writer(Connection connection, int commitLimit) throws SQLException {
+			this.connection = connection;
+			this.commitLimit = commitLimit;
+			this.oldAutoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			this.executor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "ontop-si-writer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		void write(String insertCommand, List<Object[]> rows) throws SQLException {
+			PreparedStatement stm = statements.get(insertCommand);
+			if (stm == null) {
+				stm = connection.prepareStatement(insertCommand);
+				statements.put(insertCommand, stm);
+			}
+			for (Object[] row : rows) {
+				for (int i = 0; i < row.length; i++)
+					stm.setObject(i + 1, row[i]);
+				stm.addBatch();
+			}
+			stm.executeBatch();
+			stm.clearBatch();
+
+			uncommittedRows += rows.size();
+			if (uncommittedRows >= commitLimit) {
+				connection.commit();
+				uncommittedRows = 0;
+			}
+		}
+
+		void complete() throws SQLException {
+			connection.commit();
+			uncommittedRows = 0;
+		}
+
+		void close(boolean rollback) throws SQLException {
+			SQLException exception = null;
+			if (rollback) {
+				try {
+					connection.rollback();
+				} catch (SQLException e) {
+					exception = e;
+				}
+			}
+			for (PreparedStatement stm : statements.values()) {
+				try {
+					stm.close();
+				} catch (SQLException e) {
+					exception = e;
+				}
+			}
+			statements.clear();
+			connection.setAutoCommit(oldAutoCommit);
+			if (exception != null)
+				throw exception;
+		}
+	}
+}
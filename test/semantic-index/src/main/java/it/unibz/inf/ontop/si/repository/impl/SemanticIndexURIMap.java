@@ -2,22 +2,70 @@ package it.unibz.inf.ontop.si.repository.impl;
 
 import it.unibz.inf.ontop.model.term.functionsymbol.IRIDictionary;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * IRI dictionary without boxed values nor String objects, for large ABoxes.
+ *
+ * 	- the IRIs are stored in UTF-8 (with a length prefix) in large byte slabs;
+ * 	- the reverse index is an array of slab offsets indexed by the IRI id;
+ * 	- the forward index is an open-addressing hash table of ids (linear probing), the hash codes
+ * 	  of the IRIs being kept next to their offsets so that resizing does not re-read the slabs.
+ *
+ * An id is expected to be given to at most one IRI.
+ *
+ * Not thread-safe for writes (concurrent reads are fine).
+ */
 public class SemanticIndexURIMap implements IRIDictionary {
-	
-	// Semantic Index URI reference structures
-	private final HashMap<String, Integer> uriIds = new HashMap<> (100000);
-	private final HashMap <Integer, String> uriMap2 = new HashMap<> (100000);
-	
-	
+
+	private static final int SLAB_SIZE = 1 << 20;
+	private static final int INITIAL_CAPACITY = 1 << 16;
+	private static final long NO_OFFSET = -1;
+	// Empty slot of the hash table
+	private static final int NO_ID = -1;
+	private static final int UNKNOWN_ID = -2;
+
+	private final List<byte[]> slabs = new ArrayList<>();
+	private int slabPosition = SLAB_SIZE;
+
+	// Indexed by id: (slab index << 32) | position in the slab
+	private long[] offsets = new long[INITIAL_CAPACITY];
+	private int[] hashCodes = new int[INITIAL_CAPACITY];
+
+	private int[] table = createTable(INITIAL_CAPACITY * 2);
+	private int size = 0;
+
+	public SemanticIndexURIMap() {
+		Arrays.fill(offsets, NO_OFFSET);
+	}
+
 	/**
 	 * set(uri, id) is used only by RDBMSSIRepository
-	 * 
+	 *
 	 */
 	void set(String uri, int id) {
-		uriIds.put(uri, id);
-		uriMap2.put(id, uri);
+		if (id < 0)
+			throw new IllegalArgumentException("Negative IRI id: " + id);
+
+		byte[] bytes = uri.getBytes(StandardCharsets.UTF_8);
+		int hashCode = hash(bytes);
+		int slot = findSlot(bytes, hashCode);
+		int previousId = table[slot];
+		// The bytes of an IRI that is re-assigned are not copied again
+		long offset = (previousId == NO_ID) ? append(bytes) : offsets[previousId];
+		if (previousId == NO_ID)
+			size++;
+		table[slot] = id;
+
+		ensureIdCapacity(id);
+		offsets[id] = offset;
+		hashCodes[id] = hashCode;
+
+		if (size * 2 > table.length)
+			resizeTable();
 	}
 
 	/***
@@ -29,15 +77,142 @@ public class SemanticIndexURIMap implements IRIDictionary {
 	 */
 	@Override
 	public int getId(String uri) {
-		Integer index =  uriIds.get(uri);
-		if (index != null)
-			return index;
-		return -2;
+		byte[] bytes = uri.getBytes(StandardCharsets.UTF_8);
+		int id = table[findSlot(bytes, hash(bytes))];
+		return id == NO_ID ? UNKNOWN_ID : id;
 	}
 
 	@Override
 	public String getURI(Integer id) {
-		return uriMap2.get(id);
+		if (id == null || id < 0 || id >= offsets.length || offsets[id] == NO_OFFSET)
+			return null;
+		long offset = offsets[id];
+		byte[] slab = slabs.get((int) (offset >>> 32));
+		int position = (int) offset;
+		int length = readLength(slab, position);
+		return new String(slab, position + lengthPrefixSize(length), length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Number of distinct IRIs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Slot of the IRI if present, otherwise the empty slot where it would be inserted
+	 */
+	private int findSlot(byte[] bytes, int hashCode) {
+		int mask = table.length - 1;
+		for (int slot = hashCode & mask; ; slot = (slot + 1) & mask) {
+			int id = table[slot];
+			if (id == NO_ID || (hashCodes[id] == hashCode && equalsStoredIRI(id, bytes)))
+				return slot;
+		}
+	}
+
+	private boolean equalsStoredIRI(int id, byte[] bytes) {
+		long offset = offsets[id];
+		byte[] slab = slabs.get((int) (offset >>> 32));
+		int position = (int) offset;
+		int length = readLength(slab, position);
+		if (length != bytes.length)
+			return false;
+		int start = position + lengthPrefixSize(length);
+		for (int i = 0; i < length; i++) {
+			if (slab[start + i] != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private long append(byte[] bytes) {
+		int recordSize = lengthPrefixSize(bytes.length) + bytes.length;
+		if (slabPosition + recordSize > SLAB_SIZE || slabs.isEmpty()) {
+			// Very long IRIs get their own slab
+			slabs.add(new byte[Math.max(SLAB_SIZE, recordSize)]);
+			slabPosition = 0;
+		}
+		int slabIndex = slabs.size() - 1;
+		byte[] slab = slabs.get(slabIndex);
+		int position = slabPosition;
+
+		int p = writeLength(slab, position, bytes.length);
+		System.arraycopy(bytes, 0, slab, p, bytes.length);
+		// A dedicated slab is full
+		slabPosition = (recordSize > SLAB_SIZE) ? SLAB_SIZE : position + recordSize;
+
+		return ((long) slabIndex << 32) | position;
+	}
+
+	private void ensureIdCapacity(int id) {
+		if (id < offsets.length)
+			return;
+		int newLength = (int) Math.min(Integer.MAX_VALUE - 8, Math.max((long) offsets.length * 2, (long) id + 1));
+		int oldLength = offsets.length;
+		offsets = Arrays.copyOf(offsets, newLength);
+		Arrays.fill(offsets, oldLength, newLength, NO_OFFSET);
+		hashCodes = Arrays.copyOf(hashCodes, newLength);
+	}
+
+	private void resizeTable() {
+		int[] oldTable = table;
+		table = createTable(oldTable.length * 2);
+		int mask = table.length - 1;
+		for (int id : oldTable) {
+			if (id == NO_ID)
+				continue;
+			int slot = hashCodes[id] & mask;
+			while (table[slot] != NO_ID)
+				slot = (slot + 1) & mask;
+			table[slot] = id;
+		}
+	}
+
+	private static int[] createTable(int capacity) {
+		int[] table = new int[capacity];
+		Arrays.fill(table, NO_ID);
+		return table;
+	}
+
+	/**
+	 * FNV-1a, with a final mix as the low bits are used for the slots
+	 */
+	static int hash(byte[] bytes) {
+		int h = 0x811c9dc5;
+		for (byte b : bytes) {
+			h ^= b;
+			h *= 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	// Variable-length encoding of the length (7 bits per byte)
+	private static int lengthPrefixSize(int length) {
+		int size = 1;
+		while ((length >>>= 7) != 0)
+			size++;
+		return size;
+	}
+
+	private static int writeLength(byte[] slab, int position, int length) {
+		while ((length & ~0x7F) != 0) {
+			slab[position++] = (byte) ((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		slab[position++] = (byte) length;
+		return position;
+	}
+
+	private static int readLength(byte[] slab, int position) {
+		int length = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = slab[position++];
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return length;
+		}
 	}
 
 	@Override
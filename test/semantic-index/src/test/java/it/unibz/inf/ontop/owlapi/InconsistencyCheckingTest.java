@@ -20,6 +20,7 @@ package it.unibz.inf.ontop.owlapi;
  * #L%
  */
 
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.si.OntopSemanticIndexLoader;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,6 +29,7 @@ import org.semanticweb.owlapi.model.*;
 
 import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
@@ -67,8 +69,10 @@ public class InconsistencyCheckingTest {
 	}
 	
 	private void startReasoner() throws Exception {
-		Properties properties = new Properties();
+		startReasoner(new Properties());
+	}
 
+	private void startReasoner(Properties properties) throws Exception {
 		try (OntopSemanticIndexLoader siLoader = OntopSemanticIndexLoader.loadOntologyIndividuals(ontology, properties)) {
 			OntopOWLFactory ontopOWLFactory = OntopOWLFactory.defaultFactory();
 			reasoner = ontopOWLFactory.createReasoner(siLoader.getConfiguration());
@@ -146,4 +150,29 @@ public class InconsistencyCheckingTest {
 		
 		assertFalse(reasoner.isConsistent());
 	} 
+
+	@Test
+	public void testAllViolatedAxioms() throws Exception {
+
+		//Male(a), Female(a), hasMother(a,b), hasMother(a,c), hasFather(a,b)
+		//disjoint(Male, Female), disjoint(hasMother, hasFather), func(hasMother), func(hasFather)
+		manager.addAxiom(ontology, ClassAssertion(c1, a));
+		manager.addAxiom(ontology, ClassAssertion(c2, a));
+		manager.addAxiom(ontology, ObjectPropertyAssertion(r1, a, b));
+		manager.addAxiom(ontology, ObjectPropertyAssertion(r1, a, c));
+		manager.addAxiom(ontology, ObjectPropertyAssertion(r2, a, b));
+		manager.addAxiom(ontology, DisjointClasses(c1, c2));
+		manager.addAxiom(ontology, DisjointObjectProperties(r1, r2));
+		manager.addAxiom(ontology, FunctionalObjectProperty(r1));
+		manager.addAxiom(ontology, FunctionalObjectProperty(r2));
+
+		Properties properties = new Properties();
+		// several queries, several axioms per query
+		properties.setProperty(OntopSystemSettings.CONSISTENCY_CHECK_BATCH_SIZE, "2");
+		startReasoner(properties);
+
+		assertFalse(reasoner.isConsistent());
+		assertEquals(3, reasoner.getInconsistentAxioms().size());
+		assertEquals(reasoner.getInconsistentAxioms().get(0), reasoner.getInconsistentAxiom());
+	}
 }
@@ -23,6 +23,8 @@ package it.unibz.inf.ontop.rdf4j.repository;
 import java.io.File;
 import java.util.Properties;
 
+import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.rdf4j.repository.OntopRepository;
 import it.unibz.inf.ontop.si.OntopSemanticIndexLoader;
 
@@ -51,15 +53,19 @@ public class RDF4JConstructDescribeTest {
 	
 	@BeforeClass
 	public static void setUp() throws Exception {
+		REPOSITORY = createRepository(new Properties());
+	}
 
+	private static Repository createRepository(Properties properties) throws Exception {
 		SimpleDataset dataset = new SimpleDataset();
 		File dataFile = new File(DATA_FILE_PATH);
 		ValueFactory valueFactory = SimpleValueFactory.getInstance();
 		dataset.addDefaultGraph(valueFactory.createIRI(dataFile.toURI().toString()));
 
-		try(OntopSemanticIndexLoader loader = OntopSemanticIndexLoader.loadRDFGraph(dataset, new Properties())) {
-			REPOSITORY = OntopRepository.defaultRepository(loader.getConfiguration());
-			REPOSITORY.initialize();
+		try(OntopSemanticIndexLoader loader = OntopSemanticIndexLoader.loadRDFGraph(dataset, properties)) {
+			Repository repository = OntopRepository.defaultRepository(loader.getConfiguration());
+			repository.initialize();
+			return repository;
 		}
 	}
 	
@@ -293,4 +299,38 @@ public class RDF4JConstructDescribeTest {
 		}
 	}
 
+	/**
+	 * One CONSTRUCT sub-query per described resource: A and B.
+	 * The triple B p2 A is produced by both sub-queries, but only returned once.
+	 */
+	@Test
+	public void testDescribeVarSeveralBatches() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(OntopSystemSettings.DESCRIBE_BATCH_SIZE, "1");
+		Repository repository = createRepository(properties);
+		try (RepositoryConnection con = repository.getConnection()) {
+			GraphQuery graphQuery = con.prepareGraphQuery(QueryLanguage.SPARQL,
+					"DESCRIBE ?x WHERE {?x <http://www.semanticweb.org/ontologies/test#p2> ?y}");
+
+			int result = 0;
+			try (GraphQueryResult gresult = graphQuery.evaluate()) {
+				while (gresult.hasNext()) {
+					result++;
+					gresult.next();
+				}
+			}
+			Assert.assertEquals(2, result);
+		}
+		finally {
+			repository.shutDown();
+		}
+	}
+
+	@Test(expected = InvalidOntopConfigurationException.class)
+	public void testInvalidDescribeBatchSize() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(OntopSystemSettings.DESCRIBE_BATCH_SIZE, "0");
+		createRepository(properties).shutDown();
+	}
+
 }
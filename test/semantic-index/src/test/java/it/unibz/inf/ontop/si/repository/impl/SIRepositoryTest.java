@@ -0,0 +1,130 @@
+package it.unibz.inf.ontop.si.repository.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.model.term.IRIConstant;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import it.unibz.inf.ontop.si.impl.LoadingConfiguration;
+import it.unibz.inf.ontop.spec.ontology.*;
+import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bulk loading of the ABox through several writer connections
+ */
+public class SIRepositoryTest {
+
+    private static final String PREFIX = "http://example.org/";
+    // Several batches per writer connection
+    private static final int CLASS_ASSERTION_COUNT = 2_300;
+    private static final int OBJECT_PROPERTY_ASSERTION_COUNT = 1_700;
+    private static final int DATA_PROPERTY_ASSERTION_COUNT = 1_100;
+
+    private LoadingConfiguration loadingConfiguration;
+    private TermFactory termFactory;
+    private ABoxAssertionSupplier assertionSupplier;
+    private SIRepository repository;
+
+    @Before
+    public void setUp() {
+        loadingConfiguration = new LoadingConfiguration();
+        termFactory = loadingConfiguration.getTermFactory();
+        RDF rdfFactory = loadingConfiguration.getRdfFactory();
+        assertionSupplier = OntologyBuilderImpl.assertionSupplier(rdfFactory);
+
+        OntologyBuilder builder = OntologyBuilderImpl.builder(rdfFactory);
+        builder.declareClass(rdfFactory.createIRI(PREFIX + "Person"));
+        builder.declareObjectProperty(rdfFactory.createIRI(PREFIX + "knows"));
+        builder.declareDataProperty(rdfFactory.createIRI(PREFIX + "name"));
+        repository = new SIRepository(builder.build().tbox(), loadingConfiguration);
+    }
+
+    @Test
+    public void testInsertedCounts() throws Exception {
+        try (Connection connection = repository.createConnection()) {
+            int count = repository.insertData(connection, createAssertions().iterator());
+
+            assertEquals(CLASS_ASSERTION_COUNT + OBJECT_PROPERTY_ASSERTION_COUNT + DATA_PROPERTY_ASSERTION_COUNT,
+                    count);
+            assertEquals(CLASS_ASSERTION_COUNT,
+                    countRows(connection, RDBMSSIRepositoryManager.classTable.tableName));
+            assertEquals(OBJECT_PROPERTY_ASSERTION_COUNT,
+                    countRows(connection, RDBMSSIRepositoryManager.ROLE_TABLE.tableName));
+            assertEquals(DATA_PROPERTY_ASSERTION_COUNT,
+                    countRows(connection, RDBMSSIRepositoryManager.ATTRIBUTE_TABLE_MAP.get(XSD.STRING)
+                            .tableName));
+            // The given connection is still usable (and its auto-commit mode is restored)
+            assertFalse(connection.isClosed());
+            assertTrue(connection.getAutoCommit());
+        }
+    }
+
+    /**
+     * The uncommitted rows are rolled back when the loading fails
+     */
+    @Test
+    public void testRollbackOnFailure() throws Exception {
+        try (Connection connection = repository.createConnection()) {
+            Iterator<Assertion> assertions = createAssertions().iterator();
+            Iterator<Assertion> failingIterator = new Iterator<Assertion>() {
+                private int count = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Assertion next() {
+                    if (++count > CLASS_ASSERTION_COUNT)
+                        throw new IllegalStateException("Parsing error");
+                    return assertions.next();
+                }
+            };
+
+            try {
+                repository.insertData(connection, failingIterator);
+                fail("The loading should have failed");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            assertEquals(0, countRows(connection, RDBMSSIRepositoryManager.classTable.tableName));
+            assertTrue(connection.getAutoCommit());
+        }
+    }
+
+    private ImmutableList<Assertion> createAssertions() throws InconsistentOntologyException {
+        ImmutableList.Builder<Assertion> builder = ImmutableList.builder();
+        for (int i = 0; i < CLASS_ASSERTION_COUNT; i++)
+            builder.add(assertionSupplier.createClassAssertion(PREFIX + "Person", person(i)));
+        for (int i = 0; i < OBJECT_PROPERTY_ASSERTION_COUNT; i++)
+            builder.add(assertionSupplier.createObjectPropertyAssertion(PREFIX + "knows", person(i), person(i + 1)));
+        for (int i = 0; i < DATA_PROPERTY_ASSERTION_COUNT; i++)
+            builder.add(assertionSupplier.createDataPropertyAssertion(PREFIX + "name", person(i),
+                    termFactory.getRDFLiteralConstant("person " + i, XSD.STRING)));
+        return builder.build();
+    }
+
+    private IRIConstant person(int i) {
+        return termFactory.getConstantIRI(loadingConfiguration.getRdfFactory().createIRI(PREFIX + "person/" + i));
+    }
+
+    private static int countRows(Connection connection, String tableName) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
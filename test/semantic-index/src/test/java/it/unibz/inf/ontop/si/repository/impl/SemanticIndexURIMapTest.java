@@ -0,0 +1,163 @@
+package it.unibz.inf.ontop.si.repository.impl;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SemanticIndexURIMapTest {
+
+	private static final String PREFIX = "http://example.org/";
+
+	@Test
+	public void testInsertAndLookup() {
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		map.set(PREFIX + "a", 0);
+		map.set(PREFIX + "b", 1);
+
+		assertEquals(0, map.getId(PREFIX + "a"));
+		assertEquals(1, map.getId(PREFIX + "b"));
+		assertEquals(PREFIX + "a", map.getURI(0));
+		assertEquals(PREFIX + "b", map.getURI(1));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void testUnknown() {
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		assertEquals(-2, map.getId(PREFIX + "a"));
+		assertNull(map.getURI(0));
+
+		map.set(PREFIX + "a", 0);
+		assertEquals(-2, map.getId(PREFIX + "b"));
+		assertEquals(-2, map.getId(""));
+		assertNull(map.getURI(1));
+		assertNull(map.getURI(-1));
+		assertNull(map.getURI(null));
+		assertNull(map.getURI(Integer.MAX_VALUE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeId() {
+		new SemanticIndexURIMap().set(PREFIX + "a", -1);
+	}
+
+	@Test
+	public void testReassignedIRI() {
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		map.set(PREFIX + "a", 0);
+		map.set(PREFIX + "a", 5);
+
+		assertEquals(5, map.getId(PREFIX + "a"));
+		assertEquals(PREFIX + "a", map.getURI(5));
+		assertEquals(1, map.size());
+	}
+
+	/**
+	 * Beyond the initial capacities of the id arrays and of the hash table
+	 */
+	@Test
+	public void testResizing() {
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		int count = 300_000;
+		for (int i = 0; i < count; i++)
+			map.set(PREFIX + i, i);
+
+		assertEquals(count, map.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, map.getId(PREFIX + i));
+			assertEquals(PREFIX + i, map.getURI(i));
+		}
+		assertEquals(-2, map.getId(PREFIX + count));
+	}
+
+	@Test
+	public void testSparseIds() {
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		map.set(PREFIX + "a", 3);
+		map.set(PREFIX + "b", 1_000_000);
+
+		assertEquals(1_000_000, map.getId(PREFIX + "b"));
+		assertEquals(PREFIX + "b", map.getURI(1_000_000));
+		assertNull(map.getURI(999_999));
+		assertEquals(PREFIX + "a", map.getURI(3));
+	}
+
+	/**
+	 * Two IRIs with the same hash code
+	 */
+	@Test
+	public void testHashCollision() {
+		String[] collision = findHashCollision();
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		map.set(collision[0], 0);
+		assertEquals(-2, map.getId(collision[1]));
+		map.set(collision[1], 1);
+
+		assertEquals(0, map.getId(collision[0]));
+		assertEquals(1, map.getId(collision[1]));
+		assertEquals(collision[0], map.getURI(0));
+		assertEquals(collision[1], map.getURI(1));
+		assertEquals(2, map.size());
+	}
+
+	/**
+	 * Multi-byte length prefixes and IRIs larger than a slab
+	 */
+	@Test
+	public void testLongIRIs() {
+		String medium = PREFIX + Strings.repeat("m", 200);
+		String large = PREFIX + Strings.repeat("l", 100_000);
+		String huge = PREFIX + Strings.repeat("h", 3 << 20);
+
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		map.set(medium, 0);
+		map.set(huge, 1);
+		map.set(large, 2);
+		map.set(PREFIX + "a", 3);
+
+		assertEquals(medium, map.getURI(0));
+		assertEquals(huge, map.getURI(1));
+		assertEquals(large, map.getURI(2));
+		assertEquals(PREFIX + "a", map.getURI(3));
+		assertEquals(1, map.getId(huge));
+		assertEquals(2, map.getId(large));
+		assertEquals(-2, map.getId(huge + "h"));
+	}
+
+	/**
+	 * Stored in UTF-8: 2-, 3- and 4-byte sequences
+	 */
+	@Test
+	public void testNonASCIIIRIs() {
+		String[] iris = {
+				PREFIX + "\u00e9t\u00e9",
+				PREFIX + "\u6771\u4eac",
+				PREFIX + "\ud83d\ude00",
+				PREFIX + "ete"
+		};
+		SemanticIndexURIMap map = new SemanticIndexURIMap();
+		for (int i = 0; i < iris.length; i++)
+			map.set(iris[i], i);
+
+		for (int i = 0; i < iris.length; i++) {
+			assertEquals(i, map.getId(iris[i]));
+			assertEquals(iris[i], map.getURI(i));
+		}
+		assertEquals(-2, map.getId(PREFIX + "\u00e9te"));
+	}
+
+	private static String[] findHashCollision() {
+		Map<Integer, String> iris = new HashMap<>();
+		for (int i = 0; ; i++) {
+			String iri = PREFIX + i;
+			String previous = iris.put(SemanticIndexURIMap.hash(iri.getBytes(StandardCharsets.UTF_8)), iri);
+			if (previous != null)
+				return new String[] { previous, iri };
+		}
+	}
+}